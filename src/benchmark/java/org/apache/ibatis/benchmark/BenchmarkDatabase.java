@@ -0,0 +1,101 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Builds the SqlSessionFactory shared by the benchmarks, backed by an in-memory HSQLDB database.
+ */
+public final class BenchmarkDatabase {
+
+    public static final int AUTHORS = 100;
+    public static final int BLOGS = 50;
+    public static final int POSTS_PER_BLOG = 10;
+
+    private static final String CONFIG = "org/apache/ibatis/benchmark/mybatis-config.xml";
+    private static final String DDL = "org/apache/ibatis/benchmark/CreateDB.sql";
+
+    private BenchmarkDatabase() {
+        // Prevent Instantiation
+    }
+
+    public static SqlSessionFactory createSqlSessionFactory() throws IOException, SQLException {
+        SqlSessionFactory sqlSessionFactory;
+        try (Reader reader = Resources.getResourceAsReader(CONFIG)) {
+            sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+        }
+        populate(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource());
+        return sqlSessionFactory;
+    }
+
+    private static void populate(DataSource dataSource) throws IOException, SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptRunner runner = new ScriptRunner(connection);
+            runner.setAutoCommit(true);
+            runner.setLogWriter(null);
+            try (Reader reader = Resources.getResourceAsReader(DDL)) {
+                runner.runScript(reader);
+            }
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement("insert into author values (?, ?, ?, ?)")) {
+                for (int i = 1; i <= AUTHORS; i++) {
+                    ps.setInt(1, i);
+                    ps.setString(2, "author" + i);
+                    ps.setString(3, "author" + i + "@example.org");
+                    ps.setString(4, "Biography of author number " + i);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = connection.prepareStatement("insert into blog values (?, ?, ?)")) {
+                for (int i = 1; i <= BLOGS; i++) {
+                    ps.setInt(1, i);
+                    ps.setString(2, "Blog " + i);
+                    ps.setInt(3, (i % AUTHORS) + 1);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = connection.prepareStatement("insert into post values (?, ?, ?, ?)")) {
+                int id = 1;
+                for (int blog = 1; blog <= BLOGS; blog++) {
+                    for (int i = 0; i < POSTS_PER_BLOG; i++) {
+                        ps.setInt(1, id);
+                        ps.setInt(2, blog);
+                        ps.setString(3, "Post " + id);
+                        ps.setString(4, "Body of post " + id + " in blog " + blog);
+                        ps.addBatch();
+                        id++;
+                    }
+                }
+                ps.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.TinyLfuCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures cache hits on a bare PerpetualCache, on the decorator chain CacheBuilder creates for {@code <cache/>}
+ * and through CachingExecutor via a mapper whose namespace is cached. The namespace cache is measured with the LRU
+ * and the TinyLFU eviction policies, from one thread and from four threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBenchmark {
+
+    private static final int KEYS = 1000;
+
+    @Param({"LRU", "TINYLFU"})
+    public String eviction;
+
+    private SqlSessionFactory sqlSessionFactory;
+    private Cache perpetualCache;
+    private Cache namespaceCache;
+    private CacheKey[] keys;
+
+    @Setup
+    public void setup() throws Exception {
+        sqlSessionFactory = BenchmarkDatabase.createSqlSessionFactory();
+        perpetualCache = new PerpetualCache("perpetual");
+        namespaceCache = new CacheBuilder("namespace")
+            .addDecorator("TINYLFU".equals(eviction) ? TinyLfuCache.class : LruCache.class)
+            .build();
+        keys = new CacheKey[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            CacheKey key = new CacheKey();
+            key.update("org.apache.ibatis.benchmark.BlogMapper.selectAuthor");
+            key.update(0);
+            key.update(Integer.MAX_VALUE);
+            key.update("select id, username, email, bio from author where id = ?");
+            key.update(i);
+            key.update("benchmark");
+            keys[i] = key;
+            perpetualCache.putObject(key, Collections.singletonList(i));
+            namespaceCache.putObject(key, Collections.singletonList(i));
+        }
+        // warm the second level cache, entries are only visible to other sessions after commit
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            CachedAuthorMapper mapper = sqlSession.getMapper(CachedAuthorMapper.class);
+            for (int i = 1; i <= BenchmarkDatabase.AUTHORS; i++) {
+                mapper.selectAuthor(i);
+            }
+            sqlSession.commit();
+        }
+    }
+
+    @Benchmark
+    public Object perpetualCacheHit() {
+        return perpetualCache.getObject(nextKey());
+    }
+
+    @Benchmark
+    public Object namespaceCacheHit() {
+        return namespaceCache.getObject(nextKey());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object namespaceCacheHitContended() {
+        return namespaceCache.getObject(nextKey());
+    }
+
+    @Benchmark
+    public Author secondLevelCacheHit() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            return sqlSession.getMapper(CachedAuthorMapper.class)
+                .selectAuthor(ThreadLocalRandom.current().nextInt(BenchmarkDatabase.AUTHORS) + 1);
+        }
+    }
+
+    private CacheKey nextKey() {
+        return keys[ThreadLocalRandom.current().nextInt(KEYS)];
+    }
+
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures SqlSource.getBoundSql for a dynamic statement (where/if/foreach) against a static one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DynamicSqlBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int ids;
+
+    private MappedStatement dynamicStatement;
+    private MappedStatement staticStatement;
+    private ParamMap<Object> parameter;
+
+    @Setup
+    public void setup() throws Exception {
+        Configuration configuration = BenchmarkDatabase.createSqlSessionFactory().getConfiguration();
+        dynamicStatement = configuration.getMappedStatement("org.apache.ibatis.benchmark.BlogMapper.findAuthors");
+        staticStatement = configuration.getMappedStatement("org.apache.ibatis.benchmark.BlogMapper.selectAuthor");
+        List<Integer> idList = new ArrayList<>();
+        for (int i = 1; i <= ids; i++) {
+            idList.add(i);
+        }
+        parameter = new ParamMap<>();
+        parameter.put("username", "author%");
+        parameter.put("ids", idList);
+    }
+
+    @Benchmark
+    public BoundSql dynamicSql() {
+        return dynamicStatement.getBoundSql(parameter);
+    }
+
+    @Benchmark
+    public BoundSql staticSql() {
+        return staticStatement.getBoundSql(1);
+    }
+
+}
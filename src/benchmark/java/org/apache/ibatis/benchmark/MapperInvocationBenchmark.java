@@ -0,0 +1,104 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single-row select through the SqlSession API and through the MapperProxy, each in its own session.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperInvocationBenchmark {
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Setup
+    public void setup() throws Exception {
+        sqlSessionFactory = BenchmarkDatabase.createSqlSessionFactory();
+    }
+
+    @Benchmark
+    public Author selectOneWithSqlSession() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            return sqlSession.selectOne("org.apache.ibatis.benchmark.BlogMapper.selectAuthor", nextAuthorId());
+        }
+    }
+
+    @Benchmark
+    public List<Author> selectListWithSqlSession() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            return sqlSession.selectList("org.apache.ibatis.benchmark.BlogMapper.selectAuthor", nextAuthorId());
+        }
+    }
+
+    @Benchmark
+    public Author selectOneWithMapper() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            return sqlSession.getMapper(BlogMapper.class).selectAuthor(nextAuthorId());
+        }
+    }
+
+    @Benchmark
+    public Author selectOneWithMapperInOpenSession(SessionState state) {
+        // clear the local cache so that every call really reaches the database
+        state.sqlSession.clearCache();
+        return state.mapper.selectAuthor(nextAuthorId());
+    }
+
+    private static int nextAuthorId() {
+        return ThreadLocalRandom.current().nextInt(BenchmarkDatabase.AUTHORS) + 1;
+    }
+
+    @State(Scope.Thread)
+    public static class SessionState {
+
+        SqlSession sqlSession;
+        BlogMapper mapper;
+
+        @Setup
+        public void setup(MapperInvocationBenchmark benchmark) {
+            sqlSession = benchmark.sqlSessionFactory.openSession();
+            mapper = sqlSession.getMapper(BlogMapper.class);
+        }
+
+        @TearDown
+        public void tearDown() {
+            sqlSession.close();
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures property reads and writes through MetaObject, with reflective and with lambda based invokers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetaObjectBenchmark {
+
+    @Param({"false", "true"})
+    public boolean lambdaInvokers;
+
+    private MetaObject metaObject;
+
+    @Setup
+    public void setup() {
+        DefaultReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+        reflectorFactory.setLambdaInvokersEnabled(lambdaInvokers);
+        Blog blog = new Blog();
+        blog.setAuthor(new Author());
+        metaObject = MetaObject.forObject(blog, new DefaultObjectFactory(), new DefaultObjectWrapperFactory(), reflectorFactory);
+    }
+
+    @Benchmark
+    public Object getProperty() {
+        return metaObject.getValue("title");
+    }
+
+    @Benchmark
+    public void setProperty() {
+        metaObject.setValue("title", "benchmark");
+    }
+
+    @Benchmark
+    public Object getNestedProperty() {
+        return metaObject.getValue("author.username");
+    }
+
+    @Benchmark
+    public void setNestedProperty() {
+        metaObject.setValue("author.username", "benchmark");
+    }
+
+}
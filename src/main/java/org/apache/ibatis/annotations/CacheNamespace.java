@@ -18,6 +18,8 @@ package org.apache.ibatis.annotations;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.serializer.JdkSerializer;
+import org.apache.ibatis.cache.serializer.Serializer;
 
 import java.lang.annotation.*;
 
@@ -67,6 +69,23 @@ public @interface CacheNamespace {
      */
     long flushInterval() default 0;
 
+    /**
+     * Returns the time in milliseconds after which each entry expires.
+     *
+     * @return the time to live of an entry, 0 if entries do not expire
+     * @since 3.5.5
+     */
+    long timeToLive() default 0;
+
+    /**
+     * Returns the time in milliseconds after which the next read of an entry misses once so that it is reloaded,
+     * while other readers keep getting the current value.
+     *
+     * @return the refresh interval of an entry, 0 if entries are not refreshed
+     * @since 3.5.5
+     */
+    long refreshAfterWrite() default 0;
+
     /**
      * Return the cache size.
      *
@@ -81,6 +100,22 @@ public @interface CacheNamespace {
      */
     boolean readWrite() default true;
 
+    /**
+     * Returns the serializer that makes the copies of a read/write cache.
+     *
+     * @return the serializer type
+     * @since 3.5.5
+     */
+    Class<? extends Serializer> serializer() default JdkSerializer.class;
+
+    /**
+     * Returns the size in bytes from which the serialized objects of a read/write cache are compressed.
+     *
+     * @return the compression threshold, 0 if objects are not compressed
+     * @since 3.5.5
+     */
+    int compressionThreshold() default 0;
+
     /**
      * Returns whether block the cache at request time or not.
      *
@@ -88,6 +123,15 @@ public @interface CacheNamespace {
      */
     boolean blocking() default false;
 
+    /**
+     * Returns whether writes invalidate only the cached entries read from the tables they write, instead of clearing
+     * the cache.
+     *
+     * @return {@code true} to invalidate entries by table
+     * @since 3.5.5
+     */
+    boolean dependencyTracking() default false;
+
     /**
      * Returns property values for a implementation object.
      *
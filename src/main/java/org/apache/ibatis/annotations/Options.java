@@ -88,6 +88,28 @@ public @interface Options {
      */
     int fetchSize() default -1;
 
+    /**
+     * Returns the number of rows a {@link org.apache.ibatis.cursor.Cursor} reads and maps ahead on a background thread.
+     * <p>
+     * A value of {@code 0} or less means rows are fetched on the thread that iterates the cursor.
+     * </p>
+     *
+     * @return the fetch ahead size
+     * @since 3.5.5
+     */
+    int fetchAhead() default 0;
+
+    /**
+     * Returns the comma separated tables the statement reads or writes, for caches that track dependencies.
+     * <p>
+     * When empty, the tables are inferred from the SQL of the statement.
+     * </p>
+     *
+     * @return the tables
+     * @since 3.5.5
+     */
+    String tables() default "";
+
     /**
      * Returns the statement timeout.
      *
@@ -0,0 +1,70 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides the executor that runs asynchronous mapper methods when none is configured.
+ *
+ * @since 3.5.5
+ */
+public final class AsyncExecutors {
+
+    private AsyncExecutors() {
+        // Prevent Instantiation of Static Class
+    }
+
+    /**
+     * Returns the shared default executor: a {@link VirtualThreadExecutor} when the JDK supports virtual threads,
+     * otherwise an unbounded pool of daemon threads that are released after 60 seconds of inactivity.
+     * JDBC calls block, so a bounded pool such as the common fork join pool is not used.
+     *
+     * @return the default executor
+     */
+    public static Executor defaultExecutor() {
+        return DefaultExecutorHolder.INSTANCE;
+    }
+
+    static ExecutorService newDaemonThreadPool() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "mybatis-async-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static class DefaultExecutorHolder {
+        private static final Executor INSTANCE = newDefaultExecutor();
+
+        private static Executor newDefaultExecutor() {
+            if (VirtualThreadExecutor.isSupported()) {
+                try {
+                    return new VirtualThreadExecutor();
+                } catch (RuntimeException e) {
+                    // fall back to platform threads
+                }
+            }
+            return newDaemonThreadPool();
+        }
+    }
+}
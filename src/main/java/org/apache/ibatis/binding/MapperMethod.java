@@ -18,6 +18,7 @@ package org.apache.ibatis.binding;
 import org.apache.ibatis.annotations.Flush;
 import org.apache.ibatis.annotations.MapKey;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.defaults.CursorPublisher;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.StatementType;
@@ -28,15 +29,20 @@ import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
 
 /**
  * @author Clinton Begin
@@ -54,6 +60,16 @@ public class MapperMethod {
         this.method = new MethodSignature(config, mapperInterface, method);
     }
 
+    /**
+     * Returns whether the method returns a future and must be executed asynchronously.
+     *
+     * @return {@code true} if the method returns a future
+     * @since 3.5.5
+     */
+    public boolean isAsync() {
+        return method.returnsFuture();
+    }
+
     public Object execute(SqlSession sqlSession, Object[] args) {
         Object result;
         switch (command.getType()) {
@@ -82,6 +98,8 @@ public class MapperMethod {
                     result = executeForMap(sqlSession, args);
                 } else if (method.returnsCursor()) {
                     result = executeForCursor(sqlSession, args);
+                } else if (method.returnsPublisher()) {
+                    result = executeForPublisher(sqlSession, args);
                 } else {
                     Object param = method.convertArgsToSqlCommandParam(args);
                     result = sqlSession.selectOne(command.getName(), param);
@@ -169,6 +187,15 @@ public class MapperMethod {
         return result;
     }
 
+    private <T> Object executeForPublisher(SqlSession sqlSession, Object[] args) {
+        Object param = method.convertArgsToSqlCommandParam(args);
+        RowBounds rowBounds = method.hasRowBounds() ? method.extractRowBounds(args) : RowBounds.DEFAULT;
+        Configuration configuration = sqlSession.getConfiguration();
+        // the publisher outlives this call, every subscription opens its own session
+        return new CursorPublisher<T>(new DefaultSqlSessionFactory(configuration), command.getName(), param, rowBounds,
+            configuration.getAsyncExecutor());
+    }
+
     private <E> Object convertToDeclaredCollection(Configuration config, List<E> list) {
         Object collection = config.getObjectFactory().create(method.getReturnType());
         MetaObject metaObject = config.newMetaObject(collection);
@@ -274,11 +301,15 @@ public class MapperMethod {
 
     public static class MethodSignature {
 
+        private static final String PUBLISHER_CLASS_NAME = "org.reactivestreams.Publisher";
+
         private final boolean returnsMany;
         private final boolean returnsMap;
         private final boolean returnsVoid;
         private final boolean returnsCursor;
+        private final boolean returnsPublisher;
         private final boolean returnsOptional;
+        private final boolean returnsFuture;
         private final Class<?> returnType;
         private final String mapKey;
         private final Integer resultHandlerIndex;
@@ -287,24 +318,71 @@ public class MapperMethod {
 
         public MethodSignature(Configuration configuration, Class<?> mapperInterface, Method method) {
             Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, mapperInterface);
-            if (resolvedReturnType instanceof Class<?>) {
-                this.returnType = (Class<?>) resolvedReturnType;
-            } else if (resolvedReturnType instanceof ParameterizedType) {
-                this.returnType = (Class<?>) ((ParameterizedType) resolvedReturnType).getRawType();
+            Class<?> rawReturnType = typeToClass(resolvedReturnType, method.getReturnType());
+            this.returnsFuture = isFutureType(rawReturnType);
+            if (this.returnsFuture) {
+                // the result of the statement is the value of the future
+                Type valueType = resolvedReturnType instanceof ParameterizedType
+                    ? ((ParameterizedType) resolvedReturnType).getActualTypeArguments()[0] : Object.class;
+                this.returnType = typeToClass(valueType, Object.class);
+                if (Cursor.class.equals(this.returnType)) {
+                    throw new BindingException("Mapper method '" + mapperInterface.getName() + "." + method.getName()
+                        + "' cannot return a Cursor asynchronously because the session is closed when the future completes.");
+                }
             } else {
-                this.returnType = method.getReturnType();
+                this.returnType = rawReturnType;
             }
-            this.returnsVoid = void.class.equals(this.returnType);
+            this.returnsVoid = void.class.equals(this.returnType) || (this.returnsFuture && Void.class.equals(this.returnType));
             this.returnsMany = configuration.getObjectFactory().isCollection(this.returnType) || this.returnType.isArray();
             this.returnsCursor = Cursor.class.equals(this.returnType);
+            this.returnsPublisher = isPublisherType(this.returnType);
+            if (this.returnsPublisher && this.returnsFuture) {
+                throw new BindingException("Mapper method '" + mapperInterface.getName() + "." + method.getName()
+                    + "' cannot return a Publisher inside a future, return the Publisher directly.");
+            }
             this.returnsOptional = Optional.class.equals(this.returnType);
-            this.mapKey = getMapKey(method);
+            this.mapKey = getMapKey(method, this.returnsFuture ? this.returnType : method.getReturnType());
             this.returnsMap = this.mapKey != null;
             this.rowBoundsIndex = getUniqueParamIndex(method, RowBounds.class);
             this.resultHandlerIndex = getUniqueParamIndex(method, ResultHandler.class);
             this.paramNameResolver = new ParamNameResolver(configuration, method);
         }
 
+        /**
+         * Returns whether a mapper method returning the type runs asynchronously, its statement result being the value
+         * of the future.
+         *
+         * @param type the raw return type
+         * @return {@code true} for {@link CompletableFuture}, {@link CompletionStage} and {@link Future}
+         * @since 3.5.5
+         */
+        public static boolean isFutureType(Class<?> type) {
+            return CompletableFuture.class.equals(type) || CompletionStage.class.equals(type) || Future.class.equals(type);
+        }
+
+        /**
+         * Returns whether the type is a Reactive Streams {@code org.reactivestreams.Publisher}. Reactive Streams is an
+         * optional dependency, so the type is matched by name.
+         *
+         * @param type the raw return type
+         * @return {@code true} for {@code org.reactivestreams.Publisher}
+         * @since 3.5.5
+         */
+        public static boolean isPublisherType(Class<?> type) {
+            return PUBLISHER_CLASS_NAME.equals(type.getName());
+        }
+
+        private static Class<?> typeToClass(Type type, Class<?> defaultClass) {
+            if (type instanceof Class<?>) {
+                return (Class<?>) type;
+            } else if (type instanceof ParameterizedType) {
+                return (Class<?>) ((ParameterizedType) type).getRawType();
+            } else if (type instanceof WildcardType) {
+                return typeToClass(((WildcardType) type).getUpperBounds()[0], defaultClass);
+            }
+            return defaultClass;
+        }
+
         public Object convertArgsToSqlCommandParam(Object[] args) {
             return paramNameResolver.getNamedParams(args);
         }
@@ -345,6 +423,27 @@ public class MapperMethod {
             return returnsCursor;
         }
 
+        /**
+         * Returns whether the method returns a Reactive Streams {@code org.reactivestreams.Publisher}.
+         *
+         * @return {@code true} if the rows are published through a {@link CursorPublisher}
+         * @since 3.5.5
+         */
+        public boolean returnsPublisher() {
+            return returnsPublisher;
+        }
+
+        /**
+         * Returns whether the method returns a {@link CompletableFuture}, {@link CompletionStage} or {@link Future}.
+         * In that case {@link #getReturnType()} is the type of the value of the future.
+         *
+         * @return {@code true} if the statement is executed asynchronously
+         * @since 3.5.5
+         */
+        public boolean returnsFuture() {
+            return returnsFuture;
+        }
+
         /**
          * return whether return type is {@code java.util.Optional}.
          *
@@ -374,9 +473,9 @@ public class MapperMethod {
             return mapKey;
         }
 
-        private String getMapKey(Method method) {
+        private String getMapKey(Method method, Class<?> returnType) {
             String mapKey = null;
-            if (Map.class.isAssignableFrom(method.getReturnType())) {
+            if (Map.class.isAssignableFrom(returnType)) {
                 final MapKey mapKeyAnnotation = method.getAnnotation(MapKey.class);
                 if (mapKeyAnnotation != null) {
                     mapKey = mapKeyAnnotation.value();
@@ -16,7 +16,10 @@
 package org.apache.ibatis.binding;
 
 import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
 
 import java.io.Serializable;
 import java.lang.invoke.MethodHandle;
@@ -28,6 +31,7 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Clinton Begin
@@ -104,7 +108,10 @@ public class MapperProxy<T> implements InvocationHandler, Serializable {
                         throw new RuntimeException(e);
                     }
                 } else {
-                    return new PlainMethodInvoker(new MapperMethod(mapperInterface, method, sqlSession.getConfiguration()));
+                    MapperMethod mapperMethod = new MapperMethod(mapperInterface, method, sqlSession.getConfiguration());
+                    return mapperMethod.isAsync()
+                        ? new AsyncMethodInvoker(mapperMethod, sqlSession.getConfiguration())
+                        : new PlainMethodInvoker(mapperMethod);
                 }
             });
         } catch (RuntimeException re) {
@@ -145,6 +152,32 @@ public class MapperProxy<T> implements InvocationHandler, Serializable {
         }
     }
 
+    /**
+     * Executes methods returning a future on the configured async executor, each call in its own session
+     * that is committed when the statement succeeds and rolled back otherwise.
+     */
+    private static class AsyncMethodInvoker implements MapperMethodInvoker {
+        private final MapperMethod mapperMethod;
+        private final SqlSessionFactory sqlSessionFactory;
+
+        public AsyncMethodInvoker(MapperMethod mapperMethod, Configuration configuration) {
+            super();
+            this.mapperMethod = mapperMethod;
+            this.sqlSessionFactory = new DefaultSqlSessionFactory(configuration);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args, SqlSession sqlSession) throws Throwable {
+            return CompletableFuture.supplyAsync(() -> {
+                try (SqlSession asyncSqlSession = sqlSessionFactory.openSession()) {
+                    Object result = mapperMethod.execute(asyncSqlSession, args);
+                    asyncSqlSession.commit();
+                    return result;
+                }
+            }, sqlSession.getConfiguration().getAsyncExecutor());
+        }
+    }
+
     private static class DefaultMethodInvoker implements MapperMethodInvoker {
         private final MethodHandle methodHandle;
 
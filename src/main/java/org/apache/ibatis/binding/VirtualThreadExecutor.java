@@ -0,0 +1,74 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * An {@link Executor} that starts a new virtual thread for each task.
+ * <p>
+ * Virtual threads are only available on JDKs that provide {@code Executors.newVirtualThreadPerTaskExecutor()} as a
+ * final API, or as a preview API enabled with {@code --enable-preview}; use {@link #isSupported()} to check before
+ * creating an instance.
+ *
+ * @since 3.5.5
+ */
+public class VirtualThreadExecutor implements Executor {
+
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method method;
+        try {
+            method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            // the method exists but fails as a preview API that is not enabled, e.g. on JDK 19 and 20
+            ((ExecutorService) method.invoke(null)).shutdown();
+        } catch (Exception | LinkageError e) {
+            method = null;
+        }
+        NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = method;
+    }
+
+    private final ExecutorService delegate;
+
+    public VirtualThreadExecutor() {
+        if (!isSupported()) {
+            throw new BindingException("Virtual threads are not supported by this JDK (" + System.getProperty("java.version") + ").");
+        }
+        try {
+            this.delegate = (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new BindingException("Error creating a virtual thread executor. Cause: " + e, e);
+        }
+    }
+
+    /**
+     * Returns whether the running JDK supports virtual threads, i.e. whether a virtual thread executor could be created.
+     *
+     * @return {@code true} if virtual threads are supported
+     */
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(command);
+    }
+}
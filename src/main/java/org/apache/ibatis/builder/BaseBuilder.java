@@ -81,6 +81,17 @@ public abstract class BaseBuilder {
         return value == null ? defaultValue : Integer.valueOf(value);
     }
 
+    /**
+     * 同上
+     *
+     * @param value        值
+     * @param defaultValue 默认值
+     * @return
+     */
+    protected Long longValueOf(String value, Long defaultValue) {
+        return value == null ? defaultValue : Long.valueOf(value);
+    }
+
     /**
      * 同上
      *
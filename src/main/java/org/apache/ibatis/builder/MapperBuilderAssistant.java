@@ -16,8 +16,10 @@
 package org.apache.ibatis.builder;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.SqlTables;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.serializer.Serializer;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.mapping.*;
@@ -109,13 +111,50 @@ public class MapperBuilderAssistant extends BaseBuilder {
                              boolean readWrite,
                              boolean blocking,
                              Properties props) {
+        return useNewCache(typeClass, evictionClass, flushInterval, null, null, size, readWrite, null, null, blocking, props);
+    }
+
+    public Cache useNewCache(Class<? extends Cache> typeClass,
+                             Class<? extends Cache> evictionClass,
+                             Long flushInterval,
+                             Long timeToLive,
+                             Long refreshAfterWrite,
+                             Integer size,
+                             boolean readWrite,
+                             Class<? extends Serializer> serializerClass,
+                             Integer compressionThreshold,
+                             boolean blocking,
+                             Properties props) {
+        return useNewCache(typeClass, evictionClass, flushInterval, timeToLive, refreshAfterWrite, size, readWrite,
+            serializerClass, compressionThreshold, blocking, false, props);
+    }
+
+    public Cache useNewCache(Class<? extends Cache> typeClass,
+                             Class<? extends Cache> evictionClass,
+                             Long flushInterval,
+                             Long timeToLive,
+                             Long refreshAfterWrite,
+                             Integer size,
+                             boolean readWrite,
+                             Class<? extends Serializer> serializerClass,
+                             Integer compressionThreshold,
+                             boolean blocking,
+                             boolean dependencyTracking,
+                             Properties props) {
         Cache cache = new CacheBuilder(currentNamespace)
             .implementation(valueOrDefault(typeClass, PerpetualCache.class))
             .addDecorator(valueOrDefault(evictionClass, LruCache.class))
             .clearInterval(flushInterval)
+            .timeToLive(timeToLive)
+            .refreshAfterWrite(refreshAfterWrite)
             .size(size)
             .readWrite(readWrite)
+            .serializer(serializerClass)
+            .compressionThreshold(compressionThreshold)
             .blocking(blocking)
+            .dependencyTracking(dependencyTracking)
+            .weightBudget(configuration.getCacheWeightBudget())
+            .metricsRegistry(configuration.isCacheMetricsEnabled() ? configuration.getCacheMetricsRegistry() : null)
             .properties(props)
             .build();
         configuration.addCache(cache);
@@ -242,7 +281,9 @@ public class MapperBuilderAssistant extends BaseBuilder {
         String keyColumn,
         String databaseId,
         LanguageDriver lang,
-        String resultSets) {
+        String resultSets,
+        Integer fetchAhead,
+        String tables) {
 
         if (unresolvedCacheRef) {
             throw new IncompleteElementException("Cache-ref not yet resolved");
@@ -254,6 +295,8 @@ public class MapperBuilderAssistant extends BaseBuilder {
         MappedStatement.Builder statementBuilder = new MappedStatement.Builder(configuration, id, sqlSource, sqlCommandType)
             .resource(resource)
             .fetchSize(fetchSize)
+            .fetchAhead(fetchAhead)
+            .tables(SqlTables.parseDeclared(tables))
             .timeout(timeout)
             .statementType(statementType)
             .keyGenerator(keyGenerator)
@@ -279,6 +322,63 @@ public class MapperBuilderAssistant extends BaseBuilder {
         return statement;
     }
 
+    public MappedStatement addMappedStatement(
+        String id,
+        SqlSource sqlSource,
+        StatementType statementType,
+        SqlCommandType sqlCommandType,
+        Integer fetchSize,
+        Integer timeout,
+        String parameterMap,
+        Class<?> parameterType,
+        String resultMap,
+        Class<?> resultType,
+        ResultSetType resultSetType,
+        boolean flushCache,
+        boolean useCache,
+        boolean resultOrdered,
+        KeyGenerator keyGenerator,
+        String keyProperty,
+        String keyColumn,
+        String databaseId,
+        LanguageDriver lang,
+        String resultSets,
+        Integer fetchAhead) {
+        return addMappedStatement(
+            id, sqlSource, statementType, sqlCommandType, fetchSize, timeout,
+            parameterMap, parameterType, resultMap, resultType, resultSetType,
+            flushCache, useCache, resultOrdered, keyGenerator, keyProperty,
+            keyColumn, databaseId, lang, resultSets, fetchAhead, null);
+    }
+
+    public MappedStatement addMappedStatement(
+        String id,
+        SqlSource sqlSource,
+        StatementType statementType,
+        SqlCommandType sqlCommandType,
+        Integer fetchSize,
+        Integer timeout,
+        String parameterMap,
+        Class<?> parameterType,
+        String resultMap,
+        Class<?> resultType,
+        ResultSetType resultSetType,
+        boolean flushCache,
+        boolean useCache,
+        boolean resultOrdered,
+        KeyGenerator keyGenerator,
+        String keyProperty,
+        String keyColumn,
+        String databaseId,
+        LanguageDriver lang,
+        String resultSets) {
+        return addMappedStatement(
+            id, sqlSource, statementType, sqlCommandType, fetchSize, timeout,
+            parameterMap, parameterType, resultMap, resultType, resultSetType,
+            flushCache, useCache, resultOrdered, keyGenerator, keyProperty,
+            keyColumn, databaseId, lang, resultSets, null);
+    }
+
     /**
      * Backward compatibility signature 'addMappedStatement'.
      *
@@ -19,6 +19,7 @@ import org.apache.ibatis.annotations.*;
 import org.apache.ibatis.annotations.ResultMap;
 import org.apache.ibatis.annotations.Options.FlushCachePolicy;
 import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.binding.MapperMethod.MethodSignature;
 import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.builder.CacheRefResolver;
@@ -160,8 +161,11 @@ public class MapperAnnotationBuilder {
         if (cacheDomain != null) {
             Integer size = cacheDomain.size() == 0 ? null : cacheDomain.size();
             Long flushInterval = cacheDomain.flushInterval() == 0 ? null : cacheDomain.flushInterval();
+            Long timeToLive = cacheDomain.timeToLive() == 0 ? null : cacheDomain.timeToLive();
+            Long refreshAfterWrite = cacheDomain.refreshAfterWrite() == 0 ? null : cacheDomain.refreshAfterWrite();
+            Integer compressionThreshold = cacheDomain.compressionThreshold() == 0 ? null : cacheDomain.compressionThreshold();
             Properties props = convertToProperties(cacheDomain.properties());
-            assistant.useNewCache(cacheDomain.implementation(), cacheDomain.eviction(), flushInterval, size, cacheDomain.readWrite(), cacheDomain.blocking(), props);
+            assistant.useNewCache(cacheDomain.implementation(), cacheDomain.eviction(), flushInterval, timeToLive, refreshAfterWrite, size, cacheDomain.readWrite(), cacheDomain.serializer(), compressionThreshold, cacheDomain.blocking(), cacheDomain.dependencyTracking(), props);
         }
     }
 
@@ -275,6 +279,7 @@ public class MapperAnnotationBuilder {
             Options options = method.getAnnotation(Options.class);
             final String mappedStatementId = type.getName() + "." + method.getName();
             Integer fetchSize = null;
+            Integer fetchAhead = null;
             Integer timeout = null;
             StatementType statementType = StatementType.PREPARED;
             ResultSetType resultSetType = configuration.getDefaultResultSetType();
@@ -311,6 +316,7 @@ public class MapperAnnotationBuilder {
                 }
                 useCache = options.useCache();
                 fetchSize = options.fetchSize() > -1 || options.fetchSize() == Integer.MIN_VALUE ? options.fetchSize() : null; //issue #348
+                fetchAhead = options.fetchAhead() > 0 ? options.fetchAhead() : null;
                 timeout = options.timeout() > -1 ? options.timeout() : null;
                 statementType = options.statementType();
                 if (options.resultSetType() != ResultSetType.DEFAULT) {
@@ -352,7 +358,9 @@ public class MapperAnnotationBuilder {
                 null,
                 languageDriver,
                 // ResultSets
-                options != null ? nullOrEmpty(options.resultSets()) : null);
+                options != null ? nullOrEmpty(options.resultSets()) : null,
+                fetchAhead,
+                options != null ? nullOrEmpty(options.tables()) : null);
         }
     }
 
@@ -384,6 +392,14 @@ public class MapperAnnotationBuilder {
     private Class<?> getReturnType(Method method) {
         Class<?> returnType = method.getReturnType();
         Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, type);
+        if (resolvedReturnType instanceof ParameterizedType && MethodSignature.isFutureType((Class<?>) ((ParameterizedType) resolvedReturnType).getRawType())) {
+            // the value of a future is mapped like a synchronous return type
+            resolvedReturnType = ((ParameterizedType) resolvedReturnType).getActualTypeArguments()[0];
+            if (Void.class.equals(resolvedReturnType)) {
+                resolvedReturnType = void.class;
+            }
+            returnType = Object.class;
+        }
         if (resolvedReturnType instanceof Class) {
             returnType = (Class<?>) resolvedReturnType;
             if (returnType.isArray()) {
@@ -399,7 +415,8 @@ public class MapperAnnotationBuilder {
         } else if (resolvedReturnType instanceof ParameterizedType) {
             ParameterizedType parameterizedType = (ParameterizedType) resolvedReturnType;
             Class<?> rawType = (Class<?>) parameterizedType.getRawType();
-            if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType)) {
+            if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType)
+                || MethodSignature.isPublisherType(rawType)) {
                 Type[] actualTypeArguments = parameterizedType.getActualTypeArguments();
                 if (actualTypeArguments != null && actualTypeArguments.length == 1) {
                     Type returnTypeParameter = actualTypeArguments[0];
@@ -17,7 +17,10 @@ package org.apache.ibatis.builder.xml;
 
 import org.apache.ibatis.builder.BaseBuilder;
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.cache.metrics.CacheMetricsFactory;
+import org.apache.ibatis.cache.coherence.InvalidationTransport;
 import org.apache.ibatis.datasource.DataSourceFactory;
+import org.apache.ibatis.executor.BatchFlushListener;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.io.Resources;
@@ -41,6 +44,7 @@ import javax.sql.DataSource;
 import java.io.InputStream;
 import java.io.Reader;
 import java.util.Properties;
+import java.util.concurrent.Executor;
 
 /**
  * 主要解析mybatis-config.xml文件
@@ -118,6 +122,8 @@ public class XMLConfigBuilder extends BaseBuilder {
             objectWrapperFactoryElement(root.evalNode("objectWrapperFactory"));
             //Reflector工厂实现类
             reflectorFactoryElement(root.evalNode("reflectorFactory"));
+            //二级缓存失效消息的传输实现类
+            cacheInvalidationTransportElement(root.evalNode("cacheInvalidationTransport"));
             //settings配置设置进configuration对象里
             settingsElement(settings);
             // read it after objectFactory and objectWrapperFactory issue #631
@@ -256,6 +262,16 @@ public class XMLConfigBuilder extends BaseBuilder {
         }
     }
 
+    private void cacheInvalidationTransportElement(XNode context) throws Exception {
+        if (context != null) {
+            String type = context.getStringAttribute("type");
+            Properties properties = context.getChildrenAsProperties();
+            InvalidationTransport transport = (InvalidationTransport) resolveClass(type).getDeclaredConstructor().newInstance();
+            transport.setProperties(properties);
+            configuration.setCacheInvalidationTransport(transport);
+        }
+    }
+
     /**
      * 解析mybatis-config.xml文件里的properties节点,
      * 将properties里的变量加载进来，便于之后动态配置替换
@@ -316,6 +332,22 @@ public class XMLConfigBuilder extends BaseBuilder {
         configuration.setCallSettersOnNulls(booleanValueOf(props.getProperty("callSettersOnNulls"), false));
         configuration.setUseActualParamName(booleanValueOf(props.getProperty("useActualParamName"), true));
         configuration.setReturnInstanceForEmptyRow(booleanValueOf(props.getProperty("returnInstanceForEmptyRow"), false));
+        configuration.setCompiledResultMappingEnabled(booleanValueOf(props.getProperty("compiledResultMappingEnabled"), false));
+        configuration.setNestedResultObjectsLimit(integerValueOf(props.getProperty("nestedResultObjectsLimit"), 0));
+        configuration.setResultOrderedCheckWindow(integerValueOf(props.getProperty("resultOrderedCheckWindow"), 0));
+        configuration.setAsyncExecutor((Executor) createInstance(props.getProperty("asyncExecutor")));
+        configuration.setParallelResultSetMappingEnabled(booleanValueOf(props.getProperty("parallelResultSetMappingEnabled"), false));
+        configuration.setCacheWeightLimit(longValueOf(props.getProperty("cacheWeightLimit"), 0L));
+        configuration.setCacheKeySkippingEnabled(booleanValueOf(props.getProperty("cacheKeySkippingEnabled"), false));
+        configuration.setCacheMetricsEnabled(booleanValueOf(props.getProperty("cacheMetricsEnabled"), false));
+        configuration.setCacheMetricsFactory((CacheMetricsFactory) createInstance(props.getProperty("cacheMetricsFactory")));
+        configuration.setBatchGroupingEnabled(booleanValueOf(props.getProperty("batchGroupingEnabled"), false));
+        configuration.setBatchStatementRowsLimit(integerValueOf(props.getProperty("batchStatementRowsLimit"), 0));
+        configuration.setBatchPendingRowsLimit(integerValueOf(props.getProperty("batchPendingRowsLimit"), 0));
+        configuration.setBatchPendingBytesLimit(longValueOf(props.getProperty("batchPendingBytesLimit"), 0L));
+        configuration.setBatchFlushListener((BatchFlushListener) createInstance(props.getProperty("batchFlushListener")));
+        configuration.setBatchInsertRewriteSize(integerValueOf(props.getProperty("batchInsertRewriteSize"), 0));
+        configuration.setBatchPipelineDepth(integerValueOf(props.getProperty("batchPipelineDepth"), 0));
         configuration.setLogPrefix(props.getProperty("logPrefix"));
         configuration.setConfigurationFactory(resolveClass(props.getProperty("configurationFactory")));
     }
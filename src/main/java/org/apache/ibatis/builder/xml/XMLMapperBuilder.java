@@ -17,6 +17,7 @@ package org.apache.ibatis.builder.xml;
 
 import org.apache.ibatis.builder.*;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.serializer.Serializer;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.*;
@@ -103,6 +104,8 @@ public class XMLMapperBuilder extends BaseBuilder {
                 throw new BuilderException("Mapper's namespace cannot be empty");
             }
             builderAssistant.setCurrentNamespace(namespace);
+            //批量执行时需保持顺序的命名空间
+            batchDependsOnAttribute(namespace, context.getStringAttribute("batchDependsOn"));
             cacheRefElement(context.evalNode("cache-ref"));
             cacheElement(context.evalNode("cache"));
             //解析parameter节点
@@ -181,6 +184,21 @@ public class XMLMapperBuilder extends BaseBuilder {
         }
     }
 
+    /**
+     * 登记批量依赖，dependsOn 为逗号分隔的被依赖命名空间，批量分组时保持与它们语句的相对顺序
+     * @param namespace
+     * @param dependsOn
+     */
+    private void batchDependsOnAttribute(String namespace, String dependsOn) {
+        if (dependsOn != null) {
+            for (String dependency : dependsOn.split(",")) {
+                if (!dependency.trim().isEmpty()) {
+                    configuration.addBatchDependency(namespace, dependency.trim());
+                }
+            }
+        }
+    }
+
     /**
      * 查找缓存引用
      * @param context
@@ -210,11 +228,16 @@ public class XMLMapperBuilder extends BaseBuilder {
             String eviction = context.getStringAttribute("eviction", "LRU");
             Class<? extends Cache> evictionClass = typeAliasRegistry.resolveAlias(eviction);
             Long flushInterval = context.getLongAttribute("flushInterval");
+            Long timeToLive = context.getLongAttribute("timeToLive");
+            Long refreshAfterWrite = context.getLongAttribute("refreshAfterWrite");
             Integer size = context.getIntAttribute("size");
             boolean readWrite = !context.getBooleanAttribute("readOnly", false);
+            Class<? extends Serializer> serializerClass = typeAliasRegistry.resolveAlias(context.getStringAttribute("serializer"));
+            Integer compressionThreshold = context.getIntAttribute("compressionThreshold");
             boolean blocking = context.getBooleanAttribute("blocking", false);
+            boolean dependencyTracking = context.getBooleanAttribute("dependencyTracking", false);
             Properties props = context.getChildrenAsProperties();
-            builderAssistant.useNewCache(typeClass, evictionClass, flushInterval, size, readWrite, blocking, props);
+            builderAssistant.useNewCache(typeClass, evictionClass, flushInterval, timeToLive, refreshAfterWrite, size, readWrite, serializerClass, compressionThreshold, blocking, dependencyTracking, props);
         }
     }
 
@@ -105,6 +105,7 @@ public class XMLStatementBuilder extends BaseBuilder {
         SqlSource sqlSource = langDriver.createSqlSource(configuration, context, parameterTypeClass);
         StatementType statementType = StatementType.valueOf(context.getStringAttribute("statementType", StatementType.PREPARED.toString()));
         Integer fetchSize = context.getIntAttribute("fetchSize");
+        Integer fetchAhead = context.getIntAttribute("fetchAhead");
         Integer timeout = context.getIntAttribute("timeout");
         String parameterMap = context.getStringAttribute("parameterMap");
         String resultType = context.getStringAttribute("resultType");
@@ -118,11 +119,12 @@ public class XMLStatementBuilder extends BaseBuilder {
         String keyProperty = context.getStringAttribute("keyProperty");
         String keyColumn = context.getStringAttribute("keyColumn");
         String resultSets = context.getStringAttribute("resultSets");
+        String tables = context.getStringAttribute("tables");
 
         builderAssistant.addMappedStatement(id, sqlSource, statementType, sqlCommandType,
             fetchSize, timeout, parameterMap, parameterTypeClass, resultMap, resultTypeClass,
             resultSetTypeEnum, flushCache, useCache, resultOrdered,
-            keyGenerator, keyProperty, keyColumn, databaseId, langDriver, resultSets);
+            keyGenerator, keyProperty, keyColumn, databaseId, langDriver, resultSets, fetchAhead, tables);
     }
 
     private void processSelectKeyNodes(String id, Class<?> parameterTypeClass, LanguageDriver langDriver) {
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.cache;
 
+import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
 
 /**
@@ -53,6 +54,20 @@ public interface Cache {
      */
     void putObject(Object key, Object value);
 
+    /**
+     * Puts several entries at once, for instance those of a committed transaction. Caches that synchronize their
+     * writes should override it to acquire their lock once for all the entries.
+     *
+     * @param entries the keys and values to put, a null value being put like {@link #putObject(Object, Object)}
+     *                puts it
+     * @since 3.5.5
+     */
+    default void putObjects(Map<Object, Object> entries) {
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            putObject(entry.getKey(), entry.getValue());
+        }
+    }
+
     /**
      * @param key The key
      * @return The object stored in the cache.
@@ -17,6 +17,8 @@ package org.apache.ibatis.cache;
 
 import org.apache.ibatis.reflection.ArrayUtil;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -46,11 +48,16 @@ public class CacheKey implements Cloneable, Serializable {
 
     private static final int DEFAULT_MULTIPLIER = 37;
     private static final int DEFAULT_HASHCODE = 17;
+    private static final long HASH64_MULTIPLIER = 0x9E3779B97F4A7C15L;
 
     private final int multiplier;
     private int hashcode;
     private long checksum;
     private int count;
+    // a 64 bit mix of the hash codes of the updates, which tells apart keys whose 32 bit hashcode collides although their
+    // updates hash differently; it is derived from the updates and rebuilt on deserialization, so that keys serialized
+    // before it existed still match
+    private transient long hash64;
     // 8/21/2017 - Sonarlint flags this as needing to be marked transient. While true if content is not serializable, this
     // is not always true and thus should not be marked transient.
     private List<Object> updateList;
@@ -62,11 +69,33 @@ public class CacheKey implements Cloneable, Serializable {
         this.updateList = new ArrayList<>();
     }
 
+    /**
+     * @param expectedUpdateCount the number of updates expected, used to size the list of updates
+     * @since 3.5.5
+     */
+    public CacheKey(int expectedUpdateCount) {
+        this.hashcode = DEFAULT_HASHCODE;
+        this.multiplier = DEFAULT_MULTIPLIER;
+        this.count = 0;
+        this.updateList = new ArrayList<>(expectedUpdateCount);
+    }
+
     public CacheKey(Object[] objects) {
-        this();
+        this(objects.length);
         updateAll(objects);
     }
 
+    /**
+     * Returns a key that is only equal to itself. It is used instead of a real key when the result of a query cannot
+     * be looked up in any cache, so that the key does not have to be built.
+     *
+     * @return a new unique key
+     * @since 3.5.5
+     */
+    public static CacheKey unique() {
+        return new UniqueCacheKey();
+    }
+
     public int getUpdateCount() {
         return updateList.size();
     }
@@ -79,6 +108,7 @@ public class CacheKey implements Cloneable, Serializable {
         baseHashCode *= count;
 
         hashcode = multiplier * hashcode + baseHashCode;
+        hash64 = nextHash64(hash64, baseHashCode, count);
 
         updateList.add(object);
     }
@@ -94,7 +124,7 @@ public class CacheKey implements Cloneable, Serializable {
         if (this == object) {
             return true;
         }
-        if (!(object instanceof CacheKey)) {
+        if (!(object instanceof CacheKey) || object instanceof UniqueCacheKey) {
             return false;
         }
 
@@ -103,6 +133,9 @@ public class CacheKey implements Cloneable, Serializable {
         if (hashcode != cacheKey.hashcode) {
             return false;
         }
+        if (hash64 != cacheKey.hash64) {
+            return false;
+        }
         if (checksum != cacheKey.checksum) {
             return false;
         }
@@ -134,6 +167,28 @@ public class CacheKey implements Cloneable, Serializable {
         return returnValue.toString();
     }
 
+    private static long nextHash64(long hash64, int baseHashCode, int count) {
+        return mix((hash64 ^ baseHashCode) * HASH64_MULTIPLIER + count);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        long hash = 0;
+        int n = 0;
+        for (Object object : updateList) {
+            int baseHashCode = object == null ? 1 : ArrayUtil.hashCode(object);
+            n++;
+            hash = nextHash64(hash, baseHashCode * n, n);
+        }
+        hash64 = hash;
+    }
+
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
     @Override
     public CacheKey clone() throws CloneNotSupportedException {
         CacheKey clonedCacheKey = (CacheKey) super.clone();
@@ -141,4 +196,38 @@ public class CacheKey implements Cloneable, Serializable {
         return clonedCacheKey;
     }
 
+    private static final class UniqueCacheKey extends CacheKey {
+
+        private static final long serialVersionUID = -3349011394618297337L;
+
+        UniqueCacheKey() {
+            super(0);
+        }
+
+        @Override
+        public void update(Object object) {
+            throw new CacheException("Not allowed to update a unique cache key instance.");
+        }
+
+        @Override
+        public void updateAll(Object[] objects) {
+            throw new CacheException("Not allowed to update a unique cache key instance.");
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            return this == object;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+
+        @Override
+        public String toString() {
+            return "unique@" + Integer.toHexString(hashCode());
+        }
+    }
+
 }
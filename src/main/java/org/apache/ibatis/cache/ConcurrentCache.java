@@ -0,0 +1,28 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * A cache that can be used by several threads at once without external synchronization, whatever the cache it
+ * decorates.
+ * <p>
+ * When the eviction decorator of a cache implements this interface, the {@link org.apache.ibatis.mapping.CacheBuilder}
+ * does not wrap the cache in a {@link org.apache.ibatis.cache.decorators.SynchronizedCache}.
+ *
+ * @since 3.5.5
+ */
+public interface ConcurrentCache extends Cache {
+}
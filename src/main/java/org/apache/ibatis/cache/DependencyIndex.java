@@ -0,0 +1,136 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the tables each entry of a cache was read from, so that a write to a table invalidates only the entries
+ * that depend on it. Entries whose tables are unknown depend on every table.
+ * <p>
+ * The index is thread safe without locking the cache, so that eviction decorators can {@link #forget(Object)} the
+ * entries they evict while holding their own lock.
+ *
+ * @since 3.5.5
+ * @see org.apache.ibatis.cache.decorators.DependencyTrackingCache
+ */
+public class DependencyIndex {
+
+    private static final Set<String> UNKNOWN = Collections.unmodifiableSet(new HashSet<>());
+
+    private final Map<Object, Set<String>> tablesByKey = new ConcurrentHashMap<>();
+    private final Map<String, Set<Object>> keysByTable = new ConcurrentHashMap<>();
+    private final Set<Object> unknownKeys = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param key    the key of an entry
+     * @param tables the tables the entry was read from, {@code null} if unknown
+     */
+    public void record(Object key, Set<String> tables) {
+        Set<String> dependencies = tables == null ? UNKNOWN : tables;
+        Set<String> previous = tablesByKey.put(key, dependencies);
+        if (previous != null && !previous.equals(dependencies)) {
+            unlink(key, previous);
+        }
+        if (dependencies == UNKNOWN) {
+            unknownKeys.add(key);
+        } else {
+            for (String table : dependencies) {
+                keysByTable.computeIfAbsent(table, k -> ConcurrentHashMap.newKeySet()).add(key);
+            }
+        }
+    }
+
+    /**
+     * @param key the key of an entry that left the cache
+     */
+    public void forget(Object key) {
+        Set<String> tables = tablesByKey.remove(key);
+        if (tables != null) {
+            unlink(key, tables);
+        }
+    }
+
+    /**
+     * Forgets the entries that depend on any of the tables.
+     *
+     * @param tables the tables written
+     * @return the keys of the entries to remove from the cache
+     */
+    public List<Object> invalidate(Set<String> tables) {
+        List<Object> keys = new ArrayList<>(unknownKeys);
+        for (String table : tables) {
+            Set<Object> dependents = keysByTable.get(table);
+            if (dependents != null) {
+                keys.addAll(dependents);
+            }
+        }
+        for (Object key : keys) {
+            forget(key);
+        }
+        return keys;
+    }
+
+    /**
+     * @param key    the key of an entry
+     * @param tables the tables written
+     * @return whether the entry depends on any of the tables, {@code true} when its tables are unknown
+     */
+    public boolean dependsOn(Object key, Set<String> tables) {
+        Set<String> dependencies = tablesByKey.get(key);
+        if (dependencies == null || dependencies == UNKNOWN) {
+            return true;
+        }
+        for (String table : tables) {
+            if (dependencies.contains(table)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        tablesByKey.clear();
+        keysByTable.clear();
+        unknownKeys.clear();
+    }
+
+    /**
+     * @return the number of entries indexed
+     */
+    public int size() {
+        return tablesByKey.size();
+    }
+
+    private void unlink(Object key, Set<String> tables) {
+        if (tables == UNKNOWN) {
+            unknownKeys.remove(key);
+            return;
+        }
+        for (String table : tables) {
+            Set<Object> dependents = keysByTable.get(table);
+            if (dependents != null) {
+                dependents.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * Is notified of the entries that an eviction decorator removes on its own, to stay within its size or weight or
+ * because they have expired. Called while the decorator holds its lock, so it must return quickly.
+ *
+ * @since 3.5.5
+ */
+@FunctionalInterface
+public interface EvictionListener {
+
+    /**
+     * @param key the key of the evicted entry
+     */
+    void onEviction(Object key);
+}
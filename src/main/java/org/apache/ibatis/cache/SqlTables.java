@@ -0,0 +1,193 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.StatementType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Finds the tables a SQL statement reads or writes, for the caches that invalidate their entries by table.
+ * <p>
+ * The names following {@code FROM}, {@code JOIN}, {@code UPDATE}, {@code DELETE}, {@code INTO} and {@code TABLE} are
+ * collected, including the comma separated lists of {@code FROM} and of multiple-table {@code UPDATE} and
+ * {@code DELETE}. The scan errs on the side of finding too many tables, which only
+ * invalidates more entries than necessary. Tables used through views, triggers or stored procedures cannot be found,
+ * they must be declared on the statement.
+ *
+ * @since 3.5.5
+ */
+public final class SqlTables {
+
+    private static final Set<String> TABLE_KEYWORDS = new HashSet<>(Arrays.asList("from", "join", "update", "delete", "into", "table"));
+    private static final Set<String> LIST_KEYWORDS = new HashSet<>(Arrays.asList("from", "update", "delete"));
+    private static final Set<String> MODIFIER_KEYWORDS = new HashSet<>(Arrays.asList("low_priority", "ignore", "quick", "only"));
+    private static final Set<String> CLAUSE_KEYWORDS = new HashSet<>(Arrays.asList(
+        "where", "on", "using", "set", "values", "value", "select", "group", "order", "having", "limit", "offset",
+        "fetch", "for", "union", "intersect", "except", "minus", "left", "right", "inner", "outer", "full", "cross",
+        "natural", "join", "straight_join", "lateral", "window", "returning", "default", "with", "as", "partition", "from"));
+
+    private SqlTables() {
+        // Prevent Instantiation of Static Class
+    }
+
+    /**
+     * @param sql the SQL of a statement
+     * @return the lower case names of the tables, without schema; {@code null} if none could be found
+     */
+    public static Set<String> parse(String sql) {
+        List<String> tokens = tokenize(sql);
+        Set<String> tables = new HashSet<>();
+        int i = 0;
+        while (i < tokens.size()) {
+            String token = tokens.get(i++);
+            if (!TABLE_KEYWORDS.contains(token)) {
+                continue;
+            }
+            boolean list = LIST_KEYWORDS.contains(token);
+            while (i < tokens.size() && MODIFIER_KEYWORDS.contains(tokens.get(i))) {
+                i++;
+            }
+            while (i < tokens.size() && isIdentifier(tokens.get(i)) && !CLAUSE_KEYWORDS.contains(tokens.get(i))) {
+                tables.add(normalize(tokens.get(i++)));
+                if (!list) {
+                    break;
+                }
+                // skip the alias, then continue with the next table of a comma separated list
+                if (i < tokens.size() && "as".equals(tokens.get(i))) {
+                    i++;
+                }
+                if (i < tokens.size() && isIdentifier(tokens.get(i)) && !CLAUSE_KEYWORDS.contains(tokens.get(i))) {
+                    i++;
+                }
+                if (i < tokens.size() && ",".equals(tokens.get(i))) {
+                    i++;
+                } else {
+                    break;
+                }
+            }
+        }
+        return tables.isEmpty() ? null : Collections.unmodifiableSet(tables);
+    }
+
+    /**
+     * @param ms  a mapped statement
+     * @param sql the SQL it runs
+     * @return the tables declared on the statement, or else found in the SQL; {@code null} for a stored procedure or
+     *         when none could be found
+     */
+    public static Set<String> of(MappedStatement ms, String sql) {
+        if (ms.getTables() != null) {
+            return ms.getTables();
+        }
+        if (ms.getStatementType() == StatementType.CALLABLE) {
+            return null;
+        }
+        return parse(sql);
+    }
+
+    /**
+     * @param tables the comma separated names of tables, as declared on a statement
+     * @return the normalized names, {@code null} if none is declared
+     */
+    public static Set<String> parseDeclared(String tables) {
+        if (tables == null) {
+            return null;
+        }
+        Set<String> names = new HashSet<>();
+        for (String table : tables.split(",")) {
+            String name = table.trim();
+            if (!name.isEmpty()) {
+                names.add(normalize(name));
+            }
+        }
+        return names.isEmpty() ? null : Collections.unmodifiableSet(names);
+    }
+
+    private static String normalize(String identifier) {
+        String name = identifier.substring(identifier.lastIndexOf('.') + 1);
+        StringBuilder builder = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c != '"' && c != '`' && c != '[' && c != ']') {
+                builder.append(c);
+            }
+        }
+        return builder.toString().toLowerCase(Locale.ENGLISH);
+    }
+
+    private static boolean isIdentifier(String token) {
+        char c = token.charAt(0);
+        return Character.isLetter(c) || c == '_' || c == '"' || c == '`' || c == '[';
+    }
+
+    private static List<String> tokenize(String sql) {
+        List<String> tokens = new ArrayList<>();
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '\'') {
+                // string literal, quotes are escaped by doubling them
+                i++;
+                while (i < length && (sql.charAt(i) != '\'' || (i + 1 < length && sql.charAt(i + 1) == '\''))) {
+                    i += sql.charAt(i) == '\'' ? 2 : 1;
+                }
+                i++;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                while (i < length && sql.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (isIdentifierPart(c) || c == '"' || c == '`' || c == '[') {
+                int start = i;
+                while (i < length) {
+                    char d = sql.charAt(i);
+                    if (d == '"' || d == '`' || d == '[') {
+                        char close = d == '[' ? ']' : d;
+                        int end = sql.indexOf(close, i + 1);
+                        i = end < 0 ? length : end + 1;
+                    } else if (isIdentifierPart(d) || d == '.') {
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                String token = sql.substring(start, i);
+                tokens.add(Character.isDigit(c) ? token : token.toLowerCase(Locale.ENGLISH));
+            } else {
+                tokens.add(String.valueOf(c));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+}
@@ -15,17 +15,35 @@
  */
 package org.apache.ibatis.cache;
 
+import org.apache.ibatis.cache.coherence.CacheInvalidationBus;
 import org.apache.ibatis.cache.decorators.TransactionalCache;
 
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author Clinton Begin
  */
 public class TransactionalCacheManager {
 
-    private final Map<Cache, TransactionalCache> transactionalCaches = new HashMap<>();
+    // null until the session uses a cache, the transactional caches are reused by the next transactions
+    private Map<Cache, TransactionalCache> transactionalCaches;
+    private final CacheInvalidationBus invalidationBus;
+
+    public TransactionalCacheManager() {
+        this(null);
+    }
+
+    /**
+     * @param invalidationBus the bus the committed invalidations are published to, {@code null} for none
+     * @since 3.5.5
+     */
+    public TransactionalCacheManager(CacheInvalidationBus invalidationBus) {
+        this.invalidationBus = invalidationBus;
+    }
 
     public void clear(Cache cache) {
         getTransactionalCache(cache).clear();
@@ -39,19 +57,57 @@ public class TransactionalCacheManager {
         getTransactionalCache(cache).putObject(key, value);
     }
 
+    /**
+     * @since 3.5.5
+     */
+    public void putObject(Cache cache, CacheKey key, Object value, Set<String> tables) {
+        getTransactionalCache(cache).putObject(key, value, tables);
+    }
+
+    /**
+     * @since 3.5.5
+     */
+    public void invalidate(Cache cache, Set<String> tables) {
+        getTransactionalCache(cache).invalidate(tables);
+    }
+
     public void commit() {
+        if (transactionalCaches == null) {
+            return;
+        }
+        // the invalidations are published once all the caches of this instance are up to date, the bus logs the
+        // failures as the transaction is already committed
+        Map<String, Set<String>> invalidations = null;
         for (TransactionalCache txCache : transactionalCaches.values()) {
+            if (invalidationBus != null) {
+                if (txCache.isClearOnCommit()) {
+                    invalidations = invalidations == null ? new LinkedHashMap<>() : invalidations;
+                    invalidations.put(txCache.getId(), null);
+                } else if (!txCache.getTablesToInvalidateOnCommit().isEmpty()) {
+                    invalidations = invalidations == null ? new LinkedHashMap<>() : invalidations;
+                    invalidations.put(txCache.getId(), new HashSet<>(txCache.getTablesToInvalidateOnCommit()));
+                }
+            }
             txCache.commit();
         }
+        if (invalidations != null) {
+            invalidations.forEach(invalidationBus::publish);
+        }
     }
 
     public void rollback() {
+        if (transactionalCaches == null) {
+            return;
+        }
         for (TransactionalCache txCache : transactionalCaches.values()) {
             txCache.rollback();
         }
     }
 
     private TransactionalCache getTransactionalCache(Cache cache) {
+        if (transactionalCaches == null) {
+            transactionalCaches = new HashMap<>();
+        }
         return transactionalCaches.computeIfAbsent(cache, TransactionalCache::new);
     }
 
@@ -0,0 +1,33 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * Estimates how much memory a cache entry uses, for caches bounded by weight rather than by number of entries.
+ *
+ * @since 3.5.5
+ * @see org.apache.ibatis.cache.decorators.WeightedCache
+ */
+@FunctionalInterface
+public interface Weigher {
+
+    /**
+     * @param key   the key of the entry
+     * @param value the cached value, a {@code byte[]} when the cache is read/write
+     * @return the weight of the entry, usually an estimate in bytes; never negative
+     */
+    long weigh(Object key, Object value);
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import org.apache.ibatis.cache.decorators.WeightedCache;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A weight limit shared by all the {@link WeightedCache} instances of a configuration.
+ * When their total weight exceeds the limit, the least recently used entries of the heaviest cache are evicted.
+ *
+ * @since 3.5.5
+ */
+public class WeightBudget {
+
+    private final List<WeightedCache> caches = new CopyOnWriteArrayList<>();
+    private final AtomicLong weight = new AtomicLong();
+    private volatile long limit;
+
+    /**
+     * @return the limit, 0 or less if the total weight is not limited
+     */
+    public long getLimit() {
+        return limit;
+    }
+
+    public void setLimit(long limit) {
+        this.limit = limit;
+        enforce();
+    }
+
+    /**
+     * @return the total weight of the registered caches
+     */
+    public long getWeight() {
+        return weight.get();
+    }
+
+    /**
+     * @return the caches sharing this budget
+     */
+    public List<WeightedCache> getCaches() {
+        return Collections.unmodifiableList(caches);
+    }
+
+    /**
+     * Adds a cache to this budget. Its current weight is not accounted for, the cache reports it with
+     * {@link #add(long)}.
+     *
+     * @param cache the cache
+     */
+    public void register(WeightedCache cache) {
+        caches.add(cache);
+    }
+
+    /**
+     * Removes a cache from this budget. Its current weight is not released, the cache gives it back with
+     * {@link #add(long)}.
+     *
+     * @param cache the cache
+     */
+    public void unregister(WeightedCache cache) {
+        caches.remove(cache);
+    }
+
+    /**
+     * Records a change of the weight of a registered cache. Must not be called while holding the lock of a cache.
+     *
+     * @param delta the weight added, negative when entries were removed
+     */
+    public void add(long delta) {
+        if (weight.addAndGet(delta) > limit && limit > 0 && delta > 0) {
+            enforce();
+        }
+    }
+
+    private void enforce() {
+        while (limit > 0 && weight.get() > limit) {
+            WeightedCache heaviest = null;
+            for (WeightedCache cache : caches) {
+                if (cache.getWeight() > 0 && (heaviest == null || cache.getWeight() > heaviest.getWeight())) {
+                    heaviest = cache;
+                }
+            }
+            if (heaviest == null || !heaviest.evictEldest()) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.coherence;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An invalidation of a second level cache, published by the instance that committed it.
+ *
+ * @since 3.5.5
+ */
+public final class CacheInvalidation {
+
+    private final String origin;
+    private final String cacheId;
+    private final Set<String> tables;
+
+    /**
+     * @param origin  the id of the publishing instance
+     * @param cacheId the id of the invalidated cache, {@code null} for all the caches
+     * @param tables  the tables whose entries are invalidated, {@code null} to clear the cache
+     */
+    public CacheInvalidation(String origin, String cacheId, Set<String> tables) {
+        this.origin = Objects.requireNonNull(origin, "origin");
+        this.cacheId = cacheId;
+        this.tables = tables == null ? null : Collections.unmodifiableSet(new LinkedHashSet<>(tables));
+    }
+
+    /**
+     * @param origin the id of the publishing instance
+     * @return an invalidation that clears all the caches, used when a transport may have lost invalidations
+     */
+    public static CacheInvalidation clearAll(String origin) {
+        return new CacheInvalidation(origin, null, null);
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public String getCacheId() {
+        return cacheId;
+    }
+
+    public Set<String> getTables() {
+        return tables;
+    }
+
+    public boolean isClear() {
+        return tables == null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheInvalidation)) {
+            return false;
+        }
+        CacheInvalidation that = (CacheInvalidation) o;
+        return origin.equals(that.origin) && Objects.equals(cacheId, that.cacheId) && Objects.equals(tables, that.tables);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(origin, cacheId, tables);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheInvalidation{origin=" + origin + ", cacheId=" + cacheId + ", tables=" + tables + '}';
+    }
+}
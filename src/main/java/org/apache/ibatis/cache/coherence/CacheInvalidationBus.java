@@ -0,0 +1,141 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.coherence;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.decorators.DependencyTrackingCache;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.Configuration;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the second level caches of several instances sharing a database coherent: the invalidations committed by
+ * the sessions of this instance are published to the other instances, and the invalidations they publish are
+ * applied to the caches of this instance, which therefore stay warm between the writes.
+ * <p>
+ * A cache with dependency tracking only drops the entries read from the written tables, other caches are cleared.
+ * The invalidations are applied once the other instance has committed, so a session of this instance may still put
+ * a value it read before into the cache, as it can when the write comes from a session of this instance.
+ * <p>
+ * Publishing never fails the commit, which is already done: a failure is logged, and the next invalidation that is
+ * published is preceded by one clearing all the caches of the other instances, which may have missed some.
+ *
+ * @since 3.5.5
+ * @see org.apache.ibatis.session.Configuration#setCacheInvalidationTransport(InvalidationTransport)
+ */
+public class CacheInvalidationBus {
+
+    private static final Log log = LogFactory.getLog(CacheInvalidationBus.class);
+
+    private final Configuration configuration;
+    private final InvalidationTransport transport;
+    private final String nodeId = UUID.randomUUID().toString();
+    // whether an invalidation could not be published since the last clear of all the caches of the other instances
+    private final AtomicBoolean lost = new AtomicBoolean();
+
+    /**
+     * Creates the bus and starts the transport.
+     *
+     * @param configuration the configuration holding the caches
+     * @param transport     the transport, not started yet
+     */
+    public CacheInvalidationBus(Configuration configuration, InvalidationTransport transport) {
+        this.configuration = configuration;
+        this.transport = transport;
+        transport.start(this::receive);
+    }
+
+    /**
+     * @return the id identifying the invalidations published by this instance
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public InvalidationTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Publishes an invalidation committed by this instance. Failures are logged and not thrown.
+     *
+     * @param cacheId the id of the invalidated cache
+     * @param tables  the written tables, {@code null} when the cache was cleared
+     */
+    public void publish(String cacheId, Set<String> tables) {
+        if (lost.getAndSet(false) && !send(CacheInvalidation.clearAll(nodeId))) {
+            lost.set(true);
+        }
+        if (!send(new CacheInvalidation(nodeId, cacheId, tables))) {
+            lost.set(true);
+        }
+    }
+
+    private boolean send(CacheInvalidation invalidation) {
+        try {
+            transport.publish(invalidation);
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Could not publish " + invalidation + ", all the caches of the other instances will be cleared"
+                + " by the next invalidation. Cause: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * Applies an invalidation received from the transport, unless this instance published it.
+     *
+     * @param invalidation the invalidation
+     */
+    public void receive(CacheInvalidation invalidation) {
+        if (nodeId.equals(invalidation.getOrigin())) {
+            return;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Applying " + invalidation);
+        }
+        String cacheId = invalidation.getCacheId();
+        if (cacheId == null) {
+            // short names map to the same caches or to ambiguities
+            Set<Object> caches = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Object cache : configuration.getCaches()) {
+                if (cache instanceof Cache && caches.add(cache)) {
+                    ((Cache) cache).clear();
+                }
+            }
+        } else if (configuration.hasCache(cacheId)) {
+            Cache cache = configuration.getCache(cacheId);
+            if (!invalidation.isClear() && cache instanceof DependencyTrackingCache) {
+                ((DependencyTrackingCache) cache).invalidate(invalidation.getTables());
+            } else {
+                cache.clear();
+            }
+        }
+    }
+
+    /**
+     * Closes the transport.
+     */
+    public void close() {
+        transport.close();
+    }
+}
@@ -0,0 +1,280 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.coherence;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Shares the invalidations through an append only log in a directory all the instances can write, a local or a
+ * network file system. Each invalidation is appended as a line under a file lock, and every instance tails the log
+ * from a background thread. The log is rotated once it reaches a maximum size, the older generation being kept
+ * until the next rotation so that the instances may finish reading it; an instance that finds the generation it was
+ * reading deleted may have missed invalidations and clears all its caches.
+ * <p>
+ * Properties:
+ * <ul>
+ * <li>{@code directory}: the shared directory, required</li>
+ * <li>{@code pollInterval}: the time in milliseconds between two reads of the log, 100 by default</li>
+ * <li>{@code maxLogSize}: the size in bytes from which the log is rotated, 1 MB by default</li>
+ * </ul>
+ *
+ * @since 3.5.5
+ */
+public class FileInvalidationTransport implements InvalidationTransport {
+
+    private static final Log log = LogFactory.getLog(FileInvalidationTransport.class);
+
+    private static final String LOG_PREFIX = "invalidations-";
+    private static final String LOG_SUFFIX = ".log";
+    private static final String LOCK_FILE = "invalidations.lock";
+    private static final String ALL = "*";
+
+    /**
+     * File locks are held by the JVM, the instances of a single JVM also synchronize on these monitors.
+     */
+    private static final Map<Path, Object> monitors = new ConcurrentHashMap<>();
+
+    private Path directory;
+    private long pollInterval = 100;
+    private long maxLogSize = 1024 * 1024;
+    private ScheduledExecutorService poller;
+    private Consumer<CacheInvalidation> listener;
+    // read position, only used by the poller thread once started
+    private long generation;
+    private long offset;
+
+    @Override
+    public void setProperties(Properties properties) {
+        String value = properties.getProperty("directory");
+        if (value != null) {
+            directory = Paths.get(value);
+        }
+        value = properties.getProperty("pollInterval");
+        if (value != null) {
+            pollInterval = Long.parseLong(value);
+        }
+        value = properties.getProperty("maxLogSize");
+        if (value != null) {
+            maxLogSize = Long.parseLong(value);
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    public long getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(long pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public long getMaxLogSize() {
+        return maxLogSize;
+    }
+
+    public void setMaxLogSize(long maxLogSize) {
+        this.maxLogSize = maxLogSize;
+    }
+
+    @Override
+    public synchronized void start(Consumer<CacheInvalidation> listener) {
+        if (directory == null) {
+            throw new CacheException("The file invalidation transport requires a 'directory' property.");
+        }
+        if (poller != null) {
+            throw new CacheException("The file invalidation transport of " + directory + " is already started.");
+        }
+        try {
+            directory = Files.createDirectories(directory.toAbsolutePath().normalize());
+            // only the invalidations published from now on are received
+            generation = latestGeneration();
+            Path current = logFile(generation);
+            offset = Files.exists(current) ? Files.size(current) : 0;
+        } catch (IOException e) {
+            throw new CacheException("Could not open the invalidation log in " + directory + ". Cause: " + e, e);
+        }
+        this.listener = listener;
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mybatis-cache-invalidation-" + directory.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::poll, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        ByteBuffer line = ByteBuffer.wrap(encode(invalidation));
+        synchronized (monitors.computeIfAbsent(directory, key -> new Object())) {
+            try (FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = lockChannel.lock()) {
+                long current = latestGeneration();
+                Path file = logFile(current);
+                if (Files.exists(file) && Files.size(file) >= maxLogSize) {
+                    Files.deleteIfExists(logFile(current - 1));
+                    file = logFile(++current);
+                }
+                try (FileChannel out = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    while (line.hasRemaining()) {
+                        out.write(line);
+                    }
+                }
+            } catch (IOException e) {
+                throw new CacheException("Could not publish " + invalidation + " to " + directory + ". Cause: " + e, e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+    }
+
+    /**
+     * Reads the invalidations appended to the log since the previous poll.
+     */
+    private void poll() {
+        try {
+            // the next generation is created once the current one is complete
+            boolean rotated = Files.exists(logFile(generation + 1));
+            Path file = logFile(generation);
+            if (Files.exists(file)) {
+                read(file);
+                if (rotated) {
+                    generation++;
+                    offset = 0;
+                }
+            } else {
+                long latest = latestGeneration();
+                if (latest > generation) {
+                    log.warn("The invalidation log " + file + " was rotated before being read, clearing all the caches.");
+                    listener.accept(CacheInvalidation.clearAll(directory.toString()));
+                    generation = latest;
+                    offset = 0;
+                }
+            }
+        } catch (Exception e) {
+            // keeps polling, the caches may be stale until the next invalidations
+            log.warn("Could not read the invalidation log in " + directory + ". Cause: " + e);
+        }
+    }
+
+    private void read(Path file) throws IOException {
+        byte[] bytes;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size <= offset) {
+                return;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size - offset, Integer.MAX_VALUE - 8));
+            while (buffer.hasRemaining() && in.read(buffer, offset + buffer.position()) >= 0) {
+                // reads until the buffer is full
+            }
+            bytes = Arrays.copyOf(buffer.array(), buffer.position());
+        }
+        // a line being appended is read by the next poll
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') {
+            end--;
+        }
+        if (end == 0) {
+            return;
+        }
+        offset += end;
+        for (String line : new String(bytes, 0, end, StandardCharsets.UTF_8).split("\n")) {
+            CacheInvalidation invalidation = decode(line);
+            if (invalidation == null) {
+                log.warn("Ignoring the malformed invalidation '" + line + "' in " + file);
+            } else {
+                listener.accept(invalidation);
+            }
+        }
+    }
+
+    private long latestGeneration() throws IOException {
+        long latest = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, LOG_PREFIX + "*" + LOG_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    latest = Math.max(latest,
+                        Long.parseLong(name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // not a generation of the log
+                }
+            }
+        }
+        return latest;
+    }
+
+    private Path logFile(long generation) {
+        return directory.resolve(LOG_PREFIX + generation + LOG_SUFFIX);
+    }
+
+    private static byte[] encode(CacheInvalidation invalidation) {
+        String cacheId = invalidation.getCacheId() == null ? ALL : invalidation.getCacheId();
+        String tables = invalidation.isClear() ? ALL : String.join(",", invalidation.getTables());
+        return (invalidation.getOrigin() + '\t' + cacheId + '\t' + tables + '\n').getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static CacheInvalidation decode(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 3 || fields[0].isEmpty() || fields[1].isEmpty()) {
+            return null;
+        }
+        String cacheId = ALL.equals(fields[1]) ? null : fields[1];
+        Set<String> tables = null;
+        if (!ALL.equals(fields[2])) {
+            tables = new LinkedHashSet<>(Arrays.asList(fields[2].split(",")));
+        }
+        return new CacheInvalidation(fields[0], cacheId, tables);
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.coherence;
+
+import java.util.Properties;
+import java.util.function.Consumer;
+
+/**
+ * Carries the cache invalidations between the instances sharing a database. Implementations must have a default
+ * constructor; they are configured by {@link #setProperties(Properties)} and then started once.
+ *
+ * @since 3.5.5
+ * @see CacheInvalidationBus
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Sets the properties of the transport.
+     *
+     * @param properties the properties declared in the configuration
+     */
+    default void setProperties(Properties properties) {
+        // NOP
+    }
+
+    /**
+     * Starts receiving invalidations. The listener may be called from any thread, including the one publishing, and
+     * also receives the invalidations published by this transport.
+     *
+     * @param listener the listener of the received invalidations
+     */
+    void start(Consumer<CacheInvalidation> listener);
+
+    /**
+     * Publishes an invalidation to the other instances.
+     *
+     * @param invalidation the invalidation
+     * @throws org.apache.ibatis.cache.CacheException if the invalidation could not be published, the bus then
+     *                                                 clears all the caches of the other instances with the next one
+     */
+    void publish(CacheInvalidation invalidation);
+
+    /**
+     * Stops receiving invalidations and releases the resources of the transport.
+     */
+    void close();
+}
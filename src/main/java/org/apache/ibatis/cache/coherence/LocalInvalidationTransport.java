@@ -0,0 +1,83 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.coherence;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers the invalidations to the transports of the same channel in this JVM, synchronously from the publishing
+ * thread. Meant for several configurations of a single process and for tests. The channel is set by the
+ * {@code channel} property, {@code default} when not set.
+ *
+ * @since 3.5.5
+ */
+public class LocalInvalidationTransport implements InvalidationTransport {
+
+    private static final Map<String, List<LocalInvalidationTransport>> channels = new ConcurrentHashMap<>();
+
+    private String channel = "default";
+    private volatile Consumer<CacheInvalidation> listener;
+
+    @Override
+    public void setProperties(Properties properties) {
+        channel = properties.getProperty("channel", channel);
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void start(Consumer<CacheInvalidation> listener) {
+        this.listener = listener;
+        channels.compute(channel, (key, transports) -> {
+            List<LocalInvalidationTransport> result = transports == null ? new CopyOnWriteArrayList<>() : transports;
+            result.add(this);
+            return result;
+        });
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        List<LocalInvalidationTransport> transports = channels.get(channel);
+        if (transports != null) {
+            for (LocalInvalidationTransport transport : transports) {
+                Consumer<CacheInvalidation> receiver = transport.listener;
+                if (receiver != null) {
+                    receiver.accept(invalidation);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        listener = null;
+        channels.computeIfPresent(channel, (key, transports) -> {
+            transports.remove(this);
+            return transports.isEmpty() ? null : transports;
+        });
+    }
+}
@@ -18,10 +18,8 @@ package org.apache.ibatis.cache.decorators;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
 
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Simple blocking decorator
@@ -29,6 +27,9 @@ import java.util.concurrent.locks.ReentrantLock;
  * Simple and inefficient version of EhCache's BlockingCache decorator.
  * It sets a lock over a cache key when the element is not found in cache.
  * This way, other threads will wait until this element is filled instead of hitting the database.
+ * <p>
+ * The lock of a key only exists while its element is being loaded: the first thread that misses registers a load in
+ * flight, and the threads that miss the same key meanwhile wait for it and then read the loaded element.
  *
  * @author Eduardo Macarron
  *
@@ -37,11 +38,11 @@ public class BlockingCache implements Cache {
 
     private long timeout;
     private final Cache delegate;
-    private final ConcurrentHashMap<Object, ReentrantLock> locks;
+    private final ConcurrentHashMap<Object, Load> loads;
 
     public BlockingCache(Cache delegate) {
         this.delegate = delegate;
-        this.locks = new ConcurrentHashMap<>();
+        this.loads = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -63,14 +64,36 @@ public class BlockingCache implements Cache {
         }
     }
 
+    @Override
+    public void putObjects(Map<Object, Object> entries) {
+        try {
+            delegate.putObjects(entries);
+        } finally {
+            for (Object key : entries.keySet()) {
+                releaseLock(key);
+            }
+        }
+    }
+
     @Override
     public Object getObject(Object key) {
-        acquireLock(key);
-        Object value = delegate.getObject(key);
-        if (value != null) {
-            releaseLock(key);
+        Load load = new Load();
+        while (true) {
+            Load current = loads.putIfAbsent(key, load);
+            if (current == null || current.owner == Thread.currentThread()) {
+                Object value = delegate.getObject(key);
+                if (value != null) {
+                    releaseLock(key);
+                }
+                return value;
+            }
+            awaitLoad(key, current);
+            Object value = delegate.getObject(key);
+            if (value != null) {
+                return value;
+            }
+            // the load failed or its result was not cached, try to load it in this thread
         }
-        return value;
     }
 
     @Override
@@ -85,33 +108,28 @@ public class BlockingCache implements Cache {
         delegate.clear();
     }
 
-    private ReentrantLock getLockForKey(Object key) {
-        return locks.computeIfAbsent(key, k -> new ReentrantLock());
-    }
-
-    private void acquireLock(Object key) {
-        Lock lock = getLockForKey(key);
-        if (timeout > 0) {
-            try {
-                boolean acquired = lock.tryLock(timeout, TimeUnit.MILLISECONDS);
-                if (!acquired) {
-                    throw new CacheException("Couldn't get a lock in " + timeout + " for the key " + key + " at the cache " + delegate.getId());
-                }
-            } catch (InterruptedException e) {
-                throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
+    private void awaitLoad(Object key, Load load) {
+        try {
+            if (!load.await(timeout)) {
+                throw new CacheException("Couldn't get a lock in " + timeout + " for the key " + key + " at the cache " + delegate.getId());
             }
-        } else {
-            lock.lock();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
         }
     }
 
     private void releaseLock(Object key) {
-        ReentrantLock lock = locks.get(key);
-        if (lock.isHeldByCurrentThread()) {
-            lock.unlock();
+        Load load = loads.remove(key);
+        if (load != null) {
+            load.complete();
         }
     }
 
+    public Cache getDelegate() {
+        return delegate;
+    }
+
     public long getTimeout() {
         return timeout;
     }
@@ -119,4 +137,32 @@ public class BlockingCache implements Cache {
     public void setTimeout(long timeout) {
         this.timeout = timeout;
     }
+
+    private static final class Load {
+        private final Thread owner = Thread.currentThread();
+        private boolean done;
+
+        synchronized void complete() {
+            done = true;
+            notifyAll();
+        }
+
+        synchronized boolean await(long timeout) throws InterruptedException {
+            if (timeout <= 0) {
+                while (!done) {
+                    wait();
+                }
+                return true;
+            }
+            long deadline = System.nanoTime() + timeout * 1_000_000L;
+            while (!done) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                wait(remaining / 1_000_000L, (int) (remaining % 1_000_000L));
+            }
+            return true;
+        }
+    }
 }
@@ -0,0 +1,172 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.DependencyIndex;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Invalidates only the entries that depend on the tables a statement writes, instead of clearing the whole cache.
+ * <p>
+ * The {@link TransactionalCache} records the tables each query read when it commits the result, and invalidates the
+ * tables written by the transaction. Entries put without tables, through the plain {@link Cache} methods, are
+ * invalidated by any write. It is the outermost decorator, so the removals it makes are seen by all the others. The
+ * invalidated entries are removed from a store that may differ from the delegate: {@link BlockingCache} only releases
+ * locks on {@link Cache#removeObject(Object)}, so below a blocking cache they are removed from the cache it decorates.
+ *
+ * @since 3.5.5
+ */
+public class DependencyTrackingCache implements Cache {
+
+    private final Cache delegate;
+    private final DependencyIndex index;
+    private final Cache store;
+
+    public DependencyTrackingCache(Cache delegate) {
+        this(delegate, new DependencyIndex());
+    }
+
+    /**
+     * @param delegate the decorated cache
+     * @param index    the index, shared with the eviction decorator so that it can forget the entries it evicts
+     */
+    public DependencyTrackingCache(Cache delegate, DependencyIndex index) {
+        this(delegate, index, delegate);
+    }
+
+    /**
+     * @param delegate the decorated cache
+     * @param index    the index, shared with the eviction decorator so that it can forget the entries it evicts
+     * @param store    the cache the invalidated entries are removed from, the one below the {@link BlockingCache} if any
+     */
+    public DependencyTrackingCache(Cache delegate, DependencyIndex index, Cache store) {
+        this.delegate = delegate;
+        this.index = index;
+        this.store = store;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        putObject(key, value, null);
+    }
+
+    /**
+     * @param key    the key
+     * @param value  the result of the query
+     * @param tables the tables the query read, {@code null} if unknown
+     */
+    public void putObject(Object key, Object value, Set<String> tables) {
+        if (value == null) {
+            index.forget(key);
+        } else {
+            index.record(key, tables);
+        }
+        delegate.putObject(key, value);
+    }
+
+    @Override
+    public void putObjects(Map<Object, Object> entries) {
+        putObjects(entries, null);
+    }
+
+    /**
+     * @param entries the keys and results of the queries
+     * @param tables  the tables each query read, by key, missing or {@code null} when unknown
+     * @since 3.5.5
+     */
+    public void putObjects(Map<Object, Object> entries, Map<Object, Set<String>> tables) {
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            if (entry.getValue() == null) {
+                index.forget(entry.getKey());
+            } else {
+                index.record(entry.getKey(), tables == null ? null : tables.get(entry.getKey()));
+            }
+        }
+        delegate.putObjects(entries);
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        return delegate.getObject(key);
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        index.forget(key);
+        return delegate.removeObject(key);
+    }
+
+    @Override
+    public void clear() {
+        index.clear();
+        delegate.clear();
+    }
+
+    /**
+     * Removes the entries that depend on any of the tables.
+     *
+     * @param tables the tables written, {@code null} if unknown to clear the cache
+     */
+    public void invalidate(Set<String> tables) {
+        if (tables == null) {
+            clear();
+            return;
+        }
+        for (Object key : index.invalidate(tables)) {
+            store.removeObject(key);
+        }
+    }
+
+    /**
+     * @param key    the key of an entry
+     * @param tables the tables written
+     * @return whether the entry depends on any of the tables
+     */
+    public boolean dependsOn(Object key, Set<String> tables) {
+        return index.dependsOn(key, tables);
+    }
+
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    public DependencyIndex getDependencyIndex() {
+        return index;
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return delegate.equals(obj);
+    }
+}
@@ -0,0 +1,299 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.ConcurrentCache;
+import org.apache.ibatis.cache.EvictionListener;
+
+import java.lang.ref.WeakReference;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Expires each entry a fixed time after it was written, instead of clearing the whole cache like {@link ScheduledCache}.
+ * <p>
+ * Expired entries are removed incrementally, on writes and by a background sweeper shared by all expiring caches.
+ * When a refresh interval is set, the first read of an entry older than that interval misses so that the caller
+ * reloads it from the database, while other readers keep getting the current value until it is replaced or expires.
+ *
+ * @since 3.5.5
+ */
+public class ExpiringCache implements Cache {
+
+    private static final long MIN_SWEEP_INTERVAL = 50;
+
+    private final Cache delegate;
+    // guards a delegate that is not thread safe, since the sweeper does not go through the SynchronizedCache above;
+    // null for a ConcurrentCache, whose reads must not be serialized
+    private final Object lock;
+    private final ConcurrentHashMap<Object, Timestamps> timestamps = new ConcurrentHashMap<>();
+    // in write order, which is also expiration order since all entries live for the same time;
+    // entries rewritten or removed since are skipped when they reach the head
+    private final Queue<Timestamps> writes = new ConcurrentLinkedQueue<>();
+    private volatile long timeToLive;
+    private volatile long refreshAfterWrite;
+    private ScheduledFuture<?> sweeper;
+    private volatile EvictionListener evictionListener;
+
+    public ExpiringCache(Cache delegate) {
+        this.delegate = delegate;
+        this.lock = delegate instanceof ConcurrentCache ? null : this;
+    }
+
+    /**
+     * @param timeToLive the time in milliseconds after which an entry is removed, 0 to keep entries until evicted
+     */
+    public synchronized void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+        if (sweeper != null) {
+            sweeper.cancel(false);
+            sweeper = null;
+        }
+        if (timeToLive > 0) {
+            sweeper = Sweeper.schedule(this, Math.max(timeToLive / 2, MIN_SWEEP_INTERVAL));
+        }
+    }
+
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * @param refreshAfterWrite the time in milliseconds after which a read of an entry misses once so that the entry is
+     *                          reloaded, 0 to never refresh
+     */
+    public void setRefreshAfterWrite(long refreshAfterWrite) {
+        this.refreshAfterWrite = refreshAfterWrite;
+    }
+
+    public long getRefreshAfterWrite() {
+        return refreshAfterWrite;
+    }
+
+    /**
+     * @param evictionListener notified of the entries this cache evicts, {@code null} for none
+     * @since 3.5.5
+     */
+    public void setEvictionListener(EvictionListener evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Forgets the write time of an entry that the decorated cache evicted on its own. The eviction decorator below this
+     * cache must call it, otherwise the write times of the entries it evicts are only dropped once they expire, or never
+     * when no time to live is set.
+     *
+     * @param key the key of the evicted entry
+     */
+    public void onDelegateEviction(Object key) {
+        timestamps.remove(key);
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public int getSize() {
+        if (lock == null) {
+            removeExpired(System.currentTimeMillis());
+            return delegate.getSize();
+        }
+        synchronized (lock) {
+            removeExpired(System.currentTimeMillis());
+            return delegate.getSize();
+        }
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        if (lock == null) {
+            put(key, value);
+        } else {
+            synchronized (lock) {
+                put(key, value);
+            }
+        }
+    }
+
+    private void put(Object key, Object value) {
+        long now = System.currentTimeMillis();
+        removeExpired(now);
+        Timestamps entry = new Timestamps(key, now);
+        timestamps.put(key, entry);
+        if (timeToLive > 0) {
+            writes.add(entry);
+        }
+        delegate.putObject(key, value);
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        if (lock == null) {
+            return get(key);
+        }
+        synchronized (lock) {
+            return get(key);
+        }
+    }
+
+    private Object get(Object key) {
+        Timestamps entry = timestamps.get(key);
+        if (entry != null) {
+            long now = System.currentTimeMillis();
+            if (timeToLive > 0 && now - entry.written >= timeToLive) {
+                expire(entry);
+                return null;
+            }
+            long refreshed = entry.refreshed.get();
+            if (refreshAfterWrite > 0 && now - refreshed >= refreshAfterWrite && entry.refreshed.compareAndSet(refreshed, now)) {
+                // let this caller reload the entry, and give it another interval before asking someone else
+                return null;
+            }
+        }
+        return delegate.getObject(key);
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        if (lock == null) {
+            timestamps.remove(key);
+            return delegate.removeObject(key);
+        }
+        synchronized (lock) {
+            timestamps.remove(key);
+            return delegate.removeObject(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (lock == null) {
+            clearAll();
+        } else {
+            synchronized (lock) {
+                clearAll();
+            }
+        }
+    }
+
+    private void clearAll() {
+        timestamps.clear();
+        writes.clear();
+        delegate.clear();
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return delegate.equals(obj);
+    }
+
+    void removeExpired() {
+        if (lock == null) {
+            removeExpired(System.currentTimeMillis());
+        } else {
+            synchronized (lock) {
+                removeExpired(System.currentTimeMillis());
+            }
+        }
+    }
+
+    private void removeExpired(long now) {
+        if (timeToLive <= 0) {
+            return;
+        }
+        Timestamps head;
+        while ((head = writes.peek()) != null && now - head.written >= timeToLive) {
+            if (writes.remove(head)) {
+                expire(head);
+            }
+        }
+    }
+
+    private void expire(Timestamps entry) {
+        // only if the entry was not rewritten or removed since
+        if (timestamps.remove(entry.key, entry)) {
+            delegate.removeObject(entry.key);
+            EvictionListener listener = evictionListener;
+            if (listener != null) {
+                listener.onEviction(entry.key);
+            }
+        }
+    }
+
+    private static class Timestamps {
+        final Object key;
+        final long written;
+        final AtomicLong refreshed;
+
+        Timestamps(Object key, long written) {
+            this.key = key;
+            this.written = written;
+            this.refreshed = new AtomicLong(written);
+        }
+    }
+
+    /**
+     * Periodically removes the expired entries of a cache, until the cache is garbage collected.
+     */
+    private static class Sweeper implements Runnable {
+
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mybatis-cache-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        private final WeakReference<ExpiringCache> cache;
+        private volatile ScheduledFuture<?> future;
+
+        private Sweeper(ExpiringCache cache) {
+            this.cache = new WeakReference<>(cache);
+        }
+
+        static ScheduledFuture<?> schedule(ExpiringCache cache, long interval) {
+            Sweeper sweeper = new Sweeper(cache);
+            sweeper.future = EXECUTOR.scheduleWithFixedDelay(sweeper, interval, interval, TimeUnit.MILLISECONDS);
+            return sweeper.future;
+        }
+
+        @Override
+        public void run() {
+            ExpiringCache target = cache.get();
+            if (target == null) {
+                if (future != null) {
+                    future.cancel(false);
+                }
+            } else {
+                target.removeExpired();
+            }
+        }
+    }
+
+}
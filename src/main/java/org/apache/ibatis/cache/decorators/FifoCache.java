@@ -16,6 +16,7 @@
 package org.apache.ibatis.cache.decorators;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.EvictionListener;
 
 import java.util.Deque;
 import java.util.LinkedList;
@@ -30,6 +31,7 @@ public class FifoCache implements Cache {
     private final Cache delegate;
     private final Deque<Object> keyList;
     private int size;
+    private EvictionListener evictionListener;
 
     public FifoCache(Cache delegate) {
         this.delegate = delegate;
@@ -51,6 +53,14 @@ public class FifoCache implements Cache {
         this.size = size;
     }
 
+    /**
+     * @param evictionListener notified of the entries this cache evicts, {@code null} for none
+     * @since 3.5.5
+     */
+    public void setEvictionListener(EvictionListener evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
     @Override
     public void putObject(Object key, Object value) {
         cycleKeyList(key);
@@ -78,6 +88,9 @@ public class FifoCache implements Cache {
         if (keyList.size() > size) {
             Object oldestKey = keyList.removeFirst();
             delegate.removeObject(oldestKey);
+            if (evictionListener != null) {
+                evictionListener.onEviction(oldestKey);
+            }
         }
     }
 
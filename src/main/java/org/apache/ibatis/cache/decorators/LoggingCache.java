@@ -19,15 +19,22 @@ import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 /**
  * @author Clinton Begin
  */
 public class LoggingCache implements Cache {
 
+    private static final AtomicIntegerFieldUpdater<LoggingCache> REQUESTS = AtomicIntegerFieldUpdater.newUpdater(LoggingCache.class, "requests");
+    private static final AtomicIntegerFieldUpdater<LoggingCache> HITS = AtomicIntegerFieldUpdater.newUpdater(LoggingCache.class, "hits");
+
     private final Log log;
     private final Cache delegate;
-    protected int requests = 0;
-    protected int hits = 0;
+    // updated atomically as the decorated cache may not be synchronized
+    protected volatile int requests = 0;
+    protected volatile int hits = 0;
 
     public LoggingCache(Cache delegate) {
         this.delegate = delegate;
@@ -49,12 +56,17 @@ public class LoggingCache implements Cache {
         delegate.putObject(key, object);
     }
 
+    @Override
+    public void putObjects(Map<Object, Object> entries) {
+        delegate.putObjects(entries);
+    }
+
     @Override
     public Object getObject(Object key) {
-        requests++;
+        REQUESTS.incrementAndGet(this);
         final Object value = delegate.getObject(key);
         if (value != null) {
-            hits++;
+            HITS.incrementAndGet(this);
         }
         if (log.isDebugEnabled()) {
             log.debug("Cache Hit Ratio [" + getId() + "]: " + getHitRatio());
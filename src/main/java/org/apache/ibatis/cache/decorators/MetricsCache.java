@@ -0,0 +1,115 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.metrics.CacheMetrics;
+
+import java.util.Map;
+
+/**
+ * Reports the reads, writes and removals of a cache, and their latency, to its {@link CacheMetrics}. It is the
+ * outermost decorator, so the read latency is the one seen by the executor, including the time spent waiting for a
+ * {@link BlockingCache} or {@link SynchronizedCache} lock.
+ *
+ * @since 3.5.5
+ */
+public class MetricsCache implements Cache {
+
+    private final Cache delegate;
+    private final CacheMetrics metrics;
+
+    public MetricsCache(Cache delegate, CacheMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        long start = System.nanoTime();
+        delegate.putObject(key, value);
+        metrics.recordWriteTime(System.nanoTime() - start);
+        metrics.recordPut();
+    }
+
+    @Override
+    public void putObjects(Map<Object, Object> entries) {
+        long start = System.nanoTime();
+        delegate.putObjects(entries);
+        metrics.recordWriteTime(System.nanoTime() - start);
+        metrics.recordPuts(entries.size());
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        long start = System.nanoTime();
+        Object value = delegate.getObject(key);
+        metrics.recordReadTime(System.nanoTime() - start);
+        if (value == null) {
+            metrics.recordMiss();
+        } else {
+            metrics.recordHit();
+        }
+        return value;
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        metrics.recordRemoval();
+        return delegate.removeObject(key);
+    }
+
+    @Override
+    public void clear() {
+        metrics.recordClear();
+        delegate.clear();
+    }
+
+    public CacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @param cache a cache built by {@link org.apache.ibatis.mapping.CacheBuilder}
+     * @return the metrics of the cache, {@code null} if it has none
+     */
+    public static CacheMetrics metricsOf(Cache cache) {
+        if (cache instanceof DependencyTrackingCache) {
+            cache = ((DependencyTrackingCache) cache).getDelegate();
+        }
+        return cache instanceof MetricsCache ? ((MetricsCache) cache).getMetrics() : null;
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return delegate.equals(obj);
+    }
+}
@@ -25,8 +25,9 @@ import java.util.concurrent.TimeUnit;
 public class ScheduledCache implements Cache {
 
     private final Cache delegate;
-    protected long clearInterval;
-    protected long lastClear;
+    protected volatile long clearInterval;
+    protected volatile long lastClear;
+    private Runnable clearListener;
 
     public ScheduledCache(Cache delegate) {
         this.delegate = delegate;
@@ -38,6 +39,14 @@ public class ScheduledCache implements Cache {
         this.clearInterval = clearInterval;
     }
 
+    /**
+     * @param clearListener called before this cache is cleared, {@code null} for none
+     * @since 3.5.5
+     */
+    public void setClearListener(Runnable clearListener) {
+        this.clearListener = clearListener;
+    }
+
     @Override
     public String getId() {
         return delegate.getId();
@@ -69,6 +78,9 @@ public class ScheduledCache implements Cache {
     @Override
     public void clear() {
         lastClear = System.currentTimeMillis();
+        if (clearListener != null) {
+            clearListener.run();
+        }
         delegate.clear();
     }
 
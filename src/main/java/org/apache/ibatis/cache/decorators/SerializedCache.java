@@ -17,6 +17,8 @@ package org.apache.ibatis.cache.decorators;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.serializer.JdkSerializer;
+import org.apache.ibatis.cache.serializer.Serializer;
 import org.apache.ibatis.io.Resources;
 
 import java.io.*;
@@ -27,9 +29,24 @@ import java.io.*;
 public class SerializedCache implements Cache {
 
     private final Cache delegate;
+    private final Serializer serializer;
 
     public SerializedCache(Cache delegate) {
+        this(delegate, new JdkSerializer());
+    }
+
+    /**
+     * @param delegate   the cache storing the serialized objects
+     * @param serializer the serializer making the copies
+     * @since 3.5.5
+     */
+    public SerializedCache(Cache delegate, Serializer serializer) {
         this.delegate = delegate;
+        this.serializer = serializer;
+    }
+
+    public Serializer getSerializer() {
+        return serializer;
     }
 
     @Override
@@ -45,7 +62,7 @@ public class SerializedCache implements Cache {
     @Override
     public void putObject(Object key, Object object) {
         if (object == null || object instanceof Serializable) {
-            delegate.putObject(key, serialize((Serializable) object));
+            delegate.putObject(key, serializer.serialize(object));
         } else {
             throw new CacheException("SharedCache failed to make a copy of a non-serializable object: " + object);
         }
@@ -54,7 +71,7 @@ public class SerializedCache implements Cache {
     @Override
     public Object getObject(Object key) {
         Object object = delegate.getObject(key);
-        return object == null ? null : deserialize((byte[]) object);
+        return object == null ? null : serializer.deserialize((byte[]) object);
     }
 
     @Override
@@ -77,28 +94,6 @@ public class SerializedCache implements Cache {
         return delegate.equals(obj);
     }
 
-    private byte[] serialize(Serializable value) {
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
-             ObjectOutputStream oos = new ObjectOutputStream(bos)) {
-            oos.writeObject(value);
-            oos.flush();
-            return bos.toByteArray();
-        } catch (Exception e) {
-            throw new CacheException("Error serializing object.  Cause: " + e, e);
-        }
-    }
-
-    private Serializable deserialize(byte[] value) {
-        Serializable result;
-        try (ByteArrayInputStream bis = new ByteArrayInputStream(value);
-             ObjectInputStream ois = new CustomObjectInputStream(bis)) {
-            result = (Serializable) ois.readObject();
-        } catch (Exception e) {
-            throw new CacheException("Error deserializing object.  Cause: " + e, e);
-        }
-        return result;
-    }
-
     public static class CustomObjectInputStream extends ObjectInputStream {
 
         public CustomObjectInputStream(InputStream in) throws IOException {
@@ -16,6 +16,7 @@
 package org.apache.ibatis.cache.decorators;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.EvictionListener;
 
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
@@ -33,6 +34,7 @@ public class SoftCache implements Cache {
     private final ReferenceQueue<Object> queueOfGarbageCollectedEntries;
     private final Cache delegate;
     private int numberOfHardLinks;
+    private EvictionListener evictionListener;
 
     public SoftCache(Cache delegate) {
         this.delegate = delegate;
@@ -56,6 +58,15 @@ public class SoftCache implements Cache {
         this.numberOfHardLinks = size;
     }
 
+    /**
+     * @param evictionListener notified of the entries removed because their value was garbage collected,
+     *                         {@code null} for none
+     * @since 3.5.5
+     */
+    public void setEvictionListener(EvictionListener evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
     @Override
     public void putObject(Object key, Object value) {
         removeGarbageCollectedItems();
@@ -71,6 +82,7 @@ public class SoftCache implements Cache {
             result = softReference.get();
             if (result == null) {
                 delegate.removeObject(key);
+                onEviction(key);
             } else {
                 // See #586 (and #335) modifications need more than a read lock
                 synchronized (hardLinksToAvoidGarbageCollection) {
@@ -103,6 +115,13 @@ public class SoftCache implements Cache {
         SoftEntry sv;
         while ((sv = (SoftEntry) queueOfGarbageCollectedEntries.poll()) != null) {
             delegate.removeObject(sv.key);
+            onEviction(sv.key);
+        }
+    }
+
+    private void onEviction(Object key) {
+        if (evictionListener != null) {
+            evictionListener.onEviction(key);
         }
     }
 
@@ -17,6 +17,8 @@ package org.apache.ibatis.cache.decorators;
 
 import org.apache.ibatis.cache.Cache;
 
+import java.util.Map;
+
 /**
  * @author Clinton Begin
  */
@@ -43,6 +45,11 @@ public class SynchronizedCache implements Cache {
         delegate.putObject(key, object);
     }
 
+    @Override
+    public synchronized void putObjects(Map<Object, Object> entries) {
+        delegate.putObjects(entries);
+    }
+
     @Override
     public synchronized Object getObject(Object key) {
         return delegate.getObject(key);
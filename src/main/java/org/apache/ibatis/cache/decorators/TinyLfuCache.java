@@ -0,0 +1,486 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.ConcurrentCache;
+import org.apache.ibatis.cache.EvictionListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * W-TinyLFU (window tiny least frequently used) cache decorator.
+ * <p>
+ * New entries enter a small LRU window. Entries leaving the window are only admitted to the main space, a segmented
+ * LRU of probation and protected entries, when they have been used more often than the entry they would evict.
+ * Usage is estimated with a count-min sketch of 4-bit counters that are halved periodically, so that old popularity
+ * fades.
+ * <p>
+ * Entries are held in a {@link ConcurrentHashMap} owned by this decorator, the decorated cache only provides the id.
+ * Reads never block: they record the access in a lossy buffer that is replayed on the eviction policy under a lock,
+ * either when the buffer is full or on the next write.
+ *
+ * @since 3.5.5
+ */
+public class TinyLfuCache implements ConcurrentCache {
+
+    private static final byte NEW = 0;
+    private static final byte WINDOW = 1;
+    private static final byte PROBATION = 2;
+    private static final byte PROTECTED = 3;
+    private static final byte DEAD = 4;
+
+    private static final int READ_BUFFER_SIZE = 16;
+    private static final int READ_BUFFER_STRIPES = ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors() * 2);
+
+    private final Cache delegate;
+    private final ConcurrentHashMap<Object, Node> data = new ConcurrentHashMap<>();
+    private final ReadBuffer[] readBuffers = new ReadBuffer[READ_BUFFER_STRIPES];
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    // guarded by evictionLock
+    private final AccessOrderDeque window = new AccessOrderDeque();
+    private final AccessOrderDeque probation = new AccessOrderDeque();
+    private final AccessOrderDeque protectedDeque = new AccessOrderDeque();
+    private FrequencySketch sketch;
+    private int maximumSize;
+    private int windowMaximum;
+    private int protectedMaximum;
+    private volatile EvictionListener evictionListener;
+
+    public TinyLfuCache(Cache delegate) {
+        this.delegate = delegate;
+        for (int i = 0; i < readBuffers.length; i++) {
+            readBuffers[i] = new ReadBuffer();
+        }
+        setSize(1024);
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public int getSize() {
+        return data.size();
+    }
+
+    public void setSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("The size of cache '" + getId() + "' must be positive but was " + size);
+        }
+        evictionLock.lock();
+        try {
+            maximumSize = size;
+            windowMaximum = Math.max(1, size / 100);
+            protectedMaximum = (int) ((size - windowMaximum) * 0.8);
+            sketch = new FrequencySketch(size);
+            evict(0);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * @param evictionListener notified of the entries this cache evicts, {@code null} for none
+     * @since 3.5.5
+     */
+    public void setEvictionListener(EvictionListener evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        Node node = new Node(key, value);
+        while (true) {
+            Node prior = data.putIfAbsent(key, node);
+            if (prior == null) {
+                evictionLock.lock();
+                try {
+                    drainReadBuffers();
+                    onAdd(node);
+                } finally {
+                    evictionLock.unlock();
+                }
+                return;
+            }
+            if (prior.queue != DEAD) {
+                prior.value = value;
+                afterRead(prior);
+                return;
+            }
+            // evicted concurrently, replace it
+            data.remove(key, prior);
+        }
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        Node node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        afterRead(node);
+        return node.value;
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        Node node = data.remove(key);
+        if (node == null) {
+            return null;
+        }
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            unlink(node);
+        } finally {
+            evictionLock.unlock();
+        }
+        return node.value;
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            for (AccessOrderDeque deque : new AccessOrderDeque[]{window, probation, protectedDeque}) {
+                for (Node node = deque.first; node != null; node = node.next) {
+                    node.queue = DEAD;
+                }
+                deque.clear();
+            }
+            data.clear();
+            delegate.clear();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return delegate.equals(obj);
+    }
+
+    private void afterRead(Node node) {
+        ReadBuffer buffer = readBuffers[(int) Thread.currentThread().getId() & (READ_BUFFER_STRIPES - 1)];
+        if (!buffer.offer(node) && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffers() {
+        for (ReadBuffer buffer : readBuffers) {
+            buffer.drainTo(this);
+        }
+    }
+
+    private void onAccess(Node node) {
+        switch (node.queue) {
+            case WINDOW:
+                sketch.increment(node.key);
+                window.moveToBack(node);
+                break;
+            case PROBATION:
+                sketch.increment(node.key);
+                probation.remove(node);
+                protectedDeque.addLast(node);
+                node.queue = PROTECTED;
+                while (protectedDeque.size > protectedMaximum) {
+                    Node demoted = protectedDeque.pollFirst();
+                    probation.addLast(demoted);
+                    demoted.queue = PROBATION;
+                }
+                break;
+            case PROTECTED:
+                sketch.increment(node.key);
+                protectedDeque.moveToBack(node);
+                break;
+            default:
+                // not added yet or already removed
+                break;
+        }
+    }
+
+    private void onAdd(Node node) {
+        if (node.queue != NEW || data.get(node.key) != node) {
+            return;
+        }
+        sketch.increment(node.key);
+        window.addLast(node);
+        node.queue = WINDOW;
+        int candidates = 0;
+        while (window.size > windowMaximum) {
+            Node candidate = window.pollFirst();
+            probation.addLast(candidate);
+            candidate.queue = PROBATION;
+            candidates++;
+        }
+        evict(candidates);
+    }
+
+    /**
+     * Evicts until the cache fits, either the entries that just left the window (the candidates, at the back of the
+     * probation segment) or the least recently used main entries, whichever has been used less frequently.
+     */
+    private void evict(int candidates) {
+        while (window.size + probation.size + protectedDeque.size > maximumSize) {
+            Node victim = probation.first != null ? probation.first : protectedDeque.first != null ? protectedDeque.first : window.first;
+            Node candidate = candidates > 0 ? probation.last : null;
+            if (candidate == null || candidate == victim) {
+                if (candidate != null) {
+                    candidates--;
+                }
+                evictEntry(victim);
+            } else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                evictEntry(victim);
+            } else {
+                candidates--;
+                evictEntry(candidate);
+            }
+        }
+    }
+
+    private void evictEntry(Node node) {
+        unlink(node);
+        EvictionListener listener = evictionListener;
+        if (data.remove(node.key, node) && listener != null) {
+            listener.onEviction(node.key);
+        }
+    }
+
+    private void unlink(Node node) {
+        switch (node.queue) {
+            case WINDOW:
+                window.remove(node);
+                break;
+            case PROBATION:
+                probation.remove(node);
+                break;
+            case PROTECTED:
+                protectedDeque.remove(node);
+                break;
+            default:
+                break;
+        }
+        node.queue = DEAD;
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        return 1 << (32 - Integer.numberOfLeadingZeros(Math.max(1, value) - 1));
+    }
+
+    private static final class Node {
+        private final Object key;
+        private volatile Object value;
+        // written under the eviction lock, read without it to detect evicted entries
+        private volatile byte queue = NEW;
+        private Node previous;
+        private Node next;
+
+        Node(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * A doubly linked list of nodes in access order, the least recently used first.
+     */
+    private static final class AccessOrderDeque {
+        private Node first;
+        private Node last;
+        private int size;
+
+        void addLast(Node node) {
+            node.previous = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+            size++;
+        }
+
+        void remove(Node node) {
+            if (node.previous == null) {
+                first = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+            size--;
+        }
+
+        Node pollFirst() {
+            Node node = first;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        void moveToBack(Node node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void clear() {
+            first = null;
+            last = null;
+            size = 0;
+        }
+    }
+
+    /**
+     * A bounded buffer of reads. Offers fail instead of waiting when it is full, losing the access record.
+     */
+    private static final class ReadBuffer {
+        private final AtomicLong writeCount = new AtomicLong();
+        private final AtomicLong readCount = new AtomicLong();
+        private final AtomicReferenceArray<Node> nodes = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+
+        boolean offer(Node node) {
+            long writes = writeCount.get();
+            if (writes - readCount.get() >= READ_BUFFER_SIZE) {
+                return false;
+            }
+            if (writeCount.compareAndSet(writes, writes + 1)) {
+                nodes.lazySet((int) (writes & (READ_BUFFER_SIZE - 1)), node);
+            }
+            return true;
+        }
+
+        // called under the eviction lock
+        void drainTo(TinyLfuCache cache) {
+            long reads = readCount.get();
+            long writes = writeCount.get();
+            while (reads < writes) {
+                int index = (int) (reads & (READ_BUFFER_SIZE - 1));
+                Node node = nodes.get(index);
+                if (node == null) {
+                    // the offering thread has not published its node yet
+                    break;
+                }
+                nodes.lazySet(index, null);
+                cache.onAccess(node);
+                reads++;
+            }
+            readCount.lazySet(reads);
+        }
+    }
+
+    /**
+     * A count-min sketch of 4-bit counters estimating how often keys were used. Each long holds sixteen counters;
+     * a key uses one counter in four different longs. All counters are halved once the sample size is reached.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+        private static final long RESET_MASK = 0x7777777777777777L;
+        private static final long ONE_MASK = 0x1111111111111111L;
+
+        private final long[] table;
+        private final int tableMask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maximumSize) {
+            int length = ceilingPowerOfTwo(Math.min(maximumSize, 1 << 30));
+            table = new long[length];
+            tableMask = length - 1;
+            sampleSize = 10 * Math.min(maximumSize, Integer.MAX_VALUE / 10);
+        }
+
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int start = (hash & 3) << 2;
+            int frequency = 15;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                added |= incrementAt(indexOf(hash, i), start + i);
+            }
+            if (added && ++additions == sampleSize) {
+                reset();
+            }
+        }
+
+        private boolean incrementAt(int index, int counter) {
+            int offset = counter << 2;
+            long mask = 0xfL << offset;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << offset;
+                return true;
+            }
+            return false;
+        }
+
+        private void reset() {
+            int odd = 0;
+            for (int i = 0; i < table.length; i++) {
+                odd += Long.bitCount(table[i] & ONE_MASK);
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            additions = (additions >>> 1) - (odd >>> 2);
+        }
+
+        private int indexOf(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return ((int) h) & tableMask;
+        }
+
+        private static int spread(int x) {
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            return (x >>> 16) ^ x;
+        }
+    }
+}
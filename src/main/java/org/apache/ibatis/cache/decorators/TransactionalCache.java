@@ -16,11 +16,15 @@
 package org.apache.ibatis.cache.decorators;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.metrics.CacheMetrics;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
@@ -31,6 +35,11 @@ import java.util.Set;
  * Entries are sent to the cache when commit is called or discarded if the Session is rolled back.
  * Blocking cache support has been added. Therefore any get() that returns a cache miss
  * will be followed by a put() so any lock associated with the key can be released.
+ * When the cache tracks dependencies, writes invalidate only the entries that depend on the tables written, and
+ * reads of such entries miss until the transaction ends.
+ * <p>
+ * The buffers are only allocated once used and are reused by the next transactions of the session, and the pending
+ * entries are sent to the cache with a single {@link Cache#putObjects(Map)} call.
  *
  * @author Clinton Begin
  * @author Eduardo Macarron
@@ -39,16 +48,26 @@ public class TransactionalCache implements Cache {
 
     private static final Log log = LogFactory.getLog(TransactionalCache.class);
 
+    /**
+     * Buffers that held more elements are dropped at the end of the transaction instead of being reused.
+     */
+    private static final int MAX_REUSED_SIZE = 256;
+
     private final Cache delegate;
     private boolean clearOnCommit;
-    private final Map<Object, Object> entriesToAddOnCommit;
-    private final Set<Object> entriesMissedInCache;
+    // the buffers below are null until used
+    private Map<Object, Object> entriesToAddOnCommit;
+    private Set<Object> entriesMissedInCache;
+    private final DependencyTrackingCache tracking;
+    private Map<Object, Set<String>> tablesOfEntriesToAdd;
+    private Set<String> tablesToInvalidateOnCommit;
+    private final CacheMetrics metrics;
 
     public TransactionalCache(Cache delegate) {
         this.delegate = delegate;
         this.clearOnCommit = false;
-        this.entriesToAddOnCommit = new HashMap<>();
-        this.entriesMissedInCache = new HashSet<>();
+        this.tracking = delegate instanceof DependencyTrackingCache ? (DependencyTrackingCache) delegate : null;
+        this.metrics = MetricsCache.metricsOf(delegate);
     }
 
     @Override
@@ -66,10 +85,14 @@ public class TransactionalCache implements Cache {
         // issue #116
         Object object = delegate.getObject(key);
         if (object == null) {
+            if (entriesMissedInCache == null) {
+                entriesMissedInCache = new HashSet<>();
+            }
             entriesMissedInCache.add(key);
         }
         // issue #146
-        if (clearOnCommit) {
+        if (clearOnCommit || (object != null && !isEmpty(tablesToInvalidateOnCommit)
+            && tracking.dependsOn(key, tablesToInvalidateOnCommit))) {
             return null;
         } else {
             return object;
@@ -78,7 +101,30 @@ public class TransactionalCache implements Cache {
 
     @Override
     public void putObject(Object key, Object object) {
+        putObject(key, object, null);
+    }
+
+    /**
+     * @param key    the key
+     * @param object the result of the query
+     * @param tables the tables the query read, {@code null} if unknown
+     * @since 3.5.5
+     */
+    public void putObject(Object key, Object object, Set<String> tables) {
+        if (entriesToAddOnCommit == null) {
+            entriesToAddOnCommit = new HashMap<>();
+        }
         entriesToAddOnCommit.put(key, object);
+        if (tracking != null) {
+            if (tables != null) {
+                if (tablesOfEntriesToAdd == null) {
+                    tablesOfEntriesToAdd = new HashMap<>();
+                }
+                tablesOfEntriesToAdd.put(key, tables);
+            } else if (tablesOfEntriesToAdd != null) {
+                tablesOfEntriesToAdd.remove(key);
+            }
+        }
     }
 
     @Override
@@ -89,40 +135,115 @@ public class TransactionalCache implements Cache {
     @Override
     public void clear() {
         clearOnCommit = true;
-        entriesToAddOnCommit.clear();
+        clearBuffer(entriesToAddOnCommit);
+        clearBuffer(tablesOfEntriesToAdd);
+        clearBuffer(tablesToInvalidateOnCommit);
+    }
+
+    /**
+     * Invalidates on commit the entries that depend on the tables, or clears the cache when it does not track
+     * dependencies.
+     *
+     * @param tables the tables written, {@code null} if unknown
+     * @since 3.5.5
+     */
+    public void invalidate(Set<String> tables) {
+        if (tracking == null || tables == null) {
+            clear();
+            return;
+        }
+        if (!clearOnCommit) {
+            if (tablesToInvalidateOnCommit == null) {
+                tablesToInvalidateOnCommit = new HashSet<>();
+            }
+            tablesToInvalidateOnCommit.addAll(tables);
+        }
+        if (isEmpty(entriesToAddOnCommit)) {
+            return;
+        }
+        Iterator<Object> keys = entriesToAddOnCommit.keySet().iterator();
+        while (keys.hasNext()) {
+            Object key = keys.next();
+            Set<String> dependencies = tablesOfEntriesToAdd == null ? null : tablesOfEntriesToAdd.get(key);
+            if (dependencies == null || !Collections.disjoint(dependencies, tables)) {
+                keys.remove();
+                if (dependencies != null) {
+                    tablesOfEntriesToAdd.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether the cache is cleared on commit
+     * @since 3.5.5
+     */
+    public boolean isClearOnCommit() {
+        return clearOnCommit;
+    }
+
+    /**
+     * @return a read only view of the tables whose dependent entries are invalidated on commit
+     * @since 3.5.5
+     */
+    public Set<String> getTablesToInvalidateOnCommit() {
+        return tablesToInvalidateOnCommit == null
+            ? Collections.emptySet() : Collections.unmodifiableSet(tablesToInvalidateOnCommit);
     }
 
     public void commit() {
         if (clearOnCommit) {
             delegate.clear();
+        } else if (!isEmpty(tablesToInvalidateOnCommit)) {
+            tracking.invalidate(tablesToInvalidateOnCommit);
+        }
+        if (metrics != null) {
+            metrics.recordCommit(size(entriesToAddOnCommit));
         }
         flushPendingEntries();
         reset();
     }
 
     public void rollback() {
+        if (metrics != null) {
+            metrics.recordRollback(size(entriesToAddOnCommit));
+        }
         unlockMissedEntries();
         reset();
     }
 
     private void reset() {
         clearOnCommit = false;
-        entriesToAddOnCommit.clear();
-        entriesMissedInCache.clear();
+        entriesToAddOnCommit = reuse(entriesToAddOnCommit);
+        entriesMissedInCache = reuse(entriesMissedInCache);
+        tablesOfEntriesToAdd = reuse(tablesOfEntriesToAdd);
+        tablesToInvalidateOnCommit = reuse(tablesToInvalidateOnCommit);
     }
 
     private void flushPendingEntries() {
-        for (Map.Entry<Object, Object> entry : entriesToAddOnCommit.entrySet()) {
-            delegate.putObject(entry.getKey(), entry.getValue());
-        }
-        for (Object entry : entriesMissedInCache) {
-            if (!entriesToAddOnCommit.containsKey(entry)) {
-                delegate.putObject(entry, null);
+        if (!isEmpty(entriesMissedInCache)) {
+            if (entriesToAddOnCommit == null) {
+                entriesToAddOnCommit = new HashMap<>();
             }
+            // the missed entries are put as nulls, releasing the locks of a blocking cache
+            for (Object entry : entriesMissedInCache) {
+                entriesToAddOnCommit.putIfAbsent(entry, null);
+            }
+        }
+        if (isEmpty(entriesToAddOnCommit)) {
+            return;
+        }
+        if (tracking != null) {
+            tracking.putObjects(entriesToAddOnCommit, tablesOfEntriesToAdd);
+        } else {
+            delegate.putObjects(entriesToAddOnCommit);
         }
     }
 
     private void unlockMissedEntries() {
+        if (entriesMissedInCache == null) {
+            return;
+        }
         for (Object entry : entriesMissedInCache) {
             try {
                 delegate.removeObject(entry);
@@ -133,4 +254,44 @@ public class TransactionalCache implements Cache {
         }
     }
 
+    private static <T extends Map<?, ?>> T reuse(T buffer) {
+        if (buffer == null || buffer.size() > MAX_REUSED_SIZE) {
+            return null;
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    private static <T extends Collection<?>> T reuse(T buffer) {
+        if (buffer == null || buffer.size() > MAX_REUSED_SIZE) {
+            return null;
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    private static void clearBuffer(Map<?, ?> buffer) {
+        if (buffer != null) {
+            buffer.clear();
+        }
+    }
+
+    private static void clearBuffer(Collection<?> buffer) {
+        if (buffer != null) {
+            buffer.clear();
+        }
+    }
+
+    private static boolean isEmpty(Map<?, ?> buffer) {
+        return buffer == null || buffer.isEmpty();
+    }
+
+    private static boolean isEmpty(Collection<?> buffer) {
+        return buffer == null || buffer.isEmpty();
+    }
+
+    private static int size(Map<?, ?> buffer) {
+        return buffer == null ? 0 : buffer.size();
+    }
+
 }
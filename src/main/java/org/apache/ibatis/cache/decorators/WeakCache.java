@@ -16,6 +16,7 @@
 package org.apache.ibatis.cache.decorators;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.EvictionListener;
 
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
@@ -33,6 +34,7 @@ public class WeakCache implements Cache {
     private final ReferenceQueue<Object> queueOfGarbageCollectedEntries;
     private final Cache delegate;
     private int numberOfHardLinks;
+    private EvictionListener evictionListener;
 
     public WeakCache(Cache delegate) {
         this.delegate = delegate;
@@ -56,6 +58,15 @@ public class WeakCache implements Cache {
         this.numberOfHardLinks = size;
     }
 
+    /**
+     * @param evictionListener notified of the entries removed because their value was garbage collected,
+     *                         {@code null} for none
+     * @since 3.5.5
+     */
+    public void setEvictionListener(EvictionListener evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
     @Override
     public void putObject(Object key, Object value) {
         removeGarbageCollectedItems();
@@ -71,6 +82,7 @@ public class WeakCache implements Cache {
             result = weakReference.get();
             if (result == null) {
                 delegate.removeObject(key);
+                onEviction(key);
             } else {
                 hardLinksToAvoidGarbageCollection.addFirst(result);
                 if (hardLinksToAvoidGarbageCollection.size() > numberOfHardLinks) {
@@ -98,6 +110,13 @@ public class WeakCache implements Cache {
         WeakEntry sv;
         while ((sv = (WeakEntry) queueOfGarbageCollectedEntries.poll()) != null) {
             delegate.removeObject(sv.key);
+            onEviction(sv.key);
+        }
+    }
+
+    private void onEviction(Object key) {
+        if (evictionListener != null) {
+            evictionListener.onEviction(key);
         }
     }
 
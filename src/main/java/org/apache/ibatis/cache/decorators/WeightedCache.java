@@ -0,0 +1,301 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.ConcurrentCache;
+import org.apache.ibatis.cache.EvictionListener;
+import org.apache.ibatis.cache.WeightBudget;
+import org.apache.ibatis.cache.Weigher;
+import org.apache.ibatis.io.Resources;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lru cache decorator bounded by the estimated weight of its entries as well as by their number.
+ * <p>
+ * Unless a {@link Weigher} is configured, a serialized value (read/write cache) weighs its length in bytes,
+ * a list of results weighs {@code bytesPerRow} per row and any other value weighs {@code bytesPerRow}.
+ * Entries heavier than the maximum weight are not cached at all. When a {@link WeightBudget} is attached,
+ * the cache also takes part in the weight limit shared by all the weighted caches of the configuration.
+ *
+ * @since 3.5.5
+ */
+public class WeightedCache implements ConcurrentCache {
+
+    private final Cache delegate;
+    private final LinkedHashMap<Object, Long> weights = new LinkedHashMap<>(16, .75F, true);
+    private int size = 1024;
+    private long maxWeight = Long.MAX_VALUE;
+    private int bytesPerRow = 256;
+    private Weigher weigher;
+    private WeightBudget budget;
+    private EvictionListener evictionListener;
+    private volatile long weight;
+    private long evictionCount;
+    private long evictedWeight;
+    private long rejectionCount;
+
+    public WeightedCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return delegate.getSize();
+    }
+
+    /**
+     * @param size the maximum number of entries, 1024 by default
+     */
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    /**
+     * @param maxWeight the maximum total weight of the entries, not limited by default
+     */
+    public void setMaxWeight(long maxWeight) {
+        this.maxWeight = maxWeight > 0 ? maxWeight : Long.MAX_VALUE;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * @param bytesPerRow the estimated weight of a result object when values are not serialized, 256 by default
+     */
+    public void setBytesPerRow(int bytesPerRow) {
+        this.bytesPerRow = bytesPerRow;
+    }
+
+    public void setWeigher(Weigher weigher) {
+        this.weigher = weigher;
+    }
+
+    /**
+     * @param weigherType the class name of the {@link Weigher} to use
+     */
+    public void setWeigherType(String weigherType) {
+        try {
+            setWeigher((Weigher) Resources.classForName(weigherType).getDeclaredConstructor().newInstance());
+        } catch (Exception e) {
+            throw new CacheException("Error creating weigher '" + weigherType + "' for cache " + getId() + ".  Cause: " + e, e);
+        }
+    }
+
+    /**
+     * Attaches this cache to a weight limit shared with other caches.
+     *
+     * @param budget the shared budget, or null to detach the cache
+     */
+    public void setWeightBudget(WeightBudget budget) {
+        long current;
+        synchronized (this) {
+            if (this.budget != null) {
+                this.budget.unregister(this);
+                this.budget.add(-weight);
+            }
+            this.budget = budget;
+            current = weight;
+        }
+        if (budget != null) {
+            budget.register(this);
+            budget.add(current);
+        }
+    }
+
+    /**
+     * @param evictionListener notified of the entries this cache evicts, {@code null} for none
+     * @since 3.5.5
+     */
+    public synchronized void setEvictionListener(EvictionListener evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    public WeightBudget getWeightBudget() {
+        return budget;
+    }
+
+    /**
+     * @return the total weight of the cached entries
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return the number of entries evicted to stay within the limits
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return the total weight of the evicted entries
+     */
+    public synchronized long getEvictedWeight() {
+        return evictedWeight;
+    }
+
+    /**
+     * @return the number of entries not cached because they were heavier than the limit
+     */
+    public synchronized long getRejectionCount() {
+        return rejectionCount;
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        long entryWeight = weigh(key, value);
+        long delta = 0;
+        WeightBudget budget;
+        synchronized (this) {
+            budget = this.budget;
+            Long previous = weights.remove(key);
+            if (previous != null) {
+                delta -= previous;
+            }
+            if (entryWeight > maxWeight || (budget != null && budget.getLimit() > 0 && entryWeight > budget.getLimit())) {
+                delegate.removeObject(key);
+                rejectionCount++;
+            } else {
+                delegate.putObject(key, value);
+                weights.put(key, entryWeight);
+                delta += entryWeight;
+                Iterator<Map.Entry<Object, Long>> eldest = weights.entrySet().iterator();
+                while (weight + delta > maxWeight || weights.size() > size) {
+                    Map.Entry<Object, Long> entry = eldest.next();
+                    delegate.removeObject(entry.getKey());
+                    delta -= entry.getValue();
+                    evictionCount++;
+                    evictedWeight += entry.getValue();
+                    eldest.remove();
+                    if (evictionListener != null) {
+                        evictionListener.onEviction(entry.getKey());
+                    }
+                }
+            }
+            weight += delta;
+        }
+        if (budget != null) {
+            budget.add(delta);
+        }
+    }
+
+    @Override
+    public synchronized Object getObject(Object key) {
+        weights.get(key); // touch
+        return delegate.getObject(key);
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        Object value;
+        Long removed;
+        WeightBudget budget;
+        synchronized (this) {
+            budget = this.budget;
+            removed = weights.remove(key);
+            if (removed != null) {
+                weight -= removed;
+            }
+            value = delegate.removeObject(key);
+        }
+        if (budget != null && removed != null) {
+            budget.add(-removed);
+        }
+        return value;
+    }
+
+    @Override
+    public void clear() {
+        long removed;
+        WeightBudget budget;
+        synchronized (this) {
+            budget = this.budget;
+            delegate.clear();
+            weights.clear();
+            removed = weight;
+            weight = 0;
+        }
+        if (budget != null) {
+            budget.add(-removed);
+        }
+    }
+
+    /**
+     * Evicts the least recently used entry. Called by the {@link WeightBudget} when the shared limit is exceeded.
+     *
+     * @return false if the cache is empty
+     */
+    public boolean evictEldest() {
+        long removed;
+        WeightBudget budget;
+        synchronized (this) {
+            Iterator<Map.Entry<Object, Long>> eldest = weights.entrySet().iterator();
+            if (!eldest.hasNext()) {
+                return false;
+            }
+            Map.Entry<Object, Long> entry = eldest.next();
+            delegate.removeObject(entry.getKey());
+            removed = entry.getValue();
+            eldest.remove();
+            weight -= removed;
+            evictionCount++;
+            evictedWeight += removed;
+            if (evictionListener != null) {
+                evictionListener.onEviction(entry.getKey());
+            }
+            budget = this.budget;
+        }
+        if (budget != null) {
+            budget.add(-removed);
+        }
+        return true;
+    }
+
+    private long weigh(Object key, Object value) {
+        if (weigher != null) {
+            long entryWeight = weigher.weigh(key, value);
+            if (entryWeight < 0) {
+                throw new CacheException("Negative weight " + entryWeight + " for an entry of cache " + getId());
+            }
+            return entryWeight;
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        if (value instanceof Collection) {
+            return (long) Math.max(((Collection<?>) value).size(), 1) * bytesPerRow;
+        }
+        if (value instanceof Map) {
+            return (long) Math.max(((Map<?, ?>) value).size(), 1) * bytesPerRow;
+        }
+        return value == null ? 0 : bytesPerRow;
+    }
+
+}
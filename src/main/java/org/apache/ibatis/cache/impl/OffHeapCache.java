@@ -0,0 +1,442 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import org.apache.ibatis.builder.InitializingObject;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.EvictionListener;
+import org.apache.ibatis.cache.serializer.JdkSerializer;
+import org.apache.ibatis.cache.serializer.Serializer;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache that keeps serialized values outside of the Java heap, in a direct buffer or, when a {@code file} is set, in a
+ * memory-mapped file whose entries survive restarts.
+ * <p>
+ * The memory is divided into pages of {@code pageSize} bytes. Each page holds chunks of a single size, a power of two
+ * from 64 bytes to the page size, and an entry is stored in the smallest chunk that fits its serialized key and value.
+ * When no chunk of the right size is free, the least recently used entry of that size is evicted, or a page is taken
+ * from another size when this size has no page yet. Entries larger than a page are not cached. Only the keys and the
+ * location of the entries are kept on the heap.
+ * <p>
+ * As other custom cache implementations, this cache is not decorated with the standard eviction and serialization
+ * decorators: it is thread safe and always returns copies of the cached objects. The {@code serializer} and
+ * {@code compressionThreshold} of the cache element are applied to its own serializer.
+ *
+ * @since 3.5.5
+ */
+public class OffHeapCache implements Cache, InitializingObject {
+
+    private static final int MAGIC = 0x4D424F48;
+    private static final int HEADER_SIZE = 12;
+    private static final int CHUNK_HEADER_SIZE = 8;
+    private static final int MIN_CHUNK_SIZE = 64;
+    private static final byte UNASSIGNED = -1;
+    // marks a chunk in use whose key could not be serialized, such entries are not recovered
+    private static final int TRANSIENT_KEY = -1;
+
+    private final String id;
+    private Serializer serializer = new JdkSerializer();
+    private long capacity = 64L * 1024 * 1024;
+    private int pageSize = 1024 * 1024;
+    private String file;
+    private EvictionListener evictionListener;
+
+    private ByteBuffer buffer;
+    private int pageCount;
+    private int dataOffset;
+    private SizeClass[] sizeClasses;
+    private final ArrayDeque<Integer> freePages = new ArrayDeque<>();
+    private final Map<Object, Slot> index = new HashMap<>();
+
+    public OffHeapCache(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @param capacity the memory used by the cache in bytes, 64 MB by default and at most 2 GB
+     */
+    public void setCapacity(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param pageSize the size of a page in bytes, a power of two that is also the maximum size of an entry, 1 MB by
+     *                 default
+     */
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * @param serializer the serializer of the cached keys and values, {@link JdkSerializer} by default. Entries
+     *                   recovered from a {@code file} must have been written with the same serializer.
+     */
+    public void setSerializer(Serializer serializer) {
+        this.serializer = serializer;
+    }
+
+    /**
+     * @param evictionListener notified of the entries this cache evicts or does not keep because they are larger than
+     *                         a page, {@code null} for none
+     */
+    public void setEvictionListener(EvictionListener evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * @param file the path of a file to map the cache to, so that cached entries are kept across restarts
+     */
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void initialize() {
+        if (pageSize < MIN_CHUNK_SIZE || Integer.bitCount(pageSize) != 1) {
+            throw new CacheException("The page size of cache " + id + " must be a power of two of at least " + MIN_CHUNK_SIZE + " bytes");
+        }
+        pageCount = (int) Math.min(capacity / pageSize, Integer.MAX_VALUE);
+        dataOffset = (HEADER_SIZE + pageCount + 7) & ~7;
+        long totalSize = dataOffset + (long) pageCount * pageSize;
+        if (pageCount == 0 || totalSize > Integer.MAX_VALUE) {
+            throw new CacheException("The capacity of cache " + id + " must be between one page and 2 GB");
+        }
+        sizeClasses = new SizeClass[Integer.numberOfTrailingZeros(pageSize) - Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE) + 1];
+        for (int i = 0; i < sizeClasses.length; i++) {
+            sizeClasses[i] = new SizeClass(MIN_CHUNK_SIZE << i);
+        }
+        index.clear();
+        freePages.clear();
+        if (file == null) {
+            buffer = ByteBuffer.allocateDirect((int) totalSize);
+            format();
+        } else {
+            buffer = map(Paths.get(file), (int) totalSize);
+            if (buffer.getInt(0) == MAGIC && buffer.getInt(4) == pageSize && buffer.getInt(8) == pageCount) {
+                recover();
+            } else {
+                format();
+            }
+        }
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return index.size();
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        if (value != null && !(value instanceof Serializable)) {
+            throw new CacheException("OffHeapCache failed to store a non-serializable object: " + value);
+        }
+        byte[] valueBytes = serializer.serialize(value);
+        byte[] keyBytes = null;
+        if (file != null && key instanceof Serializable) {
+            try {
+                keyBytes = serializer.serialize(key);
+            } catch (CacheException e) {
+                // the entry is still cached, but will not be recovered after a restart
+            }
+        }
+        int length = CHUNK_HEADER_SIZE + (keyBytes == null ? 0 : keyBytes.length) + valueBytes.length;
+        synchronized (this) {
+            ensureInitialized();
+            remove(key);
+            if (length > pageSize) {
+                onEviction(key);
+                return;
+            }
+            int sizeClass = sizeClassOf(length);
+            Slot slot = new Slot(key, allocate(sizeClass), sizeClass);
+            writeChunk(slot.offset, keyBytes, valueBytes);
+            index.put(key, slot);
+            sizeClasses[sizeClass].entries.put(key, slot);
+        }
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        byte[] valueBytes;
+        synchronized (this) {
+            ensureInitialized();
+            Slot slot = index.get(key);
+            if (slot == null) {
+                return null;
+            }
+            sizeClasses[slot.sizeClass].entries.get(key); // touch
+            int keyLength = Math.max(buffer.getInt(slot.offset), 0);
+            valueBytes = new byte[buffer.getInt(slot.offset + 4)];
+            buffer.position(slot.offset + CHUNK_HEADER_SIZE + keyLength);
+            buffer.get(valueBytes);
+        }
+        return serializer.deserialize(valueBytes);
+    }
+
+    @Override
+    public synchronized Object removeObject(Object key) {
+        ensureInitialized();
+        remove(key);
+        return null;
+    }
+
+    @Override
+    public synchronized void clear() {
+        ensureInitialized();
+        format();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (getId() == null) {
+            throw new CacheException("Cache instances require an ID.");
+        }
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Cache)) {
+            return false;
+        }
+
+        Cache otherCache = (Cache) o;
+        return getId().equals(otherCache.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        if (getId() == null) {
+            throw new CacheException("Cache instances require an ID.");
+        }
+        return getId().hashCode();
+    }
+
+    private void ensureInitialized() {
+        if (buffer == null) {
+            initialize();
+        }
+    }
+
+    private ByteBuffer map(Path path, int size) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new CacheException("Error mapping file " + path + " for cache " + id + ".  Cause: " + e, e);
+        }
+    }
+
+    private void format() {
+        index.clear();
+        freePages.clear();
+        for (SizeClass sizeClass : sizeClasses) {
+            sizeClass.clear();
+        }
+        for (int page = 0; page < pageCount; page++) {
+            buffer.put(HEADER_SIZE + page, UNASSIGNED);
+            freePages.add(page);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, pageSize);
+        buffer.putInt(8, pageCount);
+    }
+
+    private void recover() {
+        for (SizeClass sizeClass : sizeClasses) {
+            sizeClass.clear();
+        }
+        for (int page = 0; page < pageCount; page++) {
+            byte sizeClass = buffer.get(HEADER_SIZE + page);
+            if (sizeClass < 0 || sizeClass >= sizeClasses.length) {
+                buffer.put(HEADER_SIZE + page, UNASSIGNED);
+                freePages.add(page);
+                continue;
+            }
+            sizeClasses[sizeClass].pages++;
+            int chunkSize = sizeClasses[sizeClass].chunkSize;
+            for (int offset = pageOffset(page); offset < pageOffset(page) + pageSize; offset += chunkSize) {
+                Object key = readKey(offset, chunkSize);
+                if (key == null) {
+                    buffer.putInt(offset, 0);
+                    sizeClasses[sizeClass].freeChunks.add(offset);
+                } else {
+                    Slot slot = new Slot(key, offset, sizeClass);
+                    Slot previous = index.put(key, slot);
+                    if (previous != null) {
+                        sizeClasses[previous.sizeClass].entries.remove(key);
+                        release(previous);
+                    }
+                    sizeClasses[sizeClass].entries.put(key, slot);
+                }
+            }
+        }
+    }
+
+    private Object readKey(int offset, int chunkSize) {
+        int keyLength = buffer.getInt(offset);
+        if (keyLength <= 0 || (long) CHUNK_HEADER_SIZE + keyLength + buffer.getInt(offset + 4) > chunkSize) {
+            return null;
+        }
+        byte[] keyBytes = new byte[keyLength];
+        buffer.position(offset + CHUNK_HEADER_SIZE);
+        buffer.get(keyBytes);
+        try {
+            return serializer.deserialize(keyBytes);
+        } catch (CacheException e) {
+            return null;
+        }
+    }
+
+    private void writeChunk(int offset, byte[] keyBytes, byte[] valueBytes) {
+        buffer.position(offset + CHUNK_HEADER_SIZE);
+        if (keyBytes != null) {
+            buffer.put(keyBytes);
+        }
+        buffer.put(valueBytes);
+        buffer.putInt(offset + 4, valueBytes.length);
+        // written last so that a partially written chunk is never recovered
+        buffer.putInt(offset, keyBytes == null ? TRANSIENT_KEY : keyBytes.length);
+    }
+
+    private void remove(Object key) {
+        Slot slot = index.remove(key);
+        if (slot != null) {
+            sizeClasses[slot.sizeClass].entries.remove(key);
+            release(slot);
+        }
+    }
+
+    private void onEviction(Object key) {
+        if (evictionListener != null) {
+            evictionListener.onEviction(key);
+        }
+    }
+
+    private void release(Slot slot) {
+        buffer.putInt(slot.offset, 0);
+        sizeClasses[slot.sizeClass].freeChunks.add(slot.offset);
+    }
+
+    private int allocate(int sizeClass) {
+        SizeClass target = sizeClasses[sizeClass];
+        if (target.freeChunks.isEmpty()) {
+            if (!freePages.isEmpty()) {
+                assignPage(freePages.poll(), sizeClass);
+            } else if (!target.entries.isEmpty()) {
+                Slot eldest = target.entries.values().iterator().next();
+                remove(eldest.key);
+                onEviction(eldest.key);
+            } else {
+                assignPage(reclaimPage(), sizeClass);
+            }
+        }
+        return target.freeChunks.poll();
+    }
+
+    private int reclaimPage() {
+        int victim = 0;
+        for (int i = 1; i < sizeClasses.length; i++) {
+            if (sizeClasses[i].pages > sizeClasses[victim].pages) {
+                victim = i;
+            }
+        }
+        SizeClass victimClass = sizeClasses[victim];
+        int page = victimClass.entries.isEmpty()
+            ? pageOf(victimClass.freeChunks.peek())
+            : pageOf(victimClass.entries.values().iterator().next().offset);
+        for (Iterator<Slot> iterator = victimClass.entries.values().iterator(); iterator.hasNext(); ) {
+            Slot slot = iterator.next();
+            if (pageOf(slot.offset) == page) {
+                index.remove(slot.key);
+                iterator.remove();
+                onEviction(slot.key);
+            }
+        }
+        victimClass.freeChunks.removeIf(offset -> pageOf(offset) == page);
+        victimClass.pages--;
+        return page;
+    }
+
+    private void assignPage(int page, int sizeClass) {
+        SizeClass target = sizeClasses[sizeClass];
+        for (int offset = pageOffset(page); offset < pageOffset(page) + pageSize; offset += target.chunkSize) {
+            buffer.putInt(offset, 0);
+            target.freeChunks.add(offset);
+        }
+        buffer.put(HEADER_SIZE + page, (byte) sizeClass);
+        target.pages++;
+    }
+
+    private int pageOffset(int page) {
+        return dataOffset + page * pageSize;
+    }
+
+    private int pageOf(int offset) {
+        return (offset - dataOffset) / pageSize;
+    }
+
+    private int sizeClassOf(int length) {
+        int chunkSize = Math.max(Integer.highestOneBit(length - 1) << 1, MIN_CHUNK_SIZE);
+        return Integer.numberOfTrailingZeros(chunkSize) - Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE);
+    }
+
+    private static class SizeClass {
+        final int chunkSize;
+        final ArrayDeque<Integer> freeChunks = new ArrayDeque<>();
+        final LinkedHashMap<Object, Slot> entries = new LinkedHashMap<>(16, .75F, true);
+        int pages;
+
+        SizeClass(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        void clear() {
+            freeChunks.clear();
+            entries.clear();
+            pages = 0;
+        }
+    }
+
+    private static class Slot {
+        final Object key;
+        final int offset;
+        final int sizeClass;
+
+        Slot(Object key, int offset, int sizeClass) {
+            this.key = key;
+            this.offset = offset;
+            this.sizeClass = sizeClass;
+        }
+    }
+
+}
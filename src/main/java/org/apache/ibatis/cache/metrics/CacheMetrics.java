@@ -0,0 +1,97 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.metrics;
+
+/**
+ * Receives the activity of a cache. Implementations are called on the query path by many threads at once, so they
+ * must be thread safe and should neither block nor allocate.
+ *
+ * @since 3.5.5
+ * @see CacheMetricsFactory
+ * @see org.apache.ibatis.cache.decorators.MetricsCache
+ */
+public interface CacheMetrics {
+
+    /**
+     * Records a read that found a value.
+     */
+    void recordHit();
+
+    /**
+     * Records a read that found no value.
+     */
+    void recordMiss();
+
+    /**
+     * Records a value written to the cache.
+     */
+    void recordPut();
+
+    /**
+     * Records several values written to the cache at once.
+     *
+     * @param count the number of values
+     */
+    default void recordPuts(int count) {
+        for (int i = 0; i < count; i++) {
+            recordPut();
+        }
+    }
+
+    /**
+     * Records a value removed from the cache on request.
+     */
+    void recordRemoval();
+
+    /**
+     * Records that the cache has been cleared.
+     */
+    void recordClear();
+
+    /**
+     * Records a value removed by the cache itself, because of its size, its weight or the age of the value.
+     */
+    void recordEviction();
+
+    /**
+     * @param nanos the time taken to read a value
+     */
+    void recordReadTime(long nanos);
+
+    /**
+     * @param nanos the time taken to write a value
+     */
+    void recordWriteTime(long nanos);
+
+    /**
+     * @param nanos the time taken to load a missing value from the database
+     */
+    void recordLoadTime(long nanos);
+
+    /**
+     * Records the commit of a transaction that used the cache.
+     *
+     * @param entries the number of values written to the cache by the commit
+     */
+    void recordCommit(int entries);
+
+    /**
+     * Records the rollback of a transaction that used the cache.
+     *
+     * @param entries the number of values discarded by the rollback
+     */
+    void recordRollback(int entries);
+}
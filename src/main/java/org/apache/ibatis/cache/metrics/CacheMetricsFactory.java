@@ -0,0 +1,33 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.metrics;
+
+/**
+ * Creates the {@link CacheMetrics} of each cache, for instance to report them to a monitoring system.
+ *
+ * @since 3.5.5
+ * @see org.apache.ibatis.session.Configuration#setCacheMetricsFactory(CacheMetricsFactory)
+ */
+@FunctionalInterface
+public interface CacheMetricsFactory {
+
+    /**
+     * @param id the id of the cache, the namespace of a second level cache or
+     *           {@link CacheMetricsRegistry#LOCAL_CACHE_ID} for the local caches
+     * @return the metrics of the cache
+     */
+    CacheMetrics create(String id);
+}
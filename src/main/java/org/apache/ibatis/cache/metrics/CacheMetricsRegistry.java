@@ -0,0 +1,72 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the {@link CacheMetrics} of the caches of a configuration, by cache id.
+ *
+ * @since 3.5.5
+ * @see org.apache.ibatis.session.Configuration#getCacheMetricsRegistry()
+ */
+public class CacheMetricsRegistry {
+
+    /**
+     * The id under which the local caches of all the sessions report their metrics.
+     */
+    public static final String LOCAL_CACHE_ID = "LocalCache";
+
+    private final Map<String, CacheMetrics> metrics = new ConcurrentHashMap<>();
+    private volatile CacheMetricsFactory factory = new DefaultCacheMetricsFactory();
+
+    public CacheMetricsFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     * @param factory the factory of the metrics registered from now on, {@code null} restores
+     *                {@link DefaultCacheMetricsFactory}
+     */
+    public void setFactory(CacheMetricsFactory factory) {
+        this.factory = factory == null ? new DefaultCacheMetricsFactory() : factory;
+    }
+
+    /**
+     * @param id the id of a cache
+     * @return the metrics of the cache, created by the factory when the cache has none yet
+     */
+    public CacheMetrics register(String id) {
+        return metrics.computeIfAbsent(id, key -> factory.create(key));
+    }
+
+    /**
+     * @param id the id of a cache
+     * @return the metrics of the cache, {@code null} if it has none
+     */
+    public CacheMetrics getMetrics(String id) {
+        return metrics.get(id);
+    }
+
+    /**
+     * @return a read only view of the metrics, by cache id
+     */
+    public Map<String, CacheMetrics> getMetrics() {
+        return Collections.unmodifiableMap(metrics);
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the metrics of a cache in memory, in striped counters that threads can update without contending.
+ *
+ * @since 3.5.5
+ */
+public class DefaultCacheMetrics implements CacheMetrics {
+
+    private final String id;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder removals = new LongAdder();
+    private final LongAdder clears = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder committedEntries = new LongAdder();
+    private final LongAdder rollbacks = new LongAdder();
+    private final LongAdder discardedEntries = new LongAdder();
+    private final LatencyHistogram readLatency = new LatencyHistogram();
+    private final LatencyHistogram writeLatency = new LatencyHistogram();
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+
+    public DefaultCacheMetrics(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void recordHit() {
+        hits.increment();
+    }
+
+    @Override
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    @Override
+    public void recordPut() {
+        puts.increment();
+    }
+
+    @Override
+    public void recordPuts(int count) {
+        puts.add(count);
+    }
+
+    @Override
+    public void recordRemoval() {
+        removals.increment();
+    }
+
+    @Override
+    public void recordClear() {
+        clears.increment();
+    }
+
+    @Override
+    public void recordEviction() {
+        evictions.increment();
+    }
+
+    @Override
+    public void recordReadTime(long nanos) {
+        readLatency.record(nanos);
+    }
+
+    @Override
+    public void recordWriteTime(long nanos) {
+        writeLatency.record(nanos);
+    }
+
+    @Override
+    public void recordLoadTime(long nanos) {
+        loadLatency.record(nanos);
+    }
+
+    @Override
+    public void recordCommit(int entries) {
+        commits.increment();
+        committedEntries.add(entries);
+    }
+
+    @Override
+    public void recordRollback(int entries) {
+        rollbacks.increment();
+        discardedEntries.add(entries);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getRequestCount() {
+        return getHitCount() + getMissCount();
+    }
+
+    /**
+     * @return the ratio of reads that found a value, 0 if nothing has been read
+     */
+    public double getHitRatio() {
+        long hitCount = getHitCount();
+        long requestCount = hitCount + getMissCount();
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+
+    public long getPutCount() {
+        return puts.sum();
+    }
+
+    public long getRemovalCount() {
+        return removals.sum();
+    }
+
+    public long getClearCount() {
+        return clears.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getCommitCount() {
+        return commits.sum();
+    }
+
+    public long getCommittedEntryCount() {
+        return committedEntries.sum();
+    }
+
+    public long getRollbackCount() {
+        return rollbacks.sum();
+    }
+
+    public long getDiscardedEntryCount() {
+        return discardedEntries.sum();
+    }
+
+    public LatencyHistogram getReadLatency() {
+        return readLatency;
+    }
+
+    public LatencyHistogram getWriteLatency() {
+        return writeLatency;
+    }
+
+    public LatencyHistogram getLoadLatency() {
+        return loadLatency;
+    }
+
+    @Override
+    public String toString() {
+        return "Cache [" + id + "]: hits=" + getHitCount() + ", misses=" + getMissCount() + ", puts=" + getPutCount()
+            + ", removals=" + getRemovalCount() + ", clears=" + getClearCount() + ", evictions=" + getEvictionCount()
+            + ", commits=" + getCommitCount() + ", rollbacks=" + getRollbackCount()
+            + ", read {" + readLatency + "}, load {" + loadLatency + "}";
+    }
+}
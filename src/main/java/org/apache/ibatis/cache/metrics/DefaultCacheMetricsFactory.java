@@ -0,0 +1,29 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.metrics;
+
+/**
+ * Creates {@link DefaultCacheMetrics}.
+ *
+ * @since 3.5.5
+ */
+public class DefaultCacheMetricsFactory implements CacheMetricsFactory {
+
+    @Override
+    public CacheMetrics create(String id) {
+        return new DefaultCacheMetrics(id);
+    }
+}
@@ -0,0 +1,450 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.serializer;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact binary serializer for mapped results.
+ * <p>
+ * Result objects are written as the values of their properties, which are discovered once per class with a
+ * {@link Reflector}: the properties that can be both read and written, except static and transient fields. This
+ * applies to serializable classes that have a default constructor and do not customize their serialization, the
+ * other objects being written with Java serialization. Common value types, lists, sets and maps are written
+ * directly, and objects referenced more than once, including circular references, are written only once.
+ *
+ * @since 3.5.5
+ */
+public class BinarySerializer implements Serializer {
+
+    private static final byte VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte REFERENCE = 1;
+    private static final byte STRING = 2;
+    private static final byte INTEGER = 3;
+    private static final byte LONG = 4;
+    private static final byte SHORT = 5;
+    private static final byte BYTE = 6;
+    private static final byte BOOLEAN = 7;
+    private static final byte CHARACTER = 8;
+    private static final byte FLOAT = 9;
+    private static final byte DOUBLE = 10;
+    private static final byte BIG_DECIMAL = 11;
+    private static final byte BIG_INTEGER = 12;
+    private static final byte DATE = 13;
+    private static final byte SQL_DATE = 14;
+    private static final byte SQL_TIME = 15;
+    private static final byte SQL_TIMESTAMP = 16;
+    private static final byte LOCAL_DATE = 17;
+    private static final byte LOCAL_TIME = 18;
+    private static final byte LOCAL_DATE_TIME = 19;
+    private static final byte BYTES = 20;
+    private static final byte ENUM = 21;
+    private static final byte COLLECTION = 22;
+    private static final byte MAP = 23;
+    private static final byte BEAN = 24;
+    private static final byte JAVA = 25;
+
+    private static final Set<Class<?>> COLLECTION_TYPES = new HashSet<>(Arrays.asList(
+        ArrayList.class, LinkedList.class, HashSet.class, LinkedHashSet.class));
+    private static final Set<Class<?>> MAP_TYPES = new HashSet<>(Arrays.asList(HashMap.class, LinkedHashMap.class));
+    private static final Set<String> SERIALIZATION_METHODS = new HashSet<>(Arrays.asList(
+        "writeObject", "readObject", "readObjectNoData", "writeReplace", "readResolve"));
+    private static final BeanCodec NOT_A_BEAN = new BeanCodec(null, new String[0], new Invoker[0], new Invoker[0]);
+
+    private final Map<Class<?>, BeanCodec> beanCodecs = new ConcurrentHashMap<>();
+    private final JdkSerializer jdkSerializer = new JdkSerializer();
+
+    @Override
+    public byte[] serialize(Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try {
+            Output output = new Output(new DataOutputStream(bytes));
+            output.out.writeByte(VERSION);
+            output.write(value);
+            output.out.flush();
+        } catch (CacheException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CacheException("Error serializing object.  Cause: " + e, e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        try {
+            Input input = new Input(new DataInputStream(new ByteArrayInputStream(bytes)));
+            if (input.in.readByte() != VERSION) {
+                throw new CacheException("Error deserializing object.  Cause: unsupported format version");
+            }
+            return input.read();
+        } catch (CacheException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CacheException("Error deserializing object.  Cause: " + e, e);
+        }
+    }
+
+    private BeanCodec beanCodec(Class<?> type) {
+        return beanCodecs.computeIfAbsent(type, BinarySerializer::createBeanCodec);
+    }
+
+    private static BeanCodec createBeanCodec(Class<?> type) {
+        if (!Serializable.class.isAssignableFrom(type) || type.isArray() || type.isEnum() || type.isInterface()
+            || Modifier.isAbstract(type.getModifiers()) || Collection.class.isAssignableFrom(type)
+            || Map.class.isAssignableFrom(type) || type.getName().startsWith("java.") || hasCustomSerialization(type)) {
+            return NOT_A_BEAN;
+        }
+        Reflector reflector = new Reflector(type);
+        if (!reflector.hasDefaultConstructor()) {
+            return NOT_A_BEAN;
+        }
+        Set<String> skipped = new HashSet<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+                    skipped.add(field.getName());
+                }
+            }
+        }
+        List<String> names = new ArrayList<>();
+        for (String name : reflector.getGetablePropertyNames()) {
+            if (reflector.hasSetter(name) && !skipped.contains(name)) {
+                names.add(name);
+            }
+        }
+        Collections.sort(names);
+        Invoker[] getters = new Invoker[names.size()];
+        Invoker[] setters = new Invoker[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            getters[i] = reflector.getGetInvoker(names.get(i));
+            setters[i] = reflector.getSetInvoker(names.get(i));
+        }
+        return new BeanCodec(reflector.getDefaultConstructor(), names.toArray(new String[0]), getters, setters);
+    }
+
+    private static boolean hasCustomSerialization(Class<?> type) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                if (SERIALIZATION_METHODS.contains(method.getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static class BeanCodec {
+        final Constructor<?> constructor;
+        final String[] names;
+        final Invoker[] getters;
+        final Invoker[] setters;
+
+        BeanCodec(Constructor<?> constructor, String[] names, Invoker[] getters, Invoker[] setters) {
+            this.constructor = constructor;
+            this.names = names;
+            this.getters = getters;
+            this.setters = setters;
+        }
+    }
+
+    private class Output {
+        final DataOutputStream out;
+        final Map<Object, Integer> references = new IdentityHashMap<>();
+        final Map<Class<?>, Integer> classes = new HashMap<>();
+
+        Output(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void write(Object value) throws Exception {
+            if (value == null) {
+                out.writeByte(NULL);
+                return;
+            }
+            Class<?> type = value.getClass();
+            if (type == String.class) {
+                out.writeByte(STRING);
+                writeString((String) value);
+            } else if (type == Integer.class) {
+                out.writeByte(INTEGER);
+                out.writeInt((Integer) value);
+            } else if (type == Long.class) {
+                out.writeByte(LONG);
+                out.writeLong((Long) value);
+            } else if (type == Short.class) {
+                out.writeByte(SHORT);
+                out.writeShort((Short) value);
+            } else if (type == Byte.class) {
+                out.writeByte(BYTE);
+                out.writeByte((Byte) value);
+            } else if (type == Boolean.class) {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean((Boolean) value);
+            } else if (type == Character.class) {
+                out.writeByte(CHARACTER);
+                out.writeChar((Character) value);
+            } else if (type == Float.class) {
+                out.writeByte(FLOAT);
+                out.writeFloat((Float) value);
+            } else if (type == Double.class) {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) value);
+            } else if (type == BigDecimal.class) {
+                out.writeByte(BIG_DECIMAL);
+                writeBytes(((BigDecimal) value).unscaledValue().toByteArray());
+                out.writeInt(((BigDecimal) value).scale());
+            } else if (type == BigInteger.class) {
+                out.writeByte(BIG_INTEGER);
+                writeBytes(((BigInteger) value).toByteArray());
+            } else if (type == Date.class) {
+                out.writeByte(DATE);
+                out.writeLong(((Date) value).getTime());
+            } else if (type == java.sql.Date.class) {
+                out.writeByte(SQL_DATE);
+                out.writeLong(((Date) value).getTime());
+            } else if (type == java.sql.Time.class) {
+                out.writeByte(SQL_TIME);
+                out.writeLong(((Date) value).getTime());
+            } else if (type == java.sql.Timestamp.class) {
+                out.writeByte(SQL_TIMESTAMP);
+                out.writeLong(((Date) value).getTime());
+                out.writeInt(((java.sql.Timestamp) value).getNanos());
+            } else if (type == LocalDate.class) {
+                out.writeByte(LOCAL_DATE);
+                out.writeLong(((LocalDate) value).toEpochDay());
+            } else if (type == LocalTime.class) {
+                out.writeByte(LOCAL_TIME);
+                out.writeLong(((LocalTime) value).toNanoOfDay());
+            } else if (type == LocalDateTime.class) {
+                out.writeByte(LOCAL_DATE_TIME);
+                out.writeLong(((LocalDateTime) value).toLocalDate().toEpochDay());
+                out.writeLong(((LocalDateTime) value).toLocalTime().toNanoOfDay());
+            } else if (type == byte[].class) {
+                out.writeByte(BYTES);
+                writeBytes((byte[]) value);
+            } else if (value instanceof Enum) {
+                out.writeByte(ENUM);
+                writeClass(((Enum<?>) value).getDeclaringClass());
+                writeString(((Enum<?>) value).name());
+            } else if (!writeReference(value)) {
+                if (COLLECTION_TYPES.contains(type)) {
+                    out.writeByte(COLLECTION);
+                    writeClass(type);
+                    Collection<?> collection = (Collection<?>) value;
+                    out.writeInt(collection.size());
+                    for (Object element : collection) {
+                        write(element);
+                    }
+                } else if (MAP_TYPES.contains(type)) {
+                    out.writeByte(MAP);
+                    writeClass(type);
+                    Map<?, ?> map = (Map<?, ?>) value;
+                    out.writeInt(map.size());
+                    for (Map.Entry<?, ?> entry : map.entrySet()) {
+                        write(entry.getKey());
+                        write(entry.getValue());
+                    }
+                } else {
+                    BeanCodec codec = beanCodec(type);
+                    if (codec == NOT_A_BEAN) {
+                        out.writeByte(JAVA);
+                        writeBytes(jdkSerializer.serialize(value));
+                    } else {
+                        out.writeByte(BEAN);
+                        writeClass(type);
+                        for (Invoker getter : codec.getters) {
+                            write(getter.invoke(value, null));
+                        }
+                    }
+                }
+            }
+        }
+
+        boolean writeReference(Object value) throws IOException {
+            Integer reference = references.get(value);
+            if (reference != null) {
+                out.writeByte(REFERENCE);
+                out.writeInt(reference);
+                return true;
+            }
+            references.put(value, references.size());
+            return false;
+        }
+
+        void writeClass(Class<?> type) throws IOException {
+            Integer id = classes.get(type);
+            if (id != null) {
+                out.writeInt(id);
+            } else {
+                classes.put(type, classes.size());
+                out.writeInt(-1);
+                writeString(type.getName());
+            }
+        }
+
+        void writeString(String value) throws IOException {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void writeBytes(byte[] value) throws IOException {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+    private class Input {
+        final DataInputStream in;
+        final List<Object> references = new ArrayList<>();
+        final List<Class<?>> classes = new ArrayList<>();
+
+        Input(DataInputStream in) {
+            this.in = in;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Object read() throws Exception {
+            byte tag = in.readByte();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case REFERENCE:
+                    return references.get(in.readInt());
+                case STRING:
+                    return readString();
+                case INTEGER:
+                    return in.readInt();
+                case LONG:
+                    return in.readLong();
+                case SHORT:
+                    return in.readShort();
+                case BYTE:
+                    return in.readByte();
+                case BOOLEAN:
+                    return in.readBoolean();
+                case CHARACTER:
+                    return in.readChar();
+                case FLOAT:
+                    return in.readFloat();
+                case DOUBLE:
+                    return in.readDouble();
+                case BIG_DECIMAL:
+                    return new BigDecimal(new BigInteger(readBytes()), in.readInt());
+                case BIG_INTEGER:
+                    return new BigInteger(readBytes());
+                case DATE:
+                    return new Date(in.readLong());
+                case SQL_DATE:
+                    return new java.sql.Date(in.readLong());
+                case SQL_TIME:
+                    return new java.sql.Time(in.readLong());
+                case SQL_TIMESTAMP:
+                    java.sql.Timestamp timestamp = new java.sql.Timestamp(in.readLong());
+                    timestamp.setNanos(in.readInt());
+                    return timestamp;
+                case LOCAL_DATE:
+                    return LocalDate.ofEpochDay(in.readLong());
+                case LOCAL_TIME:
+                    return LocalTime.ofNanoOfDay(in.readLong());
+                case LOCAL_DATE_TIME:
+                    return LocalDateTime.of(LocalDate.ofEpochDay(in.readLong()), LocalTime.ofNanoOfDay(in.readLong()));
+                case BYTES:
+                    return readBytes();
+                case ENUM:
+                    return Enum.valueOf((Class<Enum>) readClass(), readString());
+                case COLLECTION: {
+                    Collection<Object> collection = (Collection<Object>) readClass().getDeclaredConstructor().newInstance();
+                    references.add(collection);
+                    for (int i = in.readInt(); i > 0; i--) {
+                        collection.add(read());
+                    }
+                    return collection;
+                }
+                case MAP: {
+                    Map<Object, Object> map = (Map<Object, Object>) readClass().getDeclaredConstructor().newInstance();
+                    references.add(map);
+                    for (int i = in.readInt(); i > 0; i--) {
+                        map.put(read(), read());
+                    }
+                    return map;
+                }
+                case BEAN: {
+                    BeanCodec codec = beanCodec(readClass());
+                    Object bean = codec.constructor.newInstance();
+                    references.add(bean);
+                    for (Invoker setter : codec.setters) {
+                        setter.invoke(bean, new Object[] {read()});
+                    }
+                    return bean;
+                }
+                case JAVA: {
+                    int reference = references.size();
+                    references.add(null);
+                    Object value = jdkSerializer.deserialize(readBytes());
+                    references.set(reference, value);
+                    return value;
+                }
+                default:
+                    throw new CacheException("Error deserializing object.  Cause: unknown type tag " + tag);
+            }
+        }
+
+        Class<?> readClass() throws Exception {
+            int id = in.readInt();
+            if (id >= 0) {
+                return classes.get(id);
+            }
+            Class<?> type = Resources.classForName(readString());
+            classes.add(type);
+            return type;
+        }
+
+        String readString() throws IOException {
+            return new String(readBytes(), StandardCharsets.UTF_8);
+        }
+
+        byte[] readBytes() throws IOException {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return bytes;
+        }
+    }
+
+}
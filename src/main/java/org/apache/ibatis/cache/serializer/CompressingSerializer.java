@@ -0,0 +1,114 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.serializer;
+
+import org.apache.ibatis.cache.CacheException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses the output of another serializer with deflate when it is larger than a threshold.
+ *
+ * @since 3.5.5
+ */
+public class CompressingSerializer implements Serializer {
+
+    private static final byte RAW = 0;
+    private static final byte DEFLATED = 1;
+
+    private final Serializer delegate;
+    private final int threshold;
+
+    /**
+     * @param delegate  the serializer whose output is compressed
+     * @param threshold the size in bytes from which serialized objects are compressed
+     */
+    public CompressingSerializer(Serializer delegate, int threshold) {
+        this.delegate = delegate;
+        this.threshold = threshold;
+    }
+
+    public Serializer getDelegate() {
+        return delegate;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        byte[] bytes = delegate.serialize(value);
+        if (bytes.length < threshold) {
+            byte[] raw = new byte[bytes.length + 1];
+            raw[0] = RAW;
+            System.arraycopy(bytes, 0, raw, 1, bytes.length);
+            return raw;
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 5);
+            out.write(DEFLATED);
+            out.write(bytes.length >>> 24);
+            out.write(bytes.length >>> 16);
+            out.write(bytes.length >>> 8);
+            out.write(bytes.length);
+            byte[] buffer = new byte[Math.min(bytes.length, 8192)];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (bytes[0] == RAW) {
+            return delegate.deserialize(Arrays.copyOfRange(bytes, 1, bytes.length));
+        }
+        int length = (bytes[1] & 0xFF) << 24 | (bytes[2] & 0xFF) << 16 | (bytes[3] & 0xFF) << 8 | (bytes[4] & 0xFF);
+        byte[] inflated = new byte[length];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, 5, bytes.length - 5);
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int count = inflater.inflate(inflated, read, length - read);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += count;
+            }
+            if (read != length) {
+                throw new CacheException("Error deserializing object.  Cause: truncated compressed data");
+            }
+        } catch (DataFormatException e) {
+            throw new CacheException("Error deserializing object.  Cause: " + e, e);
+        } finally {
+            inflater.end();
+        }
+        return delegate.deserialize(inflated);
+    }
+
+}
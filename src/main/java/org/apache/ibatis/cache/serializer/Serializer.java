@@ -0,0 +1,43 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.serializer;
+
+/**
+ * Converts cached objects to bytes and back, so that a read/write cache returns a copy of the cached objects to each
+ * caller.
+ * <p>
+ * Implementations must be thread safe and have a no-argument constructor.
+ *
+ * @since 3.5.5
+ * @see org.apache.ibatis.cache.decorators.SerializedCache
+ */
+public interface Serializer {
+
+    /**
+     * @param value the object to serialize, may be null
+     * @return the serialized form of the object
+     * @throws org.apache.ibatis.cache.CacheException if the object cannot be serialized
+     */
+    byte[] serialize(Object value);
+
+    /**
+     * @param bytes bytes returned by {@link #serialize(Object)}
+     * @return a copy of the serialized object
+     * @throws org.apache.ibatis.cache.CacheException if the bytes cannot be read
+     */
+    Object deserialize(byte[] bytes);
+
+}
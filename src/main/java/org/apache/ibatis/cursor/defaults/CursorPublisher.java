@@ -0,0 +1,192 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A Reactive Streams {@link Publisher} backed by a {@link Cursor}.
+ * <p>
+ * Each subscription opens its own session and cursor on the first request and fetches only as many rows
+ * as the subscriber has requested. Rows are fetched and emitted on the given executor, one task at a time per
+ * subscription, and the cursor and session are closed on completion, error or cancellation.
+ *
+ * @param <T> the type of the mapped rows
+ * @since 3.5.5
+ */
+public class CursorPublisher<T> implements Publisher<T> {
+
+    private final SqlSessionFactory sqlSessionFactory;
+    private final String statement;
+    private final Object parameter;
+    private final RowBounds rowBounds;
+    private final Executor executor;
+
+    public CursorPublisher(SqlSessionFactory sqlSessionFactory, String statement, Object parameter, RowBounds rowBounds, Executor executor) {
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.statement = statement;
+        this.parameter = parameter;
+        this.rowBounds = rowBounds;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber must not be null");
+        }
+        subscriber.onSubscribe(new CursorSubscription(subscriber));
+    }
+
+    private class CursorSubscription implements Subscription, Runnable {
+
+        private final Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        /**
+         * Number of pending drain requests, only the caller that moves it from 0 schedules a drain.
+         */
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+        // only accessed by the drain loop
+        private SqlSession sqlSession;
+        private Cursor<T> cursor;
+        private Iterator<T> iterator;
+        private boolean done;
+
+        CursorSubscription(Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Subscriber requested " + n + " items, the number of items requested must be positive (rule 3.9)");
+            } else {
+                long current;
+                long next;
+                do {
+                    current = requested.get();
+                    next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                } while (!requested.compareAndSet(current, next));
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RuntimeException e) {
+                    // the executor rejected the drain, nothing else will run it
+                    cancelled = true;
+                    subscriber.onError(e);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (done) {
+                return;
+            }
+            if (cancelled) {
+                terminate();
+                return;
+            }
+            if (invalidRequest != null) {
+                terminate();
+                subscriber.onError(invalidRequest);
+                return;
+            }
+            try {
+                long emitted = 0;
+                long demand = requested.get();
+                if (demand > 0 && iterator == null) {
+                    open();
+                }
+                while (emitted != demand) {
+                    if (cancelled) {
+                        terminate();
+                        return;
+                    }
+                    if (!iterator.hasNext()) {
+                        terminate();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    subscriber.onNext(iterator.next());
+                    emitted++;
+                }
+                if (iterator != null && !cancelled && cursor.isConsumed()) {
+                    // the cursor already knows it has no more rows, complete without waiting for more demand;
+                    // otherwise hasNext() would fetch and map a row nobody requested yet
+                    terminate();
+                    subscriber.onComplete();
+                    return;
+                }
+                if (emitted != 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+            } catch (Throwable t) {
+                terminate();
+                subscriber.onError(t);
+            }
+        }
+
+        private void open() {
+            sqlSession = sqlSessionFactory.openSession();
+            cursor = sqlSession.selectCursor(statement, parameter, rowBounds);
+            iterator = cursor.iterator();
+        }
+
+        private void terminate() {
+            done = true;
+            cursor = null;
+            iterator = null;
+            if (sqlSession != null) {
+                // closes the cursor as well
+                sqlSession.close();
+                sqlSession = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.PersistenceException;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+/**
+ * A cursor that reads and maps rows of another cursor on a background thread, up to a fixed number of rows ahead of
+ * the thread iterating it, so that JDBC fetches overlap with the processing of rows already returned.
+ * <p>
+ * The wrapped cursor is only ever touched by the background thread once iteration has started, and is closed by it.
+ * Statements that load nested selects while mapping run them on the background thread, so the owning session must not
+ * be used for other statements while such a cursor is being iterated.
+ * This implementation is not thread safe.
+ *
+ * @since 3.5.5
+ */
+public class PrefetchingCursor<T> implements Cursor<T> {
+
+    private static final Object NULL_ROW = new Object();
+    private static final Object END = new Object();
+
+    private final Cursor<T> delegate;
+    private final Executor executor;
+    private final BlockingQueue<Object> buffer;
+    private final CountDownLatch fetcherDone = new CountDownLatch(1);
+    private final PrefetchingIterator iterator = new PrefetchingIterator();
+    private boolean iteratorRetrieved;
+
+    private volatile boolean closed;
+    private boolean started;
+    private boolean consumed;
+    private int currentIndex;
+
+    /**
+     * @param delegate   the cursor to read rows from
+     * @param fetchAhead the maximum number of rows read ahead of the consumer
+     * @param executor   the executor running the background fetch; it must not run tasks on the calling thread
+     */
+    public PrefetchingCursor(Cursor<T> delegate, int fetchAhead, Executor executor) {
+        if (fetchAhead <= 0) {
+            throw new IllegalArgumentException("fetchAhead must be positive but was " + fetchAhead);
+        }
+        this.delegate = delegate;
+        this.executor = executor;
+        this.buffer = new ArrayBlockingQueue<>(fetchAhead);
+        this.currentIndex = delegate.getCurrentIndex();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return started && !closed;
+    }
+
+    @Override
+    public boolean isConsumed() {
+        return consumed;
+    }
+
+    @Override
+    public int getCurrentIndex() {
+        return currentIndex;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        if (iteratorRetrieved) {
+            throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+        }
+        if (closed) {
+            throw new IllegalStateException("A Cursor is already closed.");
+        }
+        iteratorRetrieved = true;
+        return iterator;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!started) {
+            try {
+                delegate.close();
+            } catch (Exception e) {
+                // ignore
+            }
+            return;
+        }
+        // Unblock the fetcher if it waits for room, then wait for it to release the result set.
+        buffer.clear();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                fetcherDone.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void start() {
+        started = true;
+        try {
+            executor.execute(this::fetch);
+        } catch (RuntimeException e) {
+            started = false;
+            close();
+            throw e;
+        }
+    }
+
+    private void fetch() {
+        try {
+            Iterator<T> rows = delegate.iterator();
+            while (!closed && rows.hasNext()) {
+                T row = rows.next();
+                buffer.put(row == null ? NULL_ROW : row);
+            }
+            if (!closed) {
+                buffer.put(END);
+            }
+        } catch (InterruptedException e) {
+            closed = true;
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            // queue the failure after the rows fetched before it, waiting for room like any other row
+            try {
+                if (!closed) {
+                    buffer.put(new FetchFailure(e));
+                }
+            } catch (InterruptedException ie) {
+                closed = true;
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            try {
+                delegate.close();
+            } catch (Exception e) {
+                // ignore
+            }
+            fetcherDone.countDown();
+        }
+    }
+
+    private static class FetchFailure {
+
+        private final Throwable cause;
+
+        FetchFailure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+
+    private class PrefetchingIterator implements Iterator<T> {
+
+        /**
+         * Holder for the next object to be returned, or {@code null} if none has been taken from the buffer.
+         */
+        private Object next;
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            if (closed || consumed) {
+                return false;
+            }
+            if (!started) {
+                start();
+            }
+            Object item = take();
+            if (item == END) {
+                consumed = true;
+                closed = true;
+                return false;
+            }
+            if (item instanceof FetchFailure) {
+                closed = true;
+                Throwable cause = ((FetchFailure) item).cause;
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw (RuntimeException) cause;
+            }
+            next = item;
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object item = next;
+            next = null;
+            currentIndex++;
+            return item == NULL_ROW ? null : (T) item;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Cannot remove element from Cursor");
+        }
+
+        private Object take() {
+            try {
+                return buffer.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new PersistenceException("Interrupted while waiting for the next row of a cursor", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool statistics of a {@link ConcurrentPooledDataSource}.
+ * <p>
+ * Counters are striped so that recording them never serializes checkouts, the values returned are therefore
+ * only eventually consistent with each other.
+ */
+public class ConcurrentPoolState extends PoolState {
+
+    final LongAdder requestCounter = new LongAdder();
+    final LongAdder requestTime = new LongAdder();
+    final LongAdder checkoutTime = new LongAdder();
+    final LongAdder claimedOverdueCounter = new LongAdder();
+    final LongAdder overdueCheckoutTime = new LongAdder();
+    final LongAdder waitTime = new LongAdder();
+    final LongAdder hadToWaitCounter = new LongAdder();
+    final LongAdder badConnectionCounter = new LongAdder();
+
+    public ConcurrentPoolState(ConcurrentPooledDataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    public long getRequestCount() {
+        return requestCounter.sum();
+    }
+
+    @Override
+    public long getAverageRequestTime() {
+        long requests = requestCounter.sum();
+        return requests == 0 ? 0 : requestTime.sum() / requests;
+    }
+
+    @Override
+    public long getAverageWaitTime() {
+        long waits = hadToWaitCounter.sum();
+        return waits == 0 ? 0 : waitTime.sum() / waits;
+    }
+
+    @Override
+    public long getHadToWaitCount() {
+        return hadToWaitCounter.sum();
+    }
+
+    @Override
+    public long getBadConnectionCount() {
+        return badConnectionCounter.sum();
+    }
+
+    @Override
+    public long getClaimedOverdueConnectionCount() {
+        return claimedOverdueCounter.sum();
+    }
+
+    @Override
+    public long getAverageOverdueCheckoutTime() {
+        long claimed = claimedOverdueCounter.sum();
+        return claimed == 0 ? 0 : overdueCheckoutTime.sum() / claimed;
+    }
+
+    @Override
+    public long getAverageCheckoutTime() {
+        long requests = requestCounter.sum();
+        return requests == 0 ? 0 : checkoutTime.sum() / requests;
+    }
+
+    @Override
+    public int getIdleConnectionCount() {
+        return ((ConcurrentPooledDataSource) dataSource).getIdleCount();
+    }
+
+    @Override
+    public int getActiveConnectionCount() {
+        return ((ConcurrentPooledDataSource) dataSource).getActiveCount();
+    }
+
+}
@@ -0,0 +1,369 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A connection pool that does not serialize checkouts on a single monitor.
+ * <p>
+ * Idle connections are kept in a lock free bag and each thread first tries to get back the connection it returned
+ * last. The number of active connections is bounded by a fair semaphore, so waiting threads are served in arrival
+ * order, and {@link #getPoolState()} is computed from striped counters. Configuration is the same as
+ * {@link PooledDataSource}.
+ */
+public class ConcurrentPooledDataSource extends PooledDataSource {
+
+    private static final Log log = LogFactory.getLog(ConcurrentPooledDataSource.class);
+
+    private final ConcurrentPoolState state = new ConcurrentPoolState(this);
+
+    private final ConcurrentLinkedDeque<PooledConnection> idleConnections = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    // PooledConnection equals by real connection, an entry is only removed by the thread that released it
+    private final Set<PooledConnection> activeConnections = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<PooledConnection> lastReturned = new ThreadLocal<>();
+    private final ResizableSemaphore permits = new ResizableSemaphore(poolMaximumActiveConnections);
+
+    public ConcurrentPooledDataSource() {
+        super();
+    }
+
+    public ConcurrentPooledDataSource(UnpooledDataSource dataSource) {
+        super(dataSource);
+    }
+
+    public ConcurrentPooledDataSource(String driver, String url, String username, String password) {
+        super(driver, url, username, password);
+    }
+
+    public ConcurrentPooledDataSource(String driver, String url, Properties driverProperties) {
+        super(driver, url, driverProperties);
+    }
+
+    public ConcurrentPooledDataSource(ClassLoader driverClassLoader, String driver, String url, String username, String password) {
+        super(driverClassLoader, driver, url, username, password);
+    }
+
+    public ConcurrentPooledDataSource(ClassLoader driverClassLoader, String driver, String url, Properties driverProperties) {
+        super(driverClassLoader, driver, url, driverProperties);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return popConnection(dataSource.getUsername(), dataSource.getPassword()).getProxyConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return popConnection(username, password).getProxyConnection();
+    }
+
+    @Override
+    public void setPoolMaximumActiveConnections(int poolMaximumActiveConnections) {
+        synchronized (permits) {
+            int delta = poolMaximumActiveConnections - this.poolMaximumActiveConnections;
+            if (delta > 0) {
+                permits.release(delta);
+            } else if (delta < 0) {
+                permits.reducePermits(-delta);
+            }
+            super.setPoolMaximumActiveConnections(poolMaximumActiveConnections);
+        }
+    }
+
+    @Override
+    public PoolState getPoolState() {
+        return state;
+    }
+
+    int getIdleCount() {
+        return idleCount.get();
+    }
+
+    int getActiveCount() {
+        return activeConnections.size();
+    }
+
+    /**
+     * Closes all active and idle connections in the pool.
+     */
+    @Override
+    public void forceCloseAll() {
+        expectedConnectionTypeCode = assembleConnectionTypeCode(dataSource.getUrl(), dataSource.getUsername(), dataSource.getPassword());
+        for (PooledConnection conn : activeConnections) {
+            if (conn.release()) {
+                activeConnections.remove(conn);
+                closeQuietly(conn);
+                permits.release();
+            }
+        }
+        PooledConnection conn;
+        while ((conn = idleConnections.pollFirst()) != null) {
+            if (conn.claim()) {
+                idleCount.decrementAndGet();
+                closeQuietly(conn);
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("ConcurrentPooledDataSource forcefully closed/removed all connections.");
+        }
+    }
+
+    private void closeQuietly(PooledConnection conn) {
+        try {
+            conn.invalidate();
+
+            Connection realConn = conn.getRealConnection();
+            if (!realConn.getAutoCommit()) {
+                realConn.rollback();
+            }
+            realConn.close();
+        } catch (Exception e) {
+            // ignore
+        }
+    }
+
+    @Override
+    protected void pushConnection(PooledConnection conn) throws SQLException {
+        if (!conn.release()) {
+            // already returned, claimed as overdue or closed by forceCloseAll, the permit is not ours anymore
+            if (log.isDebugEnabled()) {
+                log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
+            }
+            state.badConnectionCounter.increment();
+            return;
+        }
+        activeConnections.remove(conn);
+        try {
+            if (conn.isValid()) {
+                state.checkoutTime.add(conn.getCheckoutTime());
+                if (!conn.getRealConnection().getAutoCommit()) {
+                    conn.getRealConnection().rollback();
+                }
+                if (conn.getConnectionTypeCode() == expectedConnectionTypeCode && reserveIdleSlot()) {
+                    PooledConnection newConn = new PooledConnection(conn.getRealConnection(), this);
+                    newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
+                    newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
+                    conn.invalidate();
+                    idleConnections.offerFirst(newConn);
+                    lastReturned.set(newConn);
+                    if (log.isDebugEnabled()) {
+                        log.debug("Returned connection " + newConn.getRealHashCode() + " to pool.");
+                    }
+                } else {
+                    conn.getRealConnection().close();
+                    if (log.isDebugEnabled()) {
+                        log.debug("Closed connection " + conn.getRealHashCode() + ".");
+                    }
+                    conn.invalidate();
+                }
+            } else {
+                if (log.isDebugEnabled()) {
+                    log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
+                }
+                state.badConnectionCounter.increment();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean reserveIdleSlot() {
+        int idle;
+        do {
+            idle = idleCount.get();
+            if (idle >= poolMaximumIdleConnections) {
+                return false;
+            }
+        } while (!idleCount.compareAndSet(idle, idle + 1));
+        return true;
+    }
+
+    private PooledConnection popConnection(String username, String password) throws SQLException {
+        long t = System.currentTimeMillis();
+        PooledConnection conn = acquirePermit();
+        int localBadConnectionCount = 0;
+        try {
+            while (true) {
+                if (conn == null) {
+                    conn = takeIdleConnection();
+                }
+                if (conn == null) {
+                    conn = new PooledConnection(dataSource.getConnection(), this);
+                    conn.claim();
+                    if (log.isDebugEnabled()) {
+                        log.debug("Created connection " + conn.getRealHashCode() + ".");
+                    }
+                }
+                // ping to server and check the connection is valid or not
+                if (conn.isValid()) {
+                    if (!conn.getRealConnection().getAutoCommit()) {
+                        conn.getRealConnection().rollback();
+                    }
+                    conn.setConnectionTypeCode(assembleConnectionTypeCode(dataSource.getUrl(), username, password));
+                    conn.setCheckoutTimestamp(System.currentTimeMillis());
+                    conn.setLastUsedTimestamp(System.currentTimeMillis());
+                    activeConnections.add(conn);
+                    state.requestCounter.increment();
+                    state.requestTime.add(System.currentTimeMillis() - t);
+                    return conn;
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug("A bad connection (" + conn.getRealHashCode() + ") was returned from the pool, getting another connection.");
+                }
+                state.badConnectionCounter.increment();
+                localBadConnectionCount++;
+                conn = null;
+                if (localBadConnectionCount > (poolMaximumIdleConnections + poolMaximumLocalBadConnectionTolerance)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("ConcurrentPooledDataSource: Could not get a good connection to the database.");
+                    }
+                    throw new SQLException("ConcurrentPooledDataSource: Could not get a good connection to the database.");
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for a free slot in the pool.
+     *
+     * @return null when a slot was freed, or an overdue connection that was claimed together with its slot
+     */
+    private PooledConnection acquirePermit() throws SQLException {
+        if (permits.tryAcquire()) {
+            return null;
+        }
+        PooledConnection overdue = claimOverdueConnection();
+        if (overdue != null) {
+            return overdue;
+        }
+        state.hadToWaitCounter.increment();
+        try {
+            while (true) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
+                }
+                long wt = System.currentTimeMillis();
+                boolean acquired = permits.tryAcquire(poolTimeToWait, TimeUnit.MILLISECONDS);
+                state.waitTime.add(System.currentTimeMillis() - wt);
+                if (acquired) {
+                    return null;
+                }
+                overdue = claimOverdueConnection();
+                if (overdue != null) {
+                    return overdue;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("ConcurrentPooledDataSource: Interrupted while waiting for a connection.", e);
+        }
+    }
+
+    private PooledConnection takeIdleConnection() {
+        PooledConnection conn = lastReturned.get();
+        if (conn != null) {
+            lastReturned.remove();
+            if (conn.claim()) {
+                idleConnections.removeFirstOccurrence(conn);
+                idleCount.decrementAndGet();
+                if (log.isDebugEnabled()) {
+                    log.debug("Checked out connection " + conn.getRealHashCode() + " from pool.");
+                }
+                return conn;
+            }
+        }
+        while ((conn = idleConnections.pollFirst()) != null) {
+            if (conn.claim()) {
+                idleCount.decrementAndGet();
+                if (log.isDebugEnabled()) {
+                    log.debug("Checked out connection " + conn.getRealHashCode() + " from pool.");
+                }
+                return conn;
+            }
+        }
+        return null;
+    }
+
+    private PooledConnection claimOverdueConnection() {
+        PooledConnection oldestActiveConnection = null;
+        for (PooledConnection conn : activeConnections) {
+            if (oldestActiveConnection == null || conn.getCheckoutTimestamp() < oldestActiveConnection.getCheckoutTimestamp()) {
+                oldestActiveConnection = conn;
+            }
+        }
+        if (oldestActiveConnection == null) {
+            return null;
+        }
+        long longestCheckoutTime = oldestActiveConnection.getCheckoutTime();
+        if (longestCheckoutTime <= poolMaximumCheckoutTime || !oldestActiveConnection.release()) {
+            return null;
+        }
+        activeConnections.remove(oldestActiveConnection);
+        // Can claim overdue connection
+        state.claimedOverdueCounter.increment();
+        state.overdueCheckoutTime.add(longestCheckoutTime);
+        state.checkoutTime.add(longestCheckoutTime);
+        oldestActiveConnection.invalidate();
+        try {
+            if (!oldestActiveConnection.getRealConnection().getAutoCommit()) {
+                oldestActiveConnection.getRealConnection().rollback();
+            }
+        } catch (SQLException e) {
+            // the connection is checked when it is handed out, see popConnection
+            log.debug("Bad connection. Could not roll back");
+        }
+        PooledConnection conn = new PooledConnection(oldestActiveConnection.getRealConnection(), this);
+        conn.setCreatedTimestamp(oldestActiveConnection.getCreatedTimestamp());
+        conn.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
+        conn.claim();
+        if (log.isDebugEnabled()) {
+            log.debug("Claimed overdue connection " + conn.getRealHashCode() + ".");
+        }
+        return conn;
+    }
+
+    private static final class ResizableSemaphore extends Semaphore {
+
+        private static final long serialVersionUID = 1L;
+
+        ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+
+}
@@ -22,6 +22,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Clinton Begin
@@ -30,11 +31,15 @@ class PooledConnection implements InvocationHandler {
 
     private static final String CLOSE = "close";
     private static final Class<?>[] IFACES = new Class<?>[]{Connection.class};
+    private static final int IDLE = 0;
+    private static final int IN_USE = 1;
+    private static final int RELEASED = 2;
 
     private final int hashCode;
     private final PooledDataSource dataSource;
     private final Connection realConnection;
     private final Connection proxyConnection;
+    private final AtomicInteger usage = new AtomicInteger(IDLE);
     private long checkoutTimestamp;
     private long createdTimestamp;
     private long lastUsedTimestamp;
@@ -66,6 +71,24 @@ class PooledConnection implements InvocationHandler {
         valid = false;
     }
 
+    /**
+     * Takes this connection out of an idle bag shared by several threads, only the first caller succeeds.
+     *
+     * @return true if the caller now owns the connection
+     */
+    boolean claim() {
+        return usage.compareAndSet(IDLE, IN_USE);
+    }
+
+    /**
+     * Gives back a claimed connection, only the first caller succeeds.
+     *
+     * @return true if the caller was the one to give it back
+     */
+    boolean release() {
+        return usage.compareAndSet(IN_USE, RELEASED);
+    }
+
     /**
      * Method to see if the connection is usable.
      *
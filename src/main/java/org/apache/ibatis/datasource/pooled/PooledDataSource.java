@@ -41,7 +41,7 @@ public class PooledDataSource implements DataSource {
 
     private final PoolState state = new PoolState(this);
 
-    private final UnpooledDataSource dataSource;
+    final UnpooledDataSource dataSource;
 
     // OPTIONAL CONFIGURATION FIELDS
     protected int poolMaximumActiveConnections = 10;
@@ -53,7 +53,7 @@ public class PooledDataSource implements DataSource {
     protected boolean poolPingEnabled;
     protected int poolPingConnectionsNotUsedFor;
 
-    private int expectedConnectionTypeCode;
+    int expectedConnectionTypeCode;
 
     public PooledDataSource() {
         dataSource = new UnpooledDataSource();
@@ -367,7 +367,7 @@ public class PooledDataSource implements DataSource {
         return state;
     }
 
-    private int assembleConnectionTypeCode(String url, String username, String password) {
+    int assembleConnectionTypeCode(String url, String username, String password) {
         return ("" + url + username + password).hashCode();
     }
 
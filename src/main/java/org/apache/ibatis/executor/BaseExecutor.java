@@ -17,6 +17,8 @@ package org.apache.ibatis.executor;
 
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.metrics.CacheMetrics;
+import org.apache.ibatis.cache.metrics.CacheMetricsRegistry;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.statement.StatementUtil;
 import org.apache.ibatis.logging.Log;
@@ -30,7 +32,6 @@ import org.apache.ibatis.session.LocalCacheScope;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
-import org.apache.ibatis.type.TypeHandlerRegistry;
 
 import java.sql.Connection;
 import java.sql.SQLException;
@@ -48,6 +49,8 @@ import static org.apache.ibatis.executor.ExecutionPlaceholder.EXECUTION_PLACEHOL
 public abstract class BaseExecutor implements Executor {
 
     private static final Log log = LogFactory.getLog(BaseExecutor.class);
+    private static final Integer DEFAULT_OFFSET = RowBounds.DEFAULT.getOffset();
+    private static final Integer DEFAULT_LIMIT = RowBounds.DEFAULT.getLimit();
 
     /**
      * 事务
@@ -64,6 +67,11 @@ public abstract class BaseExecutor implements Executor {
     protected PerpetualCache localOutputParameterCache;
     protected Configuration configuration;
 
+    /**
+     * 一级缓存的统计，未开启缓存统计时为null
+     */
+    private final CacheMetrics localCacheMetrics;
+
     protected int queryStack;
 
     /**
@@ -84,6 +92,8 @@ public abstract class BaseExecutor implements Executor {
         this.localOutputParameterCache = new PerpetualCache("LocalOutputParameterCache");
         this.closed = false;
         this.configuration = configuration;
+        this.localCacheMetrics = configuration != null && configuration.isCacheMetricsEnabled()
+            ? configuration.getCacheMetricsRegistry().register(CacheMetricsRegistry.LOCAL_CACHE_ID) : null;
         //默认是本身
         this.wrapper = this;
     }
@@ -170,7 +180,7 @@ public abstract class BaseExecutor implements Executor {
     @Override
     public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
         BoundSql boundSql = ms.getBoundSql(parameter);
-        CacheKey key = createCacheKey(ms, parameter, rowBounds, boundSql);
+        CacheKey key = isLocalCacheKeyRequired(ms) ? createCacheKey(ms, parameter, rowBounds, boundSql) : CacheKey.unique();
         return query(ms, parameter, rowBounds, resultHandler, key, boundSql);
     }
 
@@ -203,8 +213,18 @@ public abstract class BaseExecutor implements Executor {
             queryStack++;
             list = resultHandler == null ? (List<E>) localCache.getObject(key) : null;
             if (list != null) {
+                if (localCacheMetrics != null) {
+                    localCacheMetrics.recordHit();
+                }
                 //处理存储过程
                 handleLocallyCachedOutputParameters(ms, key, parameter, boundSql);
+            } else if (localCacheMetrics != null) {
+                if (resultHandler == null) {
+                    localCacheMetrics.recordMiss();
+                }
+                long start = System.nanoTime();
+                list = queryFromDatabase(ms, parameter, rowBounds, resultHandler, key, boundSql);
+                localCacheMetrics.recordLoadTime(System.nanoTime() - start);
             } else {
                 list = queryFromDatabase(ms, parameter, rowBounds, resultHandler, key, boundSql);
             }
@@ -258,29 +278,23 @@ public abstract class BaseExecutor implements Executor {
         if (closed) {
             throw new ExecutorException("Executor was closed.");
         }
-        CacheKey cacheKey = new CacheKey();
+        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+        CacheKey cacheKey = new CacheKey(parameterMappings.size() + 5);
         cacheKey.update(ms.getId());
-        cacheKey.update(rowBounds.getOffset());
-        cacheKey.update(rowBounds.getLimit());
+        if (rowBounds == RowBounds.DEFAULT) {
+            // avoid boxing Integer.MAX_VALUE on every query
+            cacheKey.update(DEFAULT_OFFSET);
+            cacheKey.update(DEFAULT_LIMIT);
+        } else {
+            cacheKey.update(rowBounds.getOffset());
+            cacheKey.update(rowBounds.getLimit());
+        }
         cacheKey.update(boundSql.getSql());
-        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
-        TypeHandlerRegistry typeHandlerRegistry = ms.getConfiguration().getTypeHandlerRegistry();
         // mimic DefaultParameterHandler logic
+        ParameterValues parameterValues = new ParameterValues(configuration, boundSql, parameterObject);
         for (ParameterMapping parameterMapping : parameterMappings) {
             if (parameterMapping.getMode() != ParameterMode.OUT) {
-                Object value;
-                String propertyName = parameterMapping.getProperty();
-                if (boundSql.hasAdditionalParameter(propertyName)) {
-                    value = boundSql.getAdditionalParameter(propertyName);
-                } else if (parameterObject == null) {
-                    value = null;
-                } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
-                    value = parameterObject;
-                } else {
-                    MetaObject metaObject = configuration.newMetaObject(parameterObject);
-                    value = metaObject.getValue(propertyName);
-                }
-                cacheKey.update(value);
+                cacheKey.update(parameterValues.getValue(parameterMapping));
             }
         }
         if (configuration.getEnvironment() != null) {
@@ -290,6 +304,28 @@ public abstract class BaseExecutor implements Executor {
         return cacheKey;
     }
 
+    /**
+     * Tells whether the local cache may be used by a query run outside of any other query. When the local cache is
+     * cleared after each statement and the statement cannot run nested queries, the key of the query is never
+     * looked up and does not need to be built if the cache key skipping is enabled.
+     *
+     * @param ms the mapped statement
+     * @return {@code false} if the query can use a {@link CacheKey#unique() unique key}
+     */
+    static boolean isLocalCacheKeyRequired(MappedStatement ms) {
+        Configuration configuration = ms.getConfiguration();
+        if (!configuration.isCacheKeySkippingEnabled() || configuration.getLocalCacheScope() != LocalCacheScope.STATEMENT
+            || ms.hasNestedResultMaps()) {
+            return true;
+        }
+        for (ResultMap resultMap : ms.getResultMaps()) {
+            if (resultMap.hasNestedQueries() || resultMap.getDiscriminator() != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean isCached(MappedStatement ms, CacheKey key) {
         return localCache.getObject(key) != null;
@@ -324,6 +360,9 @@ public abstract class BaseExecutor implements Executor {
     @Override
     public void clearLocalCache() {
         if (!closed) {
+            if (localCacheMetrics != null) {
+                localCacheMetrics.recordClear();
+            }
             localCache.clear();
             localOutputParameterCache.clear();
         }
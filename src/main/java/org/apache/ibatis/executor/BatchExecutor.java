@@ -15,13 +15,18 @@
  */
 package org.apache.ibatis.executor;
 
+import org.apache.ibatis.cache.SqlTables;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.executor.statement.StatementUtil;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterValues;
+import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -29,11 +34,24 @@ import org.apache.ibatis.transaction.Transaction;
 
 import java.sql.BatchUpdateException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 批量执行
@@ -65,38 +83,225 @@ public class BatchExecutor extends BaseExecutor {
      */
     private MappedStatement currentStatement;
 
+    /**
+     * 是否将语句追加到之前任意一个相同sql的批次，而不只是最后一个
+     */
+    private final boolean grouping;
+
+    /**
+     * 分组模式下，每个MappedStatement与sql组合最近一个批次在statementList中的下标
+     */
+    private final Map<GroupKey, Integer> groupIndexes = new HashMap<>();
+
+    /**
+     * 分组模式下，每个批次写入的表与命名空间，与statementList一一对应
+     */
+    private final List<Group> groupList = new ArrayList<>();
+
+    /**
+     * 自动刷新的阈值：单个批次的行数、待执行的总行数与参数估算字节数，0表示不限制
+     */
+    private final int statementRowsLimit;
+    private final int pendingRowsLimit;
+    private final long pendingBytesLimit;
+
+    /**
+     * 多行INSERT改写时每条语句插入的行数，小于2表示不改写
+     */
+    private final int insertRewriteSize;
+
+    /**
+     * 改写为多行INSERT的批次，与statementList一一对应，其他批次为null，对应的Statement也为null
+     */
+    private final List<MultiRowInsert> insertList = new ArrayList<>();
+
+    /**
+     * 流水线模式下延迟到执行时才预编译与绑定参数的批次，与statementList一一对应，其他批次为null，对应的Statement也为null
+     */
+    private final List<List<StatementHandler>> handlerList = new ArrayList<>();
+
+    /**
+     * 接收自动刷新结果的监听器
+     */
+    private final BatchFlushListener flushListener;
+
+    /**
+     * 待执行的总行数与参数估算字节数
+     */
+    private int pendingRows;
+    private long pendingBytes;
+
+    /**
+     * 流水线模式下最多同时移交给后台线程的批次组数，0表示在调用线程中同步执行
+     */
+    private final int pipelineDepth;
+
+    /**
+     * 执行移交批次的后台线程，首次移交时创建，空闲时自动结束
+     */
+    private ExecutorService flusher;
+
+    /**
+     * 已移交给后台线程、结果尚未取回的批次组，按移交顺序排列
+     */
+    private final Deque<Future<List<BatchResult>>> pipeline = new ArrayDeque<>();
+
+    /**
+     * 后台线程执行失败后，跳过之后移交的批次组
+     */
+    private volatile boolean pipelineFailed;
+
+    /**
+     * 待执行的批次中是否有语句的主键生成器需要在调用线程中使用连接，有则在调用线程中同步执行
+     */
+    private boolean synchronousPending;
+
     public BatchExecutor(Configuration configuration, Transaction transaction) {
         super(configuration, transaction);
+        this.grouping = configuration.isBatchGroupingEnabled();
+        this.statementRowsLimit = configuration.getBatchStatementRowsLimit();
+        this.pendingRowsLimit = configuration.getBatchPendingRowsLimit();
+        this.pendingBytesLimit = configuration.getBatchPendingBytesLimit();
+        this.flushListener = configuration.getBatchFlushListener();
+        this.insertRewriteSize = configuration.getBatchInsertRewriteSize();
+        this.pipelineDepth = configuration.getBatchPipelineDepth();
     }
 
     @Override
     public int doUpdate(MappedStatement ms, Object parameterObject) throws SQLException {
+        //流水线模式下调用线程不使用连接，由后台线程预编译、绑定参数并执行。
+        //selectKey等主键生成器会另外查询数据库，需先等待后台的批次组结束，再在调用线程中同步执行
+        final boolean deferred = pipelineDepth > 0 && isPipelinable(ms);
+        if (pipelineDepth > 0 && !deferred) {
+            awaitPipeline();
+            synchronousPending = true;
+        }
         final Configuration configuration = ms.getConfiguration();
         final StatementHandler handler = configuration.newStatementHandler(this, ms, parameterObject, RowBounds.DEFAULT, null, null);
         final BoundSql boundSql = handler.getBoundSql();
         final String sql = boundSql.getSql();
         final Statement stmt;
-        //匹配最后一次currentSql与currentStatement，则聚合到BatchResult
-        if (sql.equals(currentSql) && ms.equals(currentStatement)) {
-            int last = statementList.size() - 1;
-            stmt = statementList.get(last);
-            applyTransactionTimeout(stmt);
-            handler.parameterize(stmt);// fix Issues 322
-            BatchResult batchResult = batchResultList.get(last);
+        final int statementRows;
+        //匹配最后一次currentSql与currentStatement，或分组模式下可追加的批次，则聚合到BatchResult
+        final GroupKey groupKey = grouping ? new GroupKey(ms, sql) : null;
+        final int index = grouping ? appendableGroup(groupKey)
+            : sql.equals(currentSql) && ms.equals(currentStatement) ? statementList.size() - 1 : -1;
+        if (index >= 0) {
+            stmt = statementList.get(index);
+            if (insertList.get(index) != null) {
+                //改写为多行INSERT的批次在刷新时才执行
+                insertList.get(index).addRow(boundSql);
+            } else if (handlerList.get(index) != null) {
+                handlerList.get(index).add(handler);
+            } else {
+                applyTransactionTimeout(stmt);
+                handler.parameterize(stmt);// fix Issues 322
+            }
+            BatchResult batchResult = batchResultList.get(index);
             batchResult.addParameterObject(parameterObject);
+            statementRows = batchResult.getParameterObjects().size();
         } else {
-            Connection connection = getConnection(ms.getStatementLog());
-            stmt = handler.prepare(connection, transaction.getTimeout());
-            handler.parameterize(stmt);    // fix Issues 322
+            MultiRowInsert insert = insertRewriteSize > 1 ? MultiRowInsert.of(ms, boundSql) : null;
+            List<StatementHandler> handlers = null;
+            if (insert != null) {
+                insert.addRow(boundSql);
+                stmt = null;
+            } else if (deferred) {
+                handlers = new ArrayList<>();
+                handlers.add(handler);
+                stmt = null;
+            } else {
+                Connection connection = getConnection(ms.getStatementLog());
+                stmt = handler.prepare(connection, transaction.getTimeout());
+                handler.parameterize(stmt);    // fix Issues 322
+            }
             currentSql = sql;
             currentStatement = ms;
             statementList.add(stmt);
+            insertList.add(insert);
+            handlerList.add(handlers);
             batchResultList.add(new BatchResult(ms, sql, parameterObject));
+            if (grouping) {
+                groupIndexes.put(groupKey, statementList.size() - 1);
+                groupList.add(new Group(ms, SqlTables.of(ms, sql)));
+            }
+            statementRows = 1;
+        }
+        if (stmt != null) {
+            handler.batch(stmt);
+        }
+        pendingRows++;
+        if (pendingBytesLimit > 0) {
+            pendingBytes += estimateSize(boundSql, parameterObject);
+        }
+        //达到任一阈值时执行所有待执行的批次，保持语句顺序
+        if (statementRowsLimit > 0 && statementRows >= statementRowsLimit
+            || pendingRowsLimit > 0 && pendingRows >= pendingRowsLimit
+            || pendingBytesLimit > 0 && pendingBytes >= pendingBytesLimit) {
+            if (pipelineDepth > 0 && !synchronousPending) {
+                pipelineBatches();
+            } else {
+                List<BatchResult> results = flushStatements();
+                if (flushListener != null) {
+                    flushListener.onAutoFlush(results);
+                }
+            }
         }
-        handler.batch(stmt);
         return BATCH_UPDATE_RETURN_VALUE;
     }
 
+    /**
+     * 主键生成器不需要额外使用连接的语句才能移交给后台线程执行
+     */
+    private static boolean isPipelinable(MappedStatement ms) {
+        Class<?> keyGeneratorType = ms.getKeyGenerator().getClass();
+        return NoKeyGenerator.class.equals(keyGeneratorType) || Jdbc3KeyGenerator.class.equals(keyGeneratorType);
+    }
+
+    /**
+     * 估算一行参数占用的字节数，参数值的获取方式与DefaultParameterHandler一致，都使用ParameterValues
+     */
+    private long estimateSize(BoundSql boundSql, Object parameterObject) {
+        long size = 16;
+        ParameterValues parameterValues = new ParameterValues(configuration, boundSql, parameterObject);
+        for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
+            size += estimateSize(parameterValues.getValue(parameterMapping));
+        }
+        return size;
+    }
+
+    private static long estimateSize(Object value) {
+        if (value == null) {
+            return 8;
+        } else if (value instanceof CharSequence) {
+            return 40 + 2L * ((CharSequence) value).length();
+        } else if (value instanceof byte[]) {
+            return 16 + ((byte[]) value).length;
+        } else if (value instanceof char[]) {
+            return 16 + 2L * ((char[]) value).length;
+        }
+        return 24;
+    }
+
+    /**
+     * 查找语句可追加的批次：该批次之后开启的批次都不能与语句冲突
+     *
+     * @return 批次在statementList中的下标，没有则返回-1
+     */
+    private int appendableGroup(GroupKey groupKey) {
+        Integer index = groupIndexes.get(groupKey);
+        if (index == null) {
+            return -1;
+        }
+        Group group = groupList.get(index);
+        for (int i = index + 1, n = groupList.size(); i < n; i++) {
+            if (group.mustFollow(groupList.get(i), configuration)) {
+                return -1;
+            }
+        }
+        return index;
+    }
+
     @Override
     public <E> List<E> doQuery(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql)
         throws SQLException {
@@ -130,30 +335,69 @@ public class BatchExecutor extends BaseExecutor {
     @Override
     public List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
         try {
-            List<BatchResult> results = new ArrayList<>();
             if (isRollback) {
-                //如回滚则返回空数组
+                //如回滚则等待后台批次结束后返回空数组
+                drainPipeline();
                 return Collections.emptyList();
             }
-            for (int i = 0, n = statementList.size(); i < n; i++) {
-                Statement stmt = statementList.get(i);
-                applyTransactionTimeout(stmt);
-                BatchResult batchResult = batchResultList.get(i);
+            awaitPipeline();
+            return executeBatches(statementList, insertList, handlerList, batchResultList, transaction.getTimeout());
+        } finally {
+            closeStatements(statementList);
+            clearBatches();
+        }
+    }
+
+    @Override
+    public void close(boolean forceRollback) {
+        try {
+            super.close(forceRollback);
+        } finally {
+            if (flusher != null) {
+                flusher.shutdown();
+                flusher = null;
+            }
+        }
+    }
+
+    /**
+     * 依次执行批次，执行后关闭各自的Statement
+     *
+     * @param transactionTimeout 事务超时时间，由调用线程获取，事务管理器可能将其保存在调用线程上
+     * @return 各批次的结果
+     */
+    private List<BatchResult> executeBatches(List<Statement> statements, List<MultiRowInsert> inserts,
+                                             List<List<StatementHandler>> handlers, List<BatchResult> batchResults,
+                                             Integer transactionTimeout) throws SQLException {
+        try {
+            List<BatchResult> results = new ArrayList<>();
+            for (int i = 0, n = statements.size(); i < n; i++) {
+                Statement stmt = statements.get(i);
+                BatchResult batchResult = batchResults.get(i);
+                if (handlers.get(i) != null) {
+                    stmt = prepareBatch(handlers.get(i), batchResult.getMappedStatement(), transactionTimeout);
+                    statements.set(i, stmt);
+                }
                 try {
-                    batchResult.setUpdateCounts(stmt.executeBatch());
-                    MappedStatement ms = batchResult.getMappedStatement();
-                    List<Object> parameterObjects = batchResult.getParameterObjects();
-                    KeyGenerator keyGenerator = ms.getKeyGenerator();
-                    if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
-                        Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
-                        jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
-                    } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { //issue #141
-                        for (Object parameter : parameterObjects) {
-                            keyGenerator.processAfter(this, ms, stmt, parameter);
+                    if (stmt == null) {
+                        batchResult.setUpdateCounts(executeMultiRowInsert(inserts.get(i), batchResult, transactionTimeout));
+                    } else {
+                        StatementUtil.applyTransactionTimeout(stmt, stmt.getQueryTimeout(), transactionTimeout);
+                        batchResult.setUpdateCounts(stmt.executeBatch());
+                        MappedStatement ms = batchResult.getMappedStatement();
+                        List<Object> parameterObjects = batchResult.getParameterObjects();
+                        KeyGenerator keyGenerator = ms.getKeyGenerator();
+                        if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
+                            Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
+                            jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
+                        } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { //issue #141
+                            for (Object parameter : parameterObjects) {
+                                keyGenerator.processAfter(this, ms, stmt, parameter);
+                            }
                         }
+                        // Close statement to close cursor #1109
+                        closeStatement(stmt);
                     }
-                    // Close statement to close cursor #1109
-                    closeStatement(stmt);
                 } catch (BatchUpdateException e) {
                     StringBuilder message = new StringBuilder();
                     message.append(batchResult.getMappedStatement().getId())
@@ -172,12 +416,251 @@ public class BatchExecutor extends BaseExecutor {
             }
             return results;
         } finally {
-            for (Statement stmt : statementList) {
-                closeStatement(stmt);
+            closeStatements(statements);
+        }
+    }
+
+    /**
+     * 预编译延迟的批次，依次绑定各语句的参数并加入批次
+     */
+    private Statement prepareBatch(List<StatementHandler> handlers, MappedStatement ms, Integer transactionTimeout) throws SQLException {
+        Connection connection = getConnection(ms.getStatementLog());
+        Statement stmt = handlers.get(0).prepare(connection, transactionTimeout);
+        try {
+            for (StatementHandler handler : handlers) {
+                handler.parameterize(stmt);
+                handler.batch(stmt);
+            }
+            return stmt;
+        } catch (SQLException | RuntimeException e) {
+            closeStatement(stmt);
+            throw e;
+        }
+    }
+
+    private void closeStatements(List<Statement> statements) {
+        for (Statement stmt : statements) {
+            closeStatement(stmt);
+        }
+    }
+
+    /**
+     * 清空待执行的批次，不关闭Statement
+     */
+    private void clearBatches() {
+        currentSql = null;
+        statementList.clear();
+        insertList.clear();
+        handlerList.clear();
+        batchResultList.clear();
+        groupIndexes.clear();
+        groupList.clear();
+        pendingRows = 0;
+        pendingBytes = 0;
+        synchronousPending = false;
+    }
+
+    /**
+     * 将待执行的批次移交给后台线程预编译、绑定参数并执行，调用线程可以继续生成之后的语句。
+     * 先取回已完成的批次组，移交中的批次组达到pipelineDepth时等待最早的一组完成。
+     * 连接只由后台线程使用，主键在批次组执行后才设置到参数对象上
+     */
+    private void pipelineBatches() throws SQLException {
+        while (!pipeline.isEmpty() && (pipeline.peekFirst().isDone() || pipeline.size() >= pipelineDepth)) {
+            awaitPipelined();
+        }
+        //在调用线程中打开连接、获取超时时间，事务管理器可能将它们绑定在调用线程上
+        transaction.getConnection();
+        final Integer transactionTimeout = transaction.getTimeout();
+        final List<Statement> statements = new ArrayList<>(statementList);
+        final List<MultiRowInsert> inserts = new ArrayList<>(insertList);
+        final List<List<StatementHandler>> handlers = new ArrayList<>(handlerList);
+        final List<BatchResult> batchResults = new ArrayList<>(batchResultList);
+        clearBatches();
+        pipeline.addLast(flusher().submit(() -> {
+            if (pipelineFailed) {
+                //之前的批次组已失败，事务将回滚，跳过之后的批次
+                closeStatements(statements);
+                return Collections.<BatchResult>emptyList();
+            }
+            try {
+                return executeBatches(statements, inserts, handlers, batchResults, transactionTimeout);
+            } catch (SQLException | RuntimeException e) {
+                pipelineFailed = true;
+                throw e;
+            } finally {
+                //后台线程会被复用，不保留本组批次的错误上下文
+                ErrorContext.instance().reset();
+            }
+        }));
+    }
+
+    private ExecutorService flusher() {
+        if (flusher == null) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "mybatis-batch-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+            flusher = executor;
+        }
+        return flusher;
+    }
+
+    /**
+     * 等待所有移交的批次组完成并取回结果
+     */
+    private void awaitPipeline() throws SQLException {
+        while (!pipeline.isEmpty()) {
+            awaitPipelined();
+        }
+    }
+
+    /**
+     * 取回最早移交的批次组的结果并交给监听器。
+     * 失败时等待其余批次组结束，丢弃待执行的批次，再抛出后台线程的异常
+     */
+    private void awaitPipelined() throws SQLException {
+        List<BatchResult> results;
+        try {
+            results = pipeline.peekFirst().get();
+            pipeline.removeFirst();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExecutorException("Interrupted while waiting for the pipelined batches.", e);
+        } catch (ExecutionException e) {
+            drainPipeline();
+            closeStatements(statementList);
+            clearBatches();
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ExecutorException("Error executing the pipelined batches.  Cause: " + cause, cause);
+        }
+        if (flushListener != null) {
+            flushListener.onAutoFlush(results);
+        }
+    }
+
+    /**
+     * 等待所有移交的批次组结束，忽略其结果
+     */
+    private void drainPipeline() {
+        boolean interrupted = false;
+        while (!pipeline.isEmpty()) {
+            try {
+                pipeline.peekFirst().get();
+                pipeline.removeFirst();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException e) {
+                pipeline.removeFirst();
+            }
+        }
+        pipelineFailed = false;
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 按insertRewriteSize分段执行改写后的多行INSERT，行数相同的分段复用同一个Statement
+     *
+     * @return 每行的影响行数，无法确定时为{@link Statement#SUCCESS_NO_INFO}
+     */
+    private int[] executeMultiRowInsert(MultiRowInsert insert, BatchResult batchResult, Integer transactionTimeout) throws SQLException {
+        MappedStatement ms = batchResult.getMappedStatement();
+        List<Object> parameterObjects = batchResult.getParameterObjects();
+        int[] updateCounts = new int[parameterObjects.size()];
+        Connection connection = getConnection(ms.getStatementLog());
+        PreparedStatement stmt = null;
+        int statementRows = 0;
+        int from = 0;
+        try {
+            while (from < parameterObjects.size()) {
+                int to = Math.min(from + insertRewriteSize, parameterObjects.size());
+                if (to - from != statementRows) {
+                    closeStatement(stmt);
+                    stmt = null;
+                    Object parameterObject = parameterObjects.get(from);
+                    BoundSql boundSql = new BoundSql(configuration, insert.getSql(to - from), Collections.emptyList(), parameterObject);
+                    StatementHandler handler = configuration.newStatementHandler(this, ms, parameterObject, RowBounds.DEFAULT, null, boundSql);
+                    stmt = (PreparedStatement) handler.prepare(connection, transactionTimeout);
+                    statementRows = to - from;
+                }
+                insert.parameterize(configuration, ms, stmt, parameterObjects, from, to);
+                int count = stmt.executeUpdate();
+                Arrays.fill(updateCounts, from, to, count == to - from ? 1 : Statement.SUCCESS_NO_INFO);
+                if (Jdbc3KeyGenerator.class.equals(ms.getKeyGenerator().getClass())) {
+                    ((Jdbc3KeyGenerator) ms.getKeyGenerator()).processBatch(ms, stmt, new ArrayList<>(parameterObjects.subList(from, to)));
+                }
+                from = to;
+            }
+            return updateCounts;
+        } catch (BatchUpdateException e) {
+            throw e;
+        } catch (SQLException e) {
+            throw new BatchUpdateException(e.getMessage(), e.getSQLState(), e.getErrorCode(), Arrays.copyOf(updateCounts, from), e);
+        } finally {
+            closeStatement(stmt);
+        }
+    }
+
+    private static final class GroupKey {
+        private final MappedStatement ms;
+        private final String sql;
+
+        GroupKey(MappedStatement ms, String sql) {
+            this.ms = ms;
+            this.sql = sql;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof GroupKey)) {
+                return false;
+            }
+            GroupKey that = (GroupKey) o;
+            return ms.equals(that.ms) && sql.equals(that.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * ms.hashCode() + sql.hashCode();
+        }
+    }
+
+    private static final class Group {
+        private final MappedStatement ms;
+        private final String namespace;
+        private final Set<String> tables;
+
+        Group(MappedStatement ms, Set<String> tables) {
+            this.ms = ms;
+            int dot = ms.getId().lastIndexOf('.');
+            this.namespace = dot < 0 ? ms.getId() : ms.getId().substring(0, dot);
+            this.tables = tables;
+        }
+
+        /**
+         * @return 本批次的语句是否不能移到later批次之前执行
+         */
+        boolean mustFollow(Group later, Configuration configuration) {
+            if (tables == null || later.tables == null || !Collections.disjoint(tables, later.tables)) {
+                return true;
+            }
+            if (namespace.equals(later.namespace)) {
+                return false;
             }
-            currentSql = null;
-            statementList.clear();
-            batchResultList.clear();
+            // 依赖方的写入不能早于被依赖方，被依赖方除插入外不能早于依赖方
+            return configuration.hasBatchDependency(namespace, later.namespace) && ms.getSqlCommandType() != SqlCommandType.DELETE
+                || configuration.hasBatchDependency(later.namespace, namespace) && ms.getSqlCommandType() != SqlCommandType.INSERT;
         }
     }
 
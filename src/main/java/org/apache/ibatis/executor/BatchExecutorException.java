@@ -85,4 +85,15 @@ public class BatchExecutorException extends ExecutorException {
     public String getFailingStatementId() {
         return batchResult.getMappedStatement().getId();
     }
+
+    /**
+     * Returns the BatchResult of the executor that failed, holding the
+     * parameter objects of all the rows of its batch.
+     *
+     * @return the failing executor result
+     * @since 3.5.5
+     */
+    public BatchResult getFailingBatchResult() {
+        return batchResult;
+    }
 }
@@ -0,0 +1,36 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.util.List;
+
+/**
+ * Receives the results of the batches that the {@link BatchExecutor} executes on its own, once the pending statements
+ * reach one of the configured thresholds. These results are not returned by the next explicit flush.
+ *
+ * @since 3.5.5
+ * @see org.apache.ibatis.session.Configuration#setBatchFlushListener(BatchFlushListener)
+ */
+@FunctionalInterface
+public interface BatchFlushListener {
+
+    /**
+     * Called from the thread of the statement that reached the threshold, after the batches were executed.
+     *
+     * @param results the results of the executed batches, with their update counts, in execution order
+     */
+    void onAutoFlush(List<BatchResult> results);
+}
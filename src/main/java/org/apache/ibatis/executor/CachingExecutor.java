@@ -17,7 +17,12 @@ package org.apache.ibatis.executor;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.SqlTables;
 import org.apache.ibatis.cache.TransactionalCacheManager;
+import org.apache.ibatis.cache.coherence.CacheInvalidationBus;
+import org.apache.ibatis.cache.decorators.DependencyTrackingCache;
+import org.apache.ibatis.cache.decorators.MetricsCache;
+import org.apache.ibatis.cache.metrics.CacheMetrics;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.mapping.*;
 import org.apache.ibatis.reflection.MetaObject;
@@ -27,6 +32,7 @@ import org.apache.ibatis.transaction.Transaction;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Set;
 
 /**
  * 支持二级缓存的Executor
@@ -44,10 +50,20 @@ public class CachingExecutor implements Executor {
     /**
      * TransactionalCacheManager 对象
      */
-    private final TransactionalCacheManager tcm = new TransactionalCacheManager();
+    private final TransactionalCacheManager tcm;
 
     public CachingExecutor(Executor delegate) {
+        this(delegate, null);
+    }
+
+    /**
+     * @param delegate        被委托的执行器
+     * @param invalidationBus 提交时发布缓存失效消息的总线，为 {@code null} 时不发布
+     * @since 3.5.5
+     */
+    public CachingExecutor(Executor delegate, CacheInvalidationBus invalidationBus) {
         this.delegate = delegate;
+        this.tcm = new TransactionalCacheManager(invalidationBus);
         delegate.setExecutorWrapper(this);
     }
 
@@ -77,20 +93,22 @@ public class CachingExecutor implements Executor {
 
     @Override
     public int update(MappedStatement ms, Object parameterObject) throws SQLException {
-        flushCacheIfRequired(ms);
+        flushCacheIfRequired(ms, parameterObject, null);
         return delegate.update(ms, parameterObject);
     }
 
     @Override
     public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
-        flushCacheIfRequired(ms);
+        flushCacheIfRequired(ms, parameter, null);
         return delegate.queryCursor(ms, parameter, rowBounds);
     }
 
     @Override
     public <E> List<E> query(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
         BoundSql boundSql = ms.getBoundSql(parameterObject);
-        CacheKey key = createCacheKey(ms, parameterObject, rowBounds, boundSql);
+        boolean cacheKeyRequired = (ms.getCache() != null && ms.isUseCache() && resultHandler == null)
+            || BaseExecutor.isLocalCacheKeyRequired(ms);
+        CacheKey key = cacheKeyRequired ? createCacheKey(ms, parameterObject, rowBounds, boundSql) : CacheKey.unique();
         return query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
     }
 
@@ -100,7 +118,7 @@ public class CachingExecutor implements Executor {
         Cache cache = ms.getCache();
         if (cache != null) {
             //如果需要清空缓存，则进行清空
-            flushCacheIfRequired(ms);
+            flushCacheIfRequired(ms, parameterObject, boundSql);
             //判断是否需要使用缓存
             if (ms.isUseCache() && resultHandler == null) {
                 //存储过程
@@ -110,9 +128,18 @@ public class CachingExecutor implements Executor {
                 List<E> list = (List<E>) tcm.getObject(cache, key);
                 if (list == null) {
                     //缓存不存在则从数据库取出
+                    long start = System.nanoTime();
                     list = delegate.query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+                    CacheMetrics metrics = MetricsCache.metricsOf(cache);
+                    if (metrics != null) {
+                        metrics.recordLoadTime(System.nanoTime() - start);
+                    }
                     //放入缓存
-                    tcm.putObject(cache, key, list); // issue #578 and #116
+                    if (cache instanceof DependencyTrackingCache) {
+                        tcm.putObject(cache, key, list, tablesOf(ms, parameterObject, boundSql));
+                    } else {
+                        tcm.putObject(cache, key, list); // issue #578 and #116
+                    }
                 }
                 return list;
             }
@@ -173,11 +200,26 @@ public class CachingExecutor implements Executor {
         delegate.clearLocalCache();
     }
 
-    private void flushCacheIfRequired(MappedStatement ms) {
+    private void flushCacheIfRequired(MappedStatement ms, Object parameterObject, BoundSql boundSql) {
         Cache cache = ms.getCache();
         if (cache != null && ms.isFlushCacheRequired()) {
-            tcm.clear(cache);
+            //跟踪依赖的缓存只失效依赖于被写入的表的缓存项
+            if (cache instanceof DependencyTrackingCache && ms.getSqlCommandType() != SqlCommandType.SELECT) {
+                tcm.invalidate(cache, tablesOf(ms, parameterObject, boundSql));
+            } else {
+                tcm.clear(cache);
+            }
+        }
+    }
+
+    /**
+     * 获取语句读写的表，未声明时从sql推断，无法推断时返回null
+     */
+    private Set<String> tablesOf(MappedStatement ms, Object parameterObject, BoundSql boundSql) {
+        if (ms.getTables() != null) {
+            return ms.getTables();
         }
+        return SqlTables.of(ms, (boundSql == null ? ms.getBoundSql(parameterObject) : boundSql).getSql());
     }
 
     @Override
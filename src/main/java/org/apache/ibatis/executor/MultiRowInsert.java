@@ -0,0 +1,234 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.session.Configuration;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 将单行 {@code INSERT ... VALUES (...)} 的批次改写为多行 {@code VALUES (...), (...)} 语句执行
+ * <p>
+ * 只改写VALUES括号之后没有其他子句、括号之前没有参数、并且主键由JDBC生成或不生成的预编译INSERT。
+ * 每行的参数仍通过该行的ParameterHandler绑定，绑定时参数下标整体偏移到该行的位置。
+ */
+final class MultiRowInsert {
+
+    private final String prefix;
+    private final String row;
+    private final int rowParameters;
+
+    /**
+     * 每一行的BoundSql，与BatchResult的参数对象一一对应
+     */
+    private final List<BoundSql> rows = new ArrayList<>();
+
+    private MultiRowInsert(String prefix, String row, int rowParameters) {
+        this.prefix = prefix;
+        this.row = row;
+        this.rowParameters = rowParameters;
+    }
+
+    /**
+     * @return 可改写时返回新的多行INSERT，否则返回null
+     */
+    static MultiRowInsert of(MappedStatement ms, BoundSql boundSql) {
+        if (ms.getSqlCommandType() != SqlCommandType.INSERT || ms.getStatementType() != StatementType.PREPARED
+            || !NoKeyGenerator.class.equals(ms.getKeyGenerator().getClass())
+            && !Jdbc3KeyGenerator.class.equals(ms.getKeyGenerator().getClass())) {
+            return null;
+        }
+        String sql = boundSql.getSql();
+        int values = indexOfValues(sql);
+        if (values < 0) {
+            return null;
+        }
+        int start = values + "values".length();
+        while (start < sql.length() && Character.isWhitespace(sql.charAt(start))) {
+            start++;
+        }
+        if (start == sql.length() || sql.charAt(start) != '(') {
+            return null;
+        }
+        int end = skipParentheses(sql, start);
+        if (end < 0) {
+            return null;
+        }
+        for (int i = end; i < sql.length(); i++) {
+            if (!Character.isWhitespace(sql.charAt(i)) && sql.charAt(i) != ';') {
+                return null;
+            }
+        }
+        String prefix = sql.substring(0, start);
+        String row = sql.substring(start, end);
+        if (countParameters(prefix) != 0 || countParameters(row) != boundSql.getParameterMappings().size()) {
+            return null;
+        }
+        return new MultiRowInsert(prefix, row, boundSql.getParameterMappings().size());
+    }
+
+    void addRow(BoundSql boundSql) {
+        rows.add(boundSql);
+    }
+
+    List<BoundSql> getRows() {
+        return rows;
+    }
+
+    /**
+     * @return 插入count行的sql
+     */
+    String getSql(int count) {
+        StringBuilder sql = new StringBuilder(prefix.length() + count * (row.length() + 2));
+        sql.append(prefix).append(row);
+        for (int i = 1; i < count; i++) {
+            sql.append(", ").append(row);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * 依次用各行的ParameterHandler绑定[from, to)行的参数
+     */
+    void parameterize(Configuration configuration, MappedStatement ms, PreparedStatement ps,
+                      List<Object> parameterObjects, int from, int to) throws SQLException {
+        OffsetParameters offsetParameters = new OffsetParameters(ps);
+        PreparedStatement offsetStatement = (PreparedStatement) Proxy.newProxyInstance(
+            PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, offsetParameters);
+        for (int i = from; i < to; i++) {
+            offsetParameters.offset = (i - from) * rowParameters;
+            configuration.newParameterHandler(ms, parameterObjects.get(i), rows.get(i)).setParameters(offsetStatement);
+        }
+    }
+
+    /**
+     * @return 顶层VALUES关键字的位置，没有则返回-1
+     */
+    private static int indexOfValues(String sql) {
+        int depth = 0;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = skipQuoted(sql, i);
+                if (i < 0) {
+                    return -1;
+                }
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth == 0 && sql.regionMatches(true, i, "values", 0, 6)
+                && (i == 0 || !Character.isJavaIdentifierPart(sql.charAt(i - 1)))
+                && (i + 6 == sql.length() || !Character.isJavaIdentifierPart(sql.charAt(i + 6)))) {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    /**
+     * @return 从start处的左括号开始，匹配的右括号之后的位置，不匹配则返回-1
+     */
+    private static int skipParentheses(String sql, int start) {
+        int depth = 0;
+        int i = start;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = skipQuoted(sql, i);
+                if (i < 0) {
+                    return -1;
+                }
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i + 1;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private static int skipQuoted(String sql, int start) {
+        char quote = sql.charAt(start);
+        int end = sql.indexOf(quote, start + 1);
+        return end < 0 ? -1 : end + 1;
+    }
+
+    private static int countParameters(String sql) {
+        int count = 0;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = skipQuoted(sql, i);
+                if (i < 0) {
+                    return -1;
+                }
+                continue;
+            }
+            if (c == '?') {
+                count++;
+            }
+            i++;
+        }
+        return count;
+    }
+
+    /**
+     * 将setXxx(int parameterIndex, ...)的下标加上当前行的偏移量
+     */
+    private static final class OffsetParameters implements InvocationHandler {
+        private final PreparedStatement delegate;
+        private int offset;
+
+        OffsetParameters(PreparedStatement delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (offset != 0 && args != null && args.length > 1 && method.getName().startsWith("set")
+                && method.getParameterTypes()[0] == int.class) {
+                args[0] = (Integer) args[0] + offset;
+            }
+            try {
+                return method.invoke(delegate, args);
+            } catch (Throwable t) {
+                throw ExceptionUtil.unwrapThrowable(t);
+            }
+        }
+    }
+}
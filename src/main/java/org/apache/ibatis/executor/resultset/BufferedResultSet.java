@@ -0,0 +1,463 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A read-only, forward-only ResultSet that holds all rows of another ResultSet in memory, so that it can be mapped
+ * after the statement has moved on to its next result set, and on another thread.
+ * <p>
+ * Large objects are read into memory when buffering. Getters convert the buffered values the way JDBC drivers do for
+ * the common Java types; other conversions fail with a {@link SQLException}.
+ *
+ * @since 3.5.5
+ */
+final class BufferedResultSet implements InvocationHandler {
+
+    private final ResultSetMetaData metaData;
+    private final Map<String, Integer> columnIndexes = new HashMap<>();
+    private final List<Object[]> rows;
+    private int rowIndex = -1;
+    private boolean wasNull;
+    private boolean closed;
+
+    private BufferedResultSet(ResultSetMetaData metaData, List<Object[]> rows) throws SQLException {
+        this.metaData = metaData;
+        this.rows = rows;
+        for (int i = metaData.getColumnCount(); i > 0; i--) {
+            columnIndexes.put(metaData.getColumnLabel(i).toUpperCase(Locale.ENGLISH), i);
+        }
+    }
+
+    /**
+     * Reads all remaining rows of a result set. The given result set is not closed.
+     *
+     * @param rs the result set to read
+     * @return a result set holding the rows in memory
+     * @throws SQLException if the rows could not be read
+     */
+    static ResultSet buffer(ResultSet rs) throws SQLException {
+        ResultSetMetaData rsmd = rs.getMetaData();
+        int columnCount = rsmd.getColumnCount();
+        BufferedMetaData metaData = new BufferedMetaData(columnCount);
+        metaData.setColumnCount(columnCount);
+        int[] types = new int[columnCount];
+        for (int i = 1; i <= columnCount; i++) {
+            types[i - 1] = rsmd.getColumnType(i);
+            metaData.setColumnLabel(i, rsmd.getColumnLabel(i));
+            metaData.setColumnName(i, rsmd.getColumnName(i));
+            metaData.setColumnType(i, types[i - 1]);
+            metaData.setColumnTypeName(i, rsmd.getColumnTypeName(i));
+            metaData.setNullable(i, rsmd.isNullable(i));
+            metaData.setPrecision(i, Math.max(0, rsmd.getPrecision(i)));
+            metaData.setScale(i, Math.max(0, rsmd.getScale(i)));
+            metaData.setTableName(i, rsmd.getTableName(i));
+            metaData.setSchemaName(i, rsmd.getSchemaName(i));
+            metaData.setCatalogName(i, rsmd.getCatalogName(i));
+            metaData.classNames[i - 1] = rsmd.getColumnClassName(i);
+        }
+        List<Object[]> rows = new ArrayList<>();
+        while (rs.next()) {
+            Object[] row = new Object[columnCount];
+            for (int i = 1; i <= columnCount; i++) {
+                row[i - 1] = readValue(rs, i, types[i - 1]);
+            }
+            rows.add(row);
+        }
+        BufferedResultSet handler = new BufferedResultSet(metaData, rows);
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, handler);
+    }
+
+    private static Object readValue(ResultSet rs, int column, int type) throws SQLException {
+        switch (type) {
+            case Types.BLOB:
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+                return rs.getBytes(column);
+            case Types.CLOB:
+            case Types.NCLOB:
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+                return rs.getString(column);
+            default:
+                return rs.getObject(column);
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] params) throws Throwable {
+        try {
+            if (Object.class.equals(method.getDeclaringClass())) {
+                return method.invoke(this, params);
+            }
+            String name = method.getName();
+            switch (name) {
+                case "next":
+                    checkOpen();
+                    if (rowIndex < rows.size()) {
+                        rowIndex++;
+                    }
+                    return rowIndex < rows.size();
+                case "close":
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "wasNull":
+                    return wasNull;
+                case "getMetaData":
+                    return metaData;
+                case "findColumn":
+                    return findColumn((String) params[0]);
+                case "getType":
+                    return ResultSet.TYPE_FORWARD_ONLY;
+                case "getConcurrency":
+                    return ResultSet.CONCUR_READ_ONLY;
+                case "getFetchDirection":
+                    return ResultSet.FETCH_FORWARD;
+                case "getHoldability":
+                    return ResultSet.CLOSE_CURSORS_AT_COMMIT;
+                case "getFetchSize":
+                    return 0;
+                case "setFetchSize":
+                case "clearWarnings":
+                    return null;
+                case "getWarnings":
+                case "getStatement":
+                    return null;
+                case "getRow":
+                    return rowIndex < rows.size() ? rowIndex + 1 : 0;
+                case "isBeforeFirst":
+                    return rowIndex < 0 && !rows.isEmpty();
+                case "isAfterLast":
+                    return rowIndex >= rows.size() && !rows.isEmpty();
+                case "isWrapperFor":
+                    return ((Class<?>) params[0]).isInstance(proxy);
+                case "unwrap":
+                    if (((Class<?>) params[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    throw new SQLException("Cannot unwrap to " + params[0]);
+                default:
+                    if (name.startsWith("get") && params != null && params.length > 0) {
+                        return getValue(method, params);
+                    }
+                    throw new SQLFeatureNotSupportedException("A buffered result set does not support " + name);
+            }
+        } catch (Throwable t) {
+            throw ExceptionUtil.unwrapThrowable(t);
+        }
+    }
+
+    private Object getValue(Method method, Object[] params) throws SQLException {
+        checkOpen();
+        if (rowIndex < 0 || rowIndex >= rows.size()) {
+            throw new SQLException("The result set is not positioned on a row");
+        }
+        int column = params[0] instanceof Integer ? (Integer) params[0] : findColumn((String) params[0]);
+        if (column < 1 || column > metaData.getColumnCount()) {
+            throw new SQLException("Invalid column index " + column);
+        }
+        Object value = rows.get(rowIndex)[column - 1];
+        wasNull = value == null;
+        String name = method.getName();
+        Class<?> type = method.getReturnType();
+        if ("getObject".equals(name)) {
+            if (params.length == 2 && params[1] instanceof Class) {
+                return convert(value, (Class<?>) params[1]);
+            }
+            return value;
+        }
+        if ("getAsciiStream".equals(name) || "getUnicodeStream".equals(name)) {
+            return value == null ? null : new ByteArrayInputStream(value.toString().getBytes(StandardCharsets.US_ASCII));
+        }
+        if (params.length == 2 && params[1] instanceof Calendar) {
+            return value == null ? null : convertTemporal(value, type, ((Calendar) params[1]).getTimeZone().toZoneId());
+        }
+        Object converted = convert(value, type);
+        if ("getBigDecimal".equals(name) && params.length == 2 && params[1] instanceof Integer && converted != null) {
+            return ((BigDecimal) converted).setScale((Integer) params[1], RoundingMode.HALF_UP);
+        }
+        return converted;
+    }
+
+    private int findColumn(String label) throws SQLException {
+        Integer index = columnIndexes.get(label.toUpperCase(Locale.ENGLISH));
+        if (index == null) {
+            throw new SQLException("Invalid column label " + label);
+        }
+        return index;
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("The result set is closed");
+        }
+    }
+
+    private static Object convert(Object value, Class<?> type) throws SQLException {
+        if (value == null) {
+            return nullValue(type);
+        }
+        if (type.isInstance(value) || type.isPrimitive() && wrap(type).isInstance(value)) {
+            return value;
+        }
+        if (type == String.class) {
+            return value instanceof byte[] ? new String((byte[]) value, StandardCharsets.UTF_8) : value.toString();
+        }
+        if (type.isPrimitive() || Number.class.isAssignableFrom(type) || type == Boolean.class) {
+            return convertNumber(value, type);
+        }
+        if (type == byte[].class && value instanceof String) {
+            return ((String) value).getBytes(StandardCharsets.UTF_8);
+        }
+        if (type == Blob.class && value instanceof byte[]) {
+            return new SerialBlob((byte[]) value);
+        }
+        if (type == Clob.class) {
+            return new SerialClob(value.toString().toCharArray());
+        }
+        if (type == InputStream.class && value instanceof byte[]) {
+            return new ByteArrayInputStream((byte[]) value);
+        }
+        if (type == Reader.class) {
+            return new StringReader(value.toString());
+        }
+        Object temporal = convertTemporal(value, type);
+        if (temporal != null) {
+            return temporal;
+        }
+        throw new SQLException("Cannot convert a buffered value of type " + value.getClass().getName() + " to " + type.getName());
+    }
+
+    private static Object nullValue(Class<?> type) throws SQLException {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == char.class) {
+            return (char) 0;
+        } else if (type.isPrimitive()) {
+            return convertNumber(0, type);
+        }
+        return null;
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    private static Object convertNumber(Object value, Class<?> type) throws SQLException {
+        if (type == boolean.class || type == Boolean.class) {
+            if (value instanceof Boolean) {
+                return value;
+            } else if (value instanceof Number) {
+                return ((Number) value).intValue() != 0;
+            }
+            String text = value.toString().trim();
+            return "1".equals(text) || "true".equalsIgnoreCase(text);
+        }
+        if (value instanceof Boolean) {
+            value = (Boolean) value ? 1 : 0;
+        }
+        if (type == double.class || type == Double.class || type == float.class || type == Float.class) {
+            // widen like the driver does, and keep NaN and infinities
+            double number = value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString().trim());
+            if (type == double.class || type == Double.class) {
+                return number;
+            }
+            return value instanceof Number ? ((Number) value).floatValue() : (float) number;
+        }
+        if (value instanceof Number && !(value instanceof BigDecimal) && !(value instanceof BigInteger)
+            && type != BigDecimal.class && type != BigInteger.class) {
+            Number number = (Number) value;
+            if (type == int.class || type == Integer.class) {
+                return number.intValue();
+            } else if (type == long.class || type == Long.class) {
+                return number.longValue();
+            } else if (type == short.class || type == Short.class) {
+                return number.shortValue();
+            } else if (type == byte.class || type == Byte.class) {
+                return number.byteValue();
+            }
+        }
+        BigDecimal number;
+        try {
+            if (value instanceof BigDecimal) {
+                number = (BigDecimal) value;
+            } else if (value instanceof BigInteger) {
+                number = new BigDecimal((BigInteger) value);
+            } else if (value instanceof Double || value instanceof Float) {
+                number = BigDecimal.valueOf(((Number) value).doubleValue());
+            } else {
+                number = new BigDecimal(value.toString().trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new SQLException("Cannot convert the buffered value " + value + " to " + type.getName(), e);
+        }
+        if (type == int.class || type == Integer.class) {
+            return number.intValue();
+        } else if (type == long.class || type == Long.class) {
+            return number.longValue();
+        } else if (type == short.class || type == Short.class) {
+            return number.shortValue();
+        } else if (type == byte.class || type == Byte.class) {
+            return number.byteValue();
+        } else if (type == BigInteger.class) {
+            return number.toBigInteger();
+        }
+        return number;
+    }
+
+    private static Object convertTemporal(Object value, Class<?> type) {
+        LocalDateTime dateTime;
+        if (value instanceof Timestamp) {
+            dateTime = ((Timestamp) value).toLocalDateTime();
+        } else if (value instanceof java.sql.Date) {
+            dateTime = ((java.sql.Date) value).toLocalDate().atStartOfDay();
+        } else if (value instanceof Time) {
+            dateTime = ((Time) value).toLocalTime().atDate(LocalDate.of(1970, 1, 1));
+        } else if (value instanceof Date) {
+            dateTime = LocalDateTime.ofInstant(((Date) value).toInstant(), ZoneId.systemDefault());
+        } else if (value instanceof LocalDateTime) {
+            dateTime = (LocalDateTime) value;
+        } else if (value instanceof LocalDate) {
+            dateTime = ((LocalDate) value).atStartOfDay();
+        } else if (value instanceof LocalTime) {
+            dateTime = ((LocalTime) value).atDate(LocalDate.of(1970, 1, 1));
+        } else if (value instanceof OffsetDateTime) {
+            dateTime = LocalDateTime.ofInstant(((OffsetDateTime) value).toInstant(), ZoneId.systemDefault());
+        } else if (value instanceof ZonedDateTime) {
+            dateTime = LocalDateTime.ofInstant(((ZonedDateTime) value).toInstant(), ZoneId.systemDefault());
+        } else {
+            return null;
+        }
+        if (type == Timestamp.class) {
+            return Timestamp.valueOf(dateTime);
+        } else if (type == java.sql.Date.class) {
+            return java.sql.Date.valueOf(dateTime.toLocalDate());
+        } else if (type == Time.class) {
+            return Time.valueOf(dateTime.toLocalTime());
+        } else if (type == Date.class) {
+            return Timestamp.valueOf(dateTime);
+        } else if (type == LocalDateTime.class) {
+            return dateTime;
+        } else if (type == LocalDate.class) {
+            return dateTime.toLocalDate();
+        } else if (type == LocalTime.class) {
+            return dateTime.toLocalTime();
+        } else if (type == Instant.class) {
+            return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+        } else if (type == OffsetDateTime.class) {
+            return value instanceof ZonedDateTime ? ((ZonedDateTime) value).toOffsetDateTime()
+                : dateTime.atZone(ZoneId.systemDefault()).toOffsetDateTime();
+        } else if (type == ZonedDateTime.class) {
+            return value instanceof OffsetDateTime ? ((OffsetDateTime) value).toZonedDateTime()
+                : dateTime.atZone(ZoneId.systemDefault());
+        } else if (type == OffsetTime.class) {
+            return dateTime.atZone(ZoneId.systemDefault()).toOffsetDateTime().toOffsetTime();
+        }
+        return null;
+    }
+
+    /**
+     * 与驱动一致，不带时区的日期时间值按Calendar的时区解释，带偏移量的值保持其时刻
+     */
+    private static Object convertTemporal(Object value, Class<?> type, ZoneId zone) throws SQLException {
+        Instant instant;
+        if (value instanceof OffsetDateTime) {
+            instant = ((OffsetDateTime) value).toInstant();
+        } else if (value instanceof ZonedDateTime) {
+            instant = ((ZonedDateTime) value).toInstant();
+        } else if (value instanceof Date && !(value instanceof Timestamp || value instanceof java.sql.Date || value instanceof Time)) {
+            instant = ((Date) value).toInstant();
+        } else {
+            LocalDateTime dateTime = (LocalDateTime) convertTemporal(value, LocalDateTime.class);
+            if (dateTime == null) {
+                throw new SQLException("Cannot convert a buffered value of type " + value.getClass().getName() + " to " + type.getName());
+            }
+            instant = dateTime.atZone(zone).toInstant();
+        }
+        ZonedDateTime dateTime = instant.atZone(zone);
+        if (type == Timestamp.class) {
+            return Timestamp.from(instant);
+        } else if (type == java.sql.Date.class) {
+            return new java.sql.Date(dateTime.toLocalDate().atStartOfDay(zone).toInstant().toEpochMilli());
+        } else if (type == Time.class) {
+            return new Time(dateTime.toLocalTime().atDate(LocalDate.of(1970, 1, 1)).atZone(zone).toInstant().toEpochMilli());
+        }
+        throw new SQLException("Cannot convert a buffered value of type " + value.getClass().getName() + " to " + type.getName());
+    }
+
+    private static class BufferedMetaData extends RowSetMetaDataImpl {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String[] classNames;
+
+        BufferedMetaData(int columnCount) {
+            this.classNames = new String[columnCount];
+        }
+
+        @Override
+        public String getColumnClassName(int columnIndex) throws SQLException {
+            if (columnIndex < 1 || columnIndex > classNames.length) {
+                throw new SQLException("Invalid column index " + columnIndex);
+            }
+            return classNames[columnIndex - 1];
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.type.TypeHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Property mappings of a result map resolved against one column layout.
+ * <p>
+ * Every column to property assignment (auto-mapped ones first, then the explicit ones, like
+ * {@link DefaultResultSetHandler} does) is kept with its column index, type handler and setter invoker,
+ * so mapping a row reads the columns by index and calls the setters without going through MetaObject.
+ * Instances are immutable and shared by all the statements that use the same result map and column layout.
+ *
+ * @see org.apache.ibatis.session.Configuration#isCompiledResultMappingEnabled()
+ */
+public final class CompiledRowMapper {
+
+    /**
+     * Marker for result maps that must be mapped by {@link DefaultResultSetHandler} itself.
+     */
+    static final CompiledRowMapper NOT_COMPILABLE = new CompiledRowMapper(new ArrayList<>());
+
+    private final String[] properties;
+    private final int[] columnIndexes;
+    private final TypeHandler<?>[] typeHandlers;
+    private final Invoker[] setters;
+    private final boolean[] settersOnNulls;
+
+    private CompiledRowMapper(List<Mapping> mappings) {
+        int size = mappings.size();
+        this.properties = new String[size];
+        this.columnIndexes = new int[size];
+        this.typeHandlers = new TypeHandler<?>[size];
+        this.setters = new Invoker[size];
+        this.settersOnNulls = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            Mapping mapping = mappings.get(i);
+            properties[i] = mapping.property;
+            columnIndexes[i] = mapping.columnIndex;
+            typeHandlers[i] = mapping.typeHandler;
+            setters[i] = mapping.setter;
+            settersOnNulls[i] = mapping.setterOnNull;
+        }
+    }
+
+    /**
+     * Sets the mapped properties of the object from the current row.
+     *
+     * @param rs        the result set, positioned on the row to map
+     * @param rowValue  the result object
+     * @return true if any of the columns had a non null value
+     * @throws SQLException if a column cannot be read
+     */
+    public boolean applyTo(ResultSet rs, Object rowValue) throws SQLException {
+        boolean foundValues = false;
+        for (int i = 0; i < properties.length; i++) {
+            final Object value = typeHandlers[i].getResult(rs, columnIndexes[i]);
+            if (value != null) {
+                foundValues = true;
+            }
+            if (value != null || settersOnNulls[i]) {
+                // gcode issue #377, call setter on nulls (value is not 'found')
+                setValue(rowValue, i, value);
+            }
+        }
+        return foundValues;
+    }
+
+    private void setValue(Object rowValue, int i, Object value) {
+        try {
+            try {
+                setters[i].invoke(rowValue, new Object[]{value});
+            } catch (Throwable t) {
+                throw ExceptionUtil.unwrapThrowable(t);
+            }
+        } catch (Throwable t) {
+            throw new ReflectionException("Could not set property '" + properties[i] + "' of '" + rowValue.getClass() + "' with value '" + value + "' Cause: " + t.toString(), t);
+        }
+    }
+
+    public int getMappingCount() {
+        return properties.length;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    static class Builder {
+
+        private final List<Mapping> mappings = new ArrayList<>();
+
+        Builder addMapping(String property, int columnIndex, TypeHandler<?> typeHandler, Invoker setter, boolean setterOnNull) {
+            mappings.add(new Mapping(property, columnIndex, typeHandler, setter, setterOnNull));
+            return this;
+        }
+
+        CompiledRowMapper build() {
+            return new CompiledRowMapper(mappings);
+        }
+    }
+
+    private static class Mapping {
+        private final String property;
+        private final int columnIndex;
+        private final TypeHandler<?> typeHandler;
+        private final Invoker setter;
+        private final boolean setterOnNull;
+
+        Mapping(String property, int columnIndex, TypeHandler<?> typeHandler, Invoker setter, boolean setterOnNull) {
+            this.property = property;
+            this.columnIndex = columnIndex;
+            this.typeHandler = typeHandler;
+            this.setter = setter;
+            this.setterOnNull = setterOnNull;
+        }
+    }
+
+}
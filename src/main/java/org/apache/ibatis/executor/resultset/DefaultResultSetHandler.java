@@ -20,6 +20,7 @@ import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.cursor.defaults.DefaultCursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
@@ -45,6 +46,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * 默认结果集处理器
@@ -115,11 +119,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     private final Map<CacheKey, Object> nestedResultObjects = new HashMap<>();
     private final Map<String, Object> ancestorObjects = new HashMap<>();
     private Object previousRowValue;
+    // resultOrdered verification
+    private CacheKey previousRowKey;
+    private Set<CacheKey> completedRowKeys;
 
 
     // multiple resultsets
     private final Map<String, ResultMapping> nextResultMaps = new HashMap<>();
     private final Map<CacheKey, List<PendingRelation>> pendingRelations = new HashMap<>();
+    // child rows collected while mapping a result set in parallel, linked to their parents afterwards
+    private List<DeferredLink> deferredLinks;
 
     // Cached Automappings
     private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<>();
@@ -132,6 +141,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         public ResultMapping propertyMapping;
     }
 
+    private static class DeferredLink {
+        private final CacheKey parentKey;
+        private final Object rowValue;
+
+        DeferredLink(CacheKey parentKey, Object rowValue) {
+            this.parentKey = parentKey;
+            this.rowValue = rowValue;
+        }
+    }
+
     private static class UnMappedColumnAutoMapping {
         private final String column;
         private final String property;
@@ -218,6 +237,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         List<ResultMap> resultMaps = mappedStatement.getResultMaps();
         int resultMapCount = resultMaps.size();
         validateResultMapsCount(rsw, resultMapCount);
+        if (rsw != null && configuration.isParallelResultSetMappingEnabled()) {
+            Map<String, ResultMapping> parentMappings = collectParentMappingsForParallelMapping(resultMaps);
+            if (parentMappings != null) {
+                return collapseSingleResultList(handleResultSetsInParallel(stmt, rsw, resultMaps, parentMappings));
+            }
+        }
         while (rsw != null && resultMapCount > resultSetCount) {
             ResultMap resultMap = resultMaps.get(resultSetCount);
             handleResultSet(rsw, resultMap, multipleResults, null);
@@ -244,6 +269,225 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         return collapseSingleResultList(multipleResults);
     }
 
+    //
+    // HANDLE RESULT SETS IN PARALLEL
+    //
+
+    /**
+     * Column types whose buffered values are converted by every getter as JDBC drivers do. Other columns, e.g. binary,
+     * temporal or vendor types, are mapped from the driver's result set.
+     */
+    private static final Set<JdbcType> BUFFERABLE_JDBC_TYPES = Collections.unmodifiableSet(EnumSet.of(
+        JdbcType.NULL, JdbcType.BIT, JdbcType.BOOLEAN, JdbcType.TINYINT, JdbcType.SMALLINT, JdbcType.INTEGER,
+        JdbcType.BIGINT, JdbcType.REAL, JdbcType.FLOAT, JdbcType.DOUBLE, JdbcType.NUMERIC, JdbcType.DECIMAL,
+        JdbcType.CHAR, JdbcType.VARCHAR, JdbcType.LONGVARCHAR, JdbcType.NCHAR, JdbcType.NVARCHAR,
+        JdbcType.LONGNVARCHAR, JdbcType.CLOB, JdbcType.NCLOB));
+
+    private Map<String, ResultMapping> collectParentMappingsForParallelMapping(List<ResultMap> resultMaps) {
+        String[] resultSets = mappedStatement.getResultSets();
+        if (resultHandler != null || Math.max(resultMaps.size(), resultSets == null ? 0 : resultSets.length) < 2) {
+            return null;
+        }
+        // custom type handlers may call getters whose results differ between the driver and a buffered result set
+        for (TypeHandler<?> handler : typeHandlerRegistry.getTypeHandlers()) {
+            if (!isBuiltInTypeHandler(handler)) {
+                return null;
+            }
+        }
+        Map<String, ResultMapping> parentMappings = new HashMap<>();
+        Set<String> visitedResultMaps = new HashSet<>();
+        for (ResultMap resultMap : resultMaps) {
+            if (!collectParentMappings(resultMap, parentMappings, visitedResultMaps)) {
+                return null;
+            }
+        }
+        return parentMappings;
+    }
+
+    /**
+     * Collects the properties filled from other result sets, keyed by result set name.
+     * Returns false when the result maps cannot be mapped in parallel: nested selects use the executor,
+     * which is not thread safe, and properties sharing a result set are only detected while mapping.
+     */
+    private boolean collectParentMappings(ResultMap resultMap, Map<String, ResultMapping> parentMappings, Set<String> visitedResultMaps) {
+        if (!visitedResultMaps.add(resultMap.getId())) {
+            return true;
+        }
+        for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+            if (resultMapping.getNestedQueryId() != null
+                || resultMapping.getTypeHandler() != null && !isBuiltInTypeHandler(resultMapping.getTypeHandler())) {
+                return false;
+            }
+            if (resultMapping.getResultSet() != null) {
+                ResultMapping previous = parentMappings.putIfAbsent(resultMapping.getResultSet(), resultMapping);
+                if (previous != null && !previous.equals(resultMapping)) {
+                    return false;
+                }
+            }
+            if (resultMapping.getNestedResultMapId() != null
+                && !collectParentMappings(configuration.getResultMap(resultMapping.getNestedResultMapId()), parentMappings, visitedResultMaps)) {
+                return false;
+            }
+        }
+        Discriminator discriminator = resultMap.getDiscriminator();
+        if (discriminator != null) {
+            for (String caseResultMapId : discriminator.getDiscriminatorMap().values()) {
+                if (!collectParentMappings(configuration.getResultMap(caseResultMapId), parentMappings, visitedResultMaps)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBuiltInTypeHandler(TypeHandler<?> handler) {
+        return handler.getClass().getName().startsWith("org.apache.ibatis.type.");
+    }
+
+    private static boolean isBufferable(ResultSetWrapper rsw) {
+        for (JdbcType jdbcType : rsw.getJdbcTypes()) {
+            if (!BUFFERABLE_JDBC_TYPES.contains(jdbcType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<Object> handleResultSetsInParallel(Statement stmt, ResultSetWrapper rsw, List<ResultMap> resultMaps,
+                                                    Map<String, ResultMapping> parentMappings) throws SQLException {
+        // the statement can only be read sequentially, so buffer every result set before mapping any of them
+        String[] resultSets = mappedStatement.getResultSets();
+        int resultSetLimit = Math.max(resultMaps.size(), resultSets == null ? 0 : resultSets.length);
+        List<ResultSetMapping> mappings = new ArrayList<>();
+        int resultSetCount = 0;
+        while (rsw != null && resultSetCount < resultSetLimit) {
+            ResultMap resultMap = null;
+            ResultMapping parentMapping = null;
+            if (resultSetCount < resultMaps.size()) {
+                resultMap = resultMaps.get(resultSetCount);
+            } else {
+                parentMapping = parentMappings.get(resultSets[resultSetCount]);
+                if (parentMapping != null) {
+                    resultMap = configuration.getResultMap(parentMapping.getNestedResultMapId());
+                }
+            }
+            if (resultMap != null && isBufferable(rsw)) {
+                ResultSet bufferedResultSet;
+                try {
+                    bufferedResultSet = BufferedResultSet.buffer(rsw.getResultSet());
+                } finally {
+                    closeResultSet(rsw.getResultSet());
+                }
+                mappings.add(new ResultSetMapping(new ResultSetWrapper(bufferedResultSet, configuration), resultMap, parentMapping));
+            } else if (resultMap != null) {
+                // columns that the buffered result set may not convert like the driver are mapped sequentially
+                ResultSetMapping mapping = new ResultSetMapping(rsw, resultMap, parentMapping);
+                mapping.map();
+                mappings.add(mapping);
+            } else {
+                closeResultSet(rsw.getResultSet());
+            }
+            rsw = getNextResultSet(stmt);
+            resultSetCount++;
+        }
+
+        List<ResultSetMapping> pending = new ArrayList<>();
+        for (ResultSetMapping mapping : mappings) {
+            if (!mapping.mapped) {
+                pending.add(mapping);
+            }
+        }
+        List<Future<?>> futures = new ArrayList<>();
+        for (ResultSetMapping mapping : pending.subList(Math.min(1, pending.size()), pending.size())) {
+            futures.add(ForkJoinPool.commonPool().submit(() -> {
+                ErrorContext.instance().activity("handling results").object(mappedStatement.getId());
+                try {
+                    mapping.map();
+                    return null;
+                } finally {
+                    ErrorContext.instance().reset();
+                }
+            }));
+        }
+        try {
+            if (!pending.isEmpty()) {
+                pending.get(0).map();
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExecutorException("Interrupted while mapping result sets of '" + mappedStatement.getId() + "'", e);
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
+        }
+
+        // join through the pending relations registered by every result set, in result set order
+        final List<Object> multipleResults = new ArrayList<>();
+        for (ResultSetMapping mapping : mappings) {
+            if (mapping.parentMapping == null) {
+                multipleResults.add(mapping.results);
+            }
+            for (Map.Entry<CacheKey, List<PendingRelation>> entry : mapping.handler.pendingRelations.entrySet()) {
+                pendingRelations.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).addAll(entry.getValue());
+            }
+        }
+        for (ResultSetMapping mapping : mappings) {
+            if (mapping.parentMapping != null) {
+                for (DeferredLink link : mapping.handler.deferredLinks) {
+                    linkToParents(link.parentKey, link.rowValue);
+                }
+            }
+        }
+        return multipleResults;
+    }
+
+    /**
+     * A buffered result set mapped by its own handler, so that it does not share mapping state with other result sets.
+     */
+    private class ResultSetMapping {
+        private final ResultSetWrapper rsw;
+        private final ResultMap resultMap;
+        private final ResultMapping parentMapping;
+        private final DefaultResultSetHandler handler;
+        private List<Object> results;
+        private boolean mapped;
+
+        ResultSetMapping(ResultSetWrapper rsw, ResultMap resultMap, ResultMapping parentMapping) {
+            this.rsw = rsw;
+            this.resultMap = resultMap;
+            this.parentMapping = parentMapping;
+            this.handler = new DefaultResultSetHandler(executor, mappedStatement, parameterHandler, null, boundSql, rowBounds);
+        }
+
+        void map() throws SQLException {
+            mapped = true;
+            try {
+                if (parentMapping != null) {
+                    handler.deferredLinks = new ArrayList<>();
+                    handler.handleRowValues(rsw, resultMap, null, RowBounds.DEFAULT, parentMapping);
+                } else {
+                    DefaultResultHandler defaultResultHandler = new DefaultResultHandler(objectFactory);
+                    handler.handleRowValues(rsw, resultMap, defaultResultHandler, rowBounds, null);
+                    results = defaultResultHandler.getResultList();
+                }
+            } finally {
+                closeResultSet(rsw.getResultSet());
+            }
+        }
+    }
+
     @Override
     public <E> Cursor<E> handleCursorResultSets(Statement stmt) throws SQLException {
         ErrorContext.instance().activity("handling cursor results").object(mappedStatement.getId());
@@ -259,7 +503,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
 
         ResultMap resultMap = resultMaps.get(0);
-        return new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+        Cursor<E> cursor = new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+        Integer fetchAhead = mappedStatement.getFetchAhead();
+        if (fetchAhead != null && fetchAhead > 0) {
+            cursor = new PrefetchingCursor<>(cursor, fetchAhead, configuration.getAsyncExecutor());
+        }
+        return cursor;
     }
 
     private ResultSetWrapper getFirstResultSet(Statement stmt) throws SQLException {
@@ -311,6 +560,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
     private void cleanUpAfterHandlingResultSet() {
         nestedResultObjects.clear();
+        previousRowKey = null;
+        completedRowKeys = null;
     }
 
     private void validateResultMapsCount(ResultSetWrapper rsw, int resultMapCount) {
@@ -425,18 +676,85 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         final ResultLoaderMap lazyLoader = new ResultLoaderMap();
         Object rowValue = createResultObject(rsw, resultMap, lazyLoader, columnPrefix);
         if (rowValue != null && !hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
-            final MetaObject metaObject = configuration.newMetaObject(rowValue);
             boolean foundValues = this.useConstructorMappings;
-            if (shouldApplyAutomaticMappings(resultMap, false)) {
-                foundValues = applyAutomaticMappings(rsw, resultMap, metaObject, columnPrefix) || foundValues;
+            final CompiledRowMapper rowMapper = getCompiledRowMapper(rsw, resultMap, rowValue, columnPrefix);
+            if (rowMapper != null) {
+                foundValues = rowMapper.applyTo(rsw.getResultSet(), rowValue) || foundValues;
+            } else {
+                final MetaObject metaObject = configuration.newMetaObject(rowValue);
+                if (shouldApplyAutomaticMappings(resultMap, false)) {
+                    foundValues = applyAutomaticMappings(rsw, resultMap, metaObject, columnPrefix) || foundValues;
+                }
+                foundValues = applyPropertyMappings(rsw, resultMap, metaObject, lazyLoader, columnPrefix) || foundValues;
             }
-            foundValues = applyPropertyMappings(rsw, resultMap, metaObject, lazyLoader, columnPrefix) || foundValues;
             foundValues = lazyLoader.size() > 0 || foundValues;
             rowValue = foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
         }
         return rowValue;
     }
 
+    //
+    // COMPILED ROW MAPPERS
+    //
+
+    private CompiledRowMapper getCompiledRowMapper(ResultSetWrapper rsw, ResultMap resultMap, Object rowValue, String columnPrefix) throws SQLException {
+        if (!configuration.isCompiledResultMappingEnabled() || configuration.getObjectWrapperFactory().hasWrapperFor(rowValue)) {
+            return null;
+        }
+        CompiledRowMapper rowMapper = rsw.getCompiledRowMapper(resultMap, columnPrefix);
+        if (rowMapper == null) {
+            final String key = resultMap.getId() + ":" + columnPrefix + ":" + rsw.getColumnSignature();
+            rowMapper = configuration.getCompiledRowMappers().get(key);
+            if (rowMapper == null) {
+                rowMapper = compileRowMapper(rsw, resultMap, rowValue, columnPrefix);
+                configuration.getCompiledRowMappers().put(key, rowMapper);
+            }
+            rsw.putCompiledRowMapper(resultMap, columnPrefix, rowMapper);
+        }
+        return rowMapper == CompiledRowMapper.NOT_COMPILABLE ? null : rowMapper;
+    }
+
+    private CompiledRowMapper compileRowMapper(ResultSetWrapper rsw, ResultMap resultMap, Object rowValue, String columnPrefix) throws SQLException {
+        final Class<?> type = resultMap.getType();
+        if (!configuration.isUseColumnLabel() || Map.class.isAssignableFrom(type) || Collection.class.isAssignableFrom(type)
+            || !type.isInstance(rowValue)) {
+            return CompiledRowMapper.NOT_COMPILABLE;
+        }
+        final MetaClass metaClass = MetaClass.forClass(type, reflectorFactory);
+        final CompiledRowMapper.Builder builder = CompiledRowMapper.builder();
+        if (shouldApplyAutomaticMappings(resultMap, false)) {
+            for (UnMappedColumnAutoMapping mapping : createAutomaticMappings(rsw, resultMap, configuration.newMetaObject(rowValue), columnPrefix)) {
+                if (!isSimpleProperty(mapping.property)) {
+                    return CompiledRowMapper.NOT_COMPILABLE;
+                }
+                builder.addMapping(mapping.property, rsw.getColumnIndex(mapping.column), mapping.typeHandler,
+                    metaClass.getSetInvoker(mapping.property), configuration.isCallSettersOnNulls() && !mapping.primitive);
+            }
+        }
+        final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
+        for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+            if (propertyMapping.getNestedQueryId() != null || propertyMapping.getNestedResultMapId() != null
+                || propertyMapping.getResultSet() != null || propertyMapping.isCompositeResult()) {
+                return CompiledRowMapper.NOT_COMPILABLE;
+            }
+            final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
+            final String property = propertyMapping.getProperty();
+            if (column == null || property == null || !mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
+                continue;
+            }
+            if (!isSimpleProperty(property) || !metaClass.hasSetter(property)) {
+                return CompiledRowMapper.NOT_COMPILABLE;
+            }
+            builder.addMapping(property, rsw.getColumnIndex(column), propertyMapping.getTypeHandler(), metaClass.getSetInvoker(property),
+                configuration.isCallSettersOnNulls() && !metaClass.getSetterType(property).isPrimitive());
+        }
+        return builder.build();
+    }
+
+    private boolean isSimpleProperty(String property) {
+        return property.indexOf('.') < 0 && property.indexOf('[') < 0;
+    }
+
     //
     // GET VALUE FROM ROW FOR NESTED RESULT MAP
     //
@@ -467,6 +785,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
             }
             if (combinedKey != CacheKey.NULL_CACHE_KEY) {
                 nestedResultObjects.put(combinedKey, rowValue);
+                checkNestedResultObjectsLimit();
             }
         }
         return rowValue;
@@ -603,6 +922,14 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
     private void linkToParents(ResultSet rs, ResultMapping parentMapping, Object rowValue) throws SQLException {
         CacheKey parentKey = createKeyForMultipleResults(rs, parentMapping, parentMapping.getColumn(), parentMapping.getForeignColumn());
+        if (deferredLinks != null) {
+            deferredLinks.add(new DeferredLink(parentKey, rowValue));
+        } else {
+            linkToParents(parentKey, rowValue);
+        }
+    }
+
+    private void linkToParents(CacheKey parentKey, Object rowValue) {
         List<PendingRelation> parents = pendingRelations.get(parentKey);
         if (parents != null) {
             for (PendingRelation parent : parents) {
@@ -929,9 +1256,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
             Object partialObject = nestedResultObjects.get(rowKey);
             // issue #577 && #542
             if (mappedStatement.isResultOrdered()) {
-                if (partialObject == null && rowValue != null) {
-                    nestedResultObjects.clear();
-                    storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
+                if (partialObject == null) {
+                    if (rowValue != null) {
+                        nestedResultObjects.clear();
+                        storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
+                    }
+                    checkResultOrdered(discriminatedResultMap, rowKey);
                 }
                 rowValue = getRowValue(rsw, discriminatedResultMap, rowKey, null, partialObject);
             } else {
@@ -949,6 +1279,46 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
     }
 
+    private void checkResultOrdered(ResultMap resultMap, CacheKey rowKey) {
+        int window = configuration.getResultOrderedCheckWindow();
+        //行映射为null时不会保存结果对象，相同行键的下一行会再次到达这里，它仍属于当前分组
+        if (window <= 0 || rowKey == CacheKey.NULL_CACHE_KEY || rowKey.equals(previousRowKey)) {
+            return;
+        }
+        if (completedRowKeys == null) {
+            completedRowKeys = Collections.newSetFromMap(new LinkedHashMap<CacheKey, Boolean>() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<CacheKey, Boolean> eldest) {
+                    return size() > window;
+                }
+            });
+        }
+        if (completedRowKeys.contains(rowKey)) {
+            throw new ExecutorException("Mapped Statement '" + mappedStatement.getId() + "' is resultOrdered but its rows are not grouped by "
+                + "the id columns of result map '" + resultMap.getId() + "': the row key " + rowKey + " was found again after its result object had been completed. "
+                + "Order the rows by the id columns or remove resultOrdered=true from the statement.");
+        }
+        if (previousRowKey != null) {
+            completedRowKeys.add(previousRowKey);
+        }
+        previousRowKey = rowKey;
+    }
+
+    private void checkNestedResultObjectsLimit() {
+        int limit = configuration.getNestedResultObjectsLimit();
+        if (limit > 0 && nestedResultObjects.size() > limit) {
+            if (mappedStatement.isResultOrdered()) {
+                throw new ExecutorException("Mapped Statement '" + mappedStatement.getId() + "' mapped more than " + limit
+                    + " nested result objects for a single result object. Increase the nestedResultObjectsLimit setting.");
+            }
+            throw new ExecutorException("Mapped Statement '" + mappedStatement.getId() + "' mapped more than " + limit
+                + " nested result objects. Ensure your statement returns data ordered by the id columns and set resultOrdered=true on it "
+                + "to stream the results, or increase the nestedResultObjectsLimit setting.");
+        }
+    }
+
     //
     // NESTED RESULT MAP (JOIN MAPPING)
     //
@@ -40,6 +40,8 @@ public class ResultSetWrapper {
     private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<>();
     private final Map<String, List<String>> mappedColumnNamesMap = new HashMap<>();
     private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<>();
+    private final Map<String, CompiledRowMapper> compiledRowMappers = new HashMap<>();
+    private String columnSignature;
 
     public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
         super();
@@ -70,6 +72,45 @@ public class ResultSetWrapper {
         return jdbcTypes;
     }
 
+    /**
+     * Gets the index of the first column with the given name, as used by {@link ResultSet#findColumn(String)}.
+     *
+     * @param columnName the column name
+     * @return the 1-based column index, or 0 if there is no such column
+     */
+    public int getColumnIndex(String columnName) {
+        for (int i = 0; i < columnNames.size(); i++) {
+            if (columnNames.get(i).equalsIgnoreCase(columnName)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets a string that identifies the column names and types of this result set.
+     *
+     * @return the column signature
+     */
+    public String getColumnSignature() {
+        if (columnSignature == null) {
+            StringBuilder signature = new StringBuilder();
+            for (int i = 0; i < columnNames.size(); i++) {
+                signature.append(columnNames.get(i)).append(':').append(jdbcTypes.get(i)).append(':').append(classNames.get(i)).append(',');
+            }
+            columnSignature = signature.toString();
+        }
+        return columnSignature;
+    }
+
+    CompiledRowMapper getCompiledRowMapper(ResultMap resultMap, String columnPrefix) {
+        return compiledRowMappers.get(getMapKey(resultMap, columnPrefix));
+    }
+
+    void putCompiledRowMapper(ResultMap resultMap, String columnPrefix, CompiledRowMapper rowMapper) {
+        compiledRowMappers.put(getMapKey(resultMap, columnPrefix), rowMapper);
+    }
+
     public JdbcType getJdbcType(String columnName) {
         for (int i = 0; i < columnNames.size(); i++) {
             if (columnNames.get(i).equalsIgnoreCase(columnName)) {
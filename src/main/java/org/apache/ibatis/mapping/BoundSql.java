@@ -16,7 +16,7 @@
 package org.apache.ibatis.mapping;
 
 import org.apache.ibatis.reflection.MetaObject;
-import org.apache.ibatis.reflection.property.PropertyTokenizer;
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.apache.ibatis.session.Configuration;
 
 import java.util.HashMap;
@@ -81,7 +81,7 @@ public class BoundSql {
     }
 
     public boolean hasAdditionalParameter(String name) {
-        String paramName = new PropertyTokenizer(name).getName();
+        String paramName = PropertyPath.of(name).getTokenizer().getName();
         return additionalParameters.containsKey(paramName);
     }
 
@@ -18,8 +18,17 @@ package org.apache.ibatis.mapping;
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.ConcurrentCache;
+import org.apache.ibatis.cache.DependencyIndex;
+import org.apache.ibatis.cache.EvictionListener;
+import org.apache.ibatis.cache.WeightBudget;
 import org.apache.ibatis.cache.decorators.*;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.metrics.CacheMetrics;
+import org.apache.ibatis.cache.metrics.CacheMetricsRegistry;
+import org.apache.ibatis.cache.serializer.CompressingSerializer;
+import org.apache.ibatis.cache.serializer.JdkSerializer;
+import org.apache.ibatis.cache.serializer.Serializer;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
 
@@ -38,9 +47,16 @@ public class CacheBuilder {
     private final List<Class<? extends Cache>> decorators;
     private Integer size;
     private Long clearInterval;
+    private Long timeToLive;
+    private Long refreshAfterWrite;
     private boolean readWrite;
+    private Class<? extends Serializer> serializer;
+    private Integer compressionThreshold;
     private Properties properties;
     private boolean blocking;
+    private boolean dependencyTracking;
+    private WeightBudget weightBudget;
+    private CacheMetricsRegistry metricsRegistry;
 
     public CacheBuilder(String id) {
         this.id = id;
@@ -69,16 +85,80 @@ public class CacheBuilder {
         return this;
     }
 
+    /**
+     * @param timeToLive the time in milliseconds after which each entry expires
+     * @since 3.5.5
+     */
+    public CacheBuilder timeToLive(Long timeToLive) {
+        this.timeToLive = timeToLive;
+        return this;
+    }
+
+    /**
+     * @param refreshAfterWrite the time in milliseconds after which each entry is reloaded by the next reader
+     * @since 3.5.5
+     */
+    public CacheBuilder refreshAfterWrite(Long refreshAfterWrite) {
+        this.refreshAfterWrite = refreshAfterWrite;
+        return this;
+    }
+
     public CacheBuilder readWrite(boolean readWrite) {
         this.readWrite = readWrite;
         return this;
     }
 
+    /**
+     * @param serializer the serializer used by a read/write cache, {@link JdkSerializer} by default
+     * @since 3.5.5
+     */
+    public CacheBuilder serializer(Class<? extends Serializer> serializer) {
+        this.serializer = serializer;
+        return this;
+    }
+
+    /**
+     * @param compressionThreshold the size in bytes from which the serialized objects of a read/write cache are
+     *                             compressed
+     * @since 3.5.5
+     */
+    public CacheBuilder compressionThreshold(Integer compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+        return this;
+    }
+
     public CacheBuilder blocking(boolean blocking) {
         this.blocking = blocking;
         return this;
     }
 
+    /**
+     * @param dependencyTracking whether writes invalidate only the entries read from the tables they write
+     * @since 3.5.5
+     */
+    public CacheBuilder dependencyTracking(boolean dependencyTracking) {
+        this.dependencyTracking = dependencyTracking;
+        return this;
+    }
+
+    /**
+     * @param weightBudget the weight limit shared by the {@link WeightedCache} instances
+     * @since 3.5.5
+     */
+    public CacheBuilder weightBudget(WeightBudget weightBudget) {
+        this.weightBudget = weightBudget;
+        return this;
+    }
+
+    /**
+     * @param metricsRegistry the registry the cache reports its metrics to, {@code null} for no metrics
+     * @since 3.5.5
+     */
+    public CacheBuilder metricsRegistry(CacheMetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+        return this;
+    }
+
     public CacheBuilder properties(Properties properties) {
         this.properties = properties;
         return this;
@@ -86,7 +166,10 @@ public class CacheBuilder {
 
     public Cache build() {
         setDefaultImplementations();
+        CacheMetrics metrics = metricsRegistry == null ? null : metricsRegistry.register(id);
+        DependencyIndex dependencies = dependencyTracking ? new DependencyIndex() : null;
         Cache cache = newBaseCacheInstance(implementation, id);
+        setCacheSerializer(cache);
         setCacheProperties(cache);
         // issue #352, do not apply decorators to custom caches
         if (PerpetualCache.class.equals(cache.getClass())) {
@@ -94,13 +177,39 @@ public class CacheBuilder {
                 cache = newCacheDecoratorInstance(decorator, cache);
                 setCacheProperties(cache);
             }
-            cache = setStandardDecorators(cache);
-        } else if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
-            cache = new LoggingCache(cache);
+            cache = setStandardDecorators(cache, newEvictionListener(metrics, dependencies), dependencies);
+        } else {
+            setCustomEvictionListener(cache, newEvictionListener(metrics, dependencies), dependencies);
+            if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
+                cache = new LoggingCache(cache);
+            }
+        }
+        // BlockingCache only releases locks on removeObject, the invalidated entries are removed from the cache below it
+        Cache store = cache instanceof BlockingCache ? ((BlockingCache) cache).getDelegate() : cache;
+        if (metrics != null) {
+            cache = new MetricsCache(cache, metrics);
+            store = new MetricsCache(store, metrics);
+        }
+        if (dependencies != null) {
+            cache = new DependencyTrackingCache(cache, dependencies, store);
         }
         return cache;
     }
 
+    private EvictionListener newEvictionListener(CacheMetrics metrics, DependencyIndex dependencies) {
+        if (metrics == null && dependencies == null) {
+            return null;
+        } else if (dependencies == null) {
+            return key -> metrics.recordEviction();
+        } else if (metrics == null) {
+            return dependencies::forget;
+        }
+        return key -> {
+            dependencies.forget(key);
+            metrics.recordEviction();
+        };
+    }
+
     private void setDefaultImplementations() {
         if (implementation == null) {
             implementation = PerpetualCache.class;
@@ -110,21 +219,73 @@ public class CacheBuilder {
         }
     }
 
-    private Cache setStandardDecorators(Cache cache) {
+    /**
+     * Custom caches report their evictions through an {@code evictionListener} property, dependencies cannot be
+     * tracked for the others because the entries they drop would never leave the index.
+     */
+    private void setCustomEvictionListener(Cache cache, EvictionListener evictionListener, DependencyIndex dependencies) {
+        if (evictionListener == null) {
+            return;
+        }
+        MetaObject metaCache = SystemMetaObject.forObject(cache);
+        if (metaCache.hasSetter("evictionListener") && EvictionListener.class.equals(metaCache.getSetterType("evictionListener"))) {
+            metaCache.setValue("evictionListener", evictionListener);
+        } else if (dependencies != null) {
+            throw new CacheException("The cache '" + id + "' of type " + cache.getClass().getName()
+                + " cannot track dependencies because it has no evictionListener property.");
+        }
+    }
+
+    private Cache setStandardDecorators(Cache cache, EvictionListener evictionListener, DependencyIndex dependencies) {
         try {
+            // the standard decorators are thread safe, only the eviction decorator may need synchronization
+            boolean concurrent = cache instanceof ConcurrentCache;
             MetaObject metaCache = SystemMetaObject.forObject(cache);
             if (size != null && metaCache.hasSetter("size")) {
                 metaCache.setValue("size", size);
             }
+            if (weightBudget != null && cache instanceof WeightedCache) {
+                ((WeightedCache) cache).setWeightBudget(weightBudget);
+            }
+            EvictionListener delegateEvictionListener = evictionListener;
             if (clearInterval != null) {
-                cache = new ScheduledCache(cache);
-                ((ScheduledCache) cache).setClearInterval(clearInterval);
+                ScheduledCache scheduledCache = new ScheduledCache(cache);
+                scheduledCache.setClearInterval(clearInterval);
+                if (dependencies != null) {
+                    scheduledCache.setClearListener(dependencies::clear);
+                }
+                cache = scheduledCache;
+            }
+            if (timeToLive != null || refreshAfterWrite != null) {
+                ExpiringCache expiringCache = new ExpiringCache(cache);
+                // drop the write times of the entries the eviction decorator removes
+                delegateEvictionListener = evictionListener == null ? expiringCache::onDelegateEviction : key -> {
+                    expiringCache.onDelegateEviction(key);
+                    evictionListener.onEviction(key);
+                };
+                if (timeToLive != null) {
+                    expiringCache.setTimeToLive(timeToLive);
+                }
+                if (refreshAfterWrite != null) {
+                    expiringCache.setRefreshAfterWrite(refreshAfterWrite);
+                }
+                expiringCache.setEvictionListener(evictionListener);
+                cache = expiringCache;
+            }
+            if (delegateEvictionListener != null && metaCache.hasSetter("evictionListener")) {
+                metaCache.setValue("evictionListener", delegateEvictionListener);
+            } else if (dependencies != null && !PerpetualCache.class.equals(metaCache.getOriginalObject().getClass())) {
+                // the entries the eviction decorator drops would never leave the dependency index
+                throw new CacheException("The eviction decorator " + metaCache.getOriginalObject().getClass().getName()
+                    + " cannot track dependencies because it has no evictionListener property.");
             }
             if (readWrite) {
-                cache = new SerializedCache(cache);
+                cache = new SerializedCache(cache, newSerializer());
             }
             cache = new LoggingCache(cache);
-            cache = new SynchronizedCache(cache);
+            if (!concurrent) {
+                cache = new SynchronizedCache(cache);
+            }
             if (blocking) {
                 cache = new BlockingCache(cache);
             }
@@ -134,6 +295,37 @@ public class CacheBuilder {
         }
     }
 
+    private Serializer newSerializer() throws ReflectiveOperationException {
+        Serializer instance = serializer == null ? new JdkSerializer() : serializer.getDeclaredConstructor().newInstance();
+        if (compressionThreshold != null && compressionThreshold > 0) {
+            instance = new CompressingSerializer(instance, compressionThreshold);
+        }
+        return instance;
+    }
+
+    /**
+     * Custom caches that serialize entries themselves get the configured serializer through a {@code serializer}
+     * property, before they are initialized. Other custom caches cannot use a serializer other than the default one.
+     */
+    private void setCacheSerializer(Cache cache) {
+        if (PerpetualCache.class.equals(cache.getClass()) || serializer == null && compressionThreshold == null) {
+            return;
+        }
+        MetaObject metaCache = SystemMetaObject.forObject(cache);
+        if (!metaCache.hasSetter("serializer") || !Serializer.class.equals(metaCache.getSetterType("serializer"))) {
+            if (serializer != null && !JdkSerializer.class.equals(serializer) || compressionThreshold != null && compressionThreshold > 0) {
+                throw new CacheException("The cache '" + id + "' of type " + cache.getClass().getName()
+                    + " does not support the serializer and compressionThreshold attributes.");
+            }
+            return;
+        }
+        try {
+            metaCache.setValue("serializer", newSerializer());
+        } catch (ReflectiveOperationException e) {
+            throw new CacheException("Error creating the serializer of cache '" + id + "'.  Cause: " + e, e);
+        }
+    }
+
     private void setCacheProperties(Cache cache) {
         if (properties != null) {
             MetaObject metaCache = SystemMetaObject.forObject(cache);
@@ -27,6 +27,7 @@ import org.apache.ibatis.session.Configuration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author Clinton Begin
@@ -37,11 +38,13 @@ public final class MappedStatement {
     private Configuration configuration;
     private String id;
     private Integer fetchSize;
+    private Integer fetchAhead;
     private Integer timeout;
     private StatementType statementType;
     private ResultSetType resultSetType;
     private SqlSource sqlSource;
     private Cache cache;
+    private Set<String> tables;
     private ParameterMap parameterMap;
     private List<ResultMap> resultMaps;
     private boolean flushCacheRequired;
@@ -109,6 +112,16 @@ public final class MappedStatement {
             return this;
         }
 
+        public Builder fetchAhead(Integer fetchAhead) {
+            mappedStatement.fetchAhead = fetchAhead;
+            return this;
+        }
+
+        public Builder tables(Set<String> tables) {
+            mappedStatement.tables = tables;
+            return this;
+        }
+
         public Builder timeout(Integer timeout) {
             mappedStatement.timeout = timeout;
             return this;
@@ -226,6 +239,28 @@ public final class MappedStatement {
         return fetchSize;
     }
 
+    /**
+     * Returns the number of rows a cursor over this statement reads and maps ahead of its consumer on a background
+     * thread.
+     *
+     * @return the fetch ahead size, or {@code null} if rows are fetched on the consumer thread
+     * @since 3.5.5
+     */
+    public Integer getFetchAhead() {
+        return fetchAhead;
+    }
+
+    /**
+     * Returns the tables this statement reads or writes, as declared on it. Caches that track dependencies infer them
+     * from the SQL of the statement when they are not declared.
+     *
+     * @return the lower case table names, or {@code null} if they are not declared
+     * @since 3.5.5
+     */
+    public Set<String> getTables() {
+        return tables;
+    }
+
     public Integer getTimeout() {
         return timeout;
     }
@@ -0,0 +1,64 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Reads the values of the parameter mappings of a {@link BoundSql}: an additional parameter comes first, then the
+ * parameter object itself when a type handler exists for its type, then its property. The parameter object is
+ * looked up in the type handlers once and its {@link MetaObject} is shared by all the mappings.
+ *
+ * @since 3.5.5
+ */
+public final class ParameterValues {
+
+    private final Configuration configuration;
+    private final BoundSql boundSql;
+    private final Object parameterObject;
+    private final boolean simpleParameter;
+    private MetaObject metaObject;
+
+    public ParameterValues(Configuration configuration, BoundSql boundSql, Object parameterObject) {
+        this.configuration = configuration;
+        this.boundSql = boundSql;
+        this.parameterObject = parameterObject;
+        this.simpleParameter = parameterObject != null
+            && configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass());
+    }
+
+    /**
+     * Returns the value of a parameter mapping.
+     *
+     * @param parameterMapping a parameter mapping of the bound SQL
+     * @return the value
+     */
+    public Object getValue(ParameterMapping parameterMapping) {
+        String propertyName = parameterMapping.getProperty();
+        if (boundSql.hasAdditionalParameter(propertyName)) { // issue #448 ask first for additional params
+            return boundSql.getAdditionalParameter(propertyName);
+        } else if (parameterObject == null) {
+            return null;
+        } else if (simpleParameter) {
+            return parameterObject;
+        }
+        if (metaObject == null) {
+            metaObject = configuration.newMetaObject(parameterObject);
+        }
+        return metaObject.getValue(propertyName);
+    }
+}
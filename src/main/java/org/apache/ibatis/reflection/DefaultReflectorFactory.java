@@ -24,6 +24,10 @@ public class DefaultReflectorFactory implements ReflectorFactory {
      * 是否缓存Reflector
      */
     private boolean classCacheEnabled = true;
+    /**
+     * 是否使用LambdaMetafactory生成的getter/setter Invoker
+     */
+    private boolean lambdaInvokersEnabled = true;
     private final ConcurrentMap<Class<?>, Reflector> reflectorMap = new ConcurrentHashMap<>();
 
     public DefaultReflectorFactory() {
@@ -39,15 +43,40 @@ public class DefaultReflectorFactory implements ReflectorFactory {
         this.classCacheEnabled = classCacheEnabled;
     }
 
+    /**
+     * Whether getters and setters are invoked through {@link org.apache.ibatis.reflection.invoker.LambdaMethodInvoker}
+     * when they can be linked (public members of classes visible from the MyBatis class loader).
+     *
+     * @return {@code true} by default
+     * @since 3.5.5
+     */
+    public boolean isLambdaInvokersEnabled() {
+        return lambdaInvokersEnabled;
+    }
+
+    /**
+     * Sets whether getters and setters are invoked through lambda invokers. Affects reflectors created afterwards.
+     *
+     * @param lambdaInvokersEnabled {@code false} to always use {@link java.lang.reflect.Method#invoke(Object, Object...)}
+     * @since 3.5.5
+     */
+    public void setLambdaInvokersEnabled(boolean lambdaInvokersEnabled) {
+        this.lambdaInvokersEnabled = lambdaInvokersEnabled;
+    }
+
     @Override
     public Reflector findForClass(Class<?> type) {
         if (classCacheEnabled) {
             // synchronized (type) removed see issue #461
             //不存在则进行创建
-            return reflectorMap.computeIfAbsent(type, Reflector::new);
+            return reflectorMap.computeIfAbsent(type, this::newReflector);
         } else {
-            return new Reflector(type);
+            return newReflector(type);
         }
     }
 
+    private Reflector newReflector(Class<?> type) {
+        return new Reflector(type, lambdaInvokersEnabled);
+    }
+
 }
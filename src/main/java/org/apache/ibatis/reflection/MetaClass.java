@@ -18,6 +18,7 @@ package org.apache.ibatis.reflection;
 import org.apache.ibatis.reflection.invoker.GetFieldInvoker;
 import org.apache.ibatis.reflection.invoker.Invoker;
 import org.apache.ibatis.reflection.invoker.MethodInvoker;
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.apache.ibatis.reflection.property.PropertyTokenizer;
 
 import java.lang.reflect.Field;
@@ -98,7 +99,7 @@ public class MetaClass {
      * @return setter方法入参类型
      */
     public Class<?> getSetterType(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyPath.of(name).getTokenizer();
         if (prop.hasNext()) {
             MetaClass metaProp = metaClassForProperty(prop.getName());
             return metaProp.getSetterType(prop.getChildren());
@@ -114,7 +115,7 @@ public class MetaClass {
      * @return 属性getter返回类型
      */
     public Class<?> getGetterType(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyPath.of(name).getTokenizer();
         if (prop.hasNext()) {
             MetaClass metaProp = metaClassForProperty(prop);
             return metaProp.getGetterType(prop.getChildren());
@@ -178,7 +179,7 @@ public class MetaClass {
     }
 
     public boolean hasSetter(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyPath.of(name).getTokenizer();
         if (prop.hasNext()) {
             if (reflector.hasSetter(prop.getName())) {
                 MetaClass metaProp = metaClassForProperty(prop.getName());
@@ -192,7 +193,7 @@ public class MetaClass {
     }
 
     public boolean hasGetter(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyPath.of(name).getTokenizer();
         if (prop.hasNext()) {
             if (reflector.hasGetter(prop.getName())) {
                 MetaClass metaProp = metaClassForProperty(prop);
@@ -214,7 +215,7 @@ public class MetaClass {
     }
 
     private StringBuilder buildProperty(String name, StringBuilder builder) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyPath.of(name).getTokenizer();
         if (prop.hasNext()) {
             String propertyName = reflector.findPropertyName(prop.getName());
             if (propertyName != null) {
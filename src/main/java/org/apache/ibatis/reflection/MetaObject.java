@@ -16,6 +16,7 @@
 package org.apache.ibatis.reflection;
 
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.apache.ibatis.reflection.property.PropertyTokenizer;
 import org.apache.ibatis.reflection.wrapper.*;
 
@@ -109,13 +110,24 @@ public class MetaObject {
     }
 
     public Object getValue(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
-        if (prop.hasNext()) {
-            MetaObject metaValue = metaObjectForProperty(prop.getIndexedName());
+        return getValue(PropertyPath.of(name));
+    }
+
+    /**
+     * Gets the value of a pre-parsed property path.
+     *
+     * @param path the property path
+     * @return the value, {@code null} when an intermediate property is null
+     * @since 3.5.5
+     */
+    public Object getValue(PropertyPath path) {
+        PropertyTokenizer prop = path.getTokenizer();
+        if (path.hasChild()) {
+            MetaObject metaValue = metaObjectForProperty(path.getHead());
             if (metaValue == SystemMetaObject.NULL_META_OBJECT) {
                 return null;
             } else {
-                return metaValue.getValue(prop.getChildren());
+                return metaValue.getValue(path.getChild());
             }
         } else {
             return objectWrapper.get(prop);
@@ -123,25 +135,40 @@ public class MetaObject {
     }
 
     public void setValue(String name, Object value) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
-        if (prop.hasNext()) {
-            MetaObject metaValue = metaObjectForProperty(prop.getIndexedName());
+        setValue(PropertyPath.of(name), value);
+    }
+
+    /**
+     * Sets the value of a pre-parsed property path, instantiating null intermediate properties.
+     *
+     * @param path  the property path
+     * @param value the value
+     * @since 3.5.5
+     */
+    public void setValue(PropertyPath path, Object value) {
+        PropertyTokenizer prop = path.getTokenizer();
+        if (path.hasChild()) {
+            MetaObject metaValue = metaObjectForProperty(path.getHead());
             if (metaValue == SystemMetaObject.NULL_META_OBJECT) {
                 if (value == null) {
                     // don't instantiate child path if value is null
                     return;
                 } else {
-                    metaValue = objectWrapper.instantiatePropertyValue(name, prop, objectFactory);
+                    metaValue = objectWrapper.instantiatePropertyValue(path.getExpression(), prop, objectFactory);
                 }
             }
-            metaValue.setValue(prop.getChildren(), value);
+            metaValue.setValue(path.getChild(), value);
         } else {
             objectWrapper.set(prop, value);
         }
     }
 
     public MetaObject metaObjectForProperty(String name) {
-        Object value = getValue(name);
+        return metaObjectForProperty(PropertyPath.of(name));
+    }
+
+    private MetaObject metaObjectForProperty(PropertyPath path) {
+        Object value = getValue(path);
         return MetaObject.forObject(value, objectFactory, objectWrapperFactory, reflectorFactory);
     }
 
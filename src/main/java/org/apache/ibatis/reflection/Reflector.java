@@ -77,9 +77,26 @@ public class Reflector {
      */
     private Map<String, String> caseInsensitivePropertyMap = new HashMap<>();
 
+    /**
+     * 是否使用LambdaMetafactory生成的getter/setter Invoker
+     */
+    private final boolean lambdaInvokers;
+
     public Reflector(Class<?> clazz) {
+        this(clazz, false);
+    }
+
+    /**
+     * Creates a reflector for the class.
+     *
+     * @param clazz          the class
+     * @param lambdaInvokers whether getters and setters are invoked through {@link LambdaMethodInvoker}
+     * @since 3.5.5
+     */
+    public Reflector(Class<?> clazz, boolean lambdaInvokers) {
         //反射器处理的Class
         type = clazz;
+        this.lambdaInvokers = lambdaInvokers;
 
         //添加默认构造函数Method
         addDefaultConstructor(clazz);
@@ -180,7 +197,7 @@ public class Reflector {
             ? new AmbiguousMethodInvoker(method, MessageFormat.format(
             "Illegal overloaded getter method with ambiguous type for property ''{0}'' in class ''{1}''. This breaks the JavaBeans specification and can cause unpredictable results.",
             name, method.getDeclaringClass().getName()))
-            : new MethodInvoker(method);
+            : newMethodInvoker(method);
         getMethods.put(name, invoker);
         Type returnType = TypeParameterResolver.resolveReturnType(method, type);
         getTypes.put(name, typeToClass(returnType));
@@ -251,12 +268,16 @@ public class Reflector {
     }
 
     private void addSetMethod(String name, Method method) {
-        MethodInvoker invoker = new MethodInvoker(method);
+        MethodInvoker invoker = newMethodInvoker(method);
         setMethods.put(name, invoker);
         Type[] paramTypes = TypeParameterResolver.resolveParamTypes(method, type);
         setTypes.put(name, typeToClass(paramTypes[0]));
     }
 
+    private MethodInvoker newMethodInvoker(Method method) {
+        return lambdaInvokers ? LambdaMethodInvoker.of(method) : new MethodInvoker(method);
+    }
+
     private Class<?> typeToClass(Type src) {
         Class<?> result = null;
         if (src instanceof Class) {
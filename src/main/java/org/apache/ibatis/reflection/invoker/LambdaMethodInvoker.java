@@ -0,0 +1,165 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A {@link MethodInvoker} that calls a getter or setter through a functional interface spun by
+ * {@link LambdaMetafactory}, so that a property access is a plain interface call the JIT can inline
+ * instead of a {@link Method#invoke(Object, Object...)} call.
+ * <p>
+ * Use {@link #of(Method)} to obtain an instance; methods that cannot be linked this way (non public members,
+ * classes not visible from the MyBatis class loader, static methods) fall back to a plain {@link MethodInvoker}.
+ *
+ * @since 3.5.5
+ */
+public class LambdaMethodInvoker extends MethodInvoker {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Function<Object, Object> getter;
+    private final BiConsumer<Object, Object> setter;
+    private final Class<?> declaringClass;
+    /**
+     * setter参数的包装类型，getter为null
+     */
+    private final Class<?> parameterType;
+    private final boolean primitiveParameter;
+
+    private LambdaMethodInvoker(Method method, Function<Object, Object> getter, BiConsumer<Object, Object> setter) {
+        super(method);
+        this.getter = getter;
+        this.setter = setter;
+        this.declaringClass = method.getDeclaringClass();
+        if (setter == null) {
+            this.parameterType = null;
+            this.primitiveParameter = false;
+        } else {
+            Class<?> type = method.getParameterTypes()[0];
+            this.parameterType = MethodType.methodType(type).wrap().returnType();
+            this.primitiveParameter = type.isPrimitive();
+        }
+    }
+
+    /**
+     * Creates an invoker for a getter (no parameter) or a setter (one parameter) method.
+     *
+     * @param method the getter or setter method
+     * @return a lambda based invoker when the method can be linked, otherwise a reflective {@link MethodInvoker}
+     */
+    public static MethodInvoker of(Method method) {
+        if (!isLinkable(method)) {
+            return new MethodInvoker(method);
+        }
+        try {
+            MethodHandle handle = LOOKUP.unreflect(method);
+            if (method.getParameterTypes().length == 0) {
+                return new LambdaMethodInvoker(method, createGetter(handle), null);
+            }
+            return new LambdaMethodInvoker(method, null, createSetter(handle));
+        } catch (Throwable t) {
+            return new MethodInvoker(method);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> createGetter(MethodHandle handle) throws Throwable {
+        CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(Function.class),
+            MethodType.methodType(Object.class, Object.class), handle, handle.type().wrap());
+        return (Function<Object, Object>) site.getTarget().invokeWithArguments();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> createSetter(MethodHandle handle) throws Throwable {
+        CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept", MethodType.methodType(BiConsumer.class),
+            MethodType.methodType(void.class, Object.class, Object.class), handle,
+            handle.type().wrap().changeReturnType(void.class));
+        return (BiConsumer<Object, Object>) site.getTarget().invokeWithArguments();
+    }
+
+    private static boolean isLinkable(Method method) {
+        if (method.getParameterTypes().length > 1 || Modifier.isStatic(method.getModifiers())
+            || !Modifier.isPublic(method.getModifiers())) {
+            return false;
+        }
+        // the spun class refers to the types it casts to from the MyBatis class loader and package
+        if (!isAccessible(method.getDeclaringClass()) || !isAccessible(method.getReturnType())) {
+            return false;
+        }
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            if (!isAccessible(parameterType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAccessible(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return true;
+        }
+        if (!Modifier.isPublic(type.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(type.getName(), false, LambdaMethodInvoker.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+        if (!declaringClass.isInstance(target) || !acceptsArguments(args)) {
+            // Method#invoke rejects (or widens) these arguments before calling the method, the lambda would fail
+            // inside the call with a wrapped ClassCastException or NullPointerException instead
+            return super.invoke(target, args);
+        }
+        try {
+            if (getter != null) {
+                return getter.apply(target);
+            }
+            setter.accept(target, args[0]);
+            return null;
+        } catch (Throwable t) {
+            // keep the contract of Method#invoke, callers unwrap the cause
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    private boolean acceptsArguments(Object[] args) {
+        if (setter == null) {
+            return args == null || args.length == 0;
+        }
+        if (args == null || args.length != 1) {
+            return false;
+        }
+        return args[0] == null ? !primitiveParameter : parameterType.isInstance(args[0]);
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.reflection.property;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A pre-parsed property expression such as {@code order.items[0].name}.
+ * <p>
+ * Each level of the expression is split once into a {@link PropertyTokenizer} and linked to the path of its children,
+ * so that walking the expression on every row or parameter does not allocate substrings or tokenizers again.
+ * Instances are immutable and shared through {@link #of(String)}.
+ *
+ * @since 3.5.5
+ */
+public final class PropertyPath {
+
+    /**
+     * Upper bound of cached expressions.
+     */
+    private static final int MAX_CACHED_PATHS = 4096;
+    /**
+     * Prefix of the names generated for each item of a foreach, i.e.
+     * {@link org.apache.ibatis.scripting.xmltags.ForEachSqlNode#ITEM_PREFIX}. They are used for one statement only and
+     * would fill the cache with names never seen again, so they are not cached.
+     */
+    private static final String GENERATED_PREFIX = "__frch_";
+    private static final ConcurrentMap<String, PropertyPath> CACHE = new ConcurrentHashMap<>();
+
+    private final String expression;
+    /**
+     * Tokenizer of the first level, including children.
+     */
+    private final PropertyTokenizer tokenizer;
+    /**
+     * Path of the first level without children, {@code this} when there are no children.
+     */
+    private final PropertyPath head;
+    /**
+     * Path of the children, {@code null} when there are none.
+     */
+    private final PropertyPath child;
+
+    private PropertyPath(String expression) {
+        this.expression = expression;
+        this.tokenizer = new PropertyTokenizer(expression);
+        if (tokenizer.hasNext()) {
+            this.head = of(tokenizer.getIndexedName());
+            this.child = of(tokenizer.getChildren());
+        } else {
+            this.head = this;
+            this.child = null;
+        }
+    }
+
+    /**
+     * Returns the parsed path for the expression, reusing a cached instance when possible.
+     *
+     * @param expression the property expression
+     * @return the parsed path
+     */
+    public static PropertyPath of(String expression) {
+        PropertyPath path = CACHE.get(expression);
+        if (path == null) {
+            path = new PropertyPath(expression);
+            if (CACHE.size() < MAX_CACHED_PATHS && !expression.startsWith(GENERATED_PREFIX)) {
+                PropertyPath existing = CACHE.putIfAbsent(expression, path);
+                if (existing != null) {
+                    path = existing;
+                }
+            }
+        }
+        return path;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Gets the tokenizer of the first level, as {@code new PropertyTokenizer(getExpression())} would return.
+     *
+     * @return the shared tokenizer, it must not be advanced with {@link PropertyTokenizer#next()} on hot paths
+     */
+    public PropertyTokenizer getTokenizer() {
+        return tokenizer;
+    }
+
+    /**
+     * Gets the path of the first level only, i.e. its indexed name without children.
+     *
+     * @return the head path, {@code this} when there are no children
+     */
+    public PropertyPath getHead() {
+        return head;
+    }
+
+    public boolean hasChild() {
+        return child != null;
+    }
+
+    public PropertyPath getChild() {
+        return child;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -18,6 +18,7 @@ package org.apache.ibatis.reflection.wrapper;
 import org.apache.ibatis.reflection.*;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.apache.ibatis.reflection.property.PropertyTokenizer;
 
 import java.util.List;
@@ -75,7 +76,7 @@ public class BeanWrapper extends BaseWrapper {
 
     @Override
     public Class<?> getSetterType(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyPath.of(name).getTokenizer();
         if (prop.hasNext()) {
             MetaObject metaValue = metaObject.metaObjectForProperty(prop.getIndexedName());
             if (metaValue == SystemMetaObject.NULL_META_OBJECT) {
@@ -90,7 +91,7 @@ public class BeanWrapper extends BaseWrapper {
 
     @Override
     public Class<?> getGetterType(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyPath.of(name).getTokenizer();
         if (prop.hasNext()) {
             MetaObject metaValue = metaObject.metaObjectForProperty(prop.getIndexedName());
             if (metaValue == SystemMetaObject.NULL_META_OBJECT) {
@@ -105,7 +106,7 @@ public class BeanWrapper extends BaseWrapper {
 
     @Override
     public boolean hasSetter(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyPath.of(name).getTokenizer();
         if (prop.hasNext()) {
             if (metaClass.hasSetter(prop.getIndexedName())) {
                 MetaObject metaValue = metaObject.metaObjectForProperty(prop.getIndexedName());
@@ -124,7 +125,7 @@ public class BeanWrapper extends BaseWrapper {
 
     @Override
     public boolean hasGetter(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyPath.of(name).getTokenizer();
         if (prop.hasNext()) {
             if (metaClass.hasGetter(prop.getIndexedName())) {
                 MetaObject metaValue = metaObject.metaObjectForProperty(prop.getIndexedName());
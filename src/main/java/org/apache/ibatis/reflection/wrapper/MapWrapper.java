@@ -18,6 +18,7 @@ package org.apache.ibatis.reflection.wrapper;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.apache.ibatis.reflection.property.PropertyTokenizer;
 
 import java.util.HashMap;
@@ -73,7 +74,7 @@ public class MapWrapper extends BaseWrapper {
 
     @Override
     public Class<?> getSetterType(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyPath.of(name).getTokenizer();
         if (prop.hasNext()) {
             MetaObject metaValue = metaObject.metaObjectForProperty(prop.getIndexedName());
             if (metaValue == SystemMetaObject.NULL_META_OBJECT) {
@@ -92,7 +93,7 @@ public class MapWrapper extends BaseWrapper {
 
     @Override
     public Class<?> getGetterType(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyPath.of(name).getTokenizer();
         if (prop.hasNext()) {
             MetaObject metaValue = metaObject.metaObjectForProperty(prop.getIndexedName());
             if (metaValue == SystemMetaObject.NULL_META_OBJECT) {
@@ -116,7 +117,7 @@ public class MapWrapper extends BaseWrapper {
 
     @Override
     public boolean hasGetter(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyPath.of(name).getTokenizer();
         if (prop.hasNext()) {
             if (map.containsKey(prop.getIndexedName())) {
                 MetaObject metaValue = metaObject.metaObjectForProperty(prop.getIndexedName());
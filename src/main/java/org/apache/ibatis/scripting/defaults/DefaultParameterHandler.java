@@ -21,12 +21,11 @@ import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
-import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.mapping.ParameterValues;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeException;
 import org.apache.ibatis.type.TypeHandler;
-import org.apache.ibatis.type.TypeHandlerRegistry;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -40,8 +39,6 @@ import java.util.List;
  */
 public class DefaultParameterHandler implements ParameterHandler {
 
-    private final TypeHandlerRegistry typeHandlerRegistry;
-
     private final MappedStatement mappedStatement;
     private final Object parameterObject;
     private final BoundSql boundSql;
@@ -50,7 +47,6 @@ public class DefaultParameterHandler implements ParameterHandler {
     public DefaultParameterHandler(MappedStatement mappedStatement, Object parameterObject, BoundSql boundSql) {
         this.mappedStatement = mappedStatement;
         this.configuration = mappedStatement.getConfiguration();
-        this.typeHandlerRegistry = mappedStatement.getConfiguration().getTypeHandlerRegistry();
         this.parameterObject = parameterObject;
         this.boundSql = boundSql;
     }
@@ -65,25 +61,12 @@ public class DefaultParameterHandler implements ParameterHandler {
         ErrorContext.instance().activity("setting parameters").object(mappedStatement.getParameterMap().getId());
         List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
         if (parameterMappings != null) {
+            //额外增加的参数优先级较高，参数类型存在typeHandler时直接当做value，否则从对象中获取属性
+            ParameterValues parameterValues = new ParameterValues(configuration, boundSql, parameterObject);
             for (int i = 0; i < parameterMappings.size(); i++) {
                 ParameterMapping parameterMapping = parameterMappings.get(i);
                 if (parameterMapping.getMode() != ParameterMode.OUT) {
-                    Object value;
-                    String propertyName = parameterMapping.getProperty();
-                    if (boundSql.hasAdditionalParameter(propertyName)) { // issue #448 ask first for additional params
-                        //额外增加的参数中是否存在该属性，优先级较高
-                        value = boundSql.getAdditionalParameter(propertyName);
-                    } else if (parameterObject == null) {
-
-                        value = null;
-                    } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
-                        //参数类型是否存在于typeHandler如果存在直接当做value
-                        value = parameterObject;
-                    } else {
-                        //直接从对象中获取属性
-                        MetaObject metaObject = configuration.newMetaObject(parameterObject);
-                        value = metaObject.getValue(propertyName);
-                    }
+                    Object value = parameterValues.getValue(parameterMapping);
                     TypeHandler typeHandler = parameterMapping.getTypeHandler();
                     JdbcType jdbcType = parameterMapping.getJdbcType();
                     if (value == null && jdbcType == null) {
@@ -15,19 +15,35 @@
  */
 package org.apache.ibatis.session;
 
+import org.apache.ibatis.binding.AsyncExecutors;
 import org.apache.ibatis.binding.MapperRegistry;
+import org.apache.ibatis.binding.VirtualThreadExecutor;
 import org.apache.ibatis.builder.CacheRefResolver;
 import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.builder.annotation.MethodResolver;
 import org.apache.ibatis.builder.xml.XMLStatementBuilder;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.WeightBudget;
+import org.apache.ibatis.cache.coherence.CacheInvalidationBus;
+import org.apache.ibatis.cache.coherence.FileInvalidationTransport;
+import org.apache.ibatis.cache.coherence.InvalidationTransport;
+import org.apache.ibatis.cache.coherence.LocalInvalidationTransport;
 import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
+import org.apache.ibatis.cache.decorators.TinyLfuCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.decorators.WeightedCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.metrics.CacheMetricsFactory;
+import org.apache.ibatis.cache.metrics.CacheMetricsRegistry;
+import org.apache.ibatis.cache.metrics.DefaultCacheMetricsFactory;
+import org.apache.ibatis.cache.serializer.BinarySerializer;
+import org.apache.ibatis.cache.serializer.JdkSerializer;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
+import org.apache.ibatis.datasource.pooled.ConcurrentPooledDataSourceFactory;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
 import org.apache.ibatis.executor.*;
@@ -36,6 +52,7 @@ import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.executor.loader.cglib.CglibProxyFactory;
 import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.resultset.CompiledRowMapper;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
@@ -74,6 +91,7 @@ import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 
 /**
@@ -94,6 +112,27 @@ public class Configuration {
     protected boolean callSettersOnNulls;
     protected boolean useActualParamName = true;
     protected boolean returnInstanceForEmptyRow;
+    protected boolean compiledResultMappingEnabled;
+    protected int nestedResultObjectsLimit;
+    protected int resultOrderedCheckWindow;
+    /**
+     * {@code null} until set, the default executor is only created when an async method is called.
+     */
+    protected java.util.concurrent.Executor asyncExecutor;
+    protected boolean parallelResultSetMappingEnabled;
+    protected final WeightBudget cacheWeightBudget = new WeightBudget();
+    protected boolean cacheKeySkippingEnabled;
+    protected boolean cacheMetricsEnabled;
+    protected final CacheMetricsRegistry cacheMetricsRegistry = new CacheMetricsRegistry();
+    protected CacheInvalidationBus cacheInvalidationBus;
+    protected boolean batchGroupingEnabled;
+    protected final Map<String, Set<String>> batchDependencies = new ConcurrentHashMap<>();
+    protected int batchStatementRowsLimit;
+    protected int batchPendingRowsLimit;
+    protected long batchPendingBytesLimit;
+    protected BatchFlushListener batchFlushListener;
+    protected int batchInsertRewriteSize;
+    protected int batchPipelineDepth;
 
     protected String logPrefix;
     protected Class<? extends Log> logImpl;
@@ -138,6 +177,7 @@ public class Configuration {
     protected final Map<String, ResultMap> resultMaps = new StrictMap<>("Result Maps collection");
     protected final Map<String, ParameterMap> parameterMaps = new StrictMap<>("Parameter Maps collection");
     protected final Map<String, KeyGenerator> keyGenerators = new StrictMap<>("Key Generators collection");
+    protected final Map<String, CompiledRowMapper> compiledRowMappers = new ConcurrentHashMap<>();
 
     protected final Set<String> loadedResources = new HashSet<>();
     protected final Map<String, XNode> sqlFragments = new StrictMap<>("XML fragments parsed from previous mappers");
@@ -165,13 +205,23 @@ public class Configuration {
 
         typeAliasRegistry.registerAlias("JNDI", JndiDataSourceFactory.class);
         typeAliasRegistry.registerAlias("POOLED", PooledDataSourceFactory.class);
+        typeAliasRegistry.registerAlias("CONCURRENT_POOLED", ConcurrentPooledDataSourceFactory.class);
         typeAliasRegistry.registerAlias("UNPOOLED", UnpooledDataSourceFactory.class);
 
         typeAliasRegistry.registerAlias("PERPETUAL", PerpetualCache.class);
+        typeAliasRegistry.registerAlias("OFF_HEAP", OffHeapCache.class);
         typeAliasRegistry.registerAlias("FIFO", FifoCache.class);
         typeAliasRegistry.registerAlias("LRU", LruCache.class);
+        typeAliasRegistry.registerAlias("TINYLFU", TinyLfuCache.class);
         typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
         typeAliasRegistry.registerAlias("WEAK", WeakCache.class);
+        typeAliasRegistry.registerAlias("WEIGHTED", WeightedCache.class);
+
+        typeAliasRegistry.registerAlias("JDK", JdkSerializer.class);
+        typeAliasRegistry.registerAlias("BINARY", BinarySerializer.class);
+
+        typeAliasRegistry.registerAlias("LOCAL_BUS", LocalInvalidationTransport.class);
+        typeAliasRegistry.registerAlias("FILE_LOG", FileInvalidationTransport.class);
 
         typeAliasRegistry.registerAlias("DB_VENDOR", VendorDatabaseIdProvider.class);
 
@@ -189,6 +239,8 @@ public class Configuration {
         typeAliasRegistry.registerAlias("CGLIB", CglibProxyFactory.class);
         typeAliasRegistry.registerAlias("JAVASSIST", JavassistProxyFactory.class);
 
+        typeAliasRegistry.registerAlias("VIRTUAL_THREAD", VirtualThreadExecutor.class);
+
         //languageDriver默认为XMLLanguageDriver
         languageRegistry.setDefaultDriverClass(XMLLanguageDriver.class);
         languageRegistry.register(RawLanguageDriver.class);
@@ -248,6 +300,368 @@ public class Configuration {
         this.returnInstanceForEmptyRow = returnEmptyInstance;
     }
 
+    /**
+     * Gets whether simple result maps are mapped through a {@link CompiledRowMapper}.
+     *
+     * @return true if compiled result mapping is enabled
+     * @since 3.5.5
+     */
+    public boolean isCompiledResultMappingEnabled() {
+        return compiledResultMappingEnabled;
+    }
+
+    /**
+     * Sets whether the column to property assignments of simple result maps are resolved once per result map
+     * and column layout and then reused for every row, instead of being resolved through MetaObject for each row.
+     *
+     * @param compiledResultMappingEnabled true to enable compiled result mapping
+     * @since 3.5.5
+     */
+    public void setCompiledResultMappingEnabled(boolean compiledResultMappingEnabled) {
+        this.compiledResultMappingEnabled = compiledResultMappingEnabled;
+    }
+
+    /**
+     * Gets the maximum number of objects kept in memory while mapping nested result maps.
+     *
+     * @return the limit, 0 means unlimited
+     * @since 3.5.5
+     */
+    public int getNestedResultObjectsLimit() {
+        return nestedResultObjectsLimit;
+    }
+
+    /**
+     * Sets the maximum number of objects kept in memory while mapping nested result maps.
+     * When a statement exceeds it an {@link org.apache.ibatis.executor.ExecutorException} is thrown instead of
+     * growing the heap. For statements with {@code resultOrdered="true"} the objects are released each time
+     * a result object is completed, so the limit applies to a single result object and its nested objects.
+     *
+     * @param nestedResultObjectsLimit the limit, 0 means unlimited
+     * @since 3.5.5
+     */
+    public void setNestedResultObjectsLimit(int nestedResultObjectsLimit) {
+        this.nestedResultObjectsLimit = nestedResultObjectsLimit;
+    }
+
+    /**
+     * Gets the number of completed result objects whose row keys are remembered to verify the ordering
+     * of statements with {@code resultOrdered="true"}.
+     *
+     * @return the window size, 0 means the ordering is not verified
+     * @since 3.5.5
+     */
+    public int getResultOrderedCheckWindow() {
+        return resultOrderedCheckWindow;
+    }
+
+    /**
+     * Sets the number of completed result objects whose row keys are remembered for statements with
+     * {@code resultOrdered="true"}. When the rows of a completed result object appear again within that window,
+     * an {@link org.apache.ibatis.executor.ExecutorException} is thrown instead of returning a split result object.
+     *
+     * @param resultOrderedCheckWindow the window size, 0 means the ordering is not verified
+     * @since 3.5.5
+     */
+    public void setResultOrderedCheckWindow(int resultOrderedCheckWindow) {
+        this.resultOrderedCheckWindow = resultOrderedCheckWindow;
+    }
+
+    /**
+     * Gets the executor that runs mapper methods returning a {@link java.util.concurrent.CompletableFuture}.
+     *
+     * @return the async executor
+     * @since 3.5.5
+     */
+    public java.util.concurrent.Executor getAsyncExecutor() {
+        return asyncExecutor == null ? AsyncExecutors.defaultExecutor() : asyncExecutor;
+    }
+
+    /**
+     * Sets the executor that runs mapper methods returning a {@link java.util.concurrent.CompletableFuture}
+     * or {@link java.util.concurrent.CompletionStage}. Each call is executed in its own session.
+     *
+     * @param asyncExecutor the async executor, {@code null} restores {@link AsyncExecutors#defaultExecutor()}
+     * @since 3.5.5
+     */
+    public void setAsyncExecutor(java.util.concurrent.Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    /**
+     * Returns whether the result sets of a statement that returns multiple result sets are mapped in parallel.
+     *
+     * @return {@code true} if enabled
+     * @since 3.5.5
+     */
+    public boolean isParallelResultSetMappingEnabled() {
+        return parallelResultSetMappingEnabled;
+    }
+
+    /**
+     * Sets whether the result sets of a statement that returns multiple result sets are read into memory and then
+     * mapped in parallel on the common {@link java.util.concurrent.ForkJoinPool}. Statements whose result maps contain
+     * nested selects, calls with a custom {@link ResultHandler}, and configurations with custom type handlers are always
+     * mapped sequentially. Only result sets whose columns are numeric, boolean or character types are read into memory;
+     * the others, e.g. with binary, temporal or vendor specific columns, are mapped sequentially from the driver, whose
+     * conversions may differ from the in-memory ones.
+     *
+     * @param parallelResultSetMappingEnabled {@code true} to map independent result sets in parallel
+     * @since 3.5.5
+     */
+    public void setParallelResultSetMappingEnabled(boolean parallelResultSetMappingEnabled) {
+        this.parallelResultSetMappingEnabled = parallelResultSetMappingEnabled;
+    }
+
+    public long getCacheWeightLimit() {
+        return cacheWeightBudget.getLimit();
+    }
+
+    /**
+     * Sets the maximum total weight, usually an estimate in bytes, of the entries of all the second level caches that
+     * use the {@code WEIGHTED} eviction policy. The least recently used entries of the heaviest cache are evicted first.
+     *
+     * @param cacheWeightLimit the limit, 0 for no limit
+     * @since 3.5.5
+     */
+    public void setCacheWeightLimit(long cacheWeightLimit) {
+        cacheWeightBudget.setLimit(cacheWeightLimit);
+    }
+
+    public boolean isCacheKeySkippingEnabled() {
+        return cacheKeySkippingEnabled;
+    }
+
+    /**
+     * Sets whether the cache key of a query is built only when the query may be looked up in a cache. When enabled,
+     * queries that do not use the second level cache skip building their key if the local cache scope is
+     * {@link LocalCacheScope#STATEMENT} and their result maps have no nested select, nested result map or
+     * discriminator.
+     *
+     * @param cacheKeySkippingEnabled {@code true} to skip building unused cache keys
+     * @since 3.5.5
+     */
+    public void setCacheKeySkippingEnabled(boolean cacheKeySkippingEnabled) {
+        this.cacheKeySkippingEnabled = cacheKeySkippingEnabled;
+    }
+
+    public boolean isCacheMetricsEnabled() {
+        return cacheMetricsEnabled;
+    }
+
+    /**
+     * Sets whether the caches report their hits, misses, writes, evictions and latencies, and the time taken to load
+     * the values they miss, to the {@link #getCacheMetricsRegistry() metrics registry}. The local caches of all the
+     * sessions report to a single {@link CacheMetricsRegistry#LOCAL_CACHE_ID} entry. Must be set before the mappers
+     * are loaded.
+     *
+     * @param cacheMetricsEnabled {@code true} to collect cache metrics
+     * @since 3.5.5
+     */
+    public void setCacheMetricsEnabled(boolean cacheMetricsEnabled) {
+        this.cacheMetricsEnabled = cacheMetricsEnabled;
+    }
+
+    public CacheMetricsFactory getCacheMetricsFactory() {
+        return cacheMetricsRegistry.getFactory();
+    }
+
+    /**
+     * Sets the factory of the cache metrics, for instance to report them to a monitoring system.
+     *
+     * @param cacheMetricsFactory the factory, {@code null} restores {@link DefaultCacheMetricsFactory}
+     * @since 3.5.5
+     */
+    public void setCacheMetricsFactory(CacheMetricsFactory cacheMetricsFactory) {
+        cacheMetricsRegistry.setFactory(cacheMetricsFactory);
+    }
+
+    /**
+     * @return the metrics of the caches of this configuration, by cache id
+     * @since 3.5.5
+     */
+    public CacheMetricsRegistry getCacheMetricsRegistry() {
+        return cacheMetricsRegistry;
+    }
+
+    public boolean isBatchGroupingEnabled() {
+        return batchGroupingEnabled;
+    }
+
+    /**
+     * Sets whether the batch executor appends a statement to the JDBC batch of an earlier statement with the same SQL,
+     * instead of only to the batch of the previous statement, so that interleaved statements are batched. A statement
+     * is not moved before a batch writing a table it writes, before a batch of unknown tables, nor across the
+     * {@link #addBatchDependency(String, String) declared dependencies}. The batches are executed in the order of
+     * their first statement.
+     *
+     * @param batchGroupingEnabled {@code true} to group the batched statements
+     * @since 3.5.5
+     */
+    public void setBatchGroupingEnabled(boolean batchGroupingEnabled) {
+        this.batchGroupingEnabled = batchGroupingEnabled;
+    }
+
+    /**
+     * Declares that the rows written by the statements of a namespace depend on those written by another one, for
+     * instance through a foreign key, so that grouped batches keep their relative order: an insert or update of the
+     * dependent namespace is not moved before a statement of the other one, and a statement of the other one,
+     * unless it is an insert, is not moved before a statement of the dependent namespace.
+     *
+     * @param namespace the dependent namespace
+     * @param dependsOn the namespace it depends on
+     * @since 3.5.5
+     */
+    public void addBatchDependency(String namespace, String dependsOn) {
+        batchDependencies.computeIfAbsent(namespace, key -> ConcurrentHashMap.newKeySet()).add(dependsOn);
+    }
+
+    public int getBatchStatementRowsLimit() {
+        return batchStatementRowsLimit;
+    }
+
+    /**
+     * Sets the number of rows of a single batch from which the batch executor executes all its pending statements,
+     * as if they were flushed.
+     *
+     * @param batchStatementRowsLimit the limit, {@code 0} for none
+     * @since 3.5.5
+     */
+    public void setBatchStatementRowsLimit(int batchStatementRowsLimit) {
+        this.batchStatementRowsLimit = batchStatementRowsLimit;
+    }
+
+    public int getBatchPendingRowsLimit() {
+        return batchPendingRowsLimit;
+    }
+
+    /**
+     * Sets the total number of pending rows from which the batch executor executes all its pending statements.
+     *
+     * @param batchPendingRowsLimit the limit, {@code 0} for none
+     * @since 3.5.5
+     */
+    public void setBatchPendingRowsLimit(int batchPendingRowsLimit) {
+        this.batchPendingRowsLimit = batchPendingRowsLimit;
+    }
+
+    public long getBatchPendingBytesLimit() {
+        return batchPendingBytesLimit;
+    }
+
+    /**
+     * Sets the estimated size in bytes of the pending parameters from which the batch executor executes all its
+     * pending statements. The size is estimated from the parameter values bound to each row.
+     *
+     * @param batchPendingBytesLimit the limit, {@code 0} for none
+     * @since 3.5.5
+     */
+    public void setBatchPendingBytesLimit(long batchPendingBytesLimit) {
+        this.batchPendingBytesLimit = batchPendingBytesLimit;
+    }
+
+    public BatchFlushListener getBatchFlushListener() {
+        return batchFlushListener;
+    }
+
+    /**
+     * Sets the listener receiving the results of the batches executed once a threshold is reached, which are not
+     * returned by the next flush.
+     *
+     * @param batchFlushListener the listener, {@code null} for none
+     * @since 3.5.5
+     */
+    public void setBatchFlushListener(BatchFlushListener batchFlushListener) {
+        this.batchFlushListener = batchFlushListener;
+    }
+
+    public int getBatchInsertRewriteSize() {
+        return batchInsertRewriteSize;
+    }
+
+    /**
+     * Sets the number of rows the batch executor sends in one multi-row INSERT when it rewrites a batched
+     * single-row INSERT into {@code INSERT ... VALUES (...), (...)}.
+     *
+     * @param batchInsertRewriteSize the number of rows per statement, {@code 0} or {@code 1} to not rewrite
+     * @since 3.5.5
+     */
+    public void setBatchInsertRewriteSize(int batchInsertRewriteSize) {
+        this.batchInsertRewriteSize = batchInsertRewriteSize;
+    }
+
+    public int getBatchPipelineDepth() {
+        return batchPipelineDepth;
+    }
+
+    /**
+     * Sets the number of batches the batch executor may hand over to a background thread when a flush threshold is
+     * reached, so that the caller keeps building statements while they execute. The background thread prepares, binds
+     * and executes the batches, so the connection is never used by both threads. Statements whose key generator is
+     * neither {@link org.apache.ibatis.executor.keygen.NoKeyGenerator} nor
+     * {@link org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator} wait for the batches in flight and execute on the
+     * calling thread. Generated keys are set on the parameter objects once their batch completes, not when the update
+     * returns. Failures are thrown by the next flush or commit.
+     *
+     * @param batchPipelineDepth the number of batches in flight, {@code 0} to execute them on the calling thread
+     * @since 3.5.5
+     */
+    public void setBatchPipelineDepth(int batchPipelineDepth) {
+        this.batchPipelineDepth = batchPipelineDepth;
+    }
+
+    /**
+     * @param namespace a namespace
+     * @param dependsOn another namespace
+     * @return whether the first namespace was declared to depend on the other one
+     * @since 3.5.5
+     */
+    public boolean hasBatchDependency(String namespace, String dependsOn) {
+        Set<String> dependencies = batchDependencies.get(namespace);
+        return dependencies != null && dependencies.contains(dependsOn);
+    }
+
+    /**
+     * @return the bus keeping the caches coherent with the other instances, {@code null} if none
+     * @since 3.5.5
+     */
+    public CacheInvalidationBus getCacheInvalidationBus() {
+        return cacheInvalidationBus;
+    }
+
+    /**
+     * Sets the transport sharing the cache invalidations with the other instances using the database, and starts it.
+     * The invalidations committed by the sessions opened from now on are published, and the invalidations published
+     * by the other instances are applied to the caches of this configuration.
+     *
+     * @param transport the transport, not started yet, {@code null} to stop sharing the invalidations
+     * @since 3.5.5
+     */
+    public void setCacheInvalidationTransport(InvalidationTransport transport) {
+        if (cacheInvalidationBus != null) {
+            cacheInvalidationBus.close();
+        }
+        cacheInvalidationBus = transport == null ? null : new CacheInvalidationBus(this, transport);
+    }
+
+    /**
+     * @return the weight limit shared by the {@link WeightedCache} instances of this configuration
+     * @since 3.5.5
+     */
+    public WeightBudget getCacheWeightBudget() {
+        return cacheWeightBudget;
+    }
+
+    /**
+     * Gets the compiled row mappers, keyed by result map id, column prefix and column signature.
+     *
+     * @return the compiled row mappers
+     * @since 3.5.5
+     */
+    public Map<String, CompiledRowMapper> getCompiledRowMappers() {
+        return compiledRowMappers;
+    }
+
     public String getDatabaseId() {
         return databaseId;
     }
@@ -635,7 +1049,7 @@ public class Configuration {
             executor = new SimpleExecutor(this, transaction);
         }
         if (cacheEnabled) {
-            executor = new CachingExecutor(executor);
+            executor = new CachingExecutor(executor, cacheInvalidationBus);
         }
         executor = (Executor) interceptorChain.pluginAll(executor);
         return executor;
@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.builder;
 
+import org.apache.ibatis.binding.AsyncExecutors;
+import org.apache.ibatis.cache.metrics.DefaultCacheMetricsFactory;
 import org.apache.ibatis.builder.mapper.CustomMapper;
 import org.apache.ibatis.builder.typehandler.CustomIntegerTypeHandler;
 import org.apache.ibatis.builder.xml.XMLConfigBuilder;
@@ -48,6 +50,7 @@ import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
 
 import static com.googlecode.catchexception.apis.BDDCatchException.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -84,6 +87,22 @@ class XmlConfigBuilderTest {
             assertThat(config.isSafeResultHandlerEnabled()).isTrue();
             assertThat(config.getDefaultScriptingLanuageInstance()).isInstanceOf(XMLLanguageDriver.class);
             assertThat(config.isCallSettersOnNulls()).isFalse();
+            assertThat(config.isCompiledResultMappingEnabled()).isFalse();
+            assertThat(config.getNestedResultObjectsLimit()).isEqualTo(0);
+            assertThat(config.getResultOrderedCheckWindow()).isEqualTo(0);
+            assertThat(config.getAsyncExecutor()).isSameAs(AsyncExecutors.defaultExecutor());
+            assertThat(config.isParallelResultSetMappingEnabled()).isFalse();
+            assertThat(config.getCacheWeightLimit()).isEqualTo(0L);
+            assertThat(config.isCacheKeySkippingEnabled()).isFalse();
+            assertThat(config.isCacheMetricsEnabled()).isFalse();
+            assertThat(config.getCacheMetricsFactory()).isInstanceOf(DefaultCacheMetricsFactory.class);
+            assertThat(config.isBatchGroupingEnabled()).isFalse();
+            assertThat(config.getBatchStatementRowsLimit()).isEqualTo(0);
+            assertThat(config.getBatchPendingRowsLimit()).isEqualTo(0);
+            assertThat(config.getBatchPendingBytesLimit()).isEqualTo(0L);
+            assertThat(config.getBatchFlushListener()).isNull();
+            assertThat(config.getBatchInsertRewriteSize()).isEqualTo(0);
+            assertThat(config.getBatchPipelineDepth()).isEqualTo(0);
             assertNull(config.getLogPrefix());
             assertNull(config.getLogImpl());
             assertNull(config.getConfigurationFactory());
@@ -178,6 +197,22 @@ class XmlConfigBuilderTest {
             assertThat(config.isSafeResultHandlerEnabled()).isFalse();
             assertThat(config.getDefaultScriptingLanuageInstance()).isInstanceOf(RawLanguageDriver.class);
             assertThat(config.isCallSettersOnNulls()).isTrue();
+            assertThat(config.isCompiledResultMappingEnabled()).isTrue();
+            assertThat(config.getNestedResultObjectsLimit()).isEqualTo(10000);
+            assertThat(config.getResultOrderedCheckWindow()).isEqualTo(16);
+            assertThat(config.getAsyncExecutor()).isInstanceOf(ForkJoinPool.class);
+            assertThat(config.isParallelResultSetMappingEnabled()).isTrue();
+            assertThat(config.getCacheWeightLimit()).isEqualTo(67108864L);
+            assertThat(config.isCacheKeySkippingEnabled()).isTrue();
+            assertThat(config.isCacheMetricsEnabled()).isTrue();
+            assertThat(config.getCacheMetricsFactory()).isInstanceOf(CustomCacheMetricsFactory.class);
+            assertThat(config.isBatchGroupingEnabled()).isTrue();
+            assertThat(config.getBatchStatementRowsLimit()).isEqualTo(1000);
+            assertThat(config.getBatchPendingRowsLimit()).isEqualTo(5000);
+            assertThat(config.getBatchPendingBytesLimit()).isEqualTo(16777216L);
+            assertThat(config.getBatchFlushListener()).isInstanceOf(CustomBatchFlushListener.class);
+            assertThat(config.getBatchInsertRewriteSize()).isEqualTo(100);
+            assertThat(config.getBatchPipelineDepth()).isEqualTo(2);
             assertThat(config.getLogPrefix()).isEqualTo("mybatis_");
             assertThat(config.getLogImpl().getName()).isEqualTo(Slf4jImpl.class.getName());
             assertThat(config.getVfsImpl().getName()).isEqualTo(JBoss6VFS.class.getName());
@@ -0,0 +1,195 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import org.apache.ibatis.cache.serializer.BinarySerializer;
+import org.apache.ibatis.cache.serializer.CompressingSerializer;
+import org.apache.ibatis.cache.serializer.JdkSerializer;
+import org.apache.ibatis.cache.serializer.Serializer;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySerializerTest {
+
+    private final Serializer serializer = new BinarySerializer();
+
+    @Test
+    void shouldCopyValueTypes() {
+        Timestamp timestamp = new Timestamp(1_000_000L);
+        timestamp.setNanos(123456789);
+        List<Object> values = new ArrayList<>(Arrays.asList(null, "text", 1, 2L, (short) 3, (byte) 4, true, 'c', 1.5f, 2.5d,
+            new BigDecimal("12.340"), new BigInteger("123456789012345678901234567890"), new Date(1000L),
+            new java.sql.Date(2000L), new java.sql.Time(3000L), timestamp, LocalDate.of(2020, 2, 29),
+            LocalTime.of(12, 30, 15, 999), LocalDateTime.of(2020, 2, 29, 12, 30), Level.HIGH, UUID.randomUUID()));
+        Object copy = serializer.deserialize(serializer.serialize(values));
+        assertEquals(values, copy);
+        assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) serializer.deserialize(serializer.serialize(new byte[] {1, 2, 3})));
+        assertNull(serializer.deserialize(serializer.serialize(null)));
+    }
+
+    @Test
+    void shouldCopyResultObjectsAndKeepSharedAndCircularReferences() {
+        Department department = new Department();
+        department.setName("R&D");
+        department.employees = new ArrayList<>();
+        Employee first = new Employee("Ann", department);
+        Employee second = new Employee("Bob", department);
+        first.setManager(second);
+        department.employees.add(first);
+        department.employees.add(second);
+        department.tags.put("floor", 3);
+        department.transientValue = "lost";
+
+        Department copy = (Department) serializer.deserialize(serializer.serialize(department));
+        assertNotSame(department, copy);
+        assertEquals("R&D", copy.getName());
+        assertEquals(2, copy.employees.size());
+        Employee firstCopy = copy.employees.get(0);
+        assertEquals("Ann", firstCopy.getName());
+        assertSame(copy, firstCopy.getDepartment());
+        assertSame(copy.employees.get(1), firstCopy.getManager());
+        assertEquals(Collections.singletonMap("floor", 3), copy.tags);
+        assertNull(copy.transientValue);
+    }
+
+    @Test
+    void shouldBeSmallerThanJavaSerialization() {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            employees.add(new Employee("employee " + i, null));
+        }
+        int binary = serializer.serialize(employees).length;
+        int jdk = new JdkSerializer().serialize(employees).length;
+        assertTrue(binary < jdk, binary + " >= " + jdk);
+    }
+
+    @Test
+    void shouldUseJavaSerializationForCustomSerialization() {
+        Custom custom = new Custom();
+        custom.value = "value";
+        List<?> copies = (List<?>) serializer.deserialize(serializer.serialize(new ArrayList<>(Arrays.asList(custom, custom))));
+        Custom copy = (Custom) copies.get(0);
+        assertSame(copy, copies.get(1));
+        assertEquals("value", copy.value);
+        assertTrue(copy.deserialized);
+    }
+
+    @Test
+    void shouldFailOnNonSerializableObjects() {
+        assertThrows(CacheException.class, () -> serializer.serialize(Collections.singletonList(new Object())));
+    }
+
+    @Test
+    void shouldCompressLargeValues() {
+        Serializer compressing = new CompressingSerializer(serializer, 128);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append("repeated ");
+        }
+        byte[] large = compressing.serialize(text.toString());
+        assertTrue(large.length < 1000);
+        assertEquals(text.toString(), compressing.deserialize(large));
+        byte[] small = compressing.serialize("small");
+        assertEquals(serializer.serialize("small").length + 1, small.length);
+        assertEquals("small", compressing.deserialize(small));
+    }
+
+    enum Level {
+        LOW, HIGH {
+            @Override
+            public String toString() {
+                return "high";
+            }
+        }
+    }
+
+    public static class Department implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private String name;
+        private List<Employee> employees;
+        private Map<String, Object> tags = new HashMap<>();
+        private transient String transientValue;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class Employee implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private String name;
+        private Department department;
+        private Employee manager;
+
+        public Employee() {
+        }
+
+        Employee(String name, Department department) {
+            this.name = name;
+            this.department = department;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Department getDepartment() {
+            return department;
+        }
+
+        public void setDepartment(Department department) {
+            this.department = department;
+        }
+
+        public Employee getManager() {
+            return manager;
+        }
+
+        public void setManager(Employee manager) {
+            this.manager = manager;
+        }
+    }
+
+    public static class Custom implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private String value;
+        private transient boolean deserialized;
+
+        private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            deserialized = true;
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockingCacheTest {
+
+    @Test
+    void shouldLetOneThreadLoadAMissingKey() throws Exception {
+        BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    Object value = cache.getObject("key");
+                    if (value == null) {
+                        loads.incrementAndGet();
+                        Thread.sleep(100);
+                        value = "value";
+                        cache.putObject("key", value);
+                    }
+                    return value;
+                }));
+            }
+            for (Future<Object> result : results) {
+                assertEquals("value", result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertTrue(loads(cache).isEmpty());
+    }
+
+    @Test
+    void shouldLetAWaitingThreadLoadWhenTheLoadIsAbandoned() throws Exception {
+        BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+        assertNull(cache.getObject("key"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> waiter = executor.submit(() -> cache.getObject("key"));
+            Thread.sleep(50);
+            assertFalse(waiter.isDone());
+            cache.removeObject("key");
+            assertNull(waiter.get(10, TimeUnit.SECONDS));
+            assertEquals(1, loads(cache).size());
+            executor.submit(() -> cache.putObject("key", "value")).get();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("value", cache.getObject("key"));
+        assertTrue(loads(cache).isEmpty());
+    }
+
+    @Test
+    void shouldNotBlockTheLoadingThread() {
+        BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+        assertNull(cache.getObject("key"));
+        assertNull(cache.getObject("key"));
+        cache.putObject("key", "value");
+        assertEquals("value", cache.getObject("key"));
+        assertTrue(loads(cache).isEmpty());
+    }
+
+    @Test
+    void shouldTimeOut() throws Exception {
+        BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+        cache.setTimeout(50);
+        assertNull(cache.getObject("key"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> waiter = executor.submit(() -> cache.getObject("key"));
+            Exception e = assertThrows(Exception.class, () -> waiter.get(10, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof CacheException);
+            assertTrue(e.getCause().getMessage().startsWith("Couldn't get a lock in 50 for the key key"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<?, ?> loads(BlockingCache cache) {
+        try {
+            Field field = BlockingCache.class.getDeclaredField("loads");
+            field.setAccessible(true);
+            return (Map<?, ?>) field.get(cache);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,209 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import org.apache.ibatis.cache.coherence.CacheInvalidation;
+import org.apache.ibatis.cache.coherence.CacheInvalidationBus;
+import org.apache.ibatis.cache.coherence.FileInvalidationTransport;
+import org.apache.ibatis.cache.coherence.LocalInvalidationTransport;
+import org.apache.ibatis.cache.decorators.DependencyTrackingCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheInvalidationBusTest {
+
+    @Test
+    void shouldApplyInvalidationsOfOtherInstances() {
+        Configuration configuration = new Configuration();
+        DependencyTrackingCache tracking = new DependencyTrackingCache(new PerpetualCache("tracking"));
+        tracking.putObject("authors", "a", tables("author"));
+        tracking.putObject("posts", "p", tables("post"));
+        Cache plain = new PerpetualCache("plain");
+        plain.putObject("key", "value");
+        configuration.addCache(tracking);
+        configuration.addCache(plain);
+        LocalInvalidationTransport transport = new LocalInvalidationTransport();
+        transport.setChannel("shouldApplyInvalidationsOfOtherInstances");
+        CacheInvalidationBus bus = new CacheInvalidationBus(configuration, transport);
+        try {
+            bus.publish("tracking", tables("post"));
+            assertEquals(2, tracking.getSize());
+
+            bus.receive(new CacheInvalidation("other", "tracking", tables("author")));
+            assertNull(tracking.getObject("authors"));
+            assertEquals("p", tracking.getObject("posts"));
+
+            bus.receive(new CacheInvalidation("other", "plain", tables("author")));
+            assertEquals(0, plain.getSize());
+
+            bus.receive(new CacheInvalidation("other", "unknown", null));
+            plain.putObject("key", "value");
+            bus.receive(CacheInvalidation.clearAll("other"));
+            assertEquals(0, tracking.getSize());
+            assertEquals(0, plain.getSize());
+        } finally {
+            bus.close();
+        }
+    }
+
+    @Test
+    void shouldClearAllCachesOfOtherInstancesAfterFailedPublish() {
+        List<CacheInvalidation> received = new ArrayList<>();
+        FailingTransport transport = new FailingTransport();
+        CacheInvalidationBus bus = new CacheInvalidationBus(new Configuration(), transport);
+        LocalInvalidationTransport peer = localTransport("shouldClearAllCachesOfOtherInstancesAfterFailedPublish", received);
+        try {
+            transport.failing = true;
+            bus.publish("cache1", tables("author"));
+            bus.publish("cache2", null);
+            assertTrue(received.isEmpty());
+
+            transport.failing = false;
+            bus.publish("cache3", tables("post"));
+            bus.publish("cache4", tables("post"));
+            assertEquals(3, received.size());
+            assertNull(received.get(0).getCacheId());
+            assertTrue(received.get(0).isClear());
+            assertEquals(bus.getNodeId(), received.get(0).getOrigin());
+            assertEquals("cache3", received.get(1).getCacheId());
+            assertEquals("cache4", received.get(2).getCacheId());
+        } finally {
+            bus.close();
+            peer.close();
+        }
+    }
+
+    @Test
+    void shouldDeliverToTransportsOfSameChannel() {
+        List<CacheInvalidation> received1 = new ArrayList<>();
+        List<CacheInvalidation> received2 = new ArrayList<>();
+        List<CacheInvalidation> received3 = new ArrayList<>();
+        LocalInvalidationTransport transport1 = localTransport("channel", received1);
+        LocalInvalidationTransport transport2 = localTransport("channel", received2);
+        LocalInvalidationTransport transport3 = localTransport("other", received3);
+        CacheInvalidation invalidation = new CacheInvalidation("node1", "cache", null);
+
+        transport1.publish(invalidation);
+        transport2.close();
+        transport1.publish(invalidation);
+        transport1.close();
+        transport3.close();
+
+        assertEquals(Arrays.asList(invalidation, invalidation), received1);
+        assertEquals(Collections.singletonList(invalidation), received2);
+        assertTrue(received3.isEmpty());
+    }
+
+    @Test
+    void shouldDeliverThroughRotatedLogs(@TempDir Path directory) throws Exception {
+        List<CacheInvalidation> received = Collections.synchronizedList(new ArrayList<>());
+        FileInvalidationTransport publisher = fileTransport(directory, 50);
+        FileInvalidationTransport subscriber = fileTransport(directory, 50);
+        publisher.start(invalidation -> { });
+        subscriber.start(received::add);
+        try {
+            List<CacheInvalidation> published = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                CacheInvalidation invalidation = new CacheInvalidation("node1", "cache" + i,
+                    i % 2 == 0 ? null : tables("author", "post"));
+                publisher.publish(invalidation);
+                published.add(invalidation);
+                // lets the subscriber read each generation before the next rotation deletes it
+                awaitSize(received, i + 1);
+            }
+            assertEquals(published, received);
+        } finally {
+            publisher.close();
+            subscriber.close();
+        }
+    }
+
+    @Test
+    void shouldClearAllCachesWhenLogWasRotatedBeforeBeingRead(@TempDir Path directory) throws Exception {
+        List<CacheInvalidation> received = Collections.synchronizedList(new ArrayList<>());
+        FileInvalidationTransport publisher = fileTransport(directory, 1);
+        FileInvalidationTransport subscriber = fileTransport(directory, 1);
+        subscriber.setPollInterval(500);
+        publisher.start(invalidation -> { });
+        subscriber.start(received::add);
+        try {
+            for (int i = 0; i < 5; i++) {
+                publisher.publish(new CacheInvalidation("node1", "cache" + i, null));
+            }
+            awaitSize(received, 1);
+            assertNull(received.get(0).getCacheId());
+            assertTrue(received.get(0).isClear());
+        } finally {
+            publisher.close();
+            subscriber.close();
+        }
+    }
+
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (list.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(list.size() >= size, "received " + list.size() + " invalidations, expected " + size);
+    }
+
+    private static FileInvalidationTransport fileTransport(Path directory, long maxLogSize) {
+        FileInvalidationTransport transport = new FileInvalidationTransport();
+        transport.setDirectory(directory);
+        transport.setPollInterval(5);
+        transport.setMaxLogSize(maxLogSize);
+        return transport;
+    }
+
+    private static LocalInvalidationTransport localTransport(String channel, List<CacheInvalidation> received) {
+        LocalInvalidationTransport transport = new LocalInvalidationTransport();
+        transport.setChannel(channel);
+        transport.start(received::add);
+        return transport;
+    }
+
+    private static Set<String> tables(String... tables) {
+        return new HashSet<>(Arrays.asList(tables));
+    }
+
+    private static class FailingTransport extends LocalInvalidationTransport {
+        private volatile boolean failing;
+
+        FailingTransport() {
+            setChannel("shouldClearAllCachesOfOtherInstancesAfterFailedPublish");
+        }
+
+        @Override
+        public void publish(CacheInvalidation invalidation) {
+            if (failing) {
+                throw new CacheException("The shared directory is not available.");
+            }
+            super.publish(invalidation);
+        }
+    }
+}
@@ -36,6 +36,25 @@ class CacheKeyTest {
         assertEquals(key1.toString(), key2.toString());
     }
 
+    @Test
+    void shouldTestCacheKeysNotEqualWhenValuesHaveSameHashCode() {
+        CacheKey key1 = new CacheKey(new Object[]{"Aa", 1});
+        CacheKey key2 = new CacheKey(new Object[]{"BB", 1});
+        assertEquals(key1.hashCode(), key2.hashCode());
+        assertNotEquals(key1, key2);
+    }
+
+    @Test
+    void shouldTestUniqueCacheKeysOnlyEqualToThemselves() {
+        CacheKey key1 = CacheKey.unique();
+        CacheKey key2 = CacheKey.unique();
+        assertEquals(key1, key1);
+        assertNotEquals(key1, key2);
+        assertNotEquals(key1, new CacheKey());
+        assertNotEquals(new CacheKey(), key1);
+        assertThrows(CacheException.class, () -> key1.update("value"));
+    }
+
     @Test
     void shouldTestCacheKeysNotEqualDueToDateDifference() throws Exception {
         CacheKey key1 = new CacheKey(new Object[]{1, "hello", null, new Date()});
@@ -99,6 +118,21 @@ class CacheKeyTest {
         Assertions.assertEquals(cacheKey, serialize(cacheKey));
     }
 
+    @Test
+    void shouldRebuildHashOfDeserializedKeys() throws Exception {
+        CacheKey cacheKey = new CacheKey();
+        cacheKey.updateAll(new Object[]{"select * from users", null, 1, new byte[]{1, 2}});
+        CacheKey deserialized = serialize(cacheKey);
+        CacheKey rebuilt = new CacheKey();
+        rebuilt.updateAll(new Object[]{"select * from users", null, 1, new byte[]{1, 2}});
+        Assertions.assertEquals(cacheKey, deserialized);
+        Assertions.assertEquals(deserialized, rebuilt);
+        Assertions.assertEquals(rebuilt.hashCode(), deserialized.hashCode());
+        deserialized.update("more");
+        rebuilt.update("more");
+        Assertions.assertEquals(rebuilt, deserialized);
+    }
+
     private static <T> T serialize(T object) throws Exception {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         new ObjectOutputStream(baos).writeObject(object);
@@ -0,0 +1,176 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import org.apache.ibatis.cache.decorators.DependencyTrackingCache;
+import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DependencyTrackingCacheTest {
+
+    @Test
+    void shouldInvalidateEntriesDependingOnWrittenTables() {
+        DependencyTrackingCache cache = new DependencyTrackingCache(new PerpetualCache("default"));
+        cache.putObject("authors", "a", tables("author"));
+        cache.putObject("posts", "p", tables("post"));
+        cache.putObject("blogs", "b", tables("blog", "author"));
+        cache.putObject("unknown", "u");
+
+        cache.invalidate(tables("author"));
+
+        assertNull(cache.getObject("authors"));
+        assertNull(cache.getObject("blogs"));
+        assertNull(cache.getObject("unknown"));
+        assertEquals("p", cache.getObject("posts"));
+        assertEquals(1, cache.getDependencyIndex().size());
+
+        cache.invalidate(null);
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void shouldApplyInvalidationsOnCommitOnly() {
+        DependencyTrackingCache cache = new DependencyTrackingCache(new PerpetualCache("default"));
+        cache.putObject("authors", "a", tables("author"));
+        cache.putObject("posts", "p", tables("post"));
+        TransactionalCache tx = new TransactionalCache(cache);
+
+        tx.putObject("pendingAuthors", "pa", tables("author"));
+        tx.putObject("pendingPosts", "pp", tables("post"));
+        tx.invalidate(tables("author"));
+
+        assertNull(tx.getObject("authors"));
+        assertEquals("p", tx.getObject("posts"));
+        assertEquals("a", cache.getObject("authors"));
+
+        tx.commit();
+
+        assertNull(cache.getObject("authors"));
+        assertNull(cache.getObject("pendingAuthors"));
+        assertEquals("p", cache.getObject("posts"));
+        assertEquals("pp", cache.getObject("pendingPosts"));
+
+        tx.invalidate(tables("post"));
+        tx.rollback();
+        assertEquals("p", cache.getObject("posts"));
+    }
+
+    @Test
+    void shouldClearWhenCacheDoesNotTrackDependencies() {
+        PerpetualCache cache = new PerpetualCache("default");
+        cache.putObject("posts", "p");
+        TransactionalCache tx = new TransactionalCache(cache);
+
+        tx.invalidate(tables("author"));
+        tx.commit();
+
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void shouldForgetEvictedEntries() {
+        DependencyTrackingCache cache = (DependencyTrackingCache) new CacheBuilder("default").size(2)
+            .dependencyTracking(true).build();
+        for (int i = 0; i < 10; i++) {
+            cache.putObject(i, i, tables("author"));
+        }
+
+        assertEquals(2, cache.getDependencyIndex().size());
+        assertFalse(cache.getDependencyIndex().dependsOn(9, Collections.singleton("post")));
+        assertTrue(cache.getDependencyIndex().dependsOn(0, Collections.singleton("post")));
+    }
+
+    @Test
+    void shouldRemoveInvalidatedEntriesOfBlockingCaches() {
+        DependencyTrackingCache cache = (DependencyTrackingCache) new CacheBuilder("default").blocking(true)
+            .dependencyTracking(true).build();
+        cache.putObjects(Collections.singletonMap("posts", "p"), Collections.singletonMap("posts", tables("post")));
+
+        cache.invalidate(tables("post"));
+
+        assertNull(cache.getObject("posts"));
+        cache.putObject("posts", "p2");
+        assertEquals("p2", cache.getObject("posts"));
+    }
+
+    @Test
+    void shouldForgetEntriesOfScheduledClears() throws InterruptedException {
+        DependencyTrackingCache cache = (DependencyTrackingCache) new CacheBuilder("default").clearInterval(1L)
+            .dependencyTracking(true).build();
+        cache.putObject("posts", "p", tables("post"));
+        Thread.sleep(10);
+
+        assertNull(cache.getObject("posts"));
+        assertEquals(0, cache.getDependencyIndex().size());
+    }
+
+    @Test
+    void shouldForgetGarbageCollectedEntries() throws InterruptedException {
+        DependencyTrackingCache cache = (DependencyTrackingCache) new CacheBuilder("default").addDecorator(WeakCache.class)
+            .dependencyTracking(true).build();
+        cache.putObject("posts", new Object(), tables("post"));
+        for (int i = 0; i < 50 && cache.getDependencyIndex().size() > 0; i++) {
+            System.gc();
+            Thread.sleep(10);
+            cache.getSize();
+        }
+
+        assertEquals(0, cache.getDependencyIndex().size());
+    }
+
+    @Test
+    void shouldForgetEntriesEvictedByOffHeapCache() {
+        Properties props = new Properties();
+        props.setProperty("capacity", "65536");
+        props.setProperty("pageSize", "4096");
+        DependencyTrackingCache cache = (DependencyTrackingCache) new CacheBuilder("default").implementation(OffHeapCache.class)
+            .properties(props).dependencyTracking(true).build();
+        for (int i = 0; i < 10000; i++) {
+            cache.putObject(i, i, tables("post"));
+        }
+
+        assertEquals(cache.getSize(), cache.getDependencyIndex().size());
+    }
+
+    @Test
+    void shouldRejectCachesThatCannotReportEvictions() {
+        CacheBuilder builder = new CacheBuilder("default").implementation(CustomCache.class).dependencyTracking(true);
+        assertThrows(CacheException.class, builder::build);
+    }
+
+    public static class CustomCache extends PerpetualCache {
+        public CustomCache(String id) {
+            super(id);
+        }
+    }
+
+    private static Set<String> tables(String... tables) {
+        return new HashSet<>(Arrays.asList(tables));
+    }
+
+}
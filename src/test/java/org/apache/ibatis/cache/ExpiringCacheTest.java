@@ -0,0 +1,124 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import org.apache.ibatis.cache.decorators.ExpiringCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.TinyLfuCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringCacheTest {
+
+    @Test
+    void shouldExpireEachEntryAfterItsOwnTimeToLive() throws Exception {
+        ExpiringCache cache = new ExpiringCache(new PerpetualCache("DefaultCache"));
+        cache.setTimeToLive(400);
+        cache.putObject("old", "old");
+        Thread.sleep(250);
+        cache.putObject("new", "new");
+        Thread.sleep(250);
+        assertNull(cache.getObject("old"));
+        assertEquals("new", cache.getObject("new"));
+        Thread.sleep(250);
+        assertNull(cache.getObject("new"));
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void shouldRemoveExpiredEntriesInBackground() throws Exception {
+        PerpetualCache delegate = new PerpetualCache("DefaultCache");
+        ExpiringCache cache = new ExpiringCache(delegate);
+        cache.setTimeToLive(100);
+        for (int i = 0; i < 100; i++) {
+            cache.putObject(i, i);
+        }
+        assertEquals(100, delegate.getSize());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (delegate.getSize() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, delegate.getSize());
+    }
+
+    @Test
+    void shouldLetOneReaderRefreshWhileOthersGetCurrentValue() throws Exception {
+        ExpiringCache cache = new ExpiringCache(new PerpetualCache("DefaultCache"));
+        cache.setRefreshAfterWrite(100);
+        cache.putObject("key", "v1");
+        assertEquals("v1", cache.getObject("key"));
+        Thread.sleep(150);
+        assertNull(cache.getObject("key"));
+        assertEquals("v1", cache.getObject("key"));
+        assertEquals("v1", cache.getObject("key"));
+        cache.putObject("key", "v2");
+        assertEquals("v2", cache.getObject("key"));
+    }
+
+    @Test
+    void shouldRemoveItemOnDemand() {
+        ExpiringCache cache = new ExpiringCache(new PerpetualCache("DefaultCache"));
+        cache.setTimeToLive(60000);
+        cache.putObject(0, 0);
+        assertNotNull(cache.getObject(0));
+        cache.removeObject(0);
+        assertNull(cache.getObject(0));
+        cache.putObject(1, 1);
+        cache.clear();
+        assertNull(cache.getObject(1));
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void shouldForgetEntriesEvictedByDelegate() throws Exception {
+        LruCache lru = new LruCache(new PerpetualCache("DefaultCache"));
+        lru.setSize(10);
+        ExpiringCache cache = new ExpiringCache(lru);
+        cache.setRefreshAfterWrite(60000);
+        lru.setEvictionListener(cache::onDelegateEviction);
+        for (int i = 0; i < 100000; i++) {
+            cache.putObject(i, i);
+        }
+        assertEquals(10, cache.getSize());
+        Field timestamps = ExpiringCache.class.getDeclaredField("timestamps");
+        timestamps.setAccessible(true);
+        assertEquals(10, ((Map<?, ?>) timestamps.get(cache)).size());
+    }
+
+    @Test
+    void shouldNotSerializeReadsOfConcurrentCaches() throws Exception {
+        ExpiringCache cache = new ExpiringCache(new TinyLfuCache(new PerpetualCache("DefaultCache")));
+        cache.setTimeToLive(60000);
+        cache.putObject("key", "value");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            synchronized (cache) {
+                assertEquals("value", executor.submit(() -> cache.getObject("key")).get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import org.apache.ibatis.cache.decorators.FifoCache;
+import org.apache.ibatis.cache.decorators.MetricsCache;
+import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.metrics.CacheMetricsRegistry;
+import org.apache.ibatis.cache.metrics.DefaultCacheMetrics;
+import org.apache.ibatis.cache.metrics.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsCacheTest {
+
+    @Test
+    void shouldCountReadsWritesAndRemovals() {
+        DefaultCacheMetrics metrics = new DefaultCacheMetrics("default");
+        MetricsCache cache = new MetricsCache(new PerpetualCache("default"), metrics);
+
+        cache.putObject("a", "1");
+        assertEquals("1", cache.getObject("a"));
+        assertNull(cache.getObject("b"));
+        assertNull(cache.getObject("c"));
+        cache.removeObject("a");
+        cache.clear();
+
+        assertEquals(1, metrics.getHitCount());
+        assertEquals(2, metrics.getMissCount());
+        assertEquals(3, metrics.getRequestCount());
+        assertEquals(1.0 / 3, metrics.getHitRatio(), 0.0001);
+        assertEquals(1, metrics.getPutCount());
+        assertEquals(1, metrics.getRemovalCount());
+        assertEquals(1, metrics.getClearCount());
+        assertEquals(3, metrics.getReadLatency().getCount());
+        assertEquals(1, metrics.getWriteLatency().getCount());
+    }
+
+    @Test
+    void shouldCountEvictions() {
+        DefaultCacheMetrics metrics = new DefaultCacheMetrics("default");
+        FifoCache fifo = new FifoCache(new PerpetualCache("default"));
+        fifo.setSize(2);
+        fifo.setEvictionListener(key -> metrics.recordEviction());
+        MetricsCache cache = new MetricsCache(fifo, metrics);
+
+        for (int i = 0; i < 5; i++) {
+            cache.putObject(i, i);
+        }
+        cache.removeObject(4);
+
+        assertEquals(3, metrics.getEvictionCount());
+        assertEquals(1, metrics.getRemovalCount());
+    }
+
+    @Test
+    void shouldReportCommitsAndRollbacksOfTransactionalCache() {
+        DefaultCacheMetrics metrics = new DefaultCacheMetrics("default");
+        TransactionalCache tx = new TransactionalCache(new MetricsCache(new PerpetualCache("default"), metrics));
+
+        tx.putObject("a", "1");
+        tx.putObject("b", "2");
+        tx.commit();
+        tx.putObject("c", "3");
+        tx.rollback();
+
+        assertEquals(1, metrics.getCommitCount());
+        assertEquals(2, metrics.getCommittedEntryCount());
+        assertEquals(2, metrics.getPutCount());
+        assertEquals(1, metrics.getRollbackCount());
+        assertEquals(1, metrics.getDiscardedEntryCount());
+    }
+
+    @Test
+    void shouldCountConcurrentReads() throws Exception {
+        DefaultCacheMetrics metrics = new DefaultCacheMetrics("default");
+        MetricsCache cache = new MetricsCache(new PerpetualCache("default"), metrics);
+        cache.putObject("key", "value");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> {
+                    for (int j = 0; j < 10000; j++) {
+                        cache.getObject(j % 2 == 0 ? "key" : "other");
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(20000, metrics.getHitCount());
+        assertEquals(20000, metrics.getMissCount());
+        assertEquals(40000, metrics.getReadLatency().getCount());
+    }
+
+    @Test
+    void shouldReportPercentilesAsBucketUpperBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileNanos(99));
+
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);
+        }
+        histogram.record(5000);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(14900, histogram.getTotalNanos());
+        assertEquals(149, histogram.getMeanNanos(), 0.0001);
+        assertEquals(127, histogram.getPercentileNanos(50));
+        assertEquals(127, histogram.getPercentileNanos(99));
+        assertEquals(8191, histogram.getPercentileNanos(100));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentileNanos(101));
+    }
+
+    @Test
+    void shouldRegisterOneMetricsPerCache() {
+        CacheMetricsRegistry registry = new CacheMetricsRegistry();
+        registry.setFactory(id -> new DefaultCacheMetrics(id.toUpperCase()));
+
+        assertSame(registry.register("a"), registry.register("a"));
+        assertEquals("A", ((DefaultCacheMetrics) registry.getMetrics("a")).getId());
+        assertNull(registry.getMetrics("b"));
+        assertThrows(UnsupportedOperationException.class, () -> registry.getMetrics().clear());
+    }
+
+}
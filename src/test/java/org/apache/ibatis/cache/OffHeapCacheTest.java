@@ -0,0 +1,172 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.serializer.JdkSerializer;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapCacheTest {
+
+    @Test
+    void shouldReturnCopiesOfCachedObjects() {
+        OffHeapCache cache = new OffHeapCache("default");
+        List<String> value = new ArrayList<>(Arrays.asList("a", "b"));
+        cache.putObject("key", value);
+        cache.putObject("null", null);
+        Object cached = cache.getObject("key");
+        assertEquals(value, cached);
+        assertNotSame(value, cached);
+        assertNull(cache.getObject("null"));
+        assertNull(cache.getObject("missing"));
+        assertEquals(2, cache.getSize());
+        cache.removeObject("key");
+        assertNull(cache.getObject("key"));
+        cache.clear();
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntryOfTheSameSize() {
+        OffHeapCache cache = newCache(4096, 1024);
+        for (int i = 0; i < 4; i++) {
+            cache.putObject(i, new byte[600]);
+        }
+        cache.getObject(0);
+        cache.putObject(4, new byte[600]);
+        assertEquals(4, cache.getSize());
+        assertNotNull(cache.getObject(0));
+        assertNull(cache.getObject(1));
+        assertNotNull(cache.getObject(4));
+    }
+
+    @Test
+    void shouldTakePagesFromOtherSizes() {
+        OffHeapCache cache = newCache(4096, 1024);
+        for (int i = 0; i < 4; i++) {
+            cache.putObject(i, new byte[600]);
+        }
+        cache.putObject("small", "value");
+        assertEquals("value", cache.getObject("small"));
+        assertNull(cache.getObject(0));
+        assertNotNull(cache.getObject(3));
+    }
+
+    @Test
+    void shouldNotCacheEntriesLargerThanAPage() {
+        OffHeapCache cache = newCache(4096, 1024);
+        cache.putObject("key", new byte[10]);
+        cache.putObject("key", new byte[2000]);
+        assertNull(cache.getObject("key"));
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void shouldKeepEntriesAcrossRestartsWhenMappedToAFile(@TempDir Path dir) {
+        String file = dir.resolve("cache.bin").toString();
+        OffHeapCache cache = newCache(64 * 1024, 4096);
+        cache.setFile(file);
+        cache.initialize();
+        CacheKey key = new CacheKey(new Object[] {"select * from users where id = ?", 1});
+        cache.putObject(key, "user 1");
+        cache.putObject("removed", "value");
+        cache.removeObject("removed");
+
+        OffHeapCache restarted = newCache(64 * 1024, 4096);
+        restarted.setFile(file);
+        restarted.initialize();
+        assertEquals(1, restarted.getSize());
+        assertEquals("user 1", restarted.getObject(new CacheKey(new Object[] {"select * from users where id = ?", 1})));
+        restarted.clear();
+
+        OffHeapCache cleared = newCache(64 * 1024, 4096);
+        cleared.setFile(file);
+        cleared.initialize();
+        assertEquals(0, cleared.getSize());
+    }
+
+    @Test
+    void shouldRejectInvalidPageSize() {
+        OffHeapCache cache = newCache(4096, 1000);
+        assertThrows(CacheException.class, cache::initialize);
+    }
+
+    @Test
+    void shouldBeConfiguredByCacheBuilder() {
+        Properties props = new Properties();
+        props.setProperty("capacity", "1048576");
+        props.setProperty("pageSize", "65536");
+        Cache cache = new CacheBuilder("default").implementation(OffHeapCache.class).properties(props).build();
+        cache.putObject("key", "value");
+        assertEquals("value", cache.getObject("key"));
+    }
+
+    @Test
+    void shouldUseSerializerOfCacheBuilder() {
+        CountingSerializer.count.set(0);
+        Cache cache = new CacheBuilder("default").implementation(OffHeapCache.class).serializer(CountingSerializer.class)
+            .compressionThreshold(16).properties(new Properties()).build();
+        String value = String.join("", Collections.nCopies(100, "value"));
+        cache.putObject("key", value);
+        assertEquals(value, cache.getObject("key"));
+        assertTrue(CountingSerializer.count.get() > 0);
+    }
+
+    @Test
+    void shouldRejectSerializerOfCachesWithoutSerializerProperty() {
+        CacheBuilder builder = new CacheBuilder("default").implementation(CustomCache.class).serializer(JdkSerializer.class);
+        assertTrue(builder.build() instanceof LoggingCache);
+        assertThrows(CacheException.class, builder.compressionThreshold(16)::build);
+    }
+
+    public static class CountingSerializer extends JdkSerializer {
+        static final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public byte[] serialize(Object value) {
+            count.incrementAndGet();
+            return super.serialize(value);
+        }
+    }
+
+    public static class CustomCache extends PerpetualCache {
+        public CustomCache(String id) {
+            super(id);
+        }
+    }
+
+    private OffHeapCache newCache(long capacity, int pageSize) {
+        OffHeapCache cache = new OffHeapCache("default");
+        cache.setCapacity(capacity);
+        cache.setPageSize(pageSize);
+        return cache;
+    }
+
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlTablesTest {
+
+    @Test
+    void shouldFindTablesOfQueries() {
+        assertEquals(tables("author"), SqlTables.parse("select * from Author where id = ?"));
+        assertEquals(tables("author", "blog", "post"), SqlTables.parse(
+            "SELECT * FROM blog.Author a, Blog AS b LEFT OUTER JOIN \"Post\" p ON p.blog_id = b.id WHERE a.id = b.author_id"));
+        assertEquals(tables("author", "post"), SqlTables.parse(
+            "select * from (select author_id from post) p join author on author.id = p.author_id"));
+    }
+
+    @Test
+    void shouldFindTablesOfWrites() {
+        assertEquals(tables("author"), SqlTables.parse("insert into author (id, name) values (?, ?)"));
+        assertEquals(tables("author"), SqlTables.parse("UPDATE `author` SET name = ? WHERE id = ?"));
+        assertEquals(tables("author"), SqlTables.parse("delete from [dbo].[author] where id = ?"));
+        assertEquals(tables("author", "post"), SqlTables.parse("insert into author select * from post"));
+        assertEquals(tables("author"), SqlTables.parse("truncate table author"));
+        assertEquals(tables("a", "b"), SqlTables.parse("UPDATE a, b SET a.x=1, b.y=2 WHERE a.id=b.id"));
+        assertEquals(tables("author", "post"), SqlTables.parse("update low_priority author a, post as p set a.x = p.y"));
+        assertEquals(tables("a", "b", "author", "post"), SqlTables.parse("delete a, b from author a join post b on a.id = b.author_id"));
+    }
+
+    @Test
+    void shouldIgnoreLiteralsAndComments() {
+        assertEquals(tables("author"), SqlTables.parse(
+            "select 'from post' -- join blog\n from author /* join comment */ where name = 'it''s from tag'"));
+    }
+
+    @Test
+    void shouldReturnNullWhenNoTableIsFound() {
+        assertNull(SqlTables.parse("call refresh_authors(?)"));
+        assertNull(SqlTables.parse("select 1"));
+    }
+
+    @Test
+    void shouldNormalizeDeclaredTables() {
+        assertEquals(tables("author", "post"), SqlTables.parseDeclared(" Author, blog.POST ,"));
+        assertNull(SqlTables.parseDeclared(" "));
+        assertNull(SqlTables.parseDeclared(null));
+    }
+
+    private static Set<String> tables(String... tables) {
+        return new HashSet<>(Arrays.asList(tables));
+    }
+
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import org.apache.ibatis.cache.decorators.TinyLfuCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TinyLfuCacheTest {
+
+    @Test
+    void shouldKeepFrequentlyUsedItemsWhenScanningNewItems() {
+        TinyLfuCache cache = new TinyLfuCache(new PerpetualCache("default"));
+        cache.setSize(10);
+        for (int i = 0; i < 10; i++) {
+            cache.putObject(i, i);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 5; i++) {
+                assertEquals(i, cache.getObject(i));
+            }
+        }
+        for (int i = 100; i < 200; i++) {
+            cache.putObject(i, i);
+        }
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, cache.getObject(i));
+        }
+        assertEquals(10, cache.getSize());
+    }
+
+    @Test
+    void shouldNotExceedSize() {
+        TinyLfuCache cache = new TinyLfuCache(new PerpetualCache("default"));
+        cache.setSize(100);
+        for (int i = 0; i < 1000; i++) {
+            cache.putObject(i, i);
+        }
+        assertEquals(100, cache.getSize());
+        cache.setSize(10);
+        assertEquals(10, cache.getSize());
+    }
+
+    @Test
+    void shouldReplaceExistingItem() {
+        Cache cache = new TinyLfuCache(new PerpetualCache("default"));
+        cache.putObject(0, "a");
+        cache.putObject(0, "b");
+        assertEquals("b", cache.getObject(0));
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    void shouldRemoveItemOnDemand() {
+        Cache cache = new TinyLfuCache(new PerpetualCache("default"));
+        cache.putObject(0, 0);
+        assertNotNull(cache.getObject(0));
+        assertEquals(0, cache.removeObject(0));
+        assertNull(cache.getObject(0));
+        cache.putObject(0, 1);
+        assertEquals(1, cache.getObject(0));
+    }
+
+    @Test
+    void shouldFlushAllItemsOnDemand() {
+        Cache cache = new TinyLfuCache(new PerpetualCache("default"));
+        for (int i = 0; i < 5; i++) {
+            cache.putObject(i, i);
+        }
+        assertNotNull(cache.getObject(0));
+        assertNotNull(cache.getObject(4));
+        cache.clear();
+        assertNull(cache.getObject(0));
+        assertNull(cache.getObject(4));
+        assertEquals(0, cache.getSize());
+        cache.putObject(0, 0);
+        assertEquals(0, cache.getObject(0));
+    }
+
+    @Test
+    void shouldStayBoundedUnderConcurrentAccess() throws Exception {
+        TinyLfuCache cache = new TinyLfuCache(new PerpetualCache("default"));
+        cache.setSize(50);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 20000; i++) {
+                        int key = random.nextInt(200);
+                        Object value = cache.getObject(key);
+                        if (value == null) {
+                            cache.putObject(key, key);
+                        } else {
+                            assertEquals(key, value);
+                        }
+                        if (i % 1000 == 0) {
+                            cache.removeObject(random.nextInt(200));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(cache.getSize() <= 50);
+    }
+
+}
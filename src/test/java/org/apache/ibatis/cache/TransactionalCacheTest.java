@@ -0,0 +1,167 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.DependencyTrackingCache;
+import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionalCacheTest {
+
+    @Test
+    void shouldPutPendingAndMissedEntriesInOneCall() {
+        CountingCache counting = new CountingCache();
+        TransactionalCache tx = new TransactionalCache(new SynchronizedCache(counting));
+
+        assertNull(tx.getObject("a"));
+        assertNull(tx.getObject("b"));
+        tx.putObject("a", "1");
+        tx.putObject("c", "3");
+        tx.commit();
+
+        assertEquals(1, counting.bulkPuts);
+        assertEquals(0, counting.singlePuts);
+        assertEquals("1", counting.getObject("a"));
+        assertNull(counting.getObject("b"));
+        assertEquals("3", counting.getObject("c"));
+        assertEquals(3, counting.getSize());
+    }
+
+    @Test
+    void shouldReuseBuffersAcrossTransactions() {
+        CountingCache counting = new CountingCache();
+        TransactionalCache tx = new TransactionalCache(counting);
+
+        tx.commit();
+        assertEquals(0, counting.bulkPuts);
+
+        tx.putObject("a", "1");
+        tx.rollback();
+        tx.commit();
+        assertEquals(0, counting.getSize());
+
+        tx.putObject("b", "2");
+        tx.clear();
+        tx.putObject("c", "3");
+        tx.commit();
+        assertEquals(1, counting.clears);
+        assertEquals(Collections.singletonMap("c", "3"), counting.entries);
+
+        for (int i = 0; i < 1000; i++) {
+            tx.putObject(i, i);
+        }
+        tx.commit();
+        tx.putObject("d", "4");
+        tx.commit();
+        assertEquals(1002, counting.getSize());
+        assertEquals(3, counting.bulkPuts);
+    }
+
+    @Test
+    void shouldRecordTablesOfPendingEntries() {
+        DependencyTrackingCache tracking = new DependencyTrackingCache(new PerpetualCache("default"));
+        TransactionalCache tx = new TransactionalCache(tracking);
+
+        tx.putObject("authors", "a", Collections.singleton("author"));
+        tx.putObject("unknown", "u");
+        tx.commit();
+        tracking.invalidate(Collections.singleton("post"));
+
+        assertEquals("a", tracking.getObject("authors"));
+        assertNull(tracking.getObject("unknown"));
+        assertEquals(1, tracking.getDependencyIndex().size());
+    }
+
+    @Test
+    void shouldReleaseLocksOfMissedEntriesOnCommit() throws Exception {
+        BlockingCache blocking = new BlockingCache(new PerpetualCache("default"));
+        blocking.setTimeout(1000);
+        TransactionalCache tx = new TransactionalCache(blocking);
+        assertNull(tx.getObject("a"));
+        assertNull(tx.getObject("b"));
+        tx.putObject("a", "1");
+        tx.commit();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> a = executor.submit(() -> blocking.getObject("a"));
+            assertEquals("1", a.get(1, TimeUnit.SECONDS));
+            Future<Object> b = executor.submit(() -> blocking.getObject("b"));
+            assertNull(b.get(1, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class CountingCache implements Cache {
+
+        private final Map<Object, Object> entries = new HashMap<>();
+        private int singlePuts;
+        private int bulkPuts;
+        private int clears;
+
+        @Override
+        public String getId() {
+            return "counting";
+        }
+
+        @Override
+        public void putObject(Object key, Object value) {
+            singlePuts++;
+            entries.put(key, value);
+        }
+
+        @Override
+        public void putObjects(Map<Object, Object> entries) {
+            bulkPuts++;
+            this.entries.putAll(entries);
+        }
+
+        @Override
+        public Object getObject(Object key) {
+            return entries.get(key);
+        }
+
+        @Override
+        public Object removeObject(Object key) {
+            return entries.remove(key);
+        }
+
+        @Override
+        public void clear() {
+            clears++;
+            entries.clear();
+        }
+
+        @Override
+        public int getSize() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.decorators.WeightedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightedCacheTest {
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntriesOverMaxWeight() {
+        WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+        cache.setMaxWeight(300);
+        cache.putObject("a", new byte[100]);
+        cache.putObject("b", new byte[100]);
+        cache.putObject("c", new byte[100]);
+        cache.getObject("a");
+        cache.putObject("d", new byte[150]);
+        assertNotNull(cache.getObject("a"));
+        assertNull(cache.getObject("b"));
+        assertNull(cache.getObject("c"));
+        assertNotNull(cache.getObject("d"));
+        assertEquals(250, cache.getWeight());
+        assertEquals(2, cache.getEvictionCount());
+        assertEquals(200, cache.getEvictedWeight());
+    }
+
+    @Test
+    void shouldNotCacheEntriesHeavierThanMaxWeight() {
+        WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+        cache.setMaxWeight(100);
+        cache.putObject("a", new byte[50]);
+        cache.putObject("b", new byte[101]);
+        assertNotNull(cache.getObject("a"));
+        assertNull(cache.getObject("b"));
+        assertEquals(1, cache.getRejectionCount());
+        assertEquals(50, cache.getWeight());
+    }
+
+    @Test
+    void shouldWeighRowsAndTrackRemovals() {
+        WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+        cache.setBytesPerRow(10);
+        cache.putObject("list", Arrays.asList(1, 2, 3));
+        cache.putObject("row", "value");
+        cache.putObject("empty", Collections.emptyList());
+        assertEquals(50, cache.getWeight());
+        cache.putObject("list", Collections.singletonList(1));
+        assertEquals(30, cache.getWeight());
+        cache.removeObject("row");
+        assertEquals(20, cache.getWeight());
+        cache.clear();
+        assertEquals(0, cache.getWeight());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void shouldUseConfiguredWeigher() {
+        WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+        cache.setWeigherType(StringLengthWeigher.class.getName());
+        cache.setMaxWeight(10);
+        cache.putObject(1, "12345");
+        cache.putObject(2, "123456");
+        assertNull(cache.getObject(1));
+        assertEquals("123456", cache.getObject(2));
+        assertEquals(6, cache.getWeight());
+    }
+
+    @Test
+    void shouldWeighSerializedValues() {
+        WeightedCache weighted = new WeightedCache(new PerpetualCache("default"));
+        Cache cache = new SerializedCache(weighted);
+        cache.putObject("a", new byte[1000]);
+        assertTrue(weighted.getWeight() > 1000);
+        assertTrue(weighted.getWeight() < 1100);
+    }
+
+    @Test
+    void shouldShareBudgetBetweenCaches() {
+        WeightBudget budget = new WeightBudget();
+        budget.setLimit(500);
+        WeightedCache first = new WeightedCache(new PerpetualCache("first"));
+        WeightedCache second = new WeightedCache(new PerpetualCache("second"));
+        first.setWeightBudget(budget);
+        second.setWeightBudget(budget);
+        first.putObject("a", new byte[100]);
+        first.putObject("b", new byte[100]);
+        first.putObject("c", new byte[100]);
+        second.putObject("a", new byte[150]);
+        second.putObject("b", new byte[150]);
+        assertEquals(500, budget.getWeight());
+        assertNull(first.getObject("a"));
+        assertNotNull(first.getObject("b"));
+        assertEquals(1, first.getEvictionCount());
+        assertEquals(300, second.getWeight());
+        assertEquals(Arrays.asList(first, second), budget.getCaches());
+
+        budget.setLimit(300);
+        assertEquals(250, budget.getWeight());
+        assertEquals(100, first.getWeight());
+        assertEquals(150, second.getWeight());
+
+        second.putObject("c", new byte[301]);
+        assertNull(second.getObject("c"));
+        assertEquals(1, second.getRejectionCount());
+
+        second.setWeightBudget(null);
+        assertEquals(first.getWeight(), budget.getWeight());
+        assertEquals(Collections.singletonList(first), budget.getCaches());
+    }
+
+    @Test
+    void shouldAttachBudgetAndPropertiesWhenBuilt() {
+        WeightBudget budget = new WeightBudget();
+        Properties props = new Properties();
+        props.setProperty("maxWeight", "2048");
+        props.setProperty("bytesPerRow", "64");
+        Cache cache = new CacheBuilder("default")
+            .addDecorator(WeightedCache.class)
+            .weightBudget(budget)
+            .properties(props)
+            .build();
+        cache.putObject("a", Arrays.asList(1, 2));
+        WeightedCache weighted = budget.getCaches().get(0);
+        assertEquals(2048, weighted.getMaxWeight());
+        assertEquals(weighted.getWeight(), budget.getWeight());
+        assertTrue(weighted.getWeight() > 0);
+    }
+
+    public static class StringLengthWeigher implements Weigher {
+        @Override
+        public long weigh(Object key, Object value) {
+            return ((String) value).length();
+        }
+    }
+
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import org.apache.ibatis.datasource.DataSourceFactory;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConcurrentPooledDataSourceTest {
+
+    private ConcurrentPooledDataSource ds;
+
+    @BeforeEach
+    void setUp() {
+        ds = new ConcurrentPooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:concurrent_pool", "sa", "");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ds.forceCloseAll();
+    }
+
+    @Test
+    void shouldProperlyMaintainPoolOf3ActiveAnd2IdleConnections() throws Exception {
+        ds.setPoolMaximumActiveConnections(3);
+        ds.setPoolMaximumIdleConnections(2);
+        List<Connection> connections = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            connections.add(ds.getConnection());
+        }
+        assertEquals(3, ds.getPoolState().getActiveConnectionCount());
+        for (Connection c : connections) {
+            c.close();
+        }
+        assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+        assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+        assertEquals(3, ds.getPoolState().getRequestCount());
+        assertEquals(0, ds.getPoolState().getBadConnectionCount());
+        assertEquals(0, ds.getPoolState().getHadToWaitCount());
+        assertEquals(0, ds.getPoolState().getClaimedOverdueConnectionCount());
+        assertNotNull(ds.getPoolState().toString());
+    }
+
+    @Test
+    void shouldHandBackTheConnectionLastReturnedByTheSameThread() throws Exception {
+        Connection first = ds.getConnection();
+        Connection second = ds.getConnection();
+        Connection realSecond = PooledDataSource.unwrapConnection(second);
+        first.close();
+        second.close();
+
+        Connection again = ds.getConnection();
+        assertSame(realSecond, PooledDataSource.unwrapConnection(again));
+        again.close();
+        assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+    }
+
+    @Test
+    void shouldNotAllowToUseAConnectionAfterItWasReturned() throws Exception {
+        Connection c = ds.getConnection();
+        c.close();
+        assertThrows(SQLException.class, c::getAutoCommit);
+        // closing it twice must not free a second slot
+        c.close();
+        assertEquals(1, ds.getPoolState().getBadConnectionCount());
+        assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+    }
+
+    @Test
+    void shouldNeverHandOutMoreThanTheMaximumActiveConnections() throws Exception {
+        ds.setPoolMaximumActiveConnections(4);
+        ds.setPoolMaximumIdleConnections(4);
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicInteger maxInUse = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 200; j++) {
+                        try (Connection c = ds.getConnection()) {
+                            maxInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+                            c.getAutoCommit();
+                            inUse.decrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(maxInUse.get()).isLessThanOrEqualTo(4);
+        assertEquals(3200, ds.getPoolState().getRequestCount());
+        assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+        assertThat(ds.getPoolState().getIdleConnectionCount()).isBetween(1, 4);
+        assertEquals(0, ds.getPoolState().getBadConnectionCount());
+    }
+
+    @Test
+    void shouldClaimOverdueConnection() throws Exception {
+        ds.setPoolMaximumActiveConnections(1);
+        ds.setPoolMaximumCheckoutTime(50);
+        ds.setPoolTimeToWait(20);
+        Connection leaked = ds.getConnection();
+        Connection real = PooledDataSource.unwrapConnection(leaked);
+        Thread.sleep(100);
+
+        Connection c = ds.getConnection();
+        assertSame(real, PooledDataSource.unwrapConnection(c));
+        assertEquals(1, ds.getPoolState().getClaimedOverdueConnectionCount());
+        assertThrows(SQLException.class, leaked::getAutoCommit);
+
+        // the leaked connection does not own the slot anymore
+        leaked.close();
+        assertEquals(1, ds.getPoolState().getActiveConnectionCount());
+        c.close();
+        assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+        ds.getConnection().close();
+    }
+
+    @Test
+    void shouldResizeThePool() throws Exception {
+        ds.setPoolMaximumActiveConnections(1);
+        ds.setPoolMaximumCheckoutTime(60000);
+        ds.setPoolMaximumActiveConnections(2);
+        Connection first = ds.getConnection();
+        Connection second = ds.getConnection();
+        assertEquals(2, ds.getPoolState().getActiveConnectionCount());
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void shouldBeConfiguredByAlias() throws Exception {
+        Configuration configuration = new Configuration();
+        DataSourceFactory factory = (DataSourceFactory) configuration.getTypeAliasRegistry()
+            .resolveAlias("CONCURRENT_POOLED").getDeclaredConstructor().newInstance();
+        Properties properties = new Properties();
+        properties.setProperty("driver", "org.hsqldb.jdbcDriver");
+        properties.setProperty("url", "jdbc:hsqldb:mem:concurrent_pool");
+        properties.setProperty("username", "sa");
+        properties.setProperty("poolMaximumActiveConnections", "20");
+        factory.setProperties(properties);
+        ConcurrentPooledDataSource dataSource = (ConcurrentPooledDataSource) factory.getDataSource();
+        assertEquals(20, dataSource.getPoolMaximumActiveConnections());
+        dataSource.getConnection().close();
+        dataSource.forceCloseAll();
+    }
+
+}
@@ -17,12 +17,15 @@ package org.apache.ibatis.executor;
 
 import javassist.util.proxy.Proxy;
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.metrics.CacheMetricsRegistry;
+import org.apache.ibatis.cache.metrics.DefaultCacheMetrics;
 import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.domain.blog.Blog;
 import org.apache.ibatis.domain.blog.Post;
 import org.apache.ibatis.domain.blog.Section;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.LocalCacheScope;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
@@ -38,7 +41,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class BaseExecutorTest extends BaseDataTest {
     protected final Configuration config;
-    private static DataSource ds;
+    protected static DataSource ds;
 
     @BeforeAll
     static void setup() throws Exception {
@@ -411,6 +414,57 @@ class BaseExecutorTest extends BaseDataTest {
         }
     }
 
+    @Test
+    void shouldSkipCacheKeyOnlyWhenNoCacheCanUseIt() throws Exception {
+        config.setCacheKeySkippingEnabled(true);
+        config.setLocalCacheScope(LocalCacheScope.STATEMENT);
+        Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+        try {
+            MappedStatement selectAuthor = ExecutorTestHelper.prepareSelectOneAuthorMappedStatement(config);
+            MappedStatement selectBlog = ExecutorTestHelper.prepareComplexSelectBlogMappedStatement(config);
+            MappedStatement selectPosts = ExecutorTestHelper.prepareSelectPostsForBlogMappedStatement(config);
+            config.addMappedStatement(selectBlog);
+            config.addMappedStatement(selectPosts);
+            assertFalse(BaseExecutor.isLocalCacheKeyRequired(selectAuthor));
+            assertTrue(BaseExecutor.isLocalCacheKeyRequired(selectBlog));
+            assertTrue(BaseExecutor.isLocalCacheKeyRequired(ExecutorTestHelper.prepareSelectDiscriminatedPost(config)));
+
+            List<Author> authors = executor.query(selectAuthor, 101, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+            assertEquals(1, authors.size());
+            assertEquals(101, authors.get(0).getId());
+            List<Blog> blogs = executor.query(selectBlog, 1, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+            assertEquals(1, blogs.get(0).getPosts().get(1).getBlog().getPosts().get(1).getBlog().getId());
+
+            config.setLocalCacheScope(LocalCacheScope.SESSION);
+            assertTrue(BaseExecutor.isLocalCacheKeyRequired(selectAuthor));
+        } finally {
+            executor.rollback(true);
+            executor.close(false);
+        }
+    }
+
+    @Test
+    void shouldReportLocalCacheMetrics() throws Exception {
+        config.setCacheMetricsEnabled(true);
+        Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+        try {
+            MappedStatement selectStatement = ExecutorTestHelper.prepareSelectOneAuthorMappedStatement(config);
+            executor.query(selectStatement, 101, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+            executor.query(selectStatement, 101, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+            executor.clearLocalCache();
+
+            DefaultCacheMetrics metrics = (DefaultCacheMetrics) config.getCacheMetricsRegistry()
+                .getMetrics(CacheMetricsRegistry.LOCAL_CACHE_ID);
+            assertEquals(1, metrics.getHitCount());
+            assertEquals(1, metrics.getMissCount());
+            assertEquals(1, metrics.getLoadLatency().getCount());
+            assertEquals(1, metrics.getClearCount());
+        } finally {
+            executor.rollback(true);
+            executor.close(false);
+        }
+    }
+
     @Test
     void shouldMapConstructorResults() throws Exception {
 
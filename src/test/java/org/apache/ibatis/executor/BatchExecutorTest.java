@@ -15,15 +15,86 @@
  */
 package org.apache.ibatis.executor;
 
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 class BatchExecutorTest extends BaseExecutorTest {
 
     @Test
     void dummy() {
     }
 
+    @Test
+    void shouldFlushWhenStatementReachesRowsLimit() throws Exception {
+        config.setBatchStatementRowsLimit(2);
+        List<List<BatchResult>> flushes = new ArrayList<>();
+        config.setBatchFlushListener(flushes::add);
+        Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+        try {
+            insertAuthors(executor, 5);
+            assertEquals(2, flushes.size());
+            for (List<BatchResult> results : flushes) {
+                assertEquals(1, results.size());
+                assertArrayEquals(new int[]{1, 1}, results.get(0).getUpdateCounts());
+            }
+            List<BatchResult> remaining = executor.flushStatements();
+            assertEquals(1, remaining.size());
+            assertEquals(1, remaining.get(0).getParameterObjects().size());
+        } finally {
+            executor.rollback(true);
+            executor.close(false);
+        }
+    }
+
+    @Test
+    void shouldFlushWhenPendingBytesReachLimit() throws Exception {
+        // a row of the author insert is estimated to a few hundred bytes
+        config.setBatchPendingBytesLimit(1);
+        List<List<BatchResult>> flushes = new ArrayList<>();
+        config.setBatchFlushListener(flushes::add);
+        Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+        try {
+            insertAuthors(executor, 3);
+            assertEquals(3, flushes.size());
+            assertTrue(executor.flushStatements().isEmpty());
+        } finally {
+            executor.rollback(true);
+            executor.close(false);
+        }
+    }
+
+    @Test
+    void shouldNotFlushBelowPendingRowsLimit() throws Exception {
+        config.setBatchPendingRowsLimit(10);
+        List<List<BatchResult>> flushes = new ArrayList<>();
+        config.setBatchFlushListener(flushes::add);
+        Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+        try {
+            insertAuthors(executor, 3);
+            assertTrue(flushes.isEmpty());
+            assertEquals(3, executor.flushStatements().get(0).getParameterObjects().size());
+        } finally {
+            executor.rollback(true);
+            executor.close(false);
+        }
+    }
+
+    private void insertAuthors(Executor executor, int count) throws Exception {
+        MappedStatement insertStatement = ExecutorTestHelper.prepareInsertAuthorMappedStatement(config);
+        for (int i = 0; i < count; i++) {
+            executor.update(insertStatement, new Author(200 + i, "someone" + i, "******", "someone@apache.org", null, Section.NEWS));
+        }
+    }
+
     @Override
     protected Executor createExecutor(Transaction transaction) {
         return new BatchExecutor(config, transaction);
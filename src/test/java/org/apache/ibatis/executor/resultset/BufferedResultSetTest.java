@@ -0,0 +1,106 @@
+/**
+ * Copyright 2009-2019 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BufferedResultSetTest {
+
+    @Test
+    void shouldReturnValuesOfTheRequestedType() throws Exception {
+        Double value = 1.5;
+        ResultSet rs = buffer(Types.DOUBLE, value);
+        assertSame(value, rs.getObject(1, Double.class));
+        assertEquals(1.5, rs.getDouble(1));
+        assertEquals(1, rs.getInt(1));
+        assertEquals(new BigDecimal("1.5"), rs.getBigDecimal(1));
+    }
+
+    @Test
+    void shouldKeepNaNAndInfinities() throws Exception {
+        ResultSet rs = buffer(Types.DOUBLE, Double.NaN);
+        assertTrue(Double.isNaN(rs.getDouble(1)));
+        assertTrue(Float.isNaN(rs.getFloat(1)));
+        rs = buffer(Types.FLOAT, Float.NEGATIVE_INFINITY);
+        assertEquals(Double.NEGATIVE_INFINITY, rs.getDouble(1));
+        assertEquals(Float.NEGATIVE_INFINITY, rs.getFloat(1));
+        rs = buffer(Types.VARCHAR, "Infinity");
+        assertEquals(Double.POSITIVE_INFINITY, rs.getDouble(1));
+        // BigDecimal cannot hold them, like with the drivers
+        assertThrows(SQLException.class, () -> buffer(Types.DOUBLE, Double.NaN).getBigDecimal(1));
+    }
+
+    @Test
+    void shouldWidenFloatLikeTheDriver() throws Exception {
+        float value = 0.1f;
+        ResultSet rs = buffer(Types.REAL, value);
+        assertEquals((double) value, rs.getDouble(1));
+        assertEquals(value, rs.getFloat(1));
+    }
+
+    @Test
+    void shouldHonourCalendar() throws Exception {
+        Timestamp timestamp = Timestamp.valueOf("2020-01-02 03:04:05.123456789");
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        Calendar plusTwo = Calendar.getInstance(TimeZone.getTimeZone("GMT+02:00"));
+
+        Timestamp inUtc = buffer(Types.TIMESTAMP, timestamp).getTimestamp(1, utc);
+        assertEquals(LocalDateTime.of(2020, 1, 2, 3, 4, 5, 123456789).toInstant(ZoneOffset.UTC), inUtc.toInstant());
+        Timestamp inPlusTwo = buffer(Types.TIMESTAMP, timestamp).getTimestamp(1, plusTwo);
+        assertEquals(2 * 60 * 60 * 1000L, inUtc.getTime() - inPlusTwo.getTime());
+
+        java.sql.Date date = buffer(Types.DATE, java.sql.Date.valueOf("2020-01-02")).getDate(1, utc);
+        assertEquals(LocalDateTime.of(2020, 1, 2, 0, 0).toInstant(ZoneOffset.UTC).toEpochMilli(), date.getTime());
+
+        Time time = buffer(Types.TIME, Time.valueOf("03:04:05")).getTime(1, utc);
+        assertEquals((3 * 3600 + 4 * 60 + 5) * 1000L, time.getTime());
+
+        assertEquals(null, buffer(Types.TIMESTAMP, null).getTimestamp(1, utc));
+    }
+
+    private static ResultSet buffer(int type, Object value) throws SQLException {
+        ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+        when(rsmd.getColumnCount()).thenReturn(1);
+        when(rsmd.getColumnType(1)).thenReturn(type);
+        when(rsmd.getColumnLabel(1)).thenReturn("VALUE");
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getMetaData()).thenReturn(rsmd);
+        when(rs.next()).thenReturn(true, false);
+        when(rs.getObject(1)).thenReturn(value);
+        ResultSet buffered = BufferedResultSet.buffer(rs);
+        buffered.next();
+        return buffered;
+    }
+}
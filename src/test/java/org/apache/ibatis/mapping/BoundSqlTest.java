@@ -18,6 +18,7 @@ package org.apache.ibatis.mapping;
 import org.apache.ibatis.session.Configuration;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -58,6 +59,28 @@ class BoundSqlTest {
         assertTrue(boundSql.hasAdditionalParameter("array[99]"), "should return true even if the element does not exists.");
     }
 
+    @Test
+    void shouldReadParameterValuesLikeParameterHandler() {
+        Configuration configuration = new Configuration();
+        ParameterMapping id = new ParameterMapping.Builder(configuration, "id", Integer.class).build();
+        ParameterMapping item = new ParameterMapping.Builder(configuration, "item", String.class).build();
+        Person bean = new Person();
+        bean.id = 1;
+        BoundSql boundSql = new BoundSql(configuration, "some sql", Arrays.asList(id, item), bean);
+        boundSql.setAdditionalParameter("item", "value");
+
+        ParameterValues values = new ParameterValues(configuration, boundSql, bean);
+        assertEquals(1, values.getValue(id));
+        assertEquals("value", values.getValue(item));
+
+        values = new ParameterValues(configuration, boundSql, 2);
+        assertEquals(2, values.getValue(id));
+        assertEquals("value", values.getValue(item));
+
+        values = new ParameterValues(configuration, boundSql, null);
+        assertNull(values.getValue(id));
+    }
+
     public static class Person {
         public Integer id;
     }
@@ -18,11 +18,24 @@ package org.apache.ibatis.mapping;
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.decorators.ExpiringCache;
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.MetricsCache;
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.decorators.TinyLfuCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.metrics.CacheMetricsRegistry;
+import org.apache.ibatis.cache.metrics.DefaultCacheMetrics;
+import org.apache.ibatis.cache.serializer.BinarySerializer;
+import org.apache.ibatis.cache.serializer.CompressingSerializer;
+import org.apache.ibatis.cache.serializer.JdkSerializer;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Field;
+import java.util.Map;
 
 import static com.googlecode.catchexception.apis.BDDCatchException.*;
 import static org.assertj.core.api.BDDAssertions.then;
@@ -43,6 +56,92 @@ class CacheBuilderTest {
             .hasMessage("Failed cache initialization for 'test' on 'org.apache.ibatis.mapping.CacheBuilderTest$InitializingFailureCache'");
     }
 
+    @Test
+    void testSynchronizedUnlessEvictionIsConcurrent() {
+        Cache lru = new CacheBuilder("test").addDecorator(LruCache.class).build();
+        Cache tinyLfu = new CacheBuilder("test").addDecorator(TinyLfuCache.class).build();
+
+        Assertions.assertThat(lru).isInstanceOf(SynchronizedCache.class);
+        Assertions.assertThat(tinyLfu).isInstanceOf(LoggingCache.class);
+        Assertions.assertThat((Cache) unwrap(tinyLfu)).isInstanceOf(TinyLfuCache.class);
+    }
+
+    @Test
+    void testExpiringEntries() {
+        Cache cache = new CacheBuilder("test").timeToLive(60000L).refreshAfterWrite(10000L).build();
+
+        ExpiringCache expiringCache = unwrap(unwrap(cache));
+        Assertions.assertThat(expiringCache.getTimeToLive()).isEqualTo(60000L);
+        Assertions.assertThat(expiringCache.getRefreshAfterWrite()).isEqualTo(10000L);
+        Assertions.assertThat((Cache) unwrap(expiringCache)).isInstanceOf(LruCache.class);
+    }
+
+    @Test
+    void testExpiringCacheForgetsEvictedEntries() throws Exception {
+        Cache cache = new CacheBuilder("test").size(10).refreshAfterWrite(60000L).build();
+        for (int i = 0; i < 100000; i++) {
+            cache.putObject(i, i);
+        }
+
+        ExpiringCache expiringCache = unwrap(unwrap(cache));
+        Field timestamps = ExpiringCache.class.getDeclaredField("timestamps");
+        timestamps.setAccessible(true);
+        Assertions.assertThat(cache.getSize()).isEqualTo(10);
+        Assertions.assertThat((Map<?, ?>) timestamps.get(expiringCache)).hasSize(10);
+    }
+
+    @Test
+    void testSerializer() {
+        SerializedCache jdk = unwrap(unwrap(new CacheBuilder("test").readWrite(true).build()));
+        SerializedCache binary = unwrap(unwrap(new CacheBuilder("test").readWrite(true)
+            .serializer(BinarySerializer.class).compressionThreshold(1024).build()));
+
+        Assertions.assertThat(jdk.getSerializer()).isInstanceOf(JdkSerializer.class);
+        Assertions.assertThat(binary.getSerializer()).isInstanceOf(CompressingSerializer.class);
+        CompressingSerializer compressing = (CompressingSerializer) binary.getSerializer();
+        Assertions.assertThat(compressing.getDelegate()).isInstanceOf(BinarySerializer.class);
+        Assertions.assertThat(compressing.getThreshold()).isEqualTo(1024);
+    }
+
+    @Test
+    void testMetrics() {
+        CacheMetricsRegistry registry = new CacheMetricsRegistry();
+        Cache cache = new CacheBuilder("test").size(2).metricsRegistry(registry).build();
+        Cache custom = new CacheBuilder("custom").implementation(InitializingCache.class).metricsRegistry(registry).build();
+
+        Assertions.assertThat(cache).isInstanceOf(MetricsCache.class);
+        Assertions.assertThat(custom).isInstanceOf(MetricsCache.class);
+        Assertions.assertThat((Cache) unwrap(cache)).isInstanceOf(SynchronizedCache.class);
+        for (int i = 0; i < 3; i++) {
+            cache.putObject(i, i);
+        }
+        cache.getObject(0);
+        cache.getObject(2);
+        DefaultCacheMetrics metrics = (DefaultCacheMetrics) registry.getMetrics("test");
+        Assertions.assertThat(((MetricsCache) cache).getMetrics()).isSameAs(metrics);
+        Assertions.assertThat(metrics.getPutCount()).isEqualTo(3);
+        Assertions.assertThat(metrics.getEvictionCount()).isEqualTo(1);
+        Assertions.assertThat(metrics.getHitCount()).isEqualTo(1);
+        Assertions.assertThat(metrics.getMissCount()).isEqualTo(1);
+        Assertions.assertThat(metrics.getReadLatency().getCount()).isEqualTo(2);
+        Assertions.assertThat(registry.getMetrics()).containsOnlyKeys("test", "custom");
+    }
+
+    @Test
+    void testExpirationsAreEvictions() {
+        CacheMetricsRegistry registry = new CacheMetricsRegistry();
+        Cache cache = new CacheBuilder("test").timeToLive(1L).metricsRegistry(registry).build();
+
+        cache.putObject("key", "value");
+        long expired = System.currentTimeMillis() + 2;
+        while (System.currentTimeMillis() < expired) {
+            Thread.yield();
+        }
+
+        Assertions.assertThat(cache.getObject("key")).isNull();
+        Assertions.assertThat(((DefaultCacheMetrics) registry.getMetrics("test")).getEvictionCount()).isEqualTo(1);
+    }
+
     @SuppressWarnings("unchecked")
     private <T> T unwrap(Cache cache) {
         Field field;
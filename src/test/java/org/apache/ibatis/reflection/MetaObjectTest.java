@@ -20,6 +20,7 @@ import org.apache.ibatis.domain.blog.Section;
 import org.apache.ibatis.domain.misc.CustomBeanWrapper;
 import org.apache.ibatis.domain.misc.CustomBeanWrapperFactory;
 import org.apache.ibatis.domain.misc.RichType;
+import org.apache.ibatis.reflection.property.PropertyPath;
 import org.junit.jupiter.api.Test;
 
 import java.util.*;
@@ -60,6 +61,18 @@ class MetaObjectTest {
         assertEquals("foo", meta.getValue("richType.richProperty"));
     }
 
+    @Test
+    void shouldGetAndSetNestedPropertyByPath() {
+        RichType rich = new RichType();
+        MetaObject meta = SystemMetaObject.forObject(rich);
+        PropertyPath path = PropertyPath.of("richType.richList[0]");
+        assertNull(meta.getValue(path));
+        meta.setValue("richType.richList", new ArrayList<>(Collections.singletonList("foo")));
+        assertEquals("foo", meta.getValue(path));
+        meta.setValue(path, "bar");
+        assertEquals("bar", rich.getRichType().getRichList().get(0));
+    }
+
     @Test
     void shouldGetAndSetMapPair() {
         RichType rich = new RichType();
@@ -0,0 +1,181 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LambdaMethodInvokerTest {
+
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    @Test
+    void shouldGetAndSetThroughLambdas() throws Exception {
+        Reflector reflector = new Reflector(Bean.class, true);
+        Bean bean = new Bean();
+        Invoker setName = reflector.getSetInvoker("name");
+        Invoker setAge = reflector.getSetInvoker("age");
+        assertThat(setName).isInstanceOf(LambdaMethodInvoker.class);
+        assertThat(setAge).isInstanceOf(LambdaMethodInvoker.class);
+        assertEquals(String.class, setName.getType());
+        assertEquals(int.class, setAge.getType());
+
+        setName.invoke(bean, new Object[]{"John"});
+        setAge.invoke(bean, new Object[]{42});
+        assertEquals("John", reflector.getGetInvoker("name").invoke(bean, NO_ARGUMENTS));
+        assertEquals(42, reflector.getGetInvoker("age").invoke(bean, NO_ARGUMENTS));
+        assertEquals(Boolean.TRUE, reflector.getGetInvoker("active").invoke(bean, NO_ARGUMENTS));
+    }
+
+    @Test
+    void shouldIgnoreReturnValueOfFluentSetter() throws Exception {
+        Reflector reflector = new Reflector(Bean.class, true);
+        Bean bean = new Bean();
+        Invoker invoker = reflector.getSetInvoker("nickname");
+        assertThat(invoker).isInstanceOf(LambdaMethodInvoker.class);
+        assertNull(invoker.invoke(bean, new Object[]{"Johnny"}));
+        assertEquals("Johnny", bean.nickname);
+    }
+
+    @Test
+    void shouldWrapExceptionsLikeMethodInvoke() {
+        Reflector reflector = new Reflector(Bean.class, true);
+        InvocationTargetException e = assertThrows(InvocationTargetException.class,
+            () -> reflector.getGetInvoker("broken").invoke(new Bean(), NO_ARGUMENTS));
+        assertThat(e.getTargetException()).isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    void shouldRejectArgumentsLikeMethodInvoke() throws Exception {
+        Reflector reflector = new Reflector(Bean.class, true);
+        Bean bean = new Bean();
+        Invoker setName = reflector.getSetInvoker("name");
+        Invoker setAge = reflector.getSetInvoker("age");
+        assertThrows(IllegalArgumentException.class, () -> setName.invoke(bean, new Object[]{42}));
+        assertThrows(IllegalArgumentException.class, () -> setAge.invoke(bean, new Object[]{null}));
+        assertThrows(IllegalArgumentException.class, () -> setAge.invoke(bean, new Object[]{"42"}));
+        assertThrows(IllegalArgumentException.class, () -> reflector.getGetInvoker("name").invoke("bean", NO_ARGUMENTS));
+        assertThrows(NullPointerException.class, () -> reflector.getGetInvoker("name").invoke(null, NO_ARGUMENTS));
+
+        setAge.invoke(bean, new Object[]{(short) 7});
+        assertEquals(7, reflector.getGetInvoker("age").invoke(bean, NO_ARGUMENTS));
+    }
+
+    @Test
+    void shouldFallBackForNonPublicClasses() throws Exception {
+        Reflector reflector = new Reflector(PackagePrivateBean.class, true);
+        Invoker invoker = reflector.getSetInvoker("value");
+        assertFalse(invoker instanceof LambdaMethodInvoker);
+        PackagePrivateBean bean = new PackagePrivateBean();
+        invoker.invoke(bean, new Object[]{"x"});
+        assertEquals("x", reflector.getGetInvoker("value").invoke(bean, NO_ARGUMENTS));
+    }
+
+    @Test
+    void shouldFallBackForNonPublicPropertyTypes() throws Exception {
+        Reflector reflector = new Reflector(Bean.class, true);
+        Invoker invoker = reflector.getSetInvoker("kind");
+        assertFalse(invoker instanceof LambdaMethodInvoker);
+        Bean bean = new Bean();
+        invoker.invoke(bean, new Object[]{Kind.B});
+        assertEquals(Kind.B, reflector.getGetInvoker("kind").invoke(bean, NO_ARGUMENTS));
+    }
+
+    @Test
+    void shouldUseReflectionWhenDisabled() {
+        DefaultReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+        assertTrue(reflectorFactory.isLambdaInvokersEnabled());
+        assertThat(reflectorFactory.findForClass(Bean.class).getGetInvoker("name")).isInstanceOf(LambdaMethodInvoker.class);
+
+        reflectorFactory = new DefaultReflectorFactory();
+        reflectorFactory.setLambdaInvokersEnabled(false);
+        Invoker invoker = reflectorFactory.findForClass(Bean.class).getGetInvoker("name");
+        assertSame(MethodInvoker.class, invoker.getClass());
+    }
+
+    public static class Bean {
+        private String name;
+        private int age;
+        private String nickname;
+        private Kind kind;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public boolean isActive() {
+            return true;
+        }
+
+        public Bean setNickname(String nickname) {
+            this.nickname = nickname;
+            return this;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public void setKind(Kind kind) {
+            this.kind = kind;
+        }
+
+        public String getBroken() throws SQLException {
+            throw new SQLException("broken");
+        }
+    }
+
+    enum Kind {
+        A, B
+    }
+
+    static class PackagePrivateBean {
+        private String value;
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.reflection.property;
+
+import org.apache.ibatis.scripting.xmltags.ForEachSqlNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PropertyPathTest {
+
+    @Test
+    void shouldParseSimpleProperty() {
+        PropertyPath path = PropertyPath.of("name");
+        assertEquals("name", path.getExpression());
+        assertEquals("name", path.getTokenizer().getName());
+        assertNull(path.getTokenizer().getIndex());
+        assertFalse(path.hasChild());
+        assertSame(path, path.getHead());
+    }
+
+    @Test
+    void shouldParseNestedIndexedProperty() {
+        PropertyPath path = PropertyPath.of("order.items[0].name");
+        assertTrue(path.hasChild());
+        assertEquals("order", path.getTokenizer().getName());
+        assertEquals("items[0].name", path.getTokenizer().getChildren());
+        assertEquals("order", path.getHead().getExpression());
+
+        PropertyPath items = path.getChild();
+        assertEquals("items[0].name", items.getExpression());
+        assertEquals("items", items.getTokenizer().getName());
+        assertEquals("0", items.getTokenizer().getIndex());
+        assertEquals("items[0]", items.getHead().getExpression());
+        assertFalse(items.getHead().hasChild());
+
+        PropertyPath name = items.getChild();
+        assertEquals("name", name.getExpression());
+        assertFalse(name.hasChild());
+    }
+
+    @Test
+    void shouldReuseCachedPaths() {
+        PropertyPath path = PropertyPath.of("customer.address.city");
+        assertSame(path, PropertyPath.of("customer.address.city"));
+        assertSame(path.getChild(), PropertyPath.of("address.city"));
+        assertSame(path.getChild().getChild(), PropertyPath.of("city"));
+    }
+
+    @Test
+    void shouldNotCacheForEachItemNames() {
+        String name = ForEachSqlNode.ITEM_PREFIX + "item_0.name";
+        PropertyPath path = PropertyPath.of(name);
+        assertEquals("name", path.getChild().getExpression());
+        assertNotSame(path, PropertyPath.of(name));
+        assertNotSame(path.getHead(), PropertyPath.of(ForEachSqlNode.ITEM_PREFIX + "item_0"));
+        assertSame(path.getChild(), PropertyPath.of("name"));
+    }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.submitted.async_mapper;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncMapperTest {
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // create a SqlSessionFactory
+        try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/async_mapper/mybatis-config.xml")) {
+            sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+        }
+
+        // populate in-memory database
+        BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+            "org/apache/ibatis/submitted/async_mapper/CreateDB.sql");
+    }
+
+    @Test
+    void shouldSelectAsynchronously() throws Exception {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            CompletableFuture<User> user = mapper.getUser(1);
+            CompletableFuture<List<User>> users = mapper.getUsers().toCompletableFuture();
+            CompletableFuture<Map<Integer, User>> usersById = mapper.getUsersById();
+            CompletableFuture.allOf(user, users, usersById).get();
+            assertEquals("User1", user.get().getName());
+            assertEquals(3, users.get().size());
+            assertEquals("User2", usersById.get().get(2).getName());
+            assertTrue(mapper.findUser(3).get().isPresent());
+            assertFalse(mapper.findUser(4).get().isPresent());
+        }
+    }
+
+    @Test
+    void shouldHandleResultsAsynchronously() throws Exception {
+        List<String> names = new ArrayList<>();
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            sqlSession.getMapper(Mapper.class).handleUsers(context -> names.add(context.getResultObject().getName())).get();
+        }
+        assertThat(names).containsExactly("User1", "User2", "User3");
+    }
+
+    @Test
+    void shouldCommitEachAsyncCall() throws Exception {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            assertEquals(Integer.valueOf(1), mapper.insertUser(new User(4, "User4")).get());
+        }
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            assertEquals("User4", sqlSession.getMapper(Mapper.class).getUser(4).get().getName());
+        }
+    }
+
+    @Test
+    void shouldCompleteExceptionally() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            CompletableFuture<User> future = sqlSession.getMapper(Mapper.class).getUserFromMissingTable();
+            ExecutionException e = assertThrows(ExecutionException.class, future::get);
+            assertThat(e.getCause()).isInstanceOf(PersistenceException.class);
+        }
+    }
+
+    @Test
+    void shouldRunOnConfiguredExecutor() throws Exception {
+        AtomicInteger tasks = new AtomicInteger();
+        Executor executor = command -> {
+            tasks.incrementAndGet();
+            new Thread(command).start();
+        };
+        sqlSessionFactory.getConfiguration().setAsyncExecutor(executor);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            CompletableFuture.allOf(mapper.getUser(1), mapper.getUser(2)).get();
+        }
+        assertEquals(2, tasks.get());
+    }
+
+    @Test
+    void shouldNotReturnCursorAsynchronously() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            BindingException e = assertThrows(BindingException.class, mapper::getUsersCursor);
+            assertThat(e).hasMessageContaining("cannot return a Cursor asynchronously");
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_grouping;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchGroupingTest {
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // create a SqlSessionFactory
+        try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_grouping/mybatis-config.xml")) {
+            sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+        }
+
+        // populate in-memory database
+        BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+            "org/apache/ibatis/submitted/batch_grouping/CreateDB.sql");
+    }
+
+    @Test
+    void shouldReadDependencies() {
+        assertTrue(sqlSessionFactory.getConfiguration().hasBatchDependency(ChildMapper.class.getName(), ParentMapper.class.getName()));
+        assertFalse(sqlSessionFactory.getConfiguration().hasBatchDependency(ParentMapper.class.getName(), ChildMapper.class.getName()));
+    }
+
+    @Test
+    void shouldGroupInterleavedInserts() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            ParentMapper parents = sqlSession.getMapper(ParentMapper.class);
+            ChildMapper children = sqlSession.getMapper(ChildMapper.class);
+            for (int i = 1; i <= 5; i++) {
+                parents.insert(i, "Parent" + i);
+                children.insert(i, i, "Child" + i);
+            }
+            List<BatchResult> results = sqlSession.flushStatements();
+            assertEquals(2, results.size());
+            assertTrue(results.get(0).getSql().contains("parent"));
+            assertEquals(5, results.get(0).getParameterObjects().size());
+            assertEquals(5, results.get(1).getParameterObjects().size());
+            assertEquals(6, parents.count());
+            assertEquals(5, children.count());
+        }
+    }
+
+    @Test
+    void shouldNotGroupWithoutSetting() {
+        sqlSessionFactory.getConfiguration().setBatchGroupingEnabled(false);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            for (int i = 1; i <= 5; i++) {
+                sqlSession.getMapper(ParentMapper.class).insert(i, "Parent" + i);
+                sqlSession.getMapper(ChildMapper.class).insert(i, i, "Child" + i);
+            }
+            assertEquals(10, sqlSession.flushStatements().size());
+        }
+    }
+
+    @Test
+    void shouldKeepOrderOfStatementsWritingSameTable() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            ParentMapper parents = sqlSession.getMapper(ParentMapper.class);
+            parents.insert(1, "Parent1");
+            parents.rename(2, "Renamed");
+            parents.insert(2, "Parent2");
+            List<BatchResult> results = sqlSession.flushStatements();
+            assertEquals(3, results.size());
+            // the rename ran before the second insert
+            assertEquals(0, results.get(1).getUpdateCounts()[0]);
+        }
+    }
+
+    @Test
+    void shouldNotMoveDependentInsertsBeforeTheirParents() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            ParentMapper parents = sqlSession.getMapper(ParentMapper.class);
+            ChildMapper children = sqlSession.getMapper(ChildMapper.class);
+            children.insert(1, 0, "Child1");
+            parents.insert(1, "Parent1");
+            children.insert(2, 1, "Child2");
+            assertEquals(3, sqlSession.flushStatements().size());
+            assertEquals(2, children.count());
+        }
+    }
+
+    @Test
+    void shouldMoveDependentDeletesBeforeTheirParents() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            ParentMapper parents = sqlSession.getMapper(ParentMapper.class);
+            ChildMapper children = sqlSession.getMapper(ChildMapper.class);
+            for (int i = 1; i <= 3; i++) {
+                parents.insert(i, "Parent" + i);
+                children.insert(i, i, "Child" + i);
+            }
+            sqlSession.flushStatements();
+            for (int i = 1; i <= 3; i++) {
+                children.delete(i);
+                parents.delete(i);
+            }
+            List<BatchResult> results = sqlSession.flushStatements();
+            assertEquals(2, results.size());
+            assertTrue(results.get(0).getSql().contains("child"));
+            assertEquals(1, parents.count());
+            assertEquals(0, children.count());
+        }
+    }
+
+    @Test
+    void shouldNotMoveParentDeletesBeforeDependents() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            ParentMapper parents = sqlSession.getMapper(ParentMapper.class);
+            ChildMapper children = sqlSession.getMapper(ChildMapper.class);
+            parents.insert(1, "Parent1");
+            children.insert(1, 1, "Child1");
+            sqlSession.flushStatements();
+            parents.delete(2);
+            children.delete(1);
+            parents.delete(1);
+            assertEquals(3, sqlSession.flushStatements().size());
+            assertEquals(1, parents.count());
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_insert_rewrite;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchExecutorException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchInsertRewriteTest {
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // create a SqlSessionFactory
+        try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_insert_rewrite/mybatis-config.xml")) {
+            sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+        }
+
+        // populate in-memory database
+        BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+            "org/apache/ibatis/submitted/batch_insert_rewrite/CreateDB.sql");
+    }
+
+    @Test
+    void shouldRewriteInsertsAndAssignGeneratedKeys() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            List<User> users = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                User user = new User(null, "User" + (i + 2));
+                users.add(user);
+                mapper.insert(user);
+            }
+            List<BatchResult> results = sqlSession.flushStatements();
+            assertEquals(1, results.size());
+            assertEquals(7, results.get(0).getParameterObjects().size());
+            assertArrayEquals(new int[]{1, 1, 1, 1, 1, 1, 1}, results.get(0).getUpdateCounts());
+            Set<Integer> ids = new HashSet<>();
+            for (User user : users) {
+                assertNotNull(user.getId());
+                ids.add(user.getId());
+            }
+            assertEquals(7, ids.size());
+            assertEquals(8, mapper.count());
+        }
+    }
+
+    @Test
+    void shouldNotRewriteWithoutSetting() {
+        sqlSessionFactory.getConfiguration().setBatchInsertRewriteSize(0);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            for (int i = 0; i < 4; i++) {
+                mapper.insertWithId(new User(i + 2, "User" + (i + 2)));
+            }
+            List<BatchResult> results = sqlSession.flushStatements();
+            assertEquals(1, results.size());
+            assertArrayEquals(new int[]{1, 1, 1, 1}, results.get(0).getUpdateCounts());
+            assertEquals(5, mapper.count());
+        }
+    }
+
+    @Test
+    void shouldNotRewriteInsertWithoutValues() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            for (int i = 0; i < 4; i++) {
+                mapper.copy(1);
+            }
+            List<BatchResult> results = sqlSession.flushStatements();
+            assertEquals(1, results.size());
+            assertArrayEquals(new int[]{1, 1, 1, 1}, results.get(0).getUpdateCounts());
+            assertEquals(5, mapper.count());
+        }
+    }
+
+    @Test
+    void shouldReportRowsInsertedBeforeFailure() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            for (int i = 0; i < 4; i++) {
+                mapper.insertWithId(new User(i + 2, "User" + (i + 2)));
+            }
+            mapper.insertWithId(new User(1, "Duplicate"));
+            PersistenceException exception = assertThrows(PersistenceException.class, sqlSession::flushStatements);
+            BatchExecutorException cause = (BatchExecutorException) exception.getCause();
+            assertArrayEquals(new int[]{1, 1, 1}, cause.getBatchUpdateException().getUpdateCounts());
+        }
+    }
+
+}
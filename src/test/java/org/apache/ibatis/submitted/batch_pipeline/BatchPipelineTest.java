@@ -0,0 +1,210 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_pipeline;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchExecutorException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.session.TransactionIsolationLevel;
+import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchPipelineTest {
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // create a SqlSessionFactory
+        try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_pipeline/mybatis-config.xml")) {
+            sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+        }
+
+        // populate in-memory database
+        BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+            "org/apache/ibatis/submitted/batch_pipeline/CreateDB.sql");
+    }
+
+    @Test
+    void shouldExecuteFullBatchesInBackground() {
+        List<BatchResult> pipelined = new ArrayList<>();
+        sqlSessionFactory.getConfiguration().setBatchFlushListener(pipelined::addAll);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            for (int i = 2; i <= 8; i++) {
+                mapper.insert(i, "User" + i);
+            }
+            List<BatchResult> results = sqlSession.flushStatements();
+            assertEquals(1, results.size());
+            assertArrayEquals(new int[]{1}, results.get(0).getUpdateCounts());
+            assertEquals(3, pipelined.size());
+            for (BatchResult result : pipelined) {
+                assertArrayEquals(new int[]{1, 1}, result.getUpdateCounts());
+            }
+            sqlSession.commit();
+            assertEquals(8, mapper.count());
+        }
+    }
+
+    @Test
+    void shouldPrepareBatchesOnlyInBackground() {
+        PrepareThreads prepareThreads = new PrepareThreads();
+        sqlSessionFactory.getConfiguration().addInterceptor(prepareThreads);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            for (int i = 2; i <= 7; i++) {
+                mapper.insert(i, "User" + i);
+            }
+            sqlSession.flushStatements();
+            assertEquals(Collections.nCopies(3, "mybatis-batch-flusher"), prepareThreads.threads);
+            sqlSession.commit();
+            assertEquals(7, mapper.count());
+        }
+    }
+
+    @Test
+    void shouldUseTransactionTimeoutOfCallingThread() {
+        Environment environment = sqlSessionFactory.getConfiguration().getEnvironment();
+        Thread caller = Thread.currentThread();
+        sqlSessionFactory.getConfiguration().setEnvironment(new Environment(environment.getId(), new JdbcTransactionFactory() {
+            @Override
+            public Transaction newTransaction(DataSource ds, TransactionIsolationLevel level, boolean autoCommit) {
+                return new JdbcTransaction(ds, level, autoCommit) {
+                    @Override
+                    public Integer getTimeout() {
+                        // like a transaction manager keeping the timeout on the thread of the transaction
+                        return Thread.currentThread() == caller ? 30 : null;
+                    }
+                };
+            }
+        }, environment.getDataSource()));
+        PrepareThreads prepareThreads = new PrepareThreads();
+        sqlSessionFactory.getConfiguration().addInterceptor(prepareThreads);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            for (int i = 2; i <= 7; i++) {
+                mapper.insert(i, "User" + i);
+            }
+            sqlSession.flushStatements();
+            assertEquals(Collections.nCopies(3, "mybatis-batch-flusher"), prepareThreads.threads);
+            assertEquals(Collections.nCopies(3, 30), prepareThreads.timeouts);
+            assertEquals(Collections.nCopies(3, ""), prepareThreads.errorContexts);
+        }
+    }
+
+    @Test
+    void shouldExecuteSelectKeyStatementsOnCallingThread() {
+        PrepareThreads prepareThreads = new PrepareThreads();
+        sqlSessionFactory.getConfiguration().addInterceptor(prepareThreads);
+        List<BatchResult> flushed = new ArrayList<>();
+        sqlSessionFactory.getConfiguration().setBatchFlushListener(flushed::addAll);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (int i = 2; i <= 6; i++) {
+                Map<String, Object> row = new HashMap<>();
+                row.put("id", i);
+                row.put("name", "User" + i);
+                mapper.insertCounted(row);
+                rows.add(row);
+            }
+            assertNull(rows.get(4).get("count"));
+            sqlSession.flushStatements();
+            assertEquals(2, flushed.size());
+            int[] counts = rows.stream().mapToInt(row -> (Integer) row.get("count")).toArray();
+            assertArrayEquals(new int[]{3, 3, 5, 5, 6}, counts);
+            String thread = Thread.currentThread().getName();
+            assertTrue(prepareThreads.threads.stream().allMatch(thread::equals));
+        }
+    }
+
+    @Test
+    void shouldThrowFailureOnNextFlush() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            mapper.insert(2, "User2");
+            mapper.insert(1, "Duplicate");
+            mapper.insert(3, "User3");
+            PersistenceException exception = assertThrows(PersistenceException.class, sqlSession::flushStatements);
+            BatchExecutorException cause = (BatchExecutorException) exception.getCause();
+            assertEquals(2, cause.getFailingBatchResult().getParameterObjects().size());
+            sqlSession.rollback();
+            assertEquals(1, mapper.count());
+        }
+    }
+
+    @Test
+    void shouldDiscardBatchesAfterFailure() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            assertThrows(PersistenceException.class, () -> {
+                mapper.insert(1, "Duplicate");
+                mapper.insert(2, "User2");
+                for (int i = 3; i <= 8; i++) {
+                    mapper.insert(i, "User" + i);
+                }
+                sqlSession.flushStatements();
+            });
+            sqlSession.commit(true);
+            assertEquals(0, mapper.countFrom(3));
+        }
+    }
+
+    @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+    private static class PrepareThreads implements Interceptor {
+        private final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        private final List<Integer> timeouts = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> errorContexts = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            if (((StatementHandler) invocation.getTarget()).getBoundSql().getSql().trim().startsWith("insert")) {
+                threads.add(Thread.currentThread().getName());
+                timeouts.add((Integer) invocation.getArgs()[1]);
+                errorContexts.add(ErrorContext.instance().toString());
+            }
+            return invocation.proceed();
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.submitted.cache_coherence;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.coherence.FileInvalidationTransport;
+import org.apache.ibatis.cache.coherence.LocalInvalidationTransport;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheCoherenceTest {
+
+    // two instances sharing a database
+    private SqlSessionFactory node1;
+    private SqlSessionFactory node2;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        node1 = build();
+        node2 = build();
+
+        // populate in-memory database
+        BaseDataTest.runScript(node1.getConfiguration().getEnvironment().getDataSource(),
+            "org/apache/ibatis/submitted/cache_coherence/CreateDB.sql");
+    }
+
+    @AfterEach
+    void tearDown() {
+        node1.getConfiguration().setCacheInvalidationTransport(null);
+        node2.getConfiguration().setCacheInvalidationTransport(null);
+    }
+
+    private SqlSessionFactory build() throws Exception {
+        try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cache_coherence/mybatis-config.xml")) {
+            return new SqlSessionFactoryBuilder().build(reader);
+        }
+    }
+
+    @Test
+    void shouldReadTransportFromConfig() {
+        LocalInvalidationTransport transport = (LocalInvalidationTransport) node1.getConfiguration()
+            .getCacheInvalidationBus().getTransport();
+        assertEquals("cache_coherence", transport.getChannel());
+    }
+
+    @Test
+    void shouldInvalidateOtherInstancesOnCommit() {
+        Map<String, Object> book = readAll(node1);
+        rename(node2, "Renamed", true);
+        try (SqlSession sqlSession = node1.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            assertEquals("Renamed", mapper.getAuthor(1).get("NAME"));
+            assertSame(book, mapper.getBook(1));
+        }
+    }
+
+    @Test
+    void shouldNotInvalidateOtherInstancesOnRollback() {
+        readAll(node1);
+        rename(node2, "Renamed", false);
+        try (SqlSession sqlSession = node1.openSession()) {
+            assertEquals("Author1", sqlSession.getMapper(Mapper.class).getAuthor(1).get("NAME"));
+        }
+    }
+
+    @Test
+    void shouldInvalidateOtherInstancesThroughSharedDirectory(@TempDir Path directory) throws Exception {
+        for (SqlSessionFactory node : new SqlSessionFactory[]{node1, node2}) {
+            FileInvalidationTransport transport = new FileInvalidationTransport();
+            transport.setDirectory(directory);
+            transport.setPollInterval(10);
+            node.getConfiguration().setCacheInvalidationTransport(transport);
+        }
+        Map<String, Object> book = readAll(node1);
+        rename(node2, "Renamed", true);
+        long deadline = System.currentTimeMillis() + 5000;
+        String name;
+        do {
+            Thread.sleep(10);
+            try (SqlSession sqlSession = node1.openSession()) {
+                name = (String) sqlSession.getMapper(Mapper.class).getAuthor(1).get("NAME");
+            }
+        } while (!"Renamed".equals(name) && System.currentTimeMillis() < deadline);
+        assertEquals("Renamed", name);
+        try (SqlSession sqlSession = node1.openSession()) {
+            assertSame(book, sqlSession.getMapper(Mapper.class).getBook(1));
+        }
+    }
+
+    private Map<String, Object> readAll(SqlSessionFactory node) {
+        try (SqlSession sqlSession = node.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            assertEquals("Author1", mapper.getAuthor(1).get("NAME"));
+            return mapper.getBook(1);
+        }
+    }
+
+    private void rename(SqlSessionFactory node, String name, boolean commit) {
+        try (SqlSession sqlSession = node.openSession()) {
+            sqlSession.getMapper(Mapper.class).renameAuthor(1, name);
+            if (commit) {
+                sqlSession.commit();
+            } else {
+                sqlSession.rollback();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.submitted.cache_dependencies;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.decorators.DependencyTrackingCache;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheDependenciesTest {
+
+    private static SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // create a SqlSessionFactory
+        try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cache_dependencies/mybatis-config.xml")) {
+            sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+        }
+
+        // populate in-memory database
+        BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+            "org/apache/ibatis/submitted/cache_dependencies/CreateDB.sql");
+    }
+
+    @Test
+    void shouldReadDeclaredTables() {
+        Cache cache = sqlSessionFactory.getConfiguration().getCache(Mapper.class.getName());
+        assertTrue(cache instanceof DependencyTrackingCache);
+        assertEquals(new HashSet<>(Arrays.asList("author", "book")), sqlSessionFactory.getConfiguration()
+            .getMappedStatement(Mapper.class.getName() + ".countAuthorView").getTables());
+        assertEquals(new HashSet<>(Arrays.asList("book")), sqlSessionFactory.getConfiguration()
+            .getMappedStatement(Mapper.class.getName() + ".renameBook").getTables());
+        assertNull(sqlSessionFactory.getConfiguration()
+            .getMappedStatement(Mapper.class.getName() + ".renameAuthor").getTables());
+    }
+
+    @Test
+    void shouldInvalidateOnlyEntriesReadFromWrittenTables() {
+        Map<String, Object> author;
+        Map<String, Object> book;
+        Map<String, Object> authorBooks;
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            author = mapper.getAuthor(1);
+            book = mapper.getBook(1);
+            authorBooks = mapper.getAuthorBooks(1);
+        }
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            sqlSession.getMapper(Mapper.class).renameAuthor(1, "Renamed");
+            sqlSession.commit();
+        }
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            assertSame(book, mapper.getBook(1));
+            assertNotSame(author, mapper.getAuthor(1));
+            assertEquals("Renamed", mapper.getAuthor(1).get("NAME"));
+            assertNotSame(authorBooks, mapper.getAuthorBooks(1));
+        }
+    }
+
+    @Test
+    void shouldHideInvalidatedEntriesUntilCommit() {
+        Map<String, Object> author;
+        Map<String, Object> book;
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            author = mapper.getAuthor(1);
+            book = mapper.getBook(1);
+        }
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            mapper.renameBook(1, "Renamed");
+            assertEquals("Renamed", mapper.getBook(1).get("TITLE"));
+            assertSame(author, mapper.getAuthor(1));
+            sqlSession.rollback();
+        }
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            assertSame(book, mapper.getBook(1));
+            assertSame(author, mapper.getAuthor(1));
+        }
+    }
+
+}
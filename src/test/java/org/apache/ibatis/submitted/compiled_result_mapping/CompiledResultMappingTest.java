@@ -0,0 +1,136 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.submitted.compiled_result_mapping;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.resultset.CompiledRowMapper;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CompiledResultMappingTest {
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // create a SqlSessionFactory
+        try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/compiled_result_mapping/mybatis-config.xml")) {
+            sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+        }
+
+        // populate in-memory database
+        BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+            "org/apache/ibatis/submitted/compiled_result_mapping/CreateDB.sql");
+    }
+
+    @Test
+    void shouldMapExplicitResultMap() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            User user = mapper.getUser(1);
+            assertEquals(Integer.valueOf(1), user.getId());
+            assertEquals("User1", user.getName());
+            assertEquals("user1@example.org", user.getEmail());
+            assertEquals(10, user.getLoginCount());
+
+            user = mapper.getUser(2);
+            assertEquals("User2", user.getName());
+            assertNull(user.getEmail());
+            // setters are not called on nulls by default
+            assertEquals(-1, user.getLoginCount());
+        }
+        CompiledRowMapper rowMapper = findRowMapper("userResult");
+        assertEquals(4, rowMapper.getMappingCount());
+    }
+
+    @Test
+    void shouldCompileOneMapperPerColumnLayout() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            mapper.getUser(1);
+            User user = mapper.getUserNameOnly(1);
+            assertEquals("User1", user.getName());
+            assertNull(user.getEmail());
+        }
+        assertThat(sqlSessionFactory.getConfiguration().getCompiledRowMappers().keySet())
+            .filteredOn(key -> key.contains(".userResult:")).hasSize(2);
+    }
+
+    @Test
+    void shouldMapAutoMappedColumns() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            List<User> users = sqlSession.getMapper(Mapper.class).getUsersAutoMapped();
+            assertEquals(3, users.size());
+            assertEquals("User1", users.get(0).getName());
+            assertEquals("user1@example.org", users.get(0).getEmail());
+            assertEquals(10, users.get(0).getLoginCount());
+            assertNull(users.get(2).getName());
+        }
+        assertEquals(4, findRowMapper("getUsersAutoMapped").getMappingCount());
+    }
+
+    @Test
+    void shouldReturnNullForEmptyRow() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            assertNull(sqlSession.getMapper(Mapper.class).getEmptyUser());
+        }
+    }
+
+    @Test
+    void shouldCallSettersOnNullsWhenEnabled() {
+        sqlSessionFactory.getConfiguration().setCallSettersOnNulls(true);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            User user = sqlSession.getMapper(Mapper.class).getUser(2);
+            assertNull(user.getEmail());
+            // primitives are never set to null
+            assertEquals(-1, user.getLoginCount());
+        }
+    }
+
+    @Test
+    void shouldFallBackForNestedQueries() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            User user = sqlSession.getMapper(Mapper.class).getUserWithGroup(1);
+            assertEquals("User1", user.getName());
+            assertEquals("Admins", user.getGroup().getName());
+        }
+        assertEquals(0, findRowMapper("userWithGroupResult").getMappingCount());
+        // the nested select itself is compiled
+        assertEquals(2, findRowMapper("getGroup").getMappingCount());
+    }
+
+    private CompiledRowMapper findRowMapper(String resultMapId) {
+        for (Map.Entry<String, CompiledRowMapper> entry : sqlSessionFactory.getConfiguration().getCompiledRowMappers().entrySet()) {
+            if (entry.getKey().contains("." + resultMapId)) {
+                return entry.getValue();
+            }
+        }
+        throw new AssertionError("No compiled row mapper for " + resultMapId);
+    }
+
+}
@@ -0,0 +1,38 @@
+--
+--    Copyright 2009-2020 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+--
+
+drop table users if exists;
+drop table groups if exists;
+
+create table groups (
+  id int,
+  name varchar(20)
+);
+
+create table users (
+  id int,
+  name varchar(20),
+  email varchar(40),
+  login_count int,
+  group_id int
+);
+
+insert into groups (id, name) values(1, 'Admins');
+
+insert into users (id, name, email, login_count, group_id) values(1, 'User1', 'user1@example.org', 10, 1);
+insert into users (id, name, email, login_count, group_id) values(2, 'User2', null, null, 1);
+insert into users (id, name, email, login_count, group_id) values(3, null, null, null, null);
@@ -0,0 +1,162 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_prefetch;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.defaults.DefaultCursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
+import org.apache.ibatis.executor.result.ResultMapException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CursorPrefetchTest {
+
+    private static SqlSessionFactory sqlSessionFactory;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        // create a SqlSessionFactory
+        try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_prefetch/mybatis-config.xml")) {
+            sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+        }
+
+        // populate in-memory database
+        BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+            "org/apache/ibatis/submitted/cursor_prefetch/CreateDB.sql");
+    }
+
+    @Test
+    void shouldReadFetchAheadFromAnnotationAndXml() {
+        assertEquals(Integer.valueOf(2), sqlSessionFactory.getConfiguration()
+            .getMappedStatement("org.apache.ibatis.submitted.cursor_prefetch.Mapper.getUsers").getFetchAhead());
+        assertEquals(Integer.valueOf(3), sqlSessionFactory.getConfiguration()
+            .getMappedStatement("org.apache.ibatis.submitted.cursor_prefetch.Mapper.getUsersFromXml").getFetchAhead());
+        assertNull(sqlSessionFactory.getConfiguration()
+            .getMappedStatement("org.apache.ibatis.submitted.cursor_prefetch.Mapper.getUsersWithoutFetchAhead").getFetchAhead());
+    }
+
+    @Test
+    void shouldReturnAllRowsInOrder() throws Exception {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Cursor<User> users = sqlSession.getMapper(Mapper.class).getUsers();
+            assertThat(users).isInstanceOf(PrefetchingCursor.class);
+            assertFalse(users.isOpen());
+            assertEquals(-1, users.getCurrentIndex());
+
+            List<String> names = new ArrayList<>();
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                assertTrue(users.isOpen());
+                names.add(iterator.next().getName());
+                assertEquals(names.size() - 1, users.getCurrentIndex());
+            }
+
+            assertThat(names).containsExactly("User1", "User2", "User3", "User4", "User5");
+            assertTrue(users.isConsumed());
+            assertFalse(users.isOpen());
+            users.close();
+        }
+    }
+
+    @Test
+    void shouldApplyRowBounds() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Cursor<User> users = sqlSession.selectCursor(
+                "org.apache.ibatis.submitted.cursor_prefetch.Mapper.getUsersFromXml", null, new RowBounds(1, 3));
+            assertEquals(0, users.getCurrentIndex());
+
+            List<String> names = new ArrayList<>();
+            users.forEach(user -> names.add(user.getName()));
+
+            assertThat(names).containsExactly("User2", "User3", "User4");
+            assertEquals(3, users.getCurrentIndex());
+            assertTrue(users.isConsumed());
+        }
+    }
+
+    @Test
+    void shouldStopFetchingWhenClosedEarly() throws Exception {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            Cursor<User> users = mapper.getUsers();
+            Iterator<User> iterator = users.iterator();
+            assertEquals("User1", iterator.next().getName());
+
+            users.close();
+            assertFalse(users.isOpen());
+            assertFalse(users.isConsumed());
+            assertFalse(iterator.hasNext());
+
+            // the session remains usable once the background fetch has released the result set
+            Cursor<User> others = mapper.getUsersWithoutFetchAhead();
+            assertThat(others).isInstanceOf(DefaultCursor.class);
+            assertEquals("User1", others.iterator().next().getName());
+        }
+    }
+
+    @Test
+    void shouldCloseWithoutIterating() throws Exception {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Cursor<User> users = sqlSession.getMapper(Mapper.class).getUsers();
+            users.close();
+            assertFalse(users.isOpen());
+            assertThatThrownBy(users::iterator).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void shouldRethrowMappingErrorsOnConsumerThread() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Cursor<User> users = sqlSession.getMapper(Mapper.class).getUsersWithBadMapping();
+            Iterator<User> iterator = users.iterator();
+            assertThatThrownBy(iterator::hasNext).isInstanceOf(ResultMapException.class);
+            assertFalse(iterator.hasNext());
+            assertFalse(users.isOpen());
+        }
+    }
+
+    @Test
+    void shouldReturnRowsFetchedBeforeError() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Cursor<User> users = sqlSession.getMapper(Mapper.class).getUsersWithBadMappingFromFourthRow();
+            Iterator<User> iterator = users.iterator();
+            for (int id = 1; id <= 3; id++) {
+                assertTrue(iterator.hasNext());
+                assertEquals(Integer.valueOf(id), iterator.next().getId());
+            }
+            assertThatThrownBy(iterator::hasNext).isInstanceOf(ResultMapException.class);
+            assertFalse(iterator.hasNext());
+        }
+    }
+}
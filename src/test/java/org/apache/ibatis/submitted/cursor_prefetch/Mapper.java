@@ -0,0 +1,40 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_prefetch;
+
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+
+public interface Mapper {
+
+    @Select("select id, name from users order by id")
+    @Options(fetchAhead = 2)
+    Cursor<User> getUsers();
+
+    @Select("select id, name from users order by id")
+    Cursor<User> getUsersWithoutFetchAhead();
+
+    Cursor<User> getUsersFromXml();
+
+    @Select("select name as id from users order by name")
+    @Options(fetchAhead = 2)
+    Cursor<User> getUsersWithBadMapping();
+
+    @Select("select case when id < 4 then cast(id as varchar(20)) else name end as id from users order by id")
+    @Options(fetchAhead = 2)
+    Cursor<User> getUsersWithBadMappingFromFourthRow();
+}
@@ -0,0 +1,220 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_publisher;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CursorPublisherTest {
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // create a SqlSessionFactory
+        try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_publisher/mybatis-config.xml")) {
+            sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+        }
+        // emit on the requesting thread to keep the assertions deterministic
+        sqlSessionFactory.getConfiguration().setAsyncExecutor(Runnable::run);
+
+        // populate in-memory database
+        BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+            "org/apache/ibatis/submitted/cursor_publisher/CreateDB.sql");
+    }
+
+    @Test
+    void shouldEmitOnlyRequestedRows() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        getUsers().subscribe(subscriber);
+        assertTrue(subscriber.names.isEmpty());
+
+        subscriber.subscription.request(2);
+        assertThat(subscriber.names).containsExactly("User1", "User2");
+        assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(2);
+        assertThat(subscriber.names).containsExactly("User1", "User2", "User3", "User4");
+        assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertThat(subscriber.names).containsExactly("User1", "User2", "User3", "User4", "User5");
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    void shouldNotFetchRowsBeyondDemand() {
+        AtomicInteger created = new AtomicInteger();
+        sqlSessionFactory.getConfiguration().setObjectFactory(new DefaultObjectFactory() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public <T> T create(Class<T> type) {
+                if (type == User.class) {
+                    created.incrementAndGet();
+                }
+                return super.create(type);
+            }
+        });
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        getUsers().subscribe(subscriber);
+        subscriber.subscription.request(2);
+        assertThat(subscriber.names).containsExactly("User1", "User2");
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    void shouldCompleteWhenLastRequestedRowIsTheLastRow() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            sqlSession.getMapper(Mapper.class).getUsersPage(new RowBounds(3, 2)).subscribe(subscriber);
+        }
+        subscriber.subscription.request(2);
+        assertThat(subscriber.names).containsExactly("User4", "User5");
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void shouldSupportRequestsFromOnNext() {
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onNext(User user) {
+                super.onNext(user);
+                subscription.request(1);
+            }
+        };
+        getUsers().subscribe(subscriber);
+        subscriber.subscription.request(1);
+        assertEquals(5, subscriber.names.size());
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void shouldStopOnCancel() {
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onNext(User user) {
+                super.onNext(user);
+                subscription.cancel();
+            }
+        };
+        getUsers().subscribe(subscriber);
+        subscriber.subscription.request(3);
+        assertThat(subscriber.names).containsExactly("User1");
+        subscriber.subscription.request(3);
+        assertThat(subscriber.names).containsExactly("User1");
+        assertFalse(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    void shouldSignalErrors() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        Publisher<User> publisher;
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            publisher = sqlSession.getMapper(Mapper.class).getUsersFromMissingTable();
+        }
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        assertThat(subscriber.error).isInstanceOf(PersistenceException.class);
+    }
+
+    @Test
+    void shouldRejectNonPositiveRequests() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        getUsers().subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertThat(subscriber.error).isInstanceOf(IllegalArgumentException.class);
+        assertTrue(subscriber.names.isEmpty());
+    }
+
+    @Test
+    void shouldEmitOnAsyncExecutor() throws Exception {
+        sqlSessionFactory.getConfiguration().setAsyncExecutor(null);
+        CountDownLatch done = new CountDownLatch(1);
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onComplete() {
+                super.onComplete();
+                done.countDown();
+            }
+        };
+        getUsers().subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(5, subscriber.names.size());
+    }
+
+    private Publisher<User> getUsers() {
+        // the publisher does not depend on the session it was created from
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            return sqlSession.getMapper(Mapper.class).getUsers();
+        }
+    }
+
+    private static class RecordingSubscriber implements Subscriber<User> {
+        final List<String> names = new ArrayList<>();
+        volatile Subscription subscription;
+        volatile boolean completed;
+        volatile Throwable error;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(User user) {
+            names.add(user.getName());
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+}
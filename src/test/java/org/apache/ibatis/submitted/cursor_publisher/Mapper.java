@@ -0,0 +1,33 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_publisher;
+
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.RowBounds;
+import org.reactivestreams.Publisher;
+
+public interface Mapper {
+
+    @Select("select * from users order by id")
+    Publisher<User> getUsers();
+
+    @Select("select * from users order by id")
+    Publisher<User> getUsersPage(RowBounds rowBounds);
+
+    @Select("select * from missing_table")
+    Publisher<User> getUsersFromMissingTable();
+
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.submitted.ordered_result_streaming;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderedResultStreamingTest {
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // create a SqlSessionFactory
+        try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/ordered_result_streaming/mybatis-config.xml")) {
+            sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+        }
+
+        // populate in-memory database
+        BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+            "org/apache/ibatis/submitted/ordered_result_streaming/CreateDB.sql");
+    }
+
+    @Test
+    void shouldStreamOrderedResultsWithinLimit() {
+        sqlSessionFactory.getConfiguration().setNestedResultObjectsLimit(3);
+        sqlSessionFactory.getConfiguration().setResultOrderedCheckWindow(10);
+        List<Order> orders = new ArrayList<>();
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            sqlSession.getMapper(Mapper.class).getOrdersOrdered(context -> {
+                Order order = context.getResultObject();
+                // each order is completed before it is handed over
+                assertEquals(2, order.getLines().size());
+                orders.add(order);
+            });
+        }
+        assertEquals(3, orders.size());
+        assertEquals("Product1", orders.get(0).getLines().get(0).getProduct());
+        assertEquals("Product4", orders.get(0).getLines().get(1).getProduct());
+        assertEquals("Product6", orders.get(2).getLines().get(1).getProduct());
+    }
+
+    @Test
+    void shouldFailWhenNestedResultObjectsLimitIsExceeded() {
+        sqlSessionFactory.getConfiguration().setNestedResultObjectsLimit(3);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            PersistenceException e = assertThrows(PersistenceException.class, mapper::getOrders);
+            assertThat(e.getCause()).isInstanceOf(ExecutorException.class)
+                .hasMessageContaining("mapped more than 3 nested result objects")
+                .hasMessageContaining("resultOrdered=true");
+        }
+    }
+
+    @Test
+    void shouldMapAllResultsWithoutLimit() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            List<Order> orders = sqlSession.getMapper(Mapper.class).getOrders();
+            assertEquals(3, orders.size());
+            assertEquals(2, orders.get(0).getLines().size());
+        }
+    }
+
+    @Test
+    void shouldFailWhenOrderedResultsAreNotGrouped() {
+        sqlSessionFactory.getConfiguration().setResultOrderedCheckWindow(10);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Cursor<Order> cursor = sqlSession.getMapper(Mapper.class).getOrdersNotGrouped();
+            Iterator<Order> iterator = cursor.iterator();
+            assertEquals(Integer.valueOf(1), iterator.next().getId());
+            assertEquals(Integer.valueOf(2), iterator.next().getId());
+            // the fourth row belongs to the first order again
+            ExecutorException e = assertThrows(ExecutorException.class, iterator::next);
+            assertThat(e).hasMessageContaining("is resultOrdered but its rows are not grouped");
+        }
+    }
+
+    @Test
+    void shouldIgnoreRepeatedEmptyRows() {
+        sqlSessionFactory.getConfiguration().setResultOrderedCheckWindow(10);
+        sqlSessionFactory.getConfiguration().setReturnInstanceForEmptyRow(true);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            // every row has the same row key and maps to no result object
+            assertThat(sqlSession.getMapper(Mapper.class).getEmptyOrders()).isEmpty();
+        }
+    }
+
+    @Test
+    void shouldNotVerifyOrderingByDefault() throws Exception {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession();
+             Cursor<Order> cursor = sqlSession.getMapper(Mapper.class).getOrdersNotGrouped()) {
+            List<Order> orders = new ArrayList<>();
+            cursor.forEach(orders::add);
+            // each group of rows becomes its own result object
+            assertEquals(6, orders.size());
+        }
+    }
+
+}
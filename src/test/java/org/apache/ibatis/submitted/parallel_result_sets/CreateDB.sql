@@ -0,0 +1,131 @@
+--
+--    Copyright 2009-2020 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+--
+drop procedure get_customer_report if exists
+go
+
+drop procedure get_customers_and_products if exists
+go
+
+drop table notes if exists
+go
+
+drop table order_lines if exists
+go
+
+drop table orders if exists
+go
+
+drop table products if exists
+go
+
+drop table customers if exists
+go
+
+create table customers (
+  id int not null primary key,
+  name varchar(20)
+)
+go
+
+create table orders (
+  id int not null primary key,
+  customer_id int,
+  total decimal(10, 2),
+  placed date
+)
+go
+
+create table order_lines (
+  order_id int,
+  line_no int,
+  product varchar(20),
+  quantity int
+)
+go
+
+create table notes (
+  customer_id int,
+  text clob,
+  attachment blob
+)
+go
+
+create table products (
+  code varchar(10),
+  price decimal(10, 2),
+  added timestamp
+)
+go
+
+insert into customers values (1, 'Alice')
+go
+insert into customers values (2, 'Bob')
+go
+insert into customers values (3, 'Carol')
+go
+
+insert into orders values (10, 1, 12.50, '2020-01-15')
+go
+insert into orders values (11, 1, 7.25, '2020-02-01')
+go
+insert into orders values (20, 2, 99.99, '2020-03-10')
+go
+
+insert into order_lines values (10, 1, 'pen', 5)
+go
+insert into order_lines values (10, 2, 'paper', 1)
+go
+insert into order_lines values (11, 1, 'ink', 2)
+go
+insert into order_lines values (20, 1, 'desk', 1)
+go
+
+insert into notes values (1, 'prefers email', X'0102')
+go
+insert into notes values (3, 'new customer', null)
+go
+
+insert into products values ('pen', 1.50, '2020-01-15 10:30:00')
+go
+insert into products values ('desk', 99.99, '2020-02-01 08:00:00')
+go
+
+create procedure get_customer_report()
+reads sql data
+dynamic result sets 4
+BEGIN ATOMIC
+  declare cur1 cursor for select * from customers order by id;
+  declare cur2 cursor for select * from orders order by id;
+  declare cur3 cursor for select * from order_lines order by order_id, line_no;
+  declare cur4 cursor for select * from notes;
+  open cur1;
+  open cur2;
+  open cur3;
+  open cur4;
+END
+go
+
+create procedure get_customers_and_products()
+reads sql data
+dynamic result sets 2
+BEGIN ATOMIC
+  declare cur1 cursor for select id, name as customer_name from customers order by id;
+  declare cur2 cursor for select * from products order by code;
+  open cur1;
+  open cur2;
+END
+go
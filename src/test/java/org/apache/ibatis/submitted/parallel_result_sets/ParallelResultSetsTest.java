@@ -0,0 +1,138 @@
+/**
+ * Copyright 2009-2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.submitted.parallel_result_sets;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ParallelResultSetsTest {
+
+    private static SqlSessionFactory sqlSessionFactory;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        // create a SqlSessionFactory
+        try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/parallel_result_sets/mybatis-config.xml")) {
+            sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+        }
+
+        // populate in-memory database
+        try (Connection connection = sqlSessionFactory.getConfiguration().getEnvironment().getDataSource().getConnection()) {
+            ScriptRunner runner = new ScriptRunner(connection);
+            runner.setDelimiter("go");
+            runner.setLogWriter(null);
+            runner.setErrorLogWriter(null);
+            BaseDataTest.runScript(runner, "org/apache/ibatis/submitted/parallel_result_sets/CreateDB.sql");
+        }
+    }
+
+    @AfterEach
+    void resetSetting() {
+        sqlSessionFactory.getConfiguration().setParallelResultSetMappingEnabled(false);
+    }
+
+    @Test
+    void shouldLinkResultSetsMappedInParallel() {
+        sqlSessionFactory.getConfiguration().setParallelResultSetMappingEnabled(true);
+        List<Customer> customers = select(Mapper::getCustomerReport);
+
+        assertEquals(3, customers.size());
+        Customer alice = customers.get(0);
+        assertEquals("Alice", alice.getName());
+        assertEquals(2, alice.getOrders().size());
+        Order firstOrder = alice.getOrders().get(0);
+        assertEquals(new BigDecimal("12.50"), firstOrder.getTotal());
+        assertEquals(LocalDate.of(2020, 1, 15), firstOrder.getPlaced());
+        assertThat(firstOrder.getLines()).extracting(OrderLine::getProduct).containsExactly("pen", "paper");
+        assertThat(alice.getOrders().get(1).getLines()).extracting(OrderLine::getQuantity).containsExactly(2);
+        assertEquals(1, alice.getNotes().size());
+        assertEquals("prefers email", alice.getNotes().get(0).getText());
+        assertThat(alice.getNotes().get(0).getAttachment()).containsExactly(1, 2);
+
+        Customer bob = customers.get(1);
+        assertThat(bob.getOrders()).extracting(Order::getId).containsExactly(20);
+        assertNull(bob.getNotes());
+
+        Customer carol = customers.get(2);
+        assertNull(carol.getOrders());
+        assertEquals("new customer", carol.getNotes().get(0).getText());
+        assertNull(carol.getNotes().get(0).getAttachment());
+    }
+
+    @Test
+    void shouldMapLinkedResultSetsLikeSequentialMapping() {
+        List<Customer> sequential = select(Mapper::getCustomerReport);
+        sqlSessionFactory.getConfiguration().setParallelResultSetMappingEnabled(true);
+        List<Customer> parallel = select(Mapper::getCustomerReport);
+
+        assertThat(parallel).usingRecursiveFieldByFieldElementComparator().isEqualTo(sequential);
+    }
+
+    @Test
+    void shouldMapIndependentResultSetsInParallel() {
+        sqlSessionFactory.getConfiguration().setParallelResultSetMappingEnabled(true);
+        List<List<Object>> results = select(Mapper::getCustomersAndProducts);
+
+        assertEquals(2, results.size());
+        assertThat(results.get(0)).extracting("name").containsExactly("Alice", "Bob", "Carol");
+        assertThat(results.get(1)).extracting("code").containsExactly("desk", "pen");
+        assertThat(results.get(1)).extracting("price").containsExactly(99.99, 1.5);
+    }
+
+    @Test
+    void shouldMapColumnsNotBufferableLikeSequentialMapping() {
+        List<List<Object>> sequential = select(Mapper::getCustomersAndProductsAdded);
+        sqlSessionFactory.getConfiguration().setParallelResultSetMappingEnabled(true);
+        List<List<Object>> parallel = select(Mapper::getCustomersAndProductsAdded);
+
+        assertThat(sequential.get(1)).extracting("added").doesNotContainNull();
+        assertThat(parallel).usingRecursiveFieldByFieldElementComparator().isEqualTo(sequential);
+    }
+
+    @Test
+    void shouldMapNestedSelectsSequentially() {
+        sqlSessionFactory.getConfiguration().setParallelResultSetMappingEnabled(true);
+        List<Customer> customers = select(Mapper::getCustomerReportWithNestedSelect);
+
+        assertThat(customers).extracting(Customer::getName).containsExactly("Alice", "Bob", "Carol");
+        assertThat(customers.get(0).getOrders()).extracting(Order::getId).containsExactly(10, 11);
+        assertEquals("prefers email", customers.get(0).getNotes().get(0).getText());
+    }
+
+    private <T> T select(Function<Mapper, T> query) {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            return query.apply(sqlSession.getMapper(Mapper.class));
+        }
+    }
+}